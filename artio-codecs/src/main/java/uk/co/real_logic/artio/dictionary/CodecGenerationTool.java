@@ -27,6 +27,11 @@ import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.*;
 
 public final class CodecGenerationTool
 {
+    /**
+     * Property name for generating an XFlyweightDecoder alongside each XDecoder, off by default
+     */
+    public static final String FLYWEIGHT_DECODERS_PROP = "fix.codecs.flyweight";
+
     public static void main(final String[] args) throws Exception
     {
         if (args.length < 2)
@@ -82,6 +87,11 @@ public final class CodecGenerationTool
         decoderGenerator.generate();
         printerGenerator.generate();
         acceptorGenerator.generate();
+
+        if (Boolean.getBoolean(FLYWEIGHT_DECODERS_PROP))
+        {
+            new FlyweightDecoderGenerator(dictionary, DECODER_PACKAGE, PARENT_PACKAGE, decoder).generate();
+        }
     }
 
     private static void printUsageAndExit()
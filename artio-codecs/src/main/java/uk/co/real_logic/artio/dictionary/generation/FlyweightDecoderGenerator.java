@@ -0,0 +1,612 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.dictionary.generation;
+
+import org.agrona.generation.OutputManager;
+import uk.co.real_logic.artio.dictionary.ir.*;
+import uk.co.real_logic.artio.dictionary.ir.Field.Type;
+import uk.co.real_logic.artio.fields.DecimalFloat;
+import uk.co.real_logic.artio.fields.FieldIndex;
+import uk.co.real_logic.artio.util.AsciiBuffer;
+
+import javax.annotation.Generated;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static java.util.stream.Collectors.joining;
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.fileHeader;
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.importFor;
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.importStaticFor;
+import static uk.co.real_logic.sbe.generation.java.JavaUtil.formatPropertyName;
+
+/**
+ * Generates flyweight decoders, an alternative to the decoders generated by {@link DecoderGenerator}.
+ *
+ * A flyweight decoder makes a single pass over the message, recording the tag, offset and length of each field
+ * in a {@link FieldIndex}. Values are only parsed out of the buffer when their getter is called and repeating
+ * groups are navigated by moving a cursor over the index rather than by creating a decoder object per entry.
+ * This is cheaper when an application only reads a few of the fields of a message.
+ *
+ * Flyweight decoders don't validate messages and reference the buffer that they decoded, so they can only be
+ * read until that buffer is reused.
+ */
+public class FlyweightDecoderGenerator
+{
+    public static String flyweightDecoderClassName(final Aggregate aggregate)
+    {
+        return aggregate.name() + "FlyweightDecoder";
+    }
+
+    private static String flyweightClassName(final Group group)
+    {
+        return group.name() + "Flyweight";
+    }
+
+    private final Dictionary dictionary;
+    private final String builderPackage;
+    private final String builderCommonPackage;
+    private final OutputManager outputManager;
+
+    public FlyweightDecoderGenerator(
+        final Dictionary dictionary,
+        final String builderPackage,
+        final String builderCommonPackage,
+        final OutputManager outputManager)
+    {
+        this.dictionary = dictionary;
+        this.builderPackage = builderPackage;
+        this.builderCommonPackage = builderCommonPackage;
+        this.outputManager = outputManager;
+    }
+
+    public void generate()
+    {
+        dictionary.messages().forEach(this::generateMessage);
+    }
+
+    private void generateMessage(final Message message)
+    {
+        final String className = flyweightDecoderClassName(message);
+
+        final List<Entry> entries = new ArrayList<>();
+        entries.addAll(dictionary.header().entries());
+        entries.addAll(message.entries());
+        entries.addAll(dictionary.trailer().entries());
+
+        final List<Group> groups = new ArrayList<>();
+        final List<Entry> fields = fieldsAndGroups(entries, groups);
+
+        outputManager.withOutput(className, (out) ->
+        {
+            out.append(fileHeader(builderPackage));
+            generateImports(out);
+            out.append(String.format(
+                "\n" +
+                "@Generated(\"%1$s\")\n" +
+                "public class %2$s\n" +
+                "{\n" +
+                "    public static final int MESSAGE_TYPE = %3$d;\n\n" +
+                "    private final FieldIndex index = new FieldIndex();\n" +
+                "    private final int[] positions = new int[%4$d];\n" +
+                "    private AsciiBuffer buffer;\n\n" +
+                "    public %2$s()\n" +
+                "    {\n" +
+                "        Arrays.fill(positions, MISSING);\n" +
+                "    }\n\n" +
+                "    public int decode(final AsciiBuffer buffer, final int offset, final int length)\n" +
+                "    {\n" +
+                "        this.buffer = buffer;\n" +
+                "        final FieldIndex index = this.index;\n" +
+                "        final int[] positions = this.positions;\n" +
+                "        Arrays.fill(positions, MISSING);\n" +
+                "        final int decodedLength = index.index(buffer, offset, length);\n" +
+                "        final int size = index.size();\n" +
+                "        for (int position = 0; position < size; position++)\n" +
+                "        {\n" +
+                "            final int tag = index.tag(position);\n" +
+                "            final int slot = slotOf(tag);\n" +
+                "            if (slot != MISSING && positions[slot] == MISSING)\n" +
+                "            {\n" +
+                "                positions[slot] = position;\n" +
+                "            }\n\n" +
+                "            // Only index top level fields, entries are found by their group's cursor\n" +
+                "            while (position + 1 < size && isGroupField(tag, index.tag(position + 1)))\n" +
+                "            {\n" +
+                "                position++;\n" +
+                "            }\n" +
+                "        }\n\n" +
+                "        return decodedLength;\n" +
+                "    }\n\n" +
+                "    public void reset()\n" +
+                "    {\n" +
+                "        index.reset();\n" +
+                "        Arrays.fill(positions, MISSING);\n" +
+                "    }\n\n" +
+                "    private static int slotOf(final int tag)\n" +
+                "    {\n" +
+                "        switch (tag)\n" +
+                "        {\n" +
+                "%5$s" +
+                "            default: return MISSING;\n" +
+                "        }\n" +
+                "    }\n\n" +
+                "    private static boolean isGroupField(final int countTag, final int tag)\n" +
+                "    {\n" +
+                "        switch (countTag)\n" +
+                "        {\n" +
+                "%6$s" +
+                "            default: return false;\n" +
+                "        }\n" +
+                "    }\n\n" +
+                "    private int positionOf(final int slot, final int tag)\n" +
+                "    {\n" +
+                "        final int position = positions[slot];\n" +
+                "        if (position == MISSING)\n" +
+                "        {\n" +
+                "            throw new IllegalArgumentException(\"No value for field: \" + tag);\n" +
+                "        }\n\n" +
+                "        return position;\n" +
+                "    }\n\n",
+                FlyweightDecoderGenerator.class.getName(),
+                className,
+                message.packedType(),
+                fields.size(),
+                slotCases(fields),
+                groupFieldCases(groups)));
+
+            for (int slot = 0; slot < fields.size(); slot++)
+            {
+                final Entry entry = fields.get(slot);
+                final int tag = tagOf(entry);
+                out.append(fieldGetters(
+                    entry,
+                    String.format("positionOf(%d, %d)", slot, tag),
+                    String.format("positions[%d] != MISSING", slot),
+                    ""));
+            }
+
+            for (final Group group : groups)
+            {
+                final int slot = slotOf(fields, tagOf(group.numberField()));
+                out.append(groupAccessor(group, String.format("positions[%d]", slot), "index.size()", ""));
+                out.append(groupClass(group, ""));
+            }
+
+            out.append("}\n");
+        });
+    }
+
+    private void generateImports(final Writer out) throws IOException
+    {
+        out
+            .append(importFor(DecimalFloat.class))
+            .append(importFor(FieldIndex.class))
+            .append(importFor(AsciiBuffer.class))
+            .append(importFor(Generated.class))
+            .append(importFor(Arrays.class))
+            .append(importFor(NoSuchElementException.class))
+            .append(importStaticFor(FieldIndex.class, "MISSING"));
+
+        if (!builderPackage.equals(builderCommonPackage) && !builderCommonPackage.isEmpty())
+        {
+            out.append(importFor(builderCommonPackage + ".*"));
+        }
+    }
+
+    private String slotCases(final List<Entry> fields)
+    {
+        final StringBuilder cases = new StringBuilder();
+        for (int slot = 0; slot < fields.size(); slot++)
+        {
+            cases.append(String.format("            case %d: return %d;\n", tagOf(fields.get(slot)), slot));
+        }
+
+        return cases.toString();
+    }
+
+    private String groupFieldCases(final List<Group> groups)
+    {
+        final StringBuilder cases = new StringBuilder();
+        for (final Group group : groups)
+        {
+            final int delimiterTag = delimiterTag(group.entries());
+            cases.append(String.format(
+                "            case %d:\n" +
+                "                switch (tag)\n" +
+                "                {\n" +
+                "                    case %d:\n",
+                tagOf(group.numberField()),
+                delimiterTag));
+            entryTags(group)
+                .stream()
+                .distinct()
+                .filter((tag) -> tag != delimiterTag)
+                .forEach((tag) -> cases.append(String.format("                    case %d:\n", tag)));
+            cases.append(
+                "                        return true;\n\n" +
+                "                    default:\n" +
+                "                        return false;\n" +
+                "                }\n\n");
+        }
+
+        return cases.toString();
+    }
+
+    private String groupAccessor(
+        final Group group, final String countPosition, final String limit, final String indent)
+    {
+        final String propertyName = formatPropertyName(group.name());
+        return indented(indent, String.format(
+            "    private final %1$s %2$s = new %1$s();\n\n" +
+            "    public %1$s %2$s()\n" +
+            "    {\n" +
+            "        %2$s.wrap(%3$s, %4$s);\n" +
+            "        return %2$s;\n" +
+            "    }\n\n",
+            flyweightClassName(group),
+            propertyName,
+            countPosition,
+            limit));
+    }
+
+    private String groupClass(final Group group, final String indent)
+    {
+        final List<Group> nestedGroups = new ArrayList<>();
+        final List<Entry> fields = fieldsAndGroups(group.entries(), nestedGroups);
+
+        final int delimiterTag = delimiterTag(group.entries());
+        final String entryFieldCases = entryTags(group)
+            .stream()
+            .distinct()
+            .filter((tag) -> tag != delimiterTag)
+            .map((tag) -> String.format("            case %d:\n", tag))
+            .collect(joining());
+
+        final StringBuilder body = new StringBuilder();
+        body.append(String.format(
+            "    public final class %1$s\n" +
+            "    {\n" +
+            "        private int remaining;\n" +
+            "        private int entryStart;\n" +
+            "        private int entryEnd;\n" +
+            "        private int limit;\n\n" +
+            "        private void wrap(final int countPosition, final int limit)\n" +
+            "        {\n" +
+            "            this.limit = limit;\n" +
+            "            if (countPosition == MISSING)\n" +
+            "            {\n" +
+            "                remaining = 0;\n" +
+            "                entryEnd = limit;\n" +
+            "            }\n" +
+            "            else\n" +
+            "            {\n" +
+            "                remaining = buffer.getInt(index.valueOffset(countPosition), " +
+            "index.valueEnd(countPosition));\n" +
+            "                entryEnd = countPosition + 1;\n" +
+            "            }\n" +
+            "            entryStart = entryEnd;\n" +
+            "        }\n\n" +
+            "        public boolean hasNext()\n" +
+            "        {\n" +
+            "            return remaining > 0 && entryEnd < limit && index.tag(entryEnd) == %2$d;\n" +
+            "        }\n\n" +
+            "        public %1$s next()\n" +
+            "        {\n" +
+            "            if (!hasNext())\n" +
+            "            {\n" +
+            "                throw new NoSuchElementException();\n" +
+            "            }\n\n" +
+            "            remaining--;\n" +
+            "            entryStart = entryEnd;\n" +
+            "            int position = entryStart + 1;\n" +
+            "            while (position < limit && isEntryField(index.tag(position)))\n" +
+            "            {\n" +
+            "                position++;\n" +
+            "            }\n" +
+            "            entryEnd = position;\n\n" +
+            "            return this;\n" +
+            "        }\n\n" +
+            "        private boolean isEntryField(final int tag)\n" +
+            "        {\n" +
+            "            switch (tag)\n" +
+            "            {\n" +
+            "%3$s" +
+            "%4$s" +
+            "            default:\n" +
+            "                return false;\n" +
+            "            }\n" +
+            "        }\n\n" +
+            "        private int positionOf(final int tag)\n" +
+            "        {\n" +
+            "            final int position = index.find(tag, entryStart, entryEnd);\n" +
+            "            if (position == MISSING)\n" +
+            "            {\n" +
+            "                throw new IllegalArgumentException(\"No value for field: \" + tag);\n" +
+            "            }\n\n" +
+            "            return position;\n" +
+            "        }\n\n",
+            flyweightClassName(group),
+            delimiterTag,
+            entryFieldCases,
+            entryFieldCases.isEmpty() ? "" : "                return true;\n\n"));
+
+        for (final Entry entry : fields)
+        {
+            final int tag = tagOf(entry);
+            body.append(fieldGetters(
+                entry,
+                String.format("positionOf(%d)", tag),
+                String.format("index.find(%d, entryStart, entryEnd) != MISSING", tag),
+                "    "));
+        }
+
+        for (final Group nestedGroup : nestedGroups)
+        {
+            final String countPosition = String.format(
+                "index.find(%d, entryStart, entryEnd)", tagOf(nestedGroup.numberField()));
+            body.append(groupAccessor(nestedGroup, countPosition, "entryEnd", "    "));
+            body.append(groupClass(nestedGroup, "    "));
+        }
+
+        body.append("    }\n\n");
+
+        return indented(indent, body.toString());
+    }
+
+    private String fieldGetters(
+        final Entry entry, final String lookupPosition, final String hasField, final String indent)
+    {
+        final Field field = (Field)entry.element();
+        final String name = field.name();
+        final String fieldName = formatPropertyName(name);
+        final Type type = field.type();
+
+        final String hasGetter = String.format(
+            "    public boolean has%1$s()\n" +
+            "    {\n" +
+            "        return %2$s;\n" +
+            "    }\n\n",
+            name,
+            hasField);
+
+        final String getters;
+        switch (type)
+        {
+            case INT:
+            case LENGTH:
+            case SEQNUM:
+            case NUMINGROUP:
+            case DAYOFMONTH:
+                getters = valueGetter("int", fieldName, lookupPosition,
+                    "buffer.getInt(index.valueOffset(position), index.valueEnd(position))");
+                break;
+
+            case FLOAT:
+            case PRICE:
+            case PRICEOFFSET:
+            case QTY:
+            case PERCENTAGE:
+            case AMT:
+                getters =
+                    String.format("    private final DecimalFloat %1$sValue = new DecimalFloat();\n\n", fieldName) +
+                    valueGetter("DecimalFloat", fieldName, lookupPosition, String.format(
+                    "buffer.getFloat(%1$sValue, index.valueOffset(position), index.valueLength(position))", fieldName));
+                break;
+
+            case CHAR:
+                getters = valueGetter("char", fieldName, lookupPosition,
+                    "buffer.getChar(index.valueOffset(position))");
+                break;
+
+            case BOOLEAN:
+                getters = valueGetter("boolean", fieldName, lookupPosition,
+                    "buffer.getBoolean(index.valueOffset(position))");
+                break;
+
+            case STRING:
+            case MULTIPLEVALUESTRING:
+            case CURRENCY:
+            case EXCHANGE:
+            case COUNTRY:
+                getters = lengthGetter(fieldName, lookupPosition) +
+                    copyingGetter("char", fieldName, lookupPosition, "getChars") +
+                    valueGetter("String", fieldName + "AsString", lookupPosition,
+                    "buffer.getAscii(index.valueOffset(position), index.valueLength(position))");
+                break;
+
+            case UTCTIMESTAMP:
+                getters = lengthGetter(fieldName, lookupPosition) +
+                    copyingGetter("byte", fieldName, lookupPosition, "getBytes") +
+                    valueGetter("long", fieldName + "AsEpochMillis", lookupPosition,
+                    "buffer.getUtcTimestamp(index.valueOffset(position), index.valueLength(position))");
+                break;
+
+            case DATA:
+            case UTCTIMEONLY:
+            case UTCDATEONLY:
+            case MONTHYEAR:
+            case LOCALMKTDATE:
+                getters = lengthGetter(fieldName, lookupPosition) +
+                    copyingGetter("byte", fieldName, lookupPosition, "getBytes");
+                break;
+
+            default:
+                throw new UnsupportedOperationException("Unknown type: " + type);
+        }
+
+        final boolean hasPrimitiveEnum =
+            EnumGenerator.hasEnumGenerated(field) && (type.isIntBased() || type == Type.CHAR);
+        final String enumGetter = hasPrimitiveEnum ? String.format(
+            "    public %1$s %2$sAsEnum()\n" +
+            "    {\n" +
+            "        return %1$s.decode(%2$s());\n" +
+            "    }\n\n",
+            name,
+            fieldName) : "";
+
+        return indented(indent, hasGetter + getters + enumGetter);
+    }
+
+    private String valueGetter(
+        final String javaType, final String methodName, final String lookupPosition, final String decode)
+    {
+        return String.format(
+            "    public %1$s %2$s()\n" +
+            "    {\n" +
+            "        final int position = %3$s;\n" +
+            "        return %4$s;\n" +
+            "    }\n\n",
+            javaType,
+            methodName,
+            lookupPosition,
+            decode);
+    }
+
+    private String lengthGetter(final String fieldName, final String lookupPosition)
+    {
+        return String.format(
+            "    public int %1$sLength()\n" +
+            "    {\n" +
+            "        return index.valueLength(%2$s);\n" +
+            "    }\n\n",
+            fieldName,
+            lookupPosition);
+    }
+
+    private String copyingGetter(
+        final String elementType, final String fieldName, final String lookupPosition, final String bufferMethod)
+    {
+        return String.format(
+            "    /**\n" +
+            "     * Copy the value into destination, or into a new array if destination is too small.\n" +
+            "     */\n" +
+            "    public %1$s[] %2$s(final %1$s[] destination)\n" +
+            "    {\n" +
+            "        final int position = %3$s;\n" +
+            "        return buffer.%4$s(destination, index.valueOffset(position), index.valueLength(position));\n" +
+            "    }\n\n",
+            elementType,
+            fieldName,
+            lookupPosition,
+            bufferMethod);
+    }
+
+    /**
+     * Flattens components into a list of the fields that can be read directly, including the counter fields
+     * of groups, with one entry per tag.
+     */
+    private static List<Entry> fieldsAndGroups(final List<Entry> entries, final List<Group> groups)
+    {
+        final List<Entry> allFields = new ArrayList<>();
+        collectEntries(entries, allFields, groups);
+        groups.forEach((group) -> allFields.add(group.numberField()));
+
+        final List<Entry> fields = new ArrayList<>();
+        final Set<Integer> tags = new HashSet<>();
+        for (final Entry entry : allFields)
+        {
+            if (tags.add(tagOf(entry)))
+            {
+                fields.add(entry);
+            }
+        }
+
+        return fields;
+    }
+
+    private static int slotOf(final List<Entry> fields, final int tag)
+    {
+        for (int slot = 0; slot < fields.size(); slot++)
+        {
+            if (tagOf(fields.get(slot)) == tag)
+            {
+                return slot;
+            }
+        }
+
+        throw new IllegalArgumentException("No field with tag: " + tag);
+    }
+
+    private static int delimiterTag(final List<Entry> entries)
+    {
+        final Entry first = entries.get(0);
+        return first.match(
+            (entry, field) -> field.number(),
+            (entry, group) -> tagOf(group.numberField()),
+            (entry, component) -> delimiterTag(component.entries()));
+    }
+
+    private static void collectEntries(final List<Entry> entries, final List<Entry> fields, final List<Group> groups)
+    {
+        for (final Entry entry : entries)
+        {
+            final Entry.Element element = entry.element();
+            if (element instanceof Field)
+            {
+                fields.add(entry);
+            }
+            else if (element instanceof Group)
+            {
+                groups.add((Group)element);
+            }
+            else if (element instanceof Component)
+            {
+                collectEntries(((Component)element).entries(), fields, groups);
+            }
+        }
+    }
+
+    private static List<Integer> entryTags(final Group group)
+    {
+        final List<Entry> fields = new ArrayList<>();
+        final List<Group> nestedGroups = new ArrayList<>();
+        collectEntries(group.entries(), fields, nestedGroups);
+
+        final List<Integer> tags = new ArrayList<>();
+        fields.forEach((entry) -> tags.add(tagOf(entry)));
+        for (final Group nestedGroup : nestedGroups)
+        {
+            tags.add(tagOf(nestedGroup.numberField()));
+            tags.addAll(entryTags(nestedGroup));
+        }
+
+        return tags;
+    }
+
+    private static int tagOf(final Entry entry)
+    {
+        return ((Field)entry.element()).number();
+    }
+
+    private static String indented(final String indent, final String code)
+    {
+        if (indent.isEmpty())
+        {
+            return code;
+        }
+
+        return Arrays
+            .stream(code.split("\n", -1))
+            .map((line) -> line.isEmpty() ? line : indent + line)
+            .collect(joining("\n"));
+    }
+}
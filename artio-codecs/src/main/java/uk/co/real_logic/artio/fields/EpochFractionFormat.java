@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.fields;
+
+import static uk.co.real_logic.artio.fields.CalendricalUtil.SECONDS_IN_DAY;
+
+/**
+ * The precision of the fraction of a second in a UTC timestamp, and so the unit of the epoch times that are
+ * encoded into and decoded from it.
+ */
+public enum EpochFractionFormat
+{
+    MILLISECONDS(1_000L, 3, UtcTimestampDecoder.MIN_EPOCH_MILLIS, UtcTimestampDecoder.MAX_EPOCH_MILLIS),
+    MICROSECONDS(1_000_000L, 6, UtcTimestampDecoder.MIN_EPOCH_MICROS, UtcTimestampDecoder.MAX_EPOCH_MICROS),
+    NANOSECONDS(1_000_000_000L, 9, UtcTimestampDecoder.MIN_EPOCH_NANOS, UtcTimestampDecoder.MAX_EPOCH_NANOS);
+
+    private final long unitsInSecond;
+    private final long unitsInDay;
+    private final int fractionDigits;
+    private final long minEpochTime;
+    private final long maxEpochTime;
+
+    EpochFractionFormat(
+        final long unitsInSecond, final int fractionDigits, final long minEpochTime, final long maxEpochTime)
+    {
+        this.unitsInSecond = unitsInSecond;
+        this.unitsInDay = unitsInSecond * SECONDS_IN_DAY;
+        this.fractionDigits = fractionDigits;
+        this.minEpochTime = minEpochTime;
+        this.maxEpochTime = maxEpochTime;
+    }
+
+    public long unitsInSecond()
+    {
+        return unitsInSecond;
+    }
+
+    public long unitsInDay()
+    {
+        return unitsInDay;
+    }
+
+    public int fractionDigits()
+    {
+        return fractionDigits;
+    }
+
+    public long minEpochTime()
+    {
+        return minEpochTime;
+    }
+
+    public long maxEpochTime()
+    {
+        return maxEpochTime;
+    }
+
+    /**
+     * Convert a time in another format into the units of this format, truncating any finer precision.
+     *
+     * @param time         the time to convert.
+     * @param sourceFormat the format that the time is in.
+     * @return the time in the units of this format.
+     */
+    public long convert(final long time, final EpochFractionFormat sourceFormat)
+    {
+        final long sourceUnitsInSecond = sourceFormat.unitsInSecond;
+        if (sourceUnitsInSecond >= unitsInSecond)
+        {
+            return Math.floorDiv(time, sourceUnitsInSecond / unitsInSecond);
+        }
+
+        return time * (unitsInSecond / sourceUnitsInSecond);
+    }
+
+    /**
+     * The length of a timestamp in this format including its fraction of a second.
+     *
+     * @return the length of a timestamp in this format including its fraction of a second.
+     */
+    public int length()
+    {
+        return UtcTimestampEncoder.LENGTH_WITHOUT_MILLISECONDS + 1 + fractionDigits;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.fields;
+
+import uk.co.real_logic.artio.util.AsciiBuffer;
+
+import java.util.Arrays;
+
+import static uk.co.real_logic.artio.dictionary.StandardFixConstants.START_OF_HEADER;
+import static uk.co.real_logic.artio.util.AsciiBuffer.UNKNOWN_INDEX;
+
+/**
+ * Records the tag, value offset and value length of every field in a FIX message, in the order that they
+ * appear, without decoding any of the values.
+ *
+ * Used by the generated flyweight decoders, which parse values out of the buffer when a getter is called.
+ */
+public final class FieldIndex
+{
+    public static final int MISSING = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] tags = new int[INITIAL_CAPACITY];
+    private int[] valueOffsets = new int[INITIAL_CAPACITY];
+    private int[] valueLengths = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Index the fields of a message, replacing anything previously indexed.
+     *
+     * @param buffer the buffer containing the message.
+     * @param offset the offset of the start of the message.
+     * @param length the length of the message.
+     * @return the number of bytes that were indexed.
+     */
+    public int index(final AsciiBuffer buffer, final int offset, final int length)
+    {
+        size = 0;
+        final int end = offset + length;
+        final int lastIndex = end - 1;
+        int position = offset;
+        while (position < end)
+        {
+            final int equalsPosition = buffer.scan(position, lastIndex, '=');
+            if (equalsPosition == UNKNOWN_INDEX)
+            {
+                break;
+            }
+
+            final int valueOffset = equalsPosition + 1;
+            int endOfField = buffer.scan(valueOffset, lastIndex, START_OF_HEADER);
+            if (endOfField == UNKNOWN_INDEX)
+            {
+                endOfField = end;
+            }
+
+            add(buffer.getInt(position, equalsPosition), valueOffset, endOfField - valueOffset);
+            position = endOfField + 1;
+        }
+
+        return Math.min(position, end) - offset;
+    }
+
+    public void reset()
+    {
+        size = 0;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public int tag(final int position)
+    {
+        return tags[position];
+    }
+
+    public int valueOffset(final int position)
+    {
+        return valueOffsets[position];
+    }
+
+    public int valueLength(final int position)
+    {
+        return valueLengths[position];
+    }
+
+    public int valueEnd(final int position)
+    {
+        return valueOffsets[position] + valueLengths[position];
+    }
+
+    /**
+     * Find the first occurrence of a tag within a range of indexed fields.
+     *
+     * @param tag the tag to search for.
+     * @param fromPosition the first position to search, inclusive.
+     * @param toPosition the last position to search, exclusive.
+     * @return the position of the field or {@link #MISSING} if it isn't in the range.
+     */
+    public int find(final int tag, final int fromPosition, final int toPosition)
+    {
+        final int[] tags = this.tags;
+        for (int position = fromPosition; position < toPosition; position++)
+        {
+            if (tags[position] == tag)
+            {
+                return position;
+            }
+        }
+
+        return MISSING;
+    }
+
+    private void add(final int tag, final int valueOffset, final int valueLength)
+    {
+        final int position = size;
+        if (position == tags.length)
+        {
+            final int newCapacity = position * 2;
+            tags = Arrays.copyOf(tags, newCapacity);
+            valueOffsets = Arrays.copyOf(valueOffsets, newCapacity);
+            valueLengths = Arrays.copyOf(valueLengths, newCapacity);
+        }
+
+        tags[position] = tag;
+        valueOffsets[position] = valueOffset;
+        valueLengths[position] = valueLength;
+        size = position + 1;
+    }
+}
@@ -22,7 +22,7 @@ import static uk.co.real_logic.artio.fields.CalendricalUtil.*;
 import static uk.co.real_logic.artio.fields.UtcDateOnlyDecoder.LENGTH;
 
 /**
- * "HH:mm:ss[.SSS]"
+ * "HH:mm:ss[.SSS]", or with up to 9 digits for the fraction of a second when decoding to a finer precision.
  */
 public final class UtcTimeOnlyDecoder
 {
@@ -43,6 +43,12 @@ public final class UtcTimeOnlyDecoder
     }
 
     public static long decode(final AsciiBuffer time, final int offset, final int length)
+    {
+        return decode(time, offset, length, EpochFractionFormat.MILLISECONDS);
+    }
+
+    static long decode(
+        final AsciiBuffer time, final int offset, final int length, final EpochFractionFormat format)
     {
         final int startHour = offset + LENGTH + 1;
         final int endHour = startHour + 2;
@@ -53,24 +59,30 @@ public final class UtcTimeOnlyDecoder
         final int startSecond = endMinute + 1;
         final int endSecond = startSecond + 2;
 
-        final int startMillisecond = endSecond + 1;
-        final int endMillisecond = startMillisecond + 3;
+        final int startFraction = endSecond + 1;
 
         final int hour = getValidInt(time, startHour, endHour, 0, 23);
         final int minute = getValidInt(time, startMinute, endMinute, 0, 59);
         final int second = getValidInt(time, startSecond, endSecond, 0, 60);
-        final int millisecond;
-        if (offset + length > endSecond && time.isDigit(startMillisecond))
+
+        // Digits beyond the precision of the format are truncated and missing digits are treated as 0
+        final int fractionDigits = format.fractionDigits();
+        final int end = offset + length;
+        int fractionOfSecond = 0;
+        int digits = 0;
+        for (int i = startFraction; i < end && digits < fractionDigits && time.isDigit(i); i++)
         {
-            millisecond = time.getNatural(startMillisecond, endMillisecond);
+            fractionOfSecond = fractionOfSecond * 10 + time.getDigit(i);
+            digits++;
         }
-        else
+
+        for (; digits < fractionDigits; digits++)
         {
-            millisecond = 0;
+            fractionOfSecond *= 10;
         }
 
         final int secondOfDay = hour * SECONDS_IN_HOUR + minute * SECONDS_IN_MINUTE + second;
 
-        return secondOfDay * MILLIS_IN_SECOND + millisecond;
+        return secondOfDay * format.unitsInSecond() + fractionOfSecond;
     }
 }
@@ -18,22 +18,29 @@ package uk.co.real_logic.artio.fields;
 import uk.co.real_logic.artio.util.AsciiBuffer;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
-import static uk.co.real_logic.artio.fields.CalendricalUtil.MILLIS_IN_DAY;
-
 /**
  * Parser for Fix's UTC timestamps - see http://fixwiki.org/fixwiki/UTCTimestampDataType for details
  * <p>
  * Equivalent to a Java format string of "yyyyMMdd-HH:mm:ss[.SSS]". The builtin parsers could cope with
  * this situation, but allocate and perform poorly.
  * <p>
+ * Timestamps can also be decoded to microseconds or nanoseconds, in which case up to 6 or 9 digits of the fraction
+ * of a second are used. Nanosecond times only fit into a long between the years 1677 and 2262.
  */
 public final class UtcTimestampDecoder
 {
     public static final long MIN_EPOCH_MILLIS = -62135596800000L;
     public static final long MAX_EPOCH_MILLIS = 253402300799999L;
 
+    public static final long MIN_EPOCH_MICROS = MIN_EPOCH_MILLIS * 1_000L;
+    public static final long MAX_EPOCH_MICROS = MAX_EPOCH_MILLIS * 1_000L + 999L;
+    public static final long MIN_EPOCH_NANOS = Long.MIN_VALUE;
+    public static final long MAX_EPOCH_NANOS = Long.MAX_VALUE;
+
     public static final int SHORT_LENGTH = 17;
     public static final int LONG_LENGTH = 21;
+    public static final int LONG_LENGTH_MICROS = 24;
+    public static final int LONG_LENGTH_NANOS = 27;
 
     private final AsciiBuffer buffer = new MutableAsciiBuffer();
 
@@ -48,6 +55,18 @@ public final class UtcTimestampDecoder
         return decode(bytes, bytes.length);
     }
 
+    public long decodeMicros(final byte[] bytes, final int length)
+    {
+        buffer.wrap(bytes);
+        return decodeMicros(buffer, 0, length);
+    }
+
+    public long decodeNanos(final byte[] bytes, final int length)
+    {
+        buffer.wrap(bytes);
+        return decodeNanos(buffer, 0, length);
+    }
+
     /**
      * @param timestamp
      * @param offset
@@ -55,10 +74,38 @@ public final class UtcTimestampDecoder
      * @return the number of milliseconds since the Unix Epoch that represents this timestamp
      */
     public static long decode(final AsciiBuffer timestamp, final int offset, final int length)
+    {
+        return decode(timestamp, offset, length, EpochFractionFormat.MILLISECONDS);
+    }
+
+    /**
+     * @param timestamp
+     * @param offset
+     * @param length
+     * @return the number of microseconds since the Unix Epoch that represents this timestamp
+     */
+    public static long decodeMicros(final AsciiBuffer timestamp, final int offset, final int length)
+    {
+        return decode(timestamp, offset, length, EpochFractionFormat.MICROSECONDS);
+    }
+
+    /**
+     * @param timestamp
+     * @param offset
+     * @param length
+     * @return the number of nanoseconds since the Unix Epoch that represents this timestamp
+     */
+    public static long decodeNanos(final AsciiBuffer timestamp, final int offset, final int length)
+    {
+        return decode(timestamp, offset, length, EpochFractionFormat.NANOSECONDS);
+    }
+
+    public static long decode(
+        final AsciiBuffer timestamp, final int offset, final int length, final EpochFractionFormat format)
     {
         final long epochDay = UtcDateOnlyDecoder.decode(timestamp, offset);
-        final long millisecondOfDay = UtcTimeOnlyDecoder.decode(timestamp, offset, length);
-        return epochDay * MILLIS_IN_DAY + millisecondOfDay;
+        final long fractionOfDay = UtcTimeOnlyDecoder.decode(timestamp, offset, length, format);
+        return epochDay * format.unitsInDay() + fractionOfDay;
     }
 
 }
@@ -21,70 +21,93 @@ import java.util.concurrent.TimeUnit;
 
 import static uk.co.real_logic.artio.fields.CalendricalUtil.*;
 
+/**
+ * Encodes epoch times as FIX UTC timestamps.
+ *
+ * The precision of the fraction of a second is set by an {@link EpochFractionFormat}, and the instance methods take
+ * times in the units of that format. Millisecond timestamps leave out a zero fraction of a second, as they always
+ * have. Microsecond and nanosecond timestamps are always written at their full length.
+ */
 public final class UtcTimestampEncoder
 {
     public static final long MIN_EPOCH_MILLIS = UtcTimestampDecoder.MIN_EPOCH_MILLIS;
     public static final long MAX_EPOCH_MILLIS = UtcTimestampDecoder.MAX_EPOCH_MILLIS;
+    public static final long MIN_EPOCH_MICROS = UtcTimestampDecoder.MIN_EPOCH_MICROS;
+    public static final long MAX_EPOCH_MICROS = UtcTimestampDecoder.MAX_EPOCH_MICROS;
+    public static final long MIN_EPOCH_NANOS = UtcTimestampDecoder.MIN_EPOCH_NANOS;
+    public static final long MAX_EPOCH_NANOS = UtcTimestampDecoder.MAX_EPOCH_NANOS;
 
     public static final long DAY_IN_MILLIS = TimeUnit.DAYS.toMillis(1);
     public static final int LENGTH_WITH_MILLISECONDS = 21;
+    public static final int LENGTH_WITH_MICROSECONDS = 24;
+    public static final int LENGTH_WITH_NANOSECONDS = 27;
     public static final int LENGTH_WITHOUT_MILLISECONDS = 17;
     public static final int LENGTH_OF_DATE = 8;
     public static final int LENGTH_OF_DATE_AND_DASH = LENGTH_OF_DATE + 1;
 
-    private final byte[] bytes = new byte[LENGTH_WITH_MILLISECONDS];
+    // Big enough for any format so that callers can copy a timestamp of a different precision out of it.
+    private final byte[] bytes = new byte[LENGTH_WITH_NANOSECONDS];
     private final MutableAsciiBuffer flyweight = new MutableAsciiBuffer(bytes);
+    private final EpochFractionFormat format;
+    private final long unitsInSecond;
+    private final long unitsInDay;
 
-    private long startOfNextDayInMs;
-    private long beginningOfDayInMs;
+    private long startOfNextDay;
+    private long beginningOfDay;
 
     public UtcTimestampEncoder()
     {
+        this(EpochFractionFormat.MILLISECONDS);
+    }
+
+    public UtcTimestampEncoder(final EpochFractionFormat format)
+    {
+        this.format = format;
+        unitsInSecond = format.unitsInSecond();
+        unitsInDay = format.unitsInDay();
         flyweight.wrap(bytes);
     }
 
     /**
      * Encode the current time into the buffer as an ascii UTC String
      *
-     * @param epochMillis the current time as the number of milliseconds since the start of the UNIX Epoch.
+     * @param epochFraction the current time as the number of units of this encoder's format since the start of
+     *                      the UNIX Epoch, eg: milliseconds by default.
      * @return the length of the encoded data in the flyweight.
      */
-    public int encode(final long epochMillis)
+    public int encode(final long epochFraction)
     {
-        return encode(epochMillis, flyweight, 0);
+        return encode(epochFraction, flyweight, 0, format);
     }
 
-    public int initialise(final long epochMillis)
+    public int initialise(final long epochFraction)
     {
-        validate(epochMillis);
+        validate(epochFraction, format);
 
-        final long localSecond = localSecond(epochMillis);
+        final long localSecond = Math.floorDiv(epochFraction, unitsInSecond);
         final long epochDay = epochDay(localSecond);
-        final int fractionOfSecond = fractionOfSecond(epochMillis);
+        final int fractionOfSecond = (int)Math.floorMod(epochFraction, unitsInSecond);
 
-        startOfNextDayInMs = (epochDay + 1) * DAY_IN_MILLIS;
-        beginningOfDayInMs = startOfNextDayInMs - DAY_IN_MILLIS;
+        startOfNextDay = (epochDay + 1) * unitsInDay;
+        beginningOfDay = startOfNextDay - unitsInDay;
 
         encodeDate(epochDay, flyweight, 0);
         flyweight.putChar(LENGTH_OF_DATE, '-');
-        UtcTimeOnlyEncoder.encode(localSecond, fractionOfSecond, flyweight, LENGTH_OF_DATE_AND_DASH);
 
-        return fractionOfSecond > 0 ? LENGTH_WITH_MILLISECONDS : LENGTH_WITHOUT_MILLISECONDS;
+        return encodeTime(localSecond, fractionOfSecond, flyweight, LENGTH_OF_DATE_AND_DASH, format);
     }
 
-    public int update(final long epochMillis)
+    public int update(final long epochFraction)
     {
-        if (epochMillis > startOfNextDayInMs || epochMillis < beginningOfDayInMs)
+        if (epochFraction > startOfNextDay || epochFraction < beginningOfDay)
         {
-            return initialise(epochMillis);
+            return initialise(epochFraction);
         }
 
-        final long localSecond = localSecond(epochMillis);
-        final int fractionOfSecond = fractionOfSecond(epochMillis);
-
-        UtcTimeOnlyEncoder.encode(localSecond, fractionOfSecond, flyweight, LENGTH_OF_DATE_AND_DASH);
+        final long localSecond = Math.floorDiv(epochFraction, unitsInSecond);
+        final int fractionOfSecond = (int)Math.floorMod(epochFraction, unitsInSecond);
 
-        return fractionOfSecond > 0 ? LENGTH_WITH_MILLISECONDS : LENGTH_WITHOUT_MILLISECONDS;
+        return encodeTime(localSecond, fractionOfSecond, flyweight, LENGTH_OF_DATE_AND_DASH, format);
     }
 
     public byte[] buffer()
@@ -92,41 +115,74 @@ public final class UtcTimestampEncoder
         return bytes;
     }
 
+    public EpochFractionFormat format()
+    {
+        return format;
+    }
+
     public static int encode(final long epochMillis, final MutableAsciiBuffer string, final int offset)
     {
-        validate(epochMillis);
+        return encode(epochMillis, string, offset, EpochFractionFormat.MILLISECONDS);
+    }
+
+    public static int encodeMicros(final long epochMicros, final MutableAsciiBuffer string, final int offset)
+    {
+        return encode(epochMicros, string, offset, EpochFractionFormat.MICROSECONDS);
+    }
+
+    public static int encodeNanos(final long epochNanos, final MutableAsciiBuffer string, final int offset)
+    {
+        return encode(epochNanos, string, offset, EpochFractionFormat.NANOSECONDS);
+    }
+
+    public static int encode(
+        final long epochFraction,
+        final MutableAsciiBuffer string,
+        final int offset,
+        final EpochFractionFormat format)
+    {
+        validate(epochFraction, format);
 
-        final long localSecond = localSecond(epochMillis);
+        final long unitsInSecond = format.unitsInSecond();
+        final long localSecond = Math.floorDiv(epochFraction, unitsInSecond);
         final long epochDay = epochDay(localSecond);
-        final int fractionOfSecond = fractionOfSecond(epochMillis);
+        final int fractionOfSecond = (int)Math.floorMod(epochFraction, unitsInSecond);
 
         encodeDate(epochDay, string, offset);
         string.putChar(offset + LENGTH_OF_DATE, '-');
-        UtcTimeOnlyEncoder.encode(localSecond, fractionOfSecond, string, offset + LENGTH_OF_DATE_AND_DASH);
 
-        return fractionOfSecond > 0 ? LENGTH_WITH_MILLISECONDS : LENGTH_WITHOUT_MILLISECONDS;
+        return encodeTime(localSecond, fractionOfSecond, string, offset + LENGTH_OF_DATE_AND_DASH, format);
     }
 
-    private static long epochDay(final long localSecond)
+    private static int encodeTime(
+        final long localSecond,
+        final int fractionOfSecond,
+        final MutableAsciiBuffer string,
+        final int offset,
+        final EpochFractionFormat format)
     {
-        return Math.floorDiv(localSecond, SECONDS_IN_DAY);
-    }
+        UtcTimeOnlyEncoder.encodeSecond(localSecond, string, offset);
 
-    private static int fractionOfSecond(final long epochMillis)
-    {
-        return (int)(Math.floorMod(epochMillis, MILLIS_IN_SECOND));
+        if (fractionOfSecond == 0 && format == EpochFractionFormat.MILLISECONDS)
+        {
+            return LENGTH_WITHOUT_MILLISECONDS;
+        }
+
+        UtcTimeOnlyEncoder.encodeFraction(fractionOfSecond, format.fractionDigits(), string, offset);
+
+        return format.length();
     }
 
-    private static long localSecond(final long epochMillis)
+    private static long epochDay(final long localSecond)
     {
-        return Math.floorDiv(epochMillis, MILLIS_IN_SECOND);
+        return Math.floorDiv(localSecond, SECONDS_IN_DAY);
     }
 
-    private static void validate(final long epochMillis)
+    private static void validate(final long epochFraction, final EpochFractionFormat format)
     {
-        if (epochMillis < MIN_EPOCH_MILLIS || epochMillis > MAX_EPOCH_MILLIS)
+        if (epochFraction < format.minEpochTime() || epochFraction > format.maxEpochTime())
         {
-            throw new IllegalArgumentException(epochMillis + " is outside of the valid range for this encoder");
+            throw new IllegalArgumentException(epochFraction + " is outside of the valid range for this encoder");
         }
     }
 }
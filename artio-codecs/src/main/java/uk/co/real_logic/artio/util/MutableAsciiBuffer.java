@@ -20,6 +20,7 @@ import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.fields.*;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import static java.nio.charset.StandardCharsets.US_ASCII;
 
@@ -45,6 +46,13 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
         999999999_999999999L, Long.MAX_VALUE
     };
 
+    // Constants for SWAR (SIMD within a register) operations that process a word of 8 bytes at a time.
+    private static final int WORD_SIZE = 8;
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long EVEN_BYTES = 0x00FF00FF00FF00FFL;
+    private static final long SUM_SHORTS = 0x0001000100010001L;
+
     private static final byte[] MIN_INTEGER_VALUE = String.valueOf(Integer.MIN_VALUE).getBytes(US_ASCII);
     private static final byte[] MIN_LONG_VALUE = String.valueOf(Long.MIN_VALUE).getBytes(US_ASCII);
 
@@ -337,24 +345,45 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
 
     public int scan(final int startInclusive, final int endInclusive, final byte terminator)
     {
-        int indexValue = UNKNOWN_INDEX;
-        for (int i = startInclusive; i <= endInclusive; i++)
+        // Words are read little endian so that the lowest set bit of the match corresponds to the first byte
+        final long pattern = LOW_BITS * (terminator & 0xFF);
+        int index = startInclusive;
+        for (final int lastWordStart = endInclusive - WORD_SIZE + 1; index <= lastWordStart; index += WORD_SIZE)
         {
-            final byte value = getByte(i);
-            if (value == terminator)
+            final long word = getLong(index, ByteOrder.LITTLE_ENDIAN) ^ pattern;
+            final long zeroBytes = (word - LOW_BITS) & ~word & HIGH_BITS;
+            if (zeroBytes != 0)
             {
-                indexValue = i;
-                break;
+                return index + (Long.numberOfTrailingZeros(zeroBytes) >>> 3);
+            }
+        }
+
+        for (; index <= endInclusive; index++)
+        {
+            if (getByte(index) == terminator)
+            {
+                return index;
             }
         }
 
-        return indexValue;
+        return UNKNOWN_INDEX;
     }
 
     public int computeChecksum(final int offset, final int end)
     {
+        // Sums the bytes as unsigned values, bytes with their high bit set are then corrected to be
+        // signed in order to give the same result as summing each byte individually.
         int total = 0;
-        for (int index = offset; index < end; index++)
+        int index = offset;
+        for (final int lastWordStart = end - WORD_SIZE; index <= lastWordStart; index += WORD_SIZE)
+        {
+            final long word = getLong(index);
+            final long shorts = (word & EVEN_BYTES) + ((word >>> 8) & EVEN_BYTES);
+            final int unsignedSum = (int)((shorts * SUM_SHORTS) >>> 48);
+            total += unsignedSum - (Long.bitCount(word & HIGH_BITS) << 8);
+        }
+
+        for (; index < end; index++)
         {
             total += (int)getByte(index);
         }
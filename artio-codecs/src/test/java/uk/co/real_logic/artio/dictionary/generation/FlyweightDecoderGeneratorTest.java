@@ -0,0 +1,318 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.dictionary.generation;
+
+import org.agrona.generation.StringWriterOutputManager;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import uk.co.real_logic.artio.dictionary.ir.*;
+import uk.co.real_logic.artio.dictionary.ir.Field.Type;
+import uk.co.real_logic.artio.fields.DecimalFloat;
+import uk.co.real_logic.artio.util.AsciiBuffer;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.lang.reflect.Modifier.isAbstract;
+import static java.lang.reflect.Modifier.isPublic;
+import static java.util.Collections.singletonList;
+import static org.agrona.generation.CompilerUtil.compileInMemory;
+import static org.junit.Assert.*;
+import static uk.co.real_logic.artio.dictionary.ExampleDictionary.*;
+import static uk.co.real_logic.artio.dictionary.ir.Category.ADMIN;
+import static uk.co.real_logic.artio.dictionary.ir.Field.registerField;
+import static uk.co.real_logic.artio.util.Reflection.get;
+
+public class FlyweightDecoderGeneratorTest
+{
+    private static final String HEARTBEAT_FLYWEIGHT_DECODER = TEST_PACKAGE + ".HeartbeatFlyweightDecoder";
+    private static final String SHARED_TAG_FLYWEIGHT_DECODER = TEST_PACKAGE + ".SharedTagMessageFlyweightDecoder";
+
+    private static final String SHARED_TAG_IN_GROUP_ONLY_MESSAGE =
+        "8=FIX.4.4\0019=0\00135=ST\001555=1\00155=LEG\0011=ACC\00110=000\001";
+
+    private static final String SHARED_TAG_IN_GROUP_AND_TOP_LEVEL_MESSAGE =
+        "8=FIX.4.4\0019=0\00135=ST\001555=1\00155=LEG\0011=ACC\00155=TOP\00110=000\001";
+
+    private static Class<?> heartbeat;
+    private static Class<?> sharedTagMessage;
+
+    private final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[8 * 1024]);
+
+    @BeforeClass
+    public static void generate() throws Exception
+    {
+        final StringWriterOutputManager outputManager = new StringWriterOutputManager();
+        final ConstantGenerator constantGenerator = new ConstantGenerator(
+            MESSAGE_EXAMPLE, TEST_PACKAGE, outputManager);
+        final EnumGenerator enumGenerator = new EnumGenerator(MESSAGE_EXAMPLE, TEST_PARENT_PACKAGE, outputManager);
+        final FlyweightDecoderGenerator flyweightDecoderGenerator = new FlyweightDecoderGenerator(
+            MESSAGE_EXAMPLE, TEST_PACKAGE, TEST_PARENT_PACKAGE, outputManager);
+
+        constantGenerator.generate();
+        enumGenerator.generate();
+        flyweightDecoderGenerator.generate();
+        new FlyweightDecoderGenerator(sharedTagDictionary(), TEST_PACKAGE, TEST_PARENT_PACKAGE, outputManager)
+            .generate();
+
+        final Map<String, CharSequence> sources = outputManager.getSources();
+        heartbeat = compileInMemory(HEARTBEAT_FLYWEIGHT_DECODER, sources);
+        if (heartbeat == null)
+        {
+            System.out.println("sources = " + sources);
+        }
+        sharedTagMessage = compileInMemory(SHARED_TAG_FLYWEIGHT_DECODER, sources);
+    }
+
+    // A message whose repeating group contains a field that can also appear at the top level
+    private static Dictionary sharedTagDictionary()
+    {
+        final Map<String, Field> fields = new HashMap<>();
+        final Field symbol = registerField(fields, 55, "Symbol", Type.STRING);
+
+        final Group legs = Group.of(registerField(fields, 555, "NoLegs", Type.INT));
+        legs.requiredEntry(symbol);
+
+        final Message message = new Message("SharedTagMessage", "ST", ADMIN);
+        message.optionalEntry(legs);
+        message.requiredEntry(registerField(fields, 1, "Account", Type.STRING));
+        message.optionalEntry(symbol);
+
+        final Component header = new Component("Header");
+        header
+            .requiredEntry(registerField(fields, 8, "BeginString", Type.STRING))
+            .requiredEntry(registerField(fields, 9, "BodyLength", Type.INT))
+            .requiredEntry(registerField(fields, 35, "MsgType", Type.STRING));
+
+        final Component trailer = new Component("Trailer");
+        trailer.requiredEntry(registerField(fields, 10, "CheckSum", Type.STRING));
+
+        return new Dictionary(singletonList(message), fields, new HashMap<>(), header, trailer, 4, 4);
+    }
+
+    @Test
+    public void generatesFlyweightDecoderClass()
+    {
+        assertNotNull("Not generated anything", heartbeat);
+
+        final int modifiers = heartbeat.getModifiers();
+        assertFalse("Not instantiable", isAbstract(modifiers));
+        assertTrue("Not public", isPublic(modifiers));
+    }
+
+    @Test
+    public void decodesFieldsWhenRead() throws Exception
+    {
+        final Object decoder = decodeHeartbeat(ENCODED_MESSAGE);
+
+        assertEquals(ABC, get(decoder, "onBehalfOfCompIDAsString"));
+        assertEquals(3, get(decoder, "onBehalfOfCompIDLength"));
+        assertEquals(true, get(decoder, HAS_TEST_REQ_ID));
+        assertEquals(ABC, get(decoder, "testReqIDAsString"));
+        assertEquals(2, get(decoder, INT_FIELD));
+        assertEquals(new DecimalFloat(11, 1), get(decoder, FLOAT_FIELD));
+        assertEquals(true, get(decoder, BOOLEAN_FIELD));
+        assertEquals(1L, get(decoder, "someTimeFieldAsEpochMillis"));
+        assertEquals("199", get(decoder, "checkSumAsString"));
+    }
+
+    @Test
+    public void copiesStringFieldsIntoArrays() throws Exception
+    {
+        final Object decoder = decodeHeartbeat(ENCODED_MESSAGE);
+
+        final char[] destination = new char[3];
+        final Object value = heartbeat
+            .getMethod(ON_BEHALF_OF_COMP_ID, char[].class)
+            .invoke(decoder, (Object)destination);
+
+        assertSame(destination, value);
+        assertArrayEquals(ABC.toCharArray(), destination);
+    }
+
+    @Test
+    public void decodesEnumFields() throws Exception
+    {
+        final Object decoder = decodeHeartbeat(ENCODED_MESSAGE);
+
+        assertEquals("TWO", get(decoder, "intFieldAsEnum").toString());
+    }
+
+    @Test
+    public void reportsMissingOptionalFields() throws Exception
+    {
+        final Object decoder = decodeHeartbeat(NO_OPTIONAL_MESSAGE);
+
+        assertEquals(false, get(decoder, HAS_TEST_REQ_ID));
+        assertEquals(false, get(decoder, HAS_BOOLEAN_FIELD));
+        assertEquals(false, get(decoder, HAS_DATA_FIELD));
+    }
+
+    @Test
+    public void throwsWhenReadingMissingField() throws Exception
+    {
+        final Object decoder = decodeHeartbeat(NO_OPTIONAL_MESSAGE);
+
+        try
+        {
+            get(decoder, "testReqIDAsString");
+            fail("Expected missing field to throw");
+        }
+        catch (final InvocationTargetException e)
+        {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    @Test
+    public void forgetsFieldsOfPreviousMessage() throws Exception
+    {
+        final Object decoder = decodeHeartbeat(ENCODED_MESSAGE);
+
+        decode(NO_OPTIONAL_MESSAGE, decoder);
+
+        assertEquals(false, get(decoder, HAS_TEST_REQ_ID));
+    }
+
+    @Test
+    public void iteratesOverRepeatingGroups() throws Exception
+    {
+        final Object decoder = decodeHeartbeat(REPEATING_GROUP_MESSAGE);
+
+        assertEquals(2, get(decoder, "noEgGroupGroupCounter"));
+
+        final Object group = get(decoder, "egGroupGroup");
+        assertEquals(true, get(group, "hasNext"));
+        assertSame(group, get(group, "next"));
+        assertEquals(1, get(group, "groupField"));
+
+        assertEquals(true, get(group, "hasNext"));
+        get(group, "next");
+        assertEquals(2, get(group, "groupField"));
+
+        assertEquals(false, get(group, "hasNext"));
+    }
+
+    @Test
+    public void restartsIterationWhenGroupIsRead() throws Exception
+    {
+        final Object decoder = decodeHeartbeat(REPEATING_GROUP_MESSAGE);
+
+        get(get(get(decoder, "egGroupGroup"), "next"), "next");
+
+        final Object group = get(decoder, "egGroupGroup");
+        get(group, "next");
+        assertEquals(1, get(group, "groupField"));
+    }
+
+    @Test
+    public void iteratesOverEmptyRepeatingGroups() throws Exception
+    {
+        final Object decoder = decodeHeartbeat(ZERO_REPEATING_GROUP_MESSAGE);
+
+        final Object group = get(decoder, "egGroupGroup");
+        assertEquals(false, get(group, "hasNext"));
+    }
+
+    @Test
+    public void iteratesOverMissingRepeatingGroups() throws Exception
+    {
+        final Object decoder = decodeHeartbeat(ENCODED_MESSAGE);
+
+        assertEquals(false, get(decoder, "hasNoEgGroupGroupCounter"));
+        final Object group = get(decoder, "egGroupGroup");
+        assertEquals(false, get(group, "hasNext"));
+    }
+
+    @Test
+    public void iteratesOverNestedRepeatingGroups() throws Exception
+    {
+        final Object decoder = decodeHeartbeat(NESTED_GROUP_MESSAGE);
+
+        final Object group = get(get(decoder, "egGroupGroup"), "next");
+        assertEquals(1, get(group, "groupField"));
+
+        final Object nestedGroup = get(group, "nestedGroupGroup");
+        assertEquals(true, get(nestedGroup, "hasNext"));
+        get(nestedGroup, "next");
+        assertEquals(1, get(nestedGroup, "nestedField"));
+        assertEquals(false, get(nestedGroup, "hasNext"));
+
+        assertEquals(false, get(group, "hasNext"));
+    }
+
+    @Test
+    public void decodesComponentsAndTheirGroups() throws Exception
+    {
+        final Object decoder = decodeHeartbeat(COMPONENT_MESSAGE);
+
+        assertEquals(2, get(decoder, COMPONENT_FIELD));
+
+        final Object group = get(decoder, "componentGroupGroup");
+        get(group, "next");
+        assertEquals(1, get(group, "componentGroupField"));
+        get(group, "next");
+        assertEquals(2, get(group, "componentGroupField"));
+        assertEquals(false, get(group, "hasNext"));
+    }
+
+    @Test
+    public void doesNotReadGroupEntryFieldsAsTopLevelFields() throws Exception
+    {
+        final Object decoder = decode(sharedTagMessage, SHARED_TAG_IN_GROUP_ONLY_MESSAGE);
+
+        assertEquals(false, get(decoder, "hasSymbol"));
+        assertEquals("ACC", get(decoder, "accountAsString"));
+        assertEquals("LEG", get(get(get(decoder, "legsGroup"), "next"), "symbolAsString"));
+    }
+
+    @Test
+    public void readsTopLevelFieldsThatShareATagWithAGroupEntryField() throws Exception
+    {
+        final Object decoder = decode(sharedTagMessage, SHARED_TAG_IN_GROUP_AND_TOP_LEVEL_MESSAGE);
+
+        assertEquals("TOP", get(decoder, "symbolAsString"));
+        assertEquals("LEG", get(get(get(decoder, "legsGroup"), "next"), "symbolAsString"));
+    }
+
+    private Object decodeHeartbeat(final String example) throws Exception
+    {
+        return decode(heartbeat, example);
+    }
+
+    private Object decode(final Class<?> decoderClass, final String example) throws Exception
+    {
+        final Object decoder = decoderClass.newInstance();
+        decode(decoderClass, example, decoder);
+        return decoder;
+    }
+
+    private void decode(final String example, final Object decoder) throws Exception
+    {
+        decode(heartbeat, example, decoder);
+    }
+
+    private void decode(final Class<?> decoderClass, final String example, final Object decoder) throws Exception
+    {
+        buffer.putAscii(1, example);
+        final Object length = decoderClass
+            .getMethod("decode", AsciiBuffer.class, int.class, int.class)
+            .invoke(decoder, buffer, 1, example.length());
+        assertEquals(example.length(), length);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.fields;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static uk.co.real_logic.artio.fields.EpochFractionFormat.MICROSECONDS;
+import static uk.co.real_logic.artio.fields.EpochFractionFormat.NANOSECONDS;
+import static uk.co.real_logic.artio.util.CustomMatchers.sequenceEqualsAscii;
+
+@RunWith(Parameterized.class)
+public class UtcTimestampFractionValidCasesTest
+{
+    private static final DateTimeFormatter FORMATTER =
+        DateTimeFormatter.ofPattern("yyyyMMdd-HH:mm:ss.[SSSSSSSSS][SSSSSS]");
+
+    private final EpochFractionFormat format;
+    private final String expectedTimestamp;
+    private final long epochFraction;
+
+    @Parameters(name = "{0}, {1}")
+    public static Iterable<Object[]> data()
+    {
+        return Arrays.asList(
+            new Object[] {MICROSECONDS, "00010101-00:00:00.000000"},
+            new Object[] {MICROSECONDS, "20150225-17:51:32.123456"},
+            new Object[] {MICROSECONDS, "20150225-17:51:32.000001"},
+            new Object[] {MICROSECONDS, "99991231-23:59:59.999999"},
+            new Object[] {NANOSECONDS, "19700101-00:00:00.000000000"},
+            new Object[] {NANOSECONDS, "20150225-17:51:32.123456789"},
+            new Object[] {NANOSECONDS, "20150225-17:51:32.000000001"},
+            new Object[] {NANOSECONDS, "22620411-23:47:16.854775807"}
+        );
+    }
+
+    public UtcTimestampFractionValidCasesTest(final EpochFractionFormat format, final String timestamp)
+    {
+        this.format = format;
+        this.expectedTimestamp = timestamp;
+        epochFraction = toEpochFraction(timestamp, format);
+    }
+
+    @Test
+    public void canStaticEncodeTimestamp()
+    {
+        final MutableAsciiBuffer string = new MutableAsciiBuffer(new byte[format.length() + 2]);
+
+        final int length = UtcTimestampEncoder.encode(epochFraction, string, 1, format);
+
+        assertEquals("encoded wrong length", format.length(), length);
+        assertThat(string, sequenceEqualsAscii(expectedTimestamp, 1, length));
+    }
+
+    @Test
+    public void canInstanceEncodeTimestamp()
+    {
+        final UtcTimestampEncoder encoder = new UtcTimestampEncoder(format);
+
+        final int length = encoder.encode(epochFraction);
+
+        assertEquals("encoded wrong length", format.length(), length);
+        assertEquals(expectedTimestamp, new String(encoder.buffer(), 0, length, US_ASCII));
+    }
+
+    @Test
+    public void canUpdateTimestampWithinTheSameDay()
+    {
+        final UtcTimestampEncoder encoder = new UtcTimestampEncoder(format);
+        encoder.initialise(epochFraction - epochFraction % format.unitsInDay());
+
+        final int length = encoder.update(epochFraction);
+
+        assertEquals(expectedTimestamp, new String(encoder.buffer(), 0, length, US_ASCII));
+    }
+
+    @Test
+    public void canDecodeTimestamp()
+    {
+        final MutableAsciiBuffer buffer = new MutableAsciiBuffer(expectedTimestamp.getBytes(US_ASCII));
+
+        assertEquals(epochFraction, UtcTimestampDecoder.decode(buffer, 0, expectedTimestamp.length(), format));
+    }
+
+    @Test
+    public void canDecodeMillisecondTimestamp()
+    {
+        final String millisecondTimestamp = expectedTimestamp.substring(0, UtcTimestampDecoder.LONG_LENGTH);
+        final MutableAsciiBuffer buffer = new MutableAsciiBuffer(millisecondTimestamp.getBytes(US_ASCII));
+
+        final long unitsInMillisecond = format.unitsInSecond() / 1000;
+        final long expectedEpochFraction = Math.floorDiv(epochFraction, unitsInMillisecond) * unitsInMillisecond;
+        assertEquals(
+            expectedEpochFraction, UtcTimestampDecoder.decode(buffer, 0, millisecondTimestamp.length(), format));
+    }
+
+    private static long toEpochFraction(final String timestamp, final EpochFractionFormat format)
+    {
+        final LocalDateTime parsedDate = LocalDateTime.parse(timestamp, FORMATTER);
+        final long epochSecond = parsedDate.toEpochSecond(ZoneOffset.UTC);
+        final long fraction = parsedDate.getNano() / (SECONDS.toNanos(1) / format.unitsInSecond());
+        return Math.addExact(Math.multiplyExact(epochSecond, format.unitsInSecond()), fraction);
+    }
+}
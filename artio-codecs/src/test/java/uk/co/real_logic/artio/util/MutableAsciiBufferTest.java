@@ -22,6 +22,7 @@ import org.junit.experimental.theories.Theory;
 import org.junit.runner.RunWith;
 
 import java.util.Arrays;
+import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
@@ -161,4 +162,72 @@ public class MutableAsciiBufferTest
             string.getAscii(0, length));
     }
 
+    @Test
+    public void shouldComputeChecksumForAllOffsetsAndLengths()
+    {
+        final MutableAsciiBuffer buffer = randomBuffer();
+
+        for (int offset = 0; offset < 16; offset++)
+        {
+            for (int end = offset; end < 80; end++)
+            {
+                assertEquals(
+                    "for " + offset + " to " + end,
+                    computeChecksumByteByByte(buffer, offset, end),
+                    buffer.computeChecksum(offset, end));
+            }
+        }
+    }
+
+    @Test
+    public void shouldScanForAllOffsetsAndLengths()
+    {
+        final MutableAsciiBuffer buffer = randomBuffer();
+
+        for (int start = 0; start < 16; start++)
+        {
+            for (int end = start - 1; end < 80; end++)
+            {
+                for (int terminator = Byte.MIN_VALUE; terminator <= Byte.MAX_VALUE; terminator++)
+                {
+                    assertEquals(
+                        "for " + start + " to " + end + " scanning for " + terminator,
+                        scanByteByByte(buffer, start, end, (byte)terminator),
+                        buffer.scan(start, end, (byte)terminator));
+                }
+            }
+        }
+    }
+
+    private MutableAsciiBuffer randomBuffer()
+    {
+        final byte[] bytes = new byte[96];
+        new Random(1).nextBytes(bytes);
+        return new MutableAsciiBuffer(bytes);
+    }
+
+    private int computeChecksumByteByByte(final MutableAsciiBuffer buffer, final int offset, final int end)
+    {
+        int total = 0;
+        for (int index = offset; index < end; index++)
+        {
+            total += (int)buffer.getByte(index);
+        }
+
+        return total % 256;
+    }
+
+    private int scanByteByByte(
+        final MutableAsciiBuffer buffer, final int startInclusive, final int endInclusive, final byte terminator)
+    {
+        for (int index = startInclusive; index <= endInclusive; index++)
+        {
+            if (buffer.getByte(index) == terminator)
+            {
+                return index;
+            }
+        }
+
+        return AsciiBuffer.UNKNOWN_INDEX;
+    }
 }
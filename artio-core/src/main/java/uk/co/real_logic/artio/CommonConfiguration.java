@@ -18,6 +18,7 @@ package uk.co.real_logic.artio;
 import io.aeron.Aeron;
 import org.agrona.IoUtil;
 import org.agrona.concurrent.*;
+import uk.co.real_logic.artio.fields.EpochFractionFormat;
 import uk.co.real_logic.artio.session.SessionCustomisationStrategy;
 import uk.co.real_logic.artio.session.SessionIdStrategy;
 import uk.co.real_logic.artio.timing.HistogramHandler;
@@ -189,6 +190,7 @@ public class CommonConfiguration
     public static final int DEFAULT_SESSION_BUFFER_SIZE = 16 * 1024;
     public static final long DEFAULT_SENDING_TIME_WINDOW = MINUTES.toMillis(2);
     public static final int DEFAULT_HEARTBEAT_INTERVAL_IN_S = 10;
+    public static final EpochFractionFormat DEFAULT_SENDING_TIME_FORMAT = EpochFractionFormat.MILLISECONDS;
 
     public static final long DEFAULT_REPLY_TIMEOUT_IN_MS = 2_000L;
     public static final long DEFAULT_HISTOGRAM_POLL_PERIOD_IN_MS = MINUTES.toMillis(1);
@@ -196,6 +198,8 @@ public class CommonConfiguration
     private boolean printErrorMessages = true;
     private IdleStrategy monitoringThreadIdleStrategy = new BackoffIdleStrategy(1, 1, 1000, 1_000_000);
     private long sendingTimeWindowInMs = DEFAULT_SENDING_TIME_WINDOW;
+    private EpochFractionFormat sendingTimeFormat = DEFAULT_SENDING_TIME_FORMAT;
+    private EpochNanoClock epochNanoClock = new OffsetEpochNanoClock();
     private SessionIdStrategy sessionIdStrategy = SessionIdStrategy.senderAndTarget();
     private AuthenticationStrategy authenticationStrategy = AuthenticationStrategy.none();
     private MessageValidationStrategy messageValidationStrategy = MessageValidationStrategy.none();
@@ -239,6 +243,46 @@ public class CommonConfiguration
         return sendingTimeWindowInMs;
     }
 
+    /**
+     * Sets the precision of the SendingTime and OrigSendingTime fields of messages sent by sessions, for example
+     * microseconds in order to meet clock synchronisation regulations.
+     *
+     * @param sendingTimeFormat the precision of the fraction of a second in the sending time.
+     * @return this
+     * @see #epochNanoClock(EpochNanoClock)
+     */
+    public CommonConfiguration sendingTimeFormat(final EpochFractionFormat sendingTimeFormat)
+    {
+        this.sendingTimeFormat = sendingTimeFormat;
+        return this;
+    }
+
+    public EpochFractionFormat sendingTimeFormat()
+    {
+        return sendingTimeFormat;
+    }
+
+    /**
+     * Sets the clock that is used to read the sending time when it has a precision finer than milliseconds.
+     * <p>
+     * Defaults to an {@link OffsetEpochNanoClock}, which is kept within a millisecond of the system clock. Supply
+     * a clock that is synchronised more precisely if sending times need to be accurate below a millisecond.
+     *
+     * @param epochNanoClock the clock to read the sending time from.
+     * @return this
+     * @see #sendingTimeFormat(EpochFractionFormat)
+     */
+    public CommonConfiguration epochNanoClock(final EpochNanoClock epochNanoClock)
+    {
+        this.epochNanoClock = epochNanoClock;
+        return this;
+    }
+
+    public EpochNanoClock epochNanoClock()
+    {
+        return epochNanoClock;
+    }
+
     /**
      * The default interval for heartbeats if not exchanged upon logon. Specified in seconds.
      *
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.concurrent.EpochClock;
+import uk.co.real_logic.artio.fields.EpochFractionFormat;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the current time in the units of an {@link EpochFractionFormat}, for example in order to stamp the
+ * SendingTime of a message at the configured precision.
+ *
+ * Millisecond times are read from an {@link EpochClock}, finer precisions from an {@link EpochNanoClock}.
+ */
+public final class EpochFractionClock
+{
+    private final EpochClock epochClock;
+    private final EpochNanoClock epochNanoClock;
+    private final EpochFractionFormat format;
+
+    public EpochFractionClock(
+        final EpochClock epochClock, final EpochNanoClock epochNanoClock, final EpochFractionFormat format)
+    {
+        this.epochClock = epochClock;
+        this.epochNanoClock = epochNanoClock;
+        this.format = format;
+    }
+
+    /**
+     * Create a clock that reads milliseconds from an {@link EpochClock}.
+     *
+     * @param epochClock the clock to read the time from.
+     * @return the new clock.
+     */
+    public static EpochFractionClock milliseconds(final EpochClock epochClock)
+    {
+        return new EpochFractionClock(epochClock, null, EpochFractionFormat.MILLISECONDS);
+    }
+
+    /**
+     * Read the current time.
+     *
+     * @return the number of units of {@link #format()} since the start of the UNIX Epoch.
+     */
+    public long time()
+    {
+        switch (format)
+        {
+            case MICROSECONDS:
+                return TimeUnit.NANOSECONDS.toMicros(epochNanoClock.nanoTime());
+
+            case NANOSECONDS:
+                return epochNanoClock.nanoTime();
+
+            default:
+                return epochClock.time();
+        }
+    }
+
+    public EpochFractionFormat format()
+    {
+        return format;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * An {@link EpochNanoClock} that samples the wall clock and then advances it using {@link System#nanoTime()}.
+ *
+ * {@link System#currentTimeMillis()} only has millisecond precision on Java 8. This clock has the precision of
+ * {@link System#nanoTime()}, and to stop it drifting away from the wall clock it compares itself against the wall
+ * clock once every resample interval, from whichever thread reads it next. It's only corrected when it has drifted
+ * outside of the wall clock's millisecond, so corrections don't add millisecond jitter to the times it reads.
+ *
+ * Reads are thread safe, so one clock can be shared between the engine and library threads.
+ */
+public final class OffsetEpochNanoClock implements EpochNanoClock
+{
+    public static final long DEFAULT_RESAMPLE_INTERVAL_IN_NS = SECONDS.toNanos(1);
+
+    private static final long MILLISECOND_IN_NS = MILLISECONDS.toNanos(1);
+
+    private final long resampleIntervalInNs;
+
+    private volatile long offsetInNs;
+    private volatile long nextResampleTimeInNs;
+
+    public OffsetEpochNanoClock()
+    {
+        this(DEFAULT_RESAMPLE_INTERVAL_IN_NS);
+    }
+
+    /**
+     * Create a new clock.
+     *
+     * @param resampleIntervalInNs the time between comparisons against the wall clock.
+     */
+    public OffsetEpochNanoClock(final long resampleIntervalInNs)
+    {
+        this.resampleIntervalInNs = resampleIntervalInNs;
+        resample();
+    }
+
+    /**
+     * Re-align this clock with the wall clock.
+     */
+    public void resample()
+    {
+        final long nanoTime = System.nanoTime();
+        offsetInNs = MILLISECONDS.toNanos(System.currentTimeMillis()) - nanoTime;
+        nextResampleTimeInNs = nanoTime + resampleIntervalInNs;
+    }
+
+    public long nanoTime()
+    {
+        final long nanoTime = System.nanoTime();
+        if (nanoTime - nextResampleTimeInNs >= 0)
+        {
+            correctDrift(nanoTime);
+        }
+
+        return offsetInNs + nanoTime;
+    }
+
+    // Threads that race to correct the clock each write an offset that is within the wall clock's millisecond.
+    private void correctDrift(final long nanoTime)
+    {
+        nextResampleTimeInNs = nanoTime + resampleIntervalInNs;
+
+        final long offsetInNs = this.offsetInNs;
+        // The wall clock is truncated to the millisecond, so it reads up to a millisecond behind the exact time.
+        final long driftInNs = MILLISECONDS.toNanos(System.currentTimeMillis()) - (offsetInNs + nanoTime);
+        if (driftInNs > 0)
+        {
+            this.offsetInNs = offsetInNs + driftInNs;
+        }
+        else if (driftInNs < -MILLISECOND_IN_NS)
+        {
+            this.offsetInNs = offsetInNs + driftInNs + MILLISECOND_IN_NS;
+        }
+    }
+}
@@ -21,7 +21,6 @@ import org.agrona.concurrent.AtomicBuffer;
 import java.nio.ByteBuffer;
 import java.util.zip.CRC32;
 
-// TODO: optimisation: write and checksum only needed bytes
 public class ChecksumFramer extends SectorFramer
 {
     private final CRC32 crc32 = new CRC32();
@@ -66,32 +65,56 @@ public class ChecksumFramer extends SectorFramer
         validateCheckSum(fileName, start, end, savedChecksum, calculatedChecksum, errorHandler);
     }
 
+    /**
+     * Update the checksum of a single sector, used when only some sectors have been written to.
+     *
+     * @param sectorStart the offset of the start of the sector.
+     */
+    public void updateChecksum(final int sectorStart)
+    {
+        if (sectorStart + SECTOR_SIZE <= capacity)
+        {
+            withChecksum(sectorStart, saveChecksumFunc);
+            clearByteBuffer();
+        }
+    }
+
     private void withChecksums(final ChecksumConsumer consumer)
     {
-        final byte[] inMemoryBytes = buffer.byteArray();
-        final ByteBuffer inMemoryByteBuffer = buffer.byteBuffer();
         final int capacity = this.capacity;
 
         for (int sectorEnd = SECTOR_SIZE; sectorEnd <= capacity; sectorEnd += SECTOR_SIZE)
         {
-            final int sectorStart = sectorEnd - SECTOR_SIZE;
-            final int checksumOffset = sectorEnd - CHECKSUM_SIZE;
+            withChecksum(sectorEnd - SECTOR_SIZE, consumer);
+        }
+
+        clearByteBuffer();
+    }
 
-            crc32.reset();
-            if (inMemoryBytes != null)
-            {
-                crc32.update(inMemoryBytes, sectorStart, SECTOR_DATA_LENGTH);
-            }
-            else
-            {
-                ByteBufferUtil.limit(inMemoryByteBuffer, sectorStart + SECTOR_DATA_LENGTH);
-                ByteBufferUtil.position(inMemoryByteBuffer, sectorStart);
-                crc32.update(inMemoryByteBuffer);
-            }
-            final int sectorChecksum = (int)crc32.getValue();
-            consumer.accept(checksumOffset, sectorChecksum);
+    private void withChecksum(final int sectorStart, final ChecksumConsumer consumer)
+    {
+        final byte[] inMemoryBytes = buffer.byteArray();
+        final ByteBuffer inMemoryByteBuffer = buffer.byteBuffer();
+        final int checksumOffset = sectorStart + SECTOR_DATA_LENGTH;
+
+        crc32.reset();
+        if (inMemoryBytes != null)
+        {
+            crc32.update(inMemoryBytes, sectorStart, SECTOR_DATA_LENGTH);
         }
+        else
+        {
+            ByteBufferUtil.limit(inMemoryByteBuffer, sectorStart + SECTOR_DATA_LENGTH);
+            ByteBufferUtil.position(inMemoryByteBuffer, sectorStart);
+            crc32.update(inMemoryByteBuffer);
+        }
+        final int sectorChecksum = (int)crc32.getValue();
+        consumer.accept(checksumOffset, sectorChecksum);
+    }
 
+    private void clearByteBuffer()
+    {
+        final ByteBuffer inMemoryByteBuffer = buffer.byteBuffer();
         if (inMemoryByteBuffer != null)
         {
             inMemoryByteBuffer.clear();
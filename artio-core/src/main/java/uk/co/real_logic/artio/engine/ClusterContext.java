@@ -19,22 +19,26 @@ import io.aeron.Aeron;
 import io.aeron.ExclusivePublication;
 import io.aeron.Subscription;
 import org.agrona.ErrorHandler;
+import org.agrona.concurrent.Agent;
 import org.agrona.concurrent.CompositeAgent;
 import uk.co.real_logic.artio.FixCounters;
 import uk.co.real_logic.artio.StreamInformation;
 import uk.co.real_logic.artio.engine.logger.ArchiveReader;
 import uk.co.real_logic.artio.engine.logger.Archiver;
+import uk.co.real_logic.artio.engine.logger.Index;
 import uk.co.real_logic.artio.engine.logger.ReplayQuery;
 import uk.co.real_logic.artio.engine.logger.Replayer;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
 import uk.co.real_logic.artio.protocol.Streams;
 import uk.co.real_logic.artio.replication.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static uk.co.real_logic.artio.GatewayProcess.INBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.GatewayProcess.OUTBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.dictionary.generation.Exceptions.closeAll;
 import static uk.co.real_logic.artio.dictionary.generation.Exceptions.suppressingClose;
-import static uk.co.real_logic.artio.engine.logger.LoggerUtil.newArchiveMetaData;
 import static uk.co.real_logic.artio.replication.ClusterConfiguration.DEFAULT_DATA_STREAM_ID;
 
 class ClusterContext extends EngineContext
@@ -46,14 +50,14 @@ class ClusterContext extends EngineContext
     ClusterContext(
         final EngineConfiguration configuration,
         final ErrorHandler errorHandler,
-        final ExclusivePublication replayPublication,
+        final ExclusivePublication[] replayPublications,
         final FixCounters fixCounters,
         final Aeron aeron,
         final EngineDescriptorStore engineDescriptorStore)
     {
         super(configuration, errorHandler, fixCounters, aeron);
 
-        Replayer replayer = null;
+        final List<Replayer> replayers = new ArrayList<>();
         Archiver localInboundArchiver = null;
         Archiver localOutboundArchiver = null;
 
@@ -66,9 +70,9 @@ class ClusterContext extends EngineContext
             StreamInformation.print("inboundPublication", inboundPublication, configuration);
             clusterAgent = node(configuration, fixCounters, aeron, channel, engineDescriptorStore);
             newStreams(clusterAgent.clusterStreams());
-            newIndexers(inboundArchiveReader(), outboundArchiveReader(), null);
+            newIndexers(inboundArchiveReader(), outboundArchiveReader(), null, null, null);
 
-            replayer = newReplayer(replayPublication, outboundArchiveReader());
+            replayers.addAll(newReplayers(replayPublications, this::outboundArchiveReader));
 
             localInboundArchiver = archiver(
                 new StreamIdentifier(libraryAeronChannel, INBOUND_LIBRARY_STREAM),
@@ -93,20 +97,25 @@ class ClusterContext extends EngineContext
 
             localOutboundArchiver.positionHandler(positionSender);
 
-            archivingAgent = new CompositeAgent(
-                inboundIndexer,
-                outboundIndexer,
-                clusterAgent,
-                replayer,
-                localInboundArchiver,
-                localOutboundArchiver,
-                positionSender);
+            final List<Agent> agents = new ArrayList<>();
+            agents.add(inboundIndexer);
+            agents.add(outboundIndexer);
+            agents.add(clusterAgent);
+            addReplayers(agents, replayers);
+            agents.add(localInboundArchiver);
+            agents.add(localOutboundArchiver);
+            agents.add(positionSender);
+
+            archivingAgent = new CompositeAgent(agents);
         }
         catch (final Exception e)
         {
             completeDuringStartup();
 
-            closeAll(replayer, localInboundArchiver, localOutboundArchiver);
+            final List<Agent> startedAgents = new ArrayList<>(replayers);
+            startedAgents.add(localInboundArchiver);
+            startedAgents.add(localOutboundArchiver);
+            closeAll(startedAgents.toArray(new Agent[0]));
 
             suppressingClose(this, e);
 
@@ -121,18 +130,14 @@ class ClusterContext extends EngineContext
         final String clusterAeronChannel,
         final EngineDescriptorStore engineDescriptorStore)
     {
-        final int cacheNumSets = configuration.loggerCacheNumSets();
-        final int cacheSetSize = configuration.loggerCacheSetSize();
-        final String logFileDir = configuration.logFileDir();
-
-        final Archiver archiver = new Archiver(
-            newArchiveMetaData(logFileDir), cacheNumSets, cacheSetSize, dataStream, configuration.agentNamePrefix(),
-            outboundClusterCompletionPosition());
+        final Archiver archiver = archiver(dataStream, outboundClusterCompletionPosition());
 
         final ClusterConfiguration clusterConfiguration = new ClusterConfiguration()
             .nodeId(configuration.nodeId())
             .otherNodes(configuration.otherNodes())
             .timeoutIntervalInMs(configuration.clusterTimeoutIntervalInMs())
+            .acknowledgementBatchSizeInBytes(configuration.clusterAcknowledgementBatchSizeInBytes())
+            .acknowledgementBatchIntervalInMs(configuration.clusterAcknowledgementBatchIntervalInMs())
             .idleStrategy(configuration.framerIdleStrategy())
             .archiver(archiver)
             .archiveReaderSupplier(() -> archiveReader(dataStream))
@@ -160,6 +165,13 @@ class ClusterContext extends EngineContext
         return archiveReader(dataStream, INBOUND_LIBRARY_STREAM);
     }
 
+    protected void addArchiveRetention(
+        final List<Index> indices, final ArchiveReader archiveReader, final Archiver archiver)
+    {
+        // Deliberately blank: the inbound and outbound indexers share the cluster's archive, which is also
+        // read to catch up followers, so neither indexer knows when a term can be deleted.
+    }
+
     public ReplayQuery inboundReplayQuery()
     {
         return newReplayQuery(inboundArchiveReader(), configuration.framerIdleStrategy());
@@ -21,6 +21,10 @@ import org.agrona.concurrent.Agent;
 import org.agrona.concurrent.AgentRunner;
 import uk.co.real_logic.artio.dictionary.generation.Exceptions;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import static org.agrona.concurrent.AgentRunner.startOnThread;
 import static uk.co.real_logic.artio.CommonConfiguration.backoffIdleStrategy;
 
@@ -29,6 +33,8 @@ import static uk.co.real_logic.artio.CommonConfiguration.backoffIdleStrategy;
  */
 public class DefaultEngineScheduler implements EngineScheduler
 {
+    private final List<AgentRunner> replayRunners = new ArrayList<>();
+
     private AgentRunner framerRunner;
     private AgentRunner archivingRunner;
     private AgentRunner monitoringRunner;
@@ -40,6 +46,25 @@ public class DefaultEngineScheduler implements EngineScheduler
         final Agent archivingAgent,
         final Agent monitoringAgent,
         final Agent conductorAgent)
+    {
+        launch(
+            configuration,
+            errorHandler,
+            framer,
+            archivingAgent,
+            Collections.emptyList(),
+            monitoringAgent,
+            conductorAgent);
+    }
+
+    public void launch(
+        final EngineConfiguration configuration,
+        final ErrorHandler errorHandler,
+        final Agent framer,
+        final Agent archivingAgent,
+        final List<Agent> replayAgents,
+        final Agent monitoringAgent,
+        final Agent conductorAgent)
     {
         if (framerRunner != null)
         {
@@ -54,6 +79,15 @@ public class DefaultEngineScheduler implements EngineScheduler
         startOnThread(framerRunner);
         startOnThread(archivingRunner);
 
+        for (final Agent replayAgent : replayAgents)
+        {
+            // Idle strategies hold state, so each thread needs its own
+            final AgentRunner replayRunner = new AgentRunner(
+                backoffIdleStrategy(), errorHandler, null, replayAgent);
+            replayRunners.add(replayRunner);
+            startOnThread(replayRunner);
+        }
+
         if (monitoringAgent != null)
         {
             monitoringRunner = new AgentRunner(
@@ -67,8 +101,11 @@ public class DefaultEngineScheduler implements EngineScheduler
         EngineScheduler.awaitRunnerStart(framerRunner);
         EngineScheduler.awaitRunnerStart(archivingRunner);
         EngineScheduler.awaitRunnerStart(monitoringRunner);
+        replayRunners.forEach(EngineScheduler::awaitRunnerStart);
 
-        Exceptions.closeAll(framerRunner, archivingRunner, monitoringRunner);
+        final List<AgentRunner> runners = new ArrayList<>(replayRunners);
+        Collections.addAll(runners, framerRunner, archivingRunner, monitoringRunner);
+        Exceptions.closeAll(runners);
     }
 
     public void configure(final Aeron.Context aeronContext)
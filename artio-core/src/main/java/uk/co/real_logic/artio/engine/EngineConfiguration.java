@@ -22,6 +22,8 @@ import org.agrona.concurrent.IdleStrategy;
 import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.CommonConfiguration;
 import uk.co.real_logic.artio.engine.framer.TcpChannelSupplier;
+import uk.co.real_logic.artio.engine.logger.ArchiveDurability;
+import uk.co.real_logic.artio.engine.logger.ArchiveRetention;
 import uk.co.real_logic.artio.replication.ClusterConfiguration;
 import uk.co.real_logic.artio.replication.RoleHandler;
 import uk.co.real_logic.artio.validation.SessionPersistenceStrategy;
@@ -34,8 +36,11 @@ import java.util.function.Function;
 
 import static java.lang.Integer.getInteger;
 import static java.lang.System.getProperty;
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.INITIAL_RECORD_OFFSET;
+import static uk.co.real_logic.artio.replication.ClusterConfiguration.DEFAULT_ACKNOWLEDGEMENT_BATCH_INTERVAL_IN_MS;
+import static uk.co.real_logic.artio.replication.ClusterConfiguration.DEFAULT_ACKNOWLEDGEMENT_BATCH_SIZE_IN_BYTES;
 import static uk.co.real_logic.artio.validation.SessionPersistenceStrategy.alwaysLocallyArchive;
 import static uk.co.real_logic.artio.validation.SessionPersistenceStrategy.alwaysReplicated;
 
@@ -63,6 +68,10 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
      * Property name for size of logging index files
      */
     public static final String REPLAY_INDEX_FILE_SIZE_PROP = "logging.index.size";
+    /**
+     * Property name for the number of replay index segments kept per session
+     */
+    public static final String REPLAY_INDEX_SEGMENT_COUNT_PROP = "logging.index.segments";
 
     // Care needs to be taken when setting the fragment limits, and buffer sizes
     // The inbound bytes received and buffer sizes should always be set low enough
@@ -77,6 +86,14 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
      * Property name for the max number of messages to read from replayer.
      */
     public static final String REPLAY_FRAGMENT_LIMIT_PROP = "fix.core.replay_fragment_limit";
+    /**
+     * Property name for the max number of messages the replayer resends for a resend request per duty cycle.
+     */
+    public static final String REPLAY_BATCH_SIZE_PROP = "fix.core.replay_batch_size";
+    /**
+     * Property name for the number of replayers that resend messages in response to resend requests.
+     */
+    public static final String REPLAYER_COUNT_PROP = "fix.core.replayer_count";
     /**
      * Property name for the max number of bytes to read from all TCP Connections.
      */
@@ -85,6 +102,10 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
      * Property name for the size in bytes of the receiver end point's framing buffer.
      */
     public static final String RECEIVER_BUFFER_SIZE_PROP = "fix.core.receiver_buffer_size";
+    /**
+     * Property name for whether the receiver end point defers compacting its framing buffer, set to "true" to enable.
+     */
+    public static final String DEFER_RECEIVER_BUFFER_COMPACTION_PROP = "fix.core.defer_receiver_buffer_compaction";
     /**
      * Property name for the size in bytes of the TCP socket's receive buffer.
      */
@@ -109,6 +130,31 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
      * Property name for the timeout before a connection that hasn't sent a logon is disconnected
      */
     public static final String NO_LOGON_DISCONNECT_TIMEOUT_PROP = "fix.core.no_logon_disconnect";
+    /**
+     * Property name for the durability of archived data, one of the names of {@link ArchiveDurability}
+     */
+    public static final String ARCHIVE_DURABILITY_PROP = "fix.core.archive_durability";
+    /**
+     * Property name for the number of bytes archived for a stream before a group commit is forced
+     */
+    public static final String ARCHIVE_GROUP_COMMIT_BYTES_PROP = "fix.core.archive_group_commit_bytes";
+    /**
+     * Property name for the maximum time in microseconds that archived data can wait for a group commit
+     */
+    public static final String ARCHIVE_GROUP_COMMIT_TIMEOUT_PROP = "fix.core.archive_group_commit_timeout_in_us";
+    /**
+     * Property name for the age in milliseconds after which archived term files are deleted
+     */
+    public static final String ARCHIVE_RETENTION_MAX_AGE_PROP = "fix.core.archive_retention_max_age_in_ms";
+    /**
+     * Property name for the size in bytes of a stream's archive above which its oldest term files are deleted
+     */
+    public static final String ARCHIVE_RETENTION_MAX_SIZE_PROP = "fix.core.archive_retention_max_size_in_bytes";
+    /**
+     * Property name for the time in milliseconds between checks of the archive for term files to delete
+     */
+    public static final String ARCHIVE_RETENTION_CHECK_INTERVAL_PROP =
+        "fix.core.archive_retention_check_interval_in_ms";
 
     // ------------------------------------------------
     //          Configuration Defaults
@@ -116,11 +162,14 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
 
     public static final String DEFAULT_LOG_FILE_DIR = "logs";
     public static final int DEFAULT_REPLAY_INDEX_FILE_SIZE = 2 * 1024 * 1024 + INITIAL_RECORD_OFFSET;
+    public static final int DEFAULT_REPLAY_INDEX_SEGMENT_COUNT = 0;
     public static final int DEFAULT_LOGGER_CACHE_NUM_SETS = 8;
     public static final int DEFAULT_LOGGER_CACHE_SET_SIZE = 4;
 
     public static final int DEFAULT_OUTBOUND_LIBRARY_FRAGMENT_LIMIT = 100;
     public static final int DEFAULT_REPLAY_FRAGMENT_LIMIT = 5;
+    public static final int DEFAULT_REPLAY_BATCH_SIZE = 64;
+    public static final int DEFAULT_REPLAYER_COUNT = 1;
     public static final int DEFAULT_INBOUND_BYTES_RECEIVED_LIMIT = 8 * 1024;
     public static final int DEFAULT_RECEIVER_BUFFER_SIZE = 16 * 1024;
     public static final int DEFAULT_RECEIVER_SOCKET_BUFFER_SIZE = 1024 * 1024;
@@ -135,10 +184,18 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     public static final String DEFAULT_SEQUENCE_NUMBERS_RECEIVED_FILE = "sequence_numbers_received";
     public static final short NO_NODE_ID = -1;
     public static final long DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS = 10_000;
+    public static final String DEFAULT_ARCHIVE_DURABILITY = ArchiveDurability.SYNCHRONOUS.name();
+    public static final int DEFAULT_ARCHIVE_GROUP_COMMIT_BYTES = 256 * 1024;
+    public static final long DEFAULT_ARCHIVE_GROUP_COMMIT_TIMEOUT_IN_US = 1_000;
+    public static final long DEFAULT_ARCHIVE_RETENTION_MAX_AGE_IN_MS = ArchiveRetention.NO_LIMIT;
+    public static final long DEFAULT_ARCHIVE_RETENTION_MAX_SIZE_IN_BYTES = ArchiveRetention.NO_LIMIT;
+    public static final long DEFAULT_ARCHIVE_RETENTION_CHECK_INTERVAL_IN_MS = MINUTES.toMillis(1);
 
     private String host = null;
     private int port;
     private int replayIndexFileSize = getInteger(REPLAY_INDEX_FILE_SIZE_PROP, DEFAULT_REPLAY_INDEX_FILE_SIZE);
+    private int replayIndexSegmentCount =
+        getInteger(REPLAY_INDEX_SEGMENT_COUNT_PROP, DEFAULT_REPLAY_INDEX_SEGMENT_COUNT);
     private String logFileDir = getProperty(LOG_FILE_DIR_PROP, DEFAULT_LOG_FILE_DIR);
     private int loggerCacheNumSets = DEFAULT_LOGGER_CACHE_NUM_SETS;
     private int loggerCacheSetSize = DEFAULT_LOGGER_CACHE_SET_SIZE;
@@ -155,15 +212,23 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     private short nodeId = NO_NODE_ID;
     private IntHashSet otherNodes = new IntHashSet();
     private long clusterTimeoutIntervalInMs = DEFAULT_CLUSTER_TIMEOUT_IN_MS;
+    private int clusterAcknowledgementBatchSizeInBytes = DEFAULT_ACKNOWLEDGEMENT_BATCH_SIZE_IN_BYTES;
+    private long clusterAcknowledgementBatchIntervalInMs = DEFAULT_ACKNOWLEDGEMENT_BATCH_INTERVAL_IN_MS;
 
     private int outboundLibraryFragmentLimit =
         getInteger(OUTBOUND_LIBRARY_FRAGMENT_LIMIT_PROP, DEFAULT_OUTBOUND_LIBRARY_FRAGMENT_LIMIT);
     private int replayFragmentLimit =
         getInteger(REPLAY_FRAGMENT_LIMIT_PROP, DEFAULT_REPLAY_FRAGMENT_LIMIT);
+    private int replayBatchSize =
+        getInteger(REPLAY_BATCH_SIZE_PROP, DEFAULT_REPLAY_BATCH_SIZE);
+    private int replayerCount =
+        getInteger(REPLAYER_COUNT_PROP, DEFAULT_REPLAYER_COUNT);
     private int inboundBytesReceivedLimit =
         getInteger(INBOUND_BYTES_RECEIVED_LIMIT_PROP, DEFAULT_INBOUND_BYTES_RECEIVED_LIMIT);
     private int receiverBufferSize =
         getInteger(RECEIVER_BUFFER_SIZE_PROP, DEFAULT_RECEIVER_BUFFER_SIZE);
+    private boolean deferReceiverBufferCompaction =
+        Boolean.getBoolean(DEFER_RECEIVER_BUFFER_COMPACTION_PROP);
     private int receiverSocketBufferSize =
         getInteger(RECEIVER_SOCKET_BUFFER_SIZE_PROP, DEFAULT_RECEIVER_SOCKET_BUFFER_SIZE);
     private int senderSocketBufferSize =
@@ -176,6 +241,18 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         getInteger(SENDER_MAX_BYTES_IN_BUFFER_PROP, DEFAULT_SENDER_MAX_BYTES_IN_BUFFER);
     private int noLogonDisconnectTimeoutInMs =
         getInteger(NO_LOGON_DISCONNECT_TIMEOUT_PROP, DEFAULT_NO_LOGON_DISCONNECT_TIMEOUT);
+    private ArchiveDurability archiveDurability =
+        ArchiveDurability.valueOf(getProperty(ARCHIVE_DURABILITY_PROP, DEFAULT_ARCHIVE_DURABILITY));
+    private int archiveGroupCommitBytes =
+        getInteger(ARCHIVE_GROUP_COMMIT_BYTES_PROP, DEFAULT_ARCHIVE_GROUP_COMMIT_BYTES);
+    private long archiveGroupCommitTimeoutInUs =
+        Long.getLong(ARCHIVE_GROUP_COMMIT_TIMEOUT_PROP, DEFAULT_ARCHIVE_GROUP_COMMIT_TIMEOUT_IN_US);
+    private long archiveRetentionMaxAgeInMs =
+        Long.getLong(ARCHIVE_RETENTION_MAX_AGE_PROP, DEFAULT_ARCHIVE_RETENTION_MAX_AGE_IN_MS);
+    private long archiveRetentionMaxSizeInBytes =
+        Long.getLong(ARCHIVE_RETENTION_MAX_SIZE_PROP, DEFAULT_ARCHIVE_RETENTION_MAX_SIZE_IN_BYTES);
+    private long archiveRetentionCheckIntervalInMs =
+        Long.getLong(ARCHIVE_RETENTION_CHECK_INTERVAL_PROP, DEFAULT_ARCHIVE_RETENTION_CHECK_INTERVAL_IN_MS);
 
     private String libraryAeronChannel = null;
     private Function<EngineConfiguration, TcpChannelSupplier> channelSupplierFactory = TcpChannelSupplier::new;
@@ -216,6 +293,27 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets whether the receiver end points defer compacting their framing buffers.
+     * <p>
+     * By default any partially received message is copied back to the start of the framing buffer at the end of
+     * every poll and whenever the inbound stream is back pressured. When deferring compaction, framing continues
+     * from wherever the partial message was left and the data is only copied once the remaining free space at the
+     * end of the buffer runs low. This reduces copying when connections regularly receive messages that are split
+     * over several TCP reads, for example large market data snapshots.
+     * <p>
+     * Default: false.
+     *
+     * @param deferReceiverBufferCompaction true to defer compacting the framing buffer, false otherwise.
+     * @return this
+     * @see EngineConfiguration#DEFER_RECEIVER_BUFFER_COMPACTION_PROP
+     */
+    public EngineConfiguration deferReceiverBufferCompaction(final boolean deferReceiverBufferCompaction)
+    {
+        this.deferReceiverBufferCompaction = deferReceiverBufferCompaction;
+        return this;
+    }
+
     /**
      * Sets the receiver socket buffer size.
      *
@@ -268,6 +366,25 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets the number of replay index segments kept per session.
+     * <p>
+     * Replay index files are rings of a fixed size, so once a session has sent enough messages to lap its
+     * file, older messages can no longer be resent even if they are still in the archive. When this is greater
+     * than 0 index records are also appended to segment files of the same size as the index file, and the most
+     * recent segments are kept. Resend requests from before the start of the index file are then served from the
+     * segments. Set to 0, the default, to disable segments.
+     *
+     * @param replayIndexSegmentCount the number of replay index segments kept per session.
+     * @return this
+     * @see EngineConfiguration#REPLAY_INDEX_SEGMENT_COUNT_PROP
+     */
+    public EngineConfiguration replayIndexSegmentCount(final int replayIndexSegmentCount)
+    {
+        this.replayIndexSegmentCount = replayIndexSegmentCount;
+        return this;
+    }
+
     /**
      * Sets the set size of the logger's caches.
      * <p>
@@ -384,6 +501,38 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets the maximum number of messages that the replayer resends for a single resend request in one duty
+     * cycle. Larger resends are continued in later duty cycles, round robin with any other outstanding resends,
+     * so that one session asking for a big replay doesn't hold up the resends of every other session.
+     *
+     * @param replayBatchSize the maximum number of messages resent per resend request per duty cycle.
+     * @return this
+     * @see EngineConfiguration#REPLAY_BATCH_SIZE_PROP
+     */
+    public EngineConfiguration replayBatchSize(final int replayBatchSize)
+    {
+        this.replayBatchSize = replayBatchSize;
+        return this;
+    }
+
+    /**
+     * Sets the number of replayers that resend messages in response to resend requests. Connections are
+     * partitioned between the replayers, each of which has its own replay publication and archive reader.
+     *
+     * A single replayer shares the archiving thread, if you configure more than one then the
+     * {@link DefaultEngineScheduler} runs each of them on its own thread.
+     *
+     * @param replayerCount the number of replayers.
+     * @return this
+     * @see EngineConfiguration#REPLAYER_COUNT_PROP
+     */
+    public EngineConfiguration replayerCount(final int replayerCount)
+    {
+        this.replayerCount = replayerCount;
+        return this;
+    }
+
     /**
      * Sets the bytes limit for receiving inbound messages.
      *
@@ -415,6 +564,109 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets when data written by the archiver is forced to disk.
+     * <p>
+     * {@link ArchiveDurability#SYNCHRONOUS} writes every block synchronously, {@link ArchiveDurability#GROUP_COMMIT}
+     * forces blocks in batches according to {@link #archiveGroupCommitBytes(int)} and
+     * {@link #archiveGroupCommitTimeoutInUs(long)} and {@link ArchiveDurability#OS_BUFFERED} leaves flushing to
+     * the operating system.
+     * <p>
+     * In group commit mode archived positions, which clustered engines use to acknowledge messages, are only
+     * reported once data has been forced, so group commit delays those acknowledgements. It doesn't delay
+     * indexing: the replay and sequence number indices read the same streams as the archiver, independently of it,
+     * so they can index messages that haven't been forced to disk yet.
+     * <p>
+     * Default: {@link ArchiveDurability#SYNCHRONOUS}.
+     *
+     * @param archiveDurability when data written by the archiver is forced to disk.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_DURABILITY_PROP
+     */
+    public EngineConfiguration archiveDurability(final ArchiveDurability archiveDurability)
+    {
+        Objects.requireNonNull(archiveDurability, "archiveDurability");
+        this.archiveDurability = archiveDurability;
+        return this;
+    }
+
+    /**
+     * Sets the number of bytes that can be archived for a stream before they are forced to disk when
+     * using {@link ArchiveDurability#GROUP_COMMIT}.
+     *
+     * @param archiveGroupCommitBytes the number of bytes archived before a group commit is forced.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_GROUP_COMMIT_BYTES_PROP
+     */
+    public EngineConfiguration archiveGroupCommitBytes(final int archiveGroupCommitBytes)
+    {
+        this.archiveGroupCommitBytes = archiveGroupCommitBytes;
+        return this;
+    }
+
+    /**
+     * Sets the maximum time in microseconds that archived data waits before it is forced to disk when
+     * using {@link ArchiveDurability#GROUP_COMMIT}.
+     *
+     * @param archiveGroupCommitTimeoutInUs the maximum time archived data waits for a group commit.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_GROUP_COMMIT_TIMEOUT_PROP
+     */
+    public EngineConfiguration archiveGroupCommitTimeoutInUs(final long archiveGroupCommitTimeoutInUs)
+    {
+        this.archiveGroupCommitTimeoutInUs = archiveGroupCommitTimeoutInUs;
+        return this;
+    }
+
+    /**
+     * Sets the age after which archived term files are deleted.
+     * <p>
+     * Terms are only deleted once the indexers have passed them, but deletion isn't bounded by the messages that
+     * replay index records still refer to. A resend request for a message in a deleted term is answered with a
+     * gap fill rather than the message, so the retention limits should be set well beyond how far back
+     * counterparties are expected to request resends. This applies to {@link #archiveRetentionMaxSizeInBytes(long)}
+     * as well.
+     *
+     * @param archiveRetentionMaxAgeInMs the age after which term files are deleted, or
+     *                                   {@link ArchiveRetention#NO_LIMIT}.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_RETENTION_MAX_AGE_PROP
+     */
+    public EngineConfiguration archiveRetentionMaxAgeInMs(final long archiveRetentionMaxAgeInMs)
+    {
+        this.archiveRetentionMaxAgeInMs = archiveRetentionMaxAgeInMs;
+        return this;
+    }
+
+    /**
+     * Sets the size of the archive of each of the inbound and outbound streams above which their oldest term
+     * files are deleted. As with {@link #archiveRetentionMaxAgeInMs(long)} resends of messages in deleted terms
+     * are answered with gap fills.
+     *
+     * @param archiveRetentionMaxSizeInBytes the size above which the oldest term files are deleted, or
+     *                                       {@link ArchiveRetention#NO_LIMIT}.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_RETENTION_MAX_SIZE_PROP
+     */
+    public EngineConfiguration archiveRetentionMaxSizeInBytes(final long archiveRetentionMaxSizeInBytes)
+    {
+        this.archiveRetentionMaxSizeInBytes = archiveRetentionMaxSizeInBytes;
+        return this;
+    }
+
+    /**
+     * Sets the time between checks of the archive for term files to delete.
+     *
+     * @param archiveRetentionCheckIntervalInMs the time between checks of the archive.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_RETENTION_CHECK_INTERVAL_PROP
+     */
+    public EngineConfiguration archiveRetentionCheckIntervalInMs(final long archiveRetentionCheckIntervalInMs)
+    {
+        this.archiveRetentionCheckIntervalInMs = archiveRetentionCheckIntervalInMs;
+        return this;
+    }
+
     /**
      * Sets the aeron channel to use for clustered communications.
      *
@@ -471,6 +723,34 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Set the number of bytes a follower reads from the leader before acknowledging them. Acknowledgements
+     * are always sent once a follower has caught up with the leader.
+     *
+     * @param clusterAcknowledgementBatchSizeInBytes the number of bytes read before acknowledging them,
+     *                                               0 acknowledges every read.
+     * @return this
+     */
+    public EngineConfiguration clusterAcknowledgementBatchSizeInBytes(
+        final int clusterAcknowledgementBatchSizeInBytes)
+    {
+        this.clusterAcknowledgementBatchSizeInBytes = clusterAcknowledgementBatchSizeInBytes;
+        return this;
+    }
+
+    /**
+     * Set the longest time a follower holds back an acknowledgement for whilst it keeps reading from the leader.
+     *
+     * @param clusterAcknowledgementBatchIntervalInMs the longest time an acknowledgement is held back for.
+     * @return this
+     */
+    public EngineConfiguration clusterAcknowledgementBatchIntervalInMs(
+        final long clusterAcknowledgementBatchIntervalInMs)
+    {
+        this.clusterAcknowledgementBatchIntervalInMs = clusterAcknowledgementBatchIntervalInMs;
+        return this;
+    }
+
     public EngineConfiguration channelSupplierFactory(final Function<EngineConfiguration, TcpChannelSupplier> value)
     {
         this.channelSupplierFactory = value;
@@ -506,6 +786,11 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return receiverBufferSize;
     }
 
+    public boolean deferReceiverBufferCompaction()
+    {
+        return deferReceiverBufferCompaction;
+    }
+
     public int receiverSocketBufferSize()
     {
         return receiverSocketBufferSize;
@@ -536,6 +821,11 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return replayIndexFileSize;
     }
 
+    public int replayIndexSegmentCount()
+    {
+        return replayIndexSegmentCount;
+    }
+
     public int loggerCacheSetSize()
     {
         return loggerCacheSetSize;
@@ -576,6 +866,16 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return replayFragmentLimit;
     }
 
+    public int replayBatchSize()
+    {
+        return replayBatchSize;
+    }
+
+    public int replayerCount()
+    {
+        return replayerCount;
+    }
+
     public int inboundBytesReceivedLimit()
     {
         return inboundBytesReceivedLimit;
@@ -616,6 +916,36 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return noLogonDisconnectTimeoutInMs;
     }
 
+    public ArchiveDurability archiveDurability()
+    {
+        return archiveDurability;
+    }
+
+    public int archiveGroupCommitBytes()
+    {
+        return archiveGroupCommitBytes;
+    }
+
+    public long archiveGroupCommitTimeoutInUs()
+    {
+        return archiveGroupCommitTimeoutInUs;
+    }
+
+    public long archiveRetentionMaxAgeInMs()
+    {
+        return archiveRetentionMaxAgeInMs;
+    }
+
+    public long archiveRetentionMaxSizeInBytes()
+    {
+        return archiveRetentionMaxSizeInBytes;
+    }
+
+    public long archiveRetentionCheckIntervalInMs()
+    {
+        return archiveRetentionCheckIntervalInMs;
+    }
+
     public String clusterAeronChannel()
     {
         return clusterAeronChannel;
@@ -641,6 +971,16 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return clusterTimeoutIntervalInMs;
     }
 
+    public int clusterAcknowledgementBatchSizeInBytes()
+    {
+        return clusterAcknowledgementBatchSizeInBytes;
+    }
+
+    public long clusterAcknowledgementBatchIntervalInMs()
+    {
+        return clusterAcknowledgementBatchIntervalInMs;
+    }
+
     public RoleHandler roleHandler()
     {
         return roleHandler;
@@ -710,6 +1050,12 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
                 sessionBufferSize()));
         }
 
+        if (replayerCount() < 1)
+        {
+            throw new IllegalArgumentException(String.format(
+                "You must have at least one replayer, but replayerCount was %d", replayerCount()));
+        }
+
         if (sentSequenceNumberIndex() == null)
         {
             sentSequenceNumberIndex = mapFile(DEFAULT_SEQUENCE_NUMBERS_SENT_FILE, sequenceNumberIndexSize);
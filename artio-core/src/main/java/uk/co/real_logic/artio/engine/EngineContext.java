@@ -25,6 +25,7 @@ import org.agrona.concurrent.Agent;
 import org.agrona.concurrent.IdleStrategy;
 import org.agrona.concurrent.NanoClock;
 import org.agrona.concurrent.SystemEpochClock;
+import uk.co.real_logic.artio.EpochFractionClock;
 import uk.co.real_logic.artio.FixCounters;
 import uk.co.real_logic.artio.StreamInformation;
 import uk.co.real_logic.artio.engine.logger.*;
@@ -36,8 +37,10 @@ import uk.co.real_logic.artio.replication.StreamIdentifier;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
-import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static uk.co.real_logic.artio.CommonConfiguration.backoffIdleStrategy;
 import static uk.co.real_logic.artio.GatewayProcess.INBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.GatewayProcess.OUTBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.dictionary.generation.Exceptions.suppressingClose;
@@ -63,11 +66,13 @@ public abstract class EngineContext implements AutoCloseable
     protected Indexer inboundIndexer;
     protected Indexer outboundIndexer;
     protected Agent archivingAgent;
+    // Only used when there's more than one replayer, a single replayer is part of the archivingAgent
+    protected final List<Agent> replayAgents = new ArrayList<>();
 
     public static EngineContext of(
         final EngineConfiguration configuration,
         final ErrorHandler errorHandler,
-        final ExclusivePublication replayPublication,
+        final ExclusivePublication[] replayPublications,
         final FixCounters fixCounters,
         final Aeron aeron,
         final EngineDescriptorStore engineDescriptorStore)
@@ -83,7 +88,7 @@ public abstract class EngineContext implements AutoCloseable
             return new ClusterContext(
                 configuration,
                 errorHandler,
-                replayPublication,
+                replayPublications,
                 fixCounters,
                 aeron,
                 engineDescriptorStore);
@@ -93,7 +98,7 @@ public abstract class EngineContext implements AutoCloseable
             return new SoloContext(
                 configuration,
                 errorHandler,
-                replayPublication,
+                replayPublications,
                 fixCounters,
                 aeron);
         }
@@ -152,6 +157,7 @@ public abstract class EngineContext implements AutoCloseable
             logFileDir,
             streamId,
             configuration.replayIndexFileSize(),
+            configuration.replayIndexSegmentCount(),
             cacheNumSets,
             cacheSetSize,
             LoggerUtil::map,
@@ -204,27 +210,60 @@ public abstract class EngineContext implements AutoCloseable
             configuration.loggerCacheSetSize(),
             streamId,
             configuration.agentNamePrefix(),
-            completionPosition);
+            completionPosition,
+            configuration.archiveDurability(),
+            configuration.archiveGroupCommitBytes(),
+            MICROSECONDS.toNanos(configuration.archiveGroupCommitTimeoutInUs()),
+            nanoClock);
     }
 
-    protected Replayer newReplayer(
-        final ExclusivePublication replayPublication, final ArchiveReader outboundArchiveReader)
+    protected List<Replayer> newReplayers(
+        final ExclusivePublication[] replayPublications, final Supplier<ArchiveReader> outboundArchiveReaders)
     {
-        return new Replayer(
-            newReplayQuery(outboundArchiveReader, configuration.archiverIdleStrategy()),
-            replayPublication,
-            new ExclusiveBufferClaim(),
-            configuration.archiverIdleStrategy(),
-            errorHandler,
-            configuration.outboundMaxClaimAttempts(),
-            inboundLibraryStreams.subscription("replayer"),
-            configuration.agentNamePrefix(),
-            new SystemEpochClock());
+        final int replayerCount = replayPublications.length;
+        final List<Replayer> replayers = new ArrayList<>(replayerCount);
+        for (int partition = 0; partition < replayerCount; partition++)
+        {
+            // Replayers on their own threads can't share the archiver's idle strategy
+            final IdleStrategy idleStrategy = replayerCount == 1 ?
+                configuration.archiverIdleStrategy() : backoffIdleStrategy();
+
+            replayers.add(new Replayer(
+                newReplayQuery(outboundArchiveReaders.get(), idleStrategy),
+                replayPublications[partition],
+                new ExclusiveBufferClaim(),
+                idleStrategy,
+                errorHandler,
+                configuration.outboundMaxClaimAttempts(),
+                configuration.replayBatchSize(),
+                partition,
+                replayerCount,
+                inboundLibraryStreams.subscription("replayer"),
+                configuration.agentNamePrefix(),
+                new EpochFractionClock(
+                    new SystemEpochClock(), configuration.epochNanoClock(), configuration.sendingTimeFormat())));
+        }
+
+        return replayers;
+    }
+
+    protected void addReplayers(final List<Agent> archivingAgents, final List<Replayer> replayers)
+    {
+        if (replayers.size() == 1)
+        {
+            archivingAgents.addAll(replayers);
+        }
+        else
+        {
+            replayAgents.addAll(replayers);
+        }
     }
 
     protected void newIndexers(
         final ArchiveReader inboundArchiveReader,
         final ArchiveReader outboundArchiveReader,
+        final Archiver inboundArchiver,
+        final Archiver outboundArchiver,
         final Index extraOutboundIndex)
     {
         final int cacheSetSize = configuration.loggerCacheSetSize();
@@ -233,8 +272,13 @@ public abstract class EngineContext implements AutoCloseable
 
         final ReplayIndex replayIndex = newReplayIndex(cacheSetSize, cacheNumSets, logFileDir, INBOUND_LIBRARY_STREAM);
 
+        final List<Index> inboundIndices = new ArrayList<>();
+        inboundIndices.add(replayIndex);
+        inboundIndices.add(receivedSequenceNumberIndex);
+        addArchiveRetention(inboundIndices, inboundArchiveReader, inboundArchiver);
+
         inboundIndexer = new Indexer(
-            asList(replayIndex, receivedSequenceNumberIndex),
+            inboundIndices,
             inboundArchiveReader,
             inboundLibraryStreams.subscription("inboundIndexer"),
             configuration.agentNamePrefix(),
@@ -247,6 +291,7 @@ public abstract class EngineContext implements AutoCloseable
         {
             outboundIndices.add(extraOutboundIndex);
         }
+        addArchiveRetention(outboundIndices, outboundArchiveReader, outboundArchiver);
 
         outboundIndexer = new Indexer(
             outboundIndices,
@@ -256,6 +301,25 @@ public abstract class EngineContext implements AutoCloseable
             outboundLibraryCompletionPosition);
     }
 
+    protected void addArchiveRetention(
+        final List<Index> indices, final ArchiveReader archiveReader, final Archiver archiver)
+    {
+        final long maxAgeInMs = configuration.archiveRetentionMaxAgeInMs();
+        final long maxSizeInBytes = configuration.archiveRetentionMaxSizeInBytes();
+        if (maxAgeInMs != ArchiveRetention.NO_LIMIT || maxSizeInBytes != ArchiveRetention.NO_LIMIT)
+        {
+            indices.add(new ArchiveRetention(
+                new ArrayList<>(indices),
+                LoggerUtil.newArchiveMetaData(configuration.logFileDir()),
+                archiveReader.fullStreamId(),
+                archiver::isArchiving,
+                new SystemEpochClock(),
+                maxAgeInMs,
+                maxSizeInBytes,
+                configuration.archiveRetentionCheckIntervalInMs()));
+        }
+    }
+
     public abstract Streams outboundLibraryStreams();
 
     public abstract Streams inboundLibraryStreams();
@@ -304,4 +368,9 @@ public abstract class EngineContext implements AutoCloseable
     {
         return archivingAgent;
     }
+
+    List<Agent> replayAgents()
+    {
+        return replayAgents;
+    }
 }
@@ -19,6 +19,10 @@ import io.aeron.Aeron;
 import org.agrona.ErrorHandler;
 import org.agrona.concurrent.Agent;
 import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.CompositeAgent;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Interface for determining how an Engine's Agents are allocated to threads.
@@ -44,6 +48,44 @@ public interface EngineScheduler extends AutoCloseable
         Agent monitoringAgent,
         Agent conductorAgent);
 
+    /**
+     * Invoked by the FIX Engine to start the threads when it has been configured with more than one replayer.
+     * Should only return once they are started.
+     *
+     * By default the replay agents are run on the same thread as the archiving agent, schedulers that want to
+     * scale out replay should override this method.
+     *
+     * @param configuration the engine's configuration object.
+     * @param errorHandler the ErrorHandler used by the engine.
+     * @param framer the framer agent to schedule.
+     * @param archivingAgent the archiver agent to schedule.
+     * @param replayAgents the replay agents to schedule, empty if the only replayer is part of the archiving agent.
+     * @param monitoringAgent the monitoring agent to schedule.
+     * @param conductorAgent if aeron has useConductorInvoker enable it
+     *                       is the agent for the conductor, otherwise null.
+     * @see EngineConfiguration#replayerCount(int)
+     */
+    default void launch(
+        final EngineConfiguration configuration,
+        final ErrorHandler errorHandler,
+        final Agent framer,
+        final Agent archivingAgent,
+        final List<Agent> replayAgents,
+        final Agent monitoringAgent,
+        final Agent conductorAgent)
+    {
+        Agent agent = archivingAgent;
+        if (!replayAgents.isEmpty())
+        {
+            final List<Agent> agents = new ArrayList<>();
+            agents.add(archivingAgent);
+            agents.addAll(replayAgents);
+            agent = new CompositeAgent(agents);
+        }
+
+        launch(configuration, errorHandler, framer, agent, monitoringAgent, conductorAgent);
+    }
+
     /**
      * Invoked by the FIX Engine to stop the threads. Should only return once they are completed stopped.
      */
@@ -158,16 +158,16 @@ public final class FixEngine extends GatewayProcess
             this.configuration = configuration;
             engineDescriptorStore = new EngineDescriptorStore(errorHandler);
 
-            final ExclusivePublication replayPublication = replayPublication();
+            final ExclusivePublication[] replayPublications = replayPublications();
             engineContext = EngineContext.of(
                 configuration,
                 errorHandler,
-                replayPublication,
+                replayPublications,
                 fixCounters,
                 aeron,
                 engineDescriptorStore);
             streams = engineContext.streams();
-            initFramer(configuration, fixCounters, replayPublication.sessionId());
+            initFramer(configuration, fixCounters, replayPublications);
             initMonitoringAgent(timers.all(), configuration);
         }
         catch (final Exception e)
@@ -183,24 +183,35 @@ public final class FixEngine extends GatewayProcess
         }
     }
 
-    private ExclusivePublication replayPublication()
+    // One publication per replayer, they share a stream and are told apart by their session ids.
+    // Without outbound logging there's only a gap filler, so a single publication.
+    private ExclusivePublication[] replayPublications()
     {
-        final ExclusivePublication publication = aeron.addExclusivePublication(
-            IPC_CHANNEL, OUTBOUND_REPLAY_STREAM);
-        StreamInformation.print("replayPublication", publication, configuration);
-        return publication;
+        final int replayerCount = configuration.logOutboundMessages() ? configuration.replayerCount() : 1;
+        final ExclusivePublication[] publications = new ExclusivePublication[replayerCount];
+        for (int i = 0; i < publications.length; i++)
+        {
+            final ExclusivePublication publication = aeron.addExclusivePublication(
+                IPC_CHANNEL, OUTBOUND_REPLAY_STREAM);
+            StreamInformation.print("replayPublication", publication, configuration);
+            publications[i] = publication;
+        }
+
+        return publications;
     }
 
     private void initFramer(
-        final EngineConfiguration configuration, final FixCounters fixCounters, final int replaySessionId)
+        final EngineConfiguration configuration,
+        final FixCounters fixCounters,
+        final ExclusivePublication[] replayPublications)
     {
         framerContext = new FramerContext(
             configuration,
             fixCounters,
             engineContext,
             errorHandler,
-            replayImage("replay", replaySessionId),
-            replayImage("slow-replay", replaySessionId),
+            replayImages("replay", replayPublications),
+            replayImages("slow-replay", replayPublications),
             engineDescriptorStore,
             timers,
             aeron.conductorAgentInvoker());
@@ -221,12 +232,23 @@ public final class FixEngine extends GatewayProcess
         return streams.isLeader();
     }
 
-    private Image replayImage(final String name, final int replaySessionId)
+    private Image[] replayImages(final String name, final ExclusivePublication[] replayPublications)
     {
         final Subscription subscription = aeron.addSubscription(
             IPC_CHANNEL, OUTBOUND_REPLAY_STREAM);
         StreamInformation.print(name, subscription, configuration);
 
+        final Image[] images = new Image[replayPublications.length];
+        for (int i = 0; i < images.length; i++)
+        {
+            images[i] = replayImage(subscription, replayPublications[i].sessionId());
+        }
+
+        return images;
+    }
+
+    private Image replayImage(final Subscription subscription, final int replaySessionId)
+    {
         // Await replay publication
         while (true)
         {
@@ -259,6 +281,7 @@ public final class FixEngine extends GatewayProcess
             errorHandler,
             framerContext.framer(),
             engineContext.archivingAgent(),
+            engineContext.replayAgents(),
             monitoringAgent,
             conductorAgent());
 
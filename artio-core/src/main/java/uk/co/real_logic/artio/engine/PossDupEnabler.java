@@ -23,7 +23,9 @@ import org.agrona.ExpandableArrayBuffer;
 import org.agrona.MutableDirectBuffer;
 import org.agrona.concurrent.EpochClock;
 import uk.co.real_logic.artio.DebugLogger;
+import uk.co.real_logic.artio.EpochFractionClock;
 import uk.co.real_logic.artio.dictionary.IntDictionary;
+import uk.co.real_logic.artio.fields.EpochFractionFormat;
 import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
 import uk.co.real_logic.artio.messages.FixMessageDecoder;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
@@ -42,6 +44,8 @@ import static java.nio.charset.StandardCharsets.US_ASCII;
 import static uk.co.real_logic.artio.LogTag.CATCHUP;
 import static uk.co.real_logic.artio.engine.PossDupFinder.NO_ENTRY;
 import static uk.co.real_logic.artio.engine.framer.CatchupReplayer.FRAME_LENGTH;
+import static uk.co.real_logic.artio.fields.UtcTimestampEncoder.LENGTH_WITH_MICROSECONDS;
+import static uk.co.real_logic.artio.fields.UtcTimestampEncoder.LENGTH_WITH_NANOSECONDS;
 import static uk.co.real_logic.artio.util.AsciiBuffer.SEPARATOR_LENGTH;
 import static uk.co.real_logic.artio.util.MutableAsciiBuffer.SEPARATOR;
 
@@ -58,14 +62,14 @@ public class PossDupEnabler
     private final PossDupFinder possDupFinder = new PossDupFinder();
     private final OtfParser parser = new OtfParser(possDupFinder, new IntDictionary());
     private final MutableAsciiBuffer mutableAsciiFlyweight = new MutableAsciiBuffer();
-    private final UtcTimestampEncoder utcTimestampEncoder = new UtcTimestampEncoder();
+    private final MutableAsciiBuffer sendingTimeBuffer = new MutableAsciiBuffer(new byte[LENGTH_WITH_NANOSECONDS]);
 
     private final ExclusiveBufferClaim bufferClaim;
     private final IntPredicate claimer;
     private final PreCommit onPreCommit;
     private final Consumer<String> onIllegalStateFunc;
     private final ErrorHandler errorHandler;
-    private final EpochClock clock;
+    private final EpochFractionClock clock;
     private final int maxPayloadLength;
 
     private int fragmentedMessageLength;
@@ -78,6 +82,25 @@ public class PossDupEnabler
         final ErrorHandler errorHandler,
         final EpochClock clock,
         final int maxPayloadLength)
+    {
+        this(
+            bufferClaim,
+            claimer,
+            onPreCommit,
+            onIllegalStateFunc,
+            errorHandler,
+            EpochFractionClock.milliseconds(clock),
+            maxPayloadLength);
+    }
+
+    public PossDupEnabler(
+        final ExclusiveBufferClaim bufferClaim,
+        final IntPredicate claimer,
+        final PreCommit onPreCommit,
+        final Consumer<String> onIllegalStateFunc,
+        final ErrorHandler errorHandler,
+        final EpochFractionClock clock,
+        final int maxPayloadLength)
     {
         this.bufferClaim = bufferClaim;
         this.claimer = claimer;
@@ -339,8 +362,40 @@ public class PossDupEnabler
         final int sendingTimeLength = possDupFinder.sendingTimeLength();
 
         final int sendingTimeClaimOffset = srcToClaim(sendingTimeOffset, srcOffset, claimOffset);
-        utcTimestampEncoder.encode(clock.time());
-        claimBuffer.putBytes(sendingTimeClaimOffset, utcTimestampEncoder.buffer(), 0, sendingTimeLength);
+
+        // The sending time is overwritten in place, so it is encoded with the precision of the original field
+        // rather than the configured precision in order to keep the message the same length.
+        final EpochFractionFormat format = formatOfLength(sendingTimeLength);
+        final MutableAsciiBuffer sendingTimeBuffer = this.sendingTimeBuffer;
+        final int encodedLength = UtcTimestampEncoder.encode(
+            format.convert(clock.time(), clock.format()), sendingTimeBuffer, 0, format);
+        final int copyLength = Math.min(sendingTimeLength, LENGTH_WITH_NANOSECONDS);
+        if (encodedLength < copyLength)
+        {
+            // Millisecond timestamps leave out a zero fraction of a second
+            sendingTimeBuffer.putAsciiChar(encodedLength, '.');
+            for (int i = encodedLength + 1; i < copyLength; i++)
+            {
+                sendingTimeBuffer.putAsciiChar(i, '0');
+            }
+        }
+
+        claimBuffer.putBytes(sendingTimeClaimOffset, sendingTimeBuffer, 0, copyLength);
+    }
+
+    private static EpochFractionFormat formatOfLength(final int sendingTimeLength)
+    {
+        if (sendingTimeLength >= LENGTH_WITH_NANOSECONDS)
+        {
+            return EpochFractionFormat.NANOSECONDS;
+        }
+
+        if (sendingTimeLength >= LENGTH_WITH_MICROSECONDS)
+        {
+            return EpochFractionFormat.MICROSECONDS;
+        }
+
+        return EpochFractionFormat.MILLISECONDS;
     }
 
     private void updateFrameBodyLength(
@@ -41,7 +41,7 @@ import static uk.co.real_logic.artio.dictionary.generation.Exceptions.suppressin
 
 class SoloContext extends EngineContext
 {
-    private final ExclusivePublication replayPublication;
+    private final ExclusivePublication[] replayPublications;
     private final List<Archiver> archivers = new ArrayList<>();
     private final StreamIdentifier inboundStreamId;
     private final StreamIdentifier outboundStreamId;
@@ -55,14 +55,14 @@ class SoloContext extends EngineContext
     SoloContext(
         final EngineConfiguration configuration,
         final ErrorHandler errorHandler,
-        final ExclusivePublication replayPublication,
+        final ExclusivePublication[] replayPublications,
         final FixCounters fixCounters,
         final Aeron aeron)
     {
         super(configuration, errorHandler, fixCounters, aeron);
         try
         {
-            this.replayPublication = replayPublication;
+            this.replayPublications = replayPublications;
 
             final String channel = configuration.libraryAeronChannel();
             this.inboundStreamId = new StreamIdentifier(channel, INBOUND_LIBRARY_STREAM);
@@ -96,9 +96,12 @@ class SoloContext extends EngineContext
             newIndexers(
                 inboundArchiveReader,
                 outboundArchiveReader,
+                inboundArchiver,
+                outboundArchiver,
                 new SoloPositionSender(inboundLibraryPublication()));
 
-            final Replayer replayer = newReplayer(replayPublication, outboundArchiveReader);
+            final List<Replayer> replayers = newReplayers(
+                replayPublications, () -> archiveReader(outboundStreamId));
 
             archiverSubscription(inboundArchiver, inboundStreamId);
             archiverSubscription(outboundArchiver, outboundStreamId);
@@ -106,14 +109,14 @@ class SoloContext extends EngineContext
             final List<Agent> agents = new ArrayList<>(archivers);
             agents.add(inboundIndexer);
             agents.add(outboundIndexer);
-            agents.add(replayer);
+            addReplayers(agents, replayers);
 
             archivingAgent = new CompositeAgent(agents);
         }
         else
         {
             final GatewayPublication replayGatewayPublication = new GatewayPublication(
-                ClusterablePublication.solo(replayPublication),
+                ClusterablePublication.solo(replayPublications[0]),
                 fixCounters.failedReplayPublications(),
                 configuration.archiverIdleStrategy(),
                 nanoClock,
@@ -16,6 +16,7 @@ final class AuthenticationResult
     final int sentSequenceNumber;
     final int receivedSequenceNumber;
     final AuthenticationError error;
+    final PendingAuthentication pendingAuthentication;
 
     private AuthenticationResult(final AuthenticationError error)
     {
@@ -23,6 +24,16 @@ final class AuthenticationResult
         this.error = error;
         sentSequenceNumber = -1;
         receivedSequenceNumber = -1;
+        pendingAuthentication = null;
+    }
+
+    private AuthenticationResult(final PendingAuthentication pendingAuthentication)
+    {
+        this.session = null;
+        this.error = null;
+        sentSequenceNumber = -1;
+        receivedSequenceNumber = -1;
+        this.pendingAuthentication = pendingAuthentication;
     }
 
     private AuthenticationResult(
@@ -34,6 +45,7 @@ final class AuthenticationResult
         this.sentSequenceNumber = sentSequenceNumber;
         this.receivedSequenceNumber = receivedSequenceNumber;
         this.error = null;
+        pendingAuthentication = null;
     }
 
     static AuthenticationResult authenticatedSession(
@@ -44,6 +56,16 @@ final class AuthenticationResult
         return new AuthenticationResult(session, sentSequenceNumber, receivedSequenceNumber);
     }
 
+    static AuthenticationResult pendingAuthentication(final PendingAuthentication pendingAuthentication)
+    {
+        return new AuthenticationResult(pendingAuthentication);
+    }
+
+    boolean isPending()
+    {
+        return null != pendingAuthentication;
+    }
+
     boolean isDuplicateSession()
     {
         return null != error && AuthenticationError.DUPLICATE_SESSION == error;
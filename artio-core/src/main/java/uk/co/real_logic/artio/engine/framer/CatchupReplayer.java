@@ -24,6 +24,7 @@ import org.agrona.ErrorHandler;
 import org.agrona.MutableDirectBuffer;
 import org.agrona.concurrent.EpochClock;
 import uk.co.real_logic.artio.DebugLogger;
+import uk.co.real_logic.artio.EpochFractionClock;
 import uk.co.real_logic.artio.builder.Encoder;
 import uk.co.real_logic.artio.builder.HeaderEncoder;
 import uk.co.real_logic.artio.builder.SequenceResetEncoder;
@@ -110,7 +111,8 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
         final int replayFromSequenceIndex,
         final GatewaySession session,
         final long catchupTimeout,
-        final EpochClock clock)
+        final EpochClock clock,
+        final EpochFractionClock sendingTimeClock)
     {
         this.inboundMessages = inboundMessages;
         this.inboundPublication = inboundPublication;
@@ -131,7 +133,7 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
             this::onPreCommit,
             this::onIllegalState,
             errorHandler,
-            clock,
+            sendingTimeClock,
             inboundPublication.maxPayloadLength());
     }
 
@@ -19,6 +19,7 @@ import org.agrona.ErrorHandler;
 import org.agrona.collections.LongHashSet;
 import uk.co.real_logic.artio.FixCounters;
 import uk.co.real_logic.artio.engine.EngineConfiguration;
+import uk.co.real_logic.artio.engine.logger.Replayer;
 import uk.co.real_logic.artio.engine.logger.SequenceNumberIndexReader;
 import uk.co.real_logic.artio.messages.ConnectionType;
 import uk.co.real_logic.artio.messages.SequenceNumberType;
@@ -37,7 +38,7 @@ class EndPointFactory
     private final LongHashSet replicatedConnectionIds;
     private final GatewaySessions gatewaySessions;
 
-    private SlowPeeker replaySlowPeeker;
+    private SlowPeeker[] replaySlowPeekers;
 
     EndPointFactory(
         final EngineConfiguration configuration,
@@ -89,7 +90,8 @@ class EndPointFactory
             sequenceNumberType,
             connectionType,
             replicatedConnectionIds,
-            gatewaySessions
+            gatewaySessions,
+            configuration.deferReceiverBufferCompaction()
         );
     }
 
@@ -105,7 +107,7 @@ class EndPointFactory
             connectionId,
             libraryId,
             libraryBlockablePosition,
-            replaySlowPeeker,
+            replaySlowPeekers[Replayer.partition(connectionId, replaySlowPeekers.length)],
             channel,
             fixCounters.bytesInBuffer(connectionId, remoteAddress),
             fixCounters.invalidLibraryAttempts(connectionId, remoteAddress),
@@ -117,8 +119,9 @@ class EndPointFactory
         );
     }
 
-    void replaySlowPeeker(final SlowPeeker replaySlowPeeker)
+    // Indexed by replayer partition, connections are only ever replayed to by the replayer for their partition
+    void replaySlowPeekers(final SlowPeeker[] replaySlowPeekers)
     {
-        this.replaySlowPeeker = replaySlowPeeker;
+        this.replaySlowPeekers = replaySlowPeekers;
     }
 }
@@ -33,6 +33,7 @@ import org.agrona.concurrent.AgentInvoker;
 import org.agrona.concurrent.EpochClock;
 import org.agrona.concurrent.QueuedPipe;
 import uk.co.real_logic.artio.DebugLogger;
+import uk.co.real_logic.artio.EpochFractionClock;
 import uk.co.real_logic.artio.LivenessDetector;
 import uk.co.real_logic.artio.Pressure;
 import uk.co.real_logic.artio.dictionary.generation.Exceptions;
@@ -122,12 +123,14 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
 
     private final TcpChannelSupplier channelSupplier;
     private final EpochClock clock;
+    private final EpochFractionClock sendingTimeClock;
     private final Timer outboundTimer;
     private final Timer sendTimer;
 
     private final ControlledFragmentHandler librarySubscriber;
-    private final ControlledFragmentHandler replaySubscriber;
-    private final ControlledFragmentHandler replaySlowSubscriber;
+    // Replay fields are indexed by replayer partition
+    private final ControlledFragmentHandler[] replaySubscribers;
+    private final ControlledFragmentHandler[] replaySlowSubscribers;
     private final ClusterFragmentHandler clusterSubscriber;
 
     private final ReceiverEndPoints receiverEndPoints = new ReceiverEndPoints();
@@ -141,8 +144,8 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
     private final ClusterSlowPeeker clusterSlowPeeker;
     private final Subscription librarySubscription;
     private final SubscriptionSlowPeeker librarySlowPeeker;
-    private final Image replayImage;
-    private final SlowPeeker replaySlowPeeker;
+    private final Image[] replayImages;
+    private final SlowPeeker[] replaySlowPeekers;
     private final BlockablePosition engineBlockablePosition;
     private final GatewayPublication inboundPublication;
     private final String agentNamePrefix;
@@ -184,8 +187,8 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         final ClusterSubscription clusterSlowSubscription,
         final Subscription librarySubscription,
         final Subscription slowSubscription,
-        final Image replayImage,
-        final Image replaySlowImage,
+        final Image[] replayImages,
+        final Image[] replaySlowImages,
         final ReplayQuery inboundMessages,
         final GatewayPublication outboundPublication,
         final GatewayPublication inboundPublication,
@@ -206,13 +209,15 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         final AgentInvoker conductorAgentInvoker)
     {
         this.clock = clock;
+        this.sendingTimeClock = new EpochFractionClock(
+            clock, configuration.epochNanoClock(), configuration.sendingTimeFormat());
         this.outboundTimer = outboundTimer;
         this.sendTimer = sendTimer;
         this.configuration = configuration;
         this.endPointFactory = endPointFactory;
         this.clusterSubscription = clusterSubscription;
         this.librarySubscription = librarySubscription;
-        this.replayImage = replayImage;
+        this.replayImages = replayImages;
         this.gatewaySessions = gatewaySessions;
         this.inboundMessages = inboundMessages;
         this.errorHandler = errorHandler;
@@ -239,8 +244,13 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         this.replayFragmentLimit = configuration.replayFragmentLimit();
         this.inboundBytesReceivedLimit = configuration.inboundBytesReceivedLimit();
 
-        this.replaySlowPeeker = new SlowPeeker(replaySlowImage, replayImage);
-        endPointFactory.replaySlowPeeker(replaySlowPeeker);
+        final int replayerCount = replayImages.length;
+        this.replaySlowPeekers = new SlowPeeker[replayerCount];
+        for (int i = 0; i < replayerCount; i++)
+        {
+            replaySlowPeekers[i] = new SlowPeeker(replaySlowImages[i], replayImages[i]);
+        }
+        endPointFactory.replaySlowPeekers(replaySlowPeekers);
 
         if (isClustered())
         {
@@ -271,7 +281,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
 
         // We lookup replayed message by session id, since the connection id may have changed
         // if it's a persistent session.
-        replaySubscriber = new ImageControlledFragmentAssembler(ProtocolSubscription.of(new ProtocolHandler()
+        final ProtocolSubscription replayProtocolSubscription = ProtocolSubscription.of(new ProtocolHandler()
         {
             public Action onMessage(
                 final DirectBuffer buffer,
@@ -294,11 +304,9 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
                 // Should never be replayed.
                 return Action.CONTINUE;
             }
-        }),
-        0,
-        true);
+        });
 
-        replaySlowSubscriber = new ControlledFragmentAssembler(ProtocolSubscription.of(new ProtocolHandler()
+        final ProtocolSubscription replaySlowProtocolSubscription = ProtocolSubscription.of(new ProtocolHandler()
         {
             public Action onMessage(
                 final DirectBuffer buffer,
@@ -321,7 +329,16 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
                 // Should never be replayed.
                 return Action.CONTINUE;
             }
-        }));
+        });
+
+        // Each replay image needs its own assemblers as they hold the state of partially assembled messages
+        replaySubscribers = new ControlledFragmentHandler[replayerCount];
+        replaySlowSubscribers = new ControlledFragmentHandler[replayerCount];
+        for (int i = 0; i < replayerCount; i++)
+        {
+            replaySubscribers[i] = new ImageControlledFragmentAssembler(replayProtocolSubscription, 0, true);
+            replaySlowSubscribers[i] = new ControlledFragmentAssembler(replaySlowProtocolSubscription);
+        }
 
         try
         {
@@ -403,8 +420,16 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
 
     private int sendReplayMessages()
     {
-        return replayImage.controlledPoll(replaySubscriber, replayFragmentLimit) +
-            replaySlowPeeker.peek(replaySlowSubscriber);
+        final Image[] replayImages = this.replayImages;
+        final SlowPeeker[] replaySlowPeekers = this.replaySlowPeekers;
+        int messagesRead = 0;
+        for (int i = 0; i < replayImages.length; i++)
+        {
+            messagesRead += replayImages[i].controlledPoll(replaySubscribers[i], replayFragmentLimit) +
+                replaySlowPeekers[i].peek(replaySlowSubscribers[i]);
+        }
+
+        return messagesRead;
     }
 
     private int sendOutboundMessages()
@@ -904,6 +929,11 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         return CONTINUE;
     }
 
+    void onAuthenticating(final ReceiverEndPoint receiverEndPoint)
+    {
+        receiverEndPoints.onAuthenticating(receiverEndPoint);
+    }
+
     public Action onLibraryConnect(
         final int libraryId,
         final String libraryName,
@@ -1203,7 +1233,8 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
                 replayFromSequenceIndex,
                 session,
                 catchupTimeout(),
-                clock));
+                clock,
+                sendingTimeClock));
         }
         else
         {
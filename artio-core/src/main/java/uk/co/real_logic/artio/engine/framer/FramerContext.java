@@ -20,6 +20,7 @@ import org.agrona.ErrorHandler;
 import org.agrona.LangUtil;
 import org.agrona.collections.LongHashSet;
 import org.agrona.concurrent.*;
+import uk.co.real_logic.artio.EpochFractionClock;
 import uk.co.real_logic.artio.FixCounters;
 import uk.co.real_logic.artio.Reply;
 import uk.co.real_logic.artio.engine.EngineConfiguration;
@@ -63,8 +64,8 @@ public class FramerContext
         final FixCounters fixCounters,
         final EngineContext engineContext,
         final ErrorHandler errorHandler,
-        final Image replayImage,
-        final Image slowReplayImage,
+        final Image[] replayImages,
+        final Image[] slowReplayImages,
         final EngineDescriptorStore engineDescriptorStore,
         final EngineTimers timers,
         final AgentInvoker conductorAgentInvoker)
@@ -86,6 +87,7 @@ public class FramerContext
 
         gatewaySessions = new GatewaySessions(
             clock,
+            new EpochFractionClock(clock, configuration.epochNanoClock(), configuration.sendingTimeFormat()),
             outboundPublication,
             sessionIdStrategy,
             configuration.sessionCustomisationStrategy(),
@@ -129,8 +131,8 @@ public class FramerContext
                 "outboundLibrarySubscription", finalImagePositions),
             engineContext.outboundLibrarySubscription(
                 "outboundSlowSubscription", null),
-            replayImage,
-            slowReplayImage,
+            replayImages,
+            slowReplayImages,
             engineContext.inboundReplayQuery(),
             outboundPublication,
             inboundLibraryPublication,
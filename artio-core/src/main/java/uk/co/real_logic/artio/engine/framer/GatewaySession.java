@@ -126,12 +126,12 @@ class GatewaySession implements SessionInfo
         receiverEndPoint.play();
     }
 
-    int poll(final long time)
+    boolean isAwaitingLogon()
     {
-        return session.poll(time) + checkNoLogonDisconnect(time);
+        return disconnectTimeout != NO_TIMEOUT;
     }
 
-    private int checkNoLogonDisconnect(final long time)
+    int checkNoLogonDisconnect(final long time)
     {
         if (disconnectTimeout == NO_TIMEOUT)
         {
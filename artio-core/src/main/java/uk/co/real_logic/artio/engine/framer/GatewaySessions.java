@@ -17,9 +17,11 @@ package uk.co.real_logic.artio.engine.framer;
 
 import org.agrona.ErrorHandler;
 import org.agrona.LangUtil;
+import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.concurrent.EpochClock;
 import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.DebugLogger;
+import uk.co.real_logic.artio.EpochFractionClock;
 import uk.co.real_logic.artio.FixCounters;
 import uk.co.real_logic.artio.FixGatewayException;
 import uk.co.real_logic.artio.decoder.LogonDecoder;
@@ -36,6 +38,7 @@ import uk.co.real_logic.artio.validation.PersistenceLevel;
 import uk.co.real_logic.artio.validation.SessionPersistenceStrategy;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import static uk.co.real_logic.artio.LogTag.FIX_MESSAGE;
@@ -43,12 +46,22 @@ import static uk.co.real_logic.artio.engine.framer.SessionContexts.DUPLICATE_SES
 import static uk.co.real_logic.artio.validation.SessionPersistenceStrategy.resetSequenceNumbersUponLogon;
 
 /**
- * Keeps track of which sessions managed by the gateway
+ * Keeps track of which sessions managed by the gateway.
+ *
+ * Sessions are indexed by both their connection id and, once known, their session id. Their {@link Session}s are
+ * only polled when they have a deadline due, so idle sessions held by the gateway cost nothing on the duty cycle.
+ * Sessions that are awaiting a logon are checked every duty cycle for their no logon disconnect timeout.
  */
 class GatewaySessions
 {
-    private final List<GatewaySession> sessions = new ArrayList<>();
+    private static final int SESSION_TIMER_WHEEL_SIZE = 4096;
+
+    private final Long2ObjectHashMap<GatewaySession> sessionsByConnectionId = new Long2ObjectHashMap<>();
+    private final Long2ObjectHashMap<GatewaySession> sessionsBySessionId = new Long2ObjectHashMap<>();
+    private final List<GatewaySession> awaitingLogonSessions = new ArrayList<>();
+    private final SessionTimerWheel sessionTimerWheel;
     private final EpochClock clock;
+    private final EpochFractionClock sendingTimeClock;
     private final GatewayPublication outboundPublication;
     private final SessionIdStrategy sessionIdStrategy;
     private final SessionCustomisationStrategy customisationStrategy;
@@ -65,6 +78,7 @@ class GatewaySessions
 
     GatewaySessions(
         final EpochClock clock,
+        final EpochFractionClock sendingTimeClock,
         final GatewayPublication outboundPublication,
         final SessionIdStrategy sessionIdStrategy,
         final SessionCustomisationStrategy customisationStrategy,
@@ -79,6 +93,7 @@ class GatewaySessions
         final SessionPersistenceStrategy sessionPersistenceStrategy)
     {
         this.clock = clock;
+        this.sendingTimeClock = sendingTimeClock;
         this.outboundPublication = outboundPublication;
         this.sessionIdStrategy = sessionIdStrategy;
         this.customisationStrategy = customisationStrategy;
@@ -91,6 +106,7 @@ class GatewaySessions
         this.errorHandler = errorHandler;
         this.sessionContexts = sessionContexts;
         this.sessionPersistenceStrategy = sessionPersistenceStrategy;
+        sessionTimerWheel = new SessionTimerWheel(SESSION_TIMER_WHEEL_SIZE, clock.time());
     }
 
     void acquire(
@@ -113,7 +129,7 @@ class GatewaySessions
             outboundPublication,
             sessionIdStrategy,
             customisationStrategy,
-            clock,
+            sendingTimeClock,
             connectionId,
             FixEngine.ENGINE_LIBRARY_ID);
 
@@ -133,89 +149,98 @@ class GatewaySessions
             // This gets set by the receiver end point once the logon message has been received.
             0,
             reasonableTransmissionTimeInMs,
-            asciiBuffer);
+            asciiBuffer)
+            .sendingTimeClock(sendingTimeClock);
 
         final SessionParser sessionParser = new SessionParser(
             session,
             sessionIdStrategy, validationStrategy,
             errorHandler);
 
-        sessions.add(gatewaySession);
+        sessionsByConnectionId.put(connectionId, gatewaySession);
         gatewaySession.manage(sessionParser, session, engineBlockablePosition);
+        if (gatewaySession.isAwaitingLogon())
+        {
+            awaitingLogonSessions.add(gatewaySession);
+        }
 
         final CompositeKey sessionKey = gatewaySession.sessionKey();
         DebugLogger.log(FIX_MESSAGE, "Gateway Acquired Session %d%n", connectionId);
         if (sessionKey != null)
         {
+            sessionsBySessionId.put(gatewaySession.sessionId(), gatewaySession);
             gatewaySession.onLogon(username, password, heartbeatIntervalInS);
             session.lastReceivedMsgSeqNum(lastReceivedSequenceNumber);
         }
+
+        sessionTimerWheel.add(session);
     }
 
     GatewaySession releaseBySessionId(final long sessionId)
     {
-        final int index = indexBySessionId(sessionId);
-        if (index < 0)
+        final GatewaySession session = sessionsBySessionId.remove(sessionId);
+        if (session != null)
         {
-            return null;
+            sessionsByConnectionId.remove(session.connectionId());
+            onRelease(session);
         }
 
-        return sessions.remove(index);
+        return session;
     }
 
     GatewaySession sessionById(final long sessionId)
     {
-        final int index = indexBySessionId(sessionId);
-        if (index < 0)
-        {
-            return null;
-        }
-
-        return sessions.get(index);
+        return sessionsBySessionId.get(sessionId);
     }
 
-    private int indexBySessionId(final long sessionId)
+    GatewaySession releaseByConnectionId(final long connectionId)
     {
-        final List<GatewaySession> sessions = this.sessions;
-
-        for (int i = 0, size = sessions.size(); i < size; i++)
+        final GatewaySession session = sessionsByConnectionId.remove(connectionId);
+        if (session != null)
         {
-            final GatewaySession session = sessions.get(i);
-            if (session.sessionId() == sessionId)
+            final long sessionId = session.sessionId();
+            if (sessionsBySessionId.get(sessionId) == session)
             {
-                return i;
+                sessionsBySessionId.remove(sessionId);
             }
+            onRelease(session);
+            session.close();
         }
-
-        return -1;
+        return session;
     }
 
-    GatewaySession releaseByConnectionId(final long connectionId)
+    private void onRelease(final GatewaySession session)
     {
-        final GatewaySession session = removeSessionByConnectionId(connectionId, sessions);
-        if (session != null)
+        sessionTimerWheel.remove(session.session());
+        if (session.isAwaitingLogon())
         {
-            session.close();
+            awaitingLogonSessions.remove(session);
         }
-        return session;
     }
 
     int pollSessions(final long time)
     {
-        final List<GatewaySession> sessions = this.sessions;
+        int eventsProcessed = sessionTimerWheel.poll(time);
 
-        int eventsProcessed = 0;
-        for (int i = 0, size = sessions.size(); i < size; i++)
+        final List<GatewaySession> awaitingLogonSessions = this.awaitingLogonSessions;
+        for (int i = awaitingLogonSessions.size() - 1; i >= 0; i--)
         {
-            final GatewaySession session = sessions.get(i);
-            eventsProcessed += session.poll(time);
+            final GatewaySession session = awaitingLogonSessions.get(i);
+            eventsProcessed += session.checkNoLogonDisconnect(time);
+            if (!session.isAwaitingLogon())
+            {
+                final int lastIndex = awaitingLogonSessions.size() - 1;
+                awaitingLogonSessions.set(i, awaitingLogonSessions.get(lastIndex));
+                awaitingLogonSessions.remove(lastIndex);
+            }
         }
+
         return eventsProcessed;
     }
 
-    List<GatewaySession> sessions()
+    Collection<GatewaySession> sessions()
     {
-        return sessions;
+        return sessionsByConnectionId.values();
     }
 
     static GatewaySession removeSessionByConnectionId(final long connectionId, final List<GatewaySession> sessions)
@@ -242,29 +267,62 @@ class GatewaySessions
     {
         final CompositeKey compositeKey = sessionIdStrategy.onAcceptLogon(logon.header());
         final SessionContext sessionContext = sessionContexts.onLogon(compositeKey);
-        final long sessionId = sessionContext.sessionId();
         if (sessionContext == DUPLICATE_SESSION)
         {
             return AuthenticationResult.DUPLICATE_SESSION;
         }
 
-        boolean authenticated;
+        final PendingAuthentication authentication =
+            new PendingAuthentication(compositeKey, sessionContext, connectionId);
         try
         {
-            authenticated = authenticationStrategy.authenticate(logon);
+            authenticationStrategy.authenticateAsync(logon, authentication);
         }
         catch (final Throwable throwable)
         {
             // TODO(Nick): Maybe this should go back to also logging the message that was being decoded.
             onStrategyError("authentication", throwable, connectionId);
-            authenticated = false;
+            authentication.reject();
         }
 
-        if (!authenticated)
+        if (authentication.isPending())
         {
+            return AuthenticationResult.pendingAuthentication(authentication);
+        }
+
+        return onAuthenticated(
+            authentication, logon, sentSequenceNumberIndex, receivedSequenceNumberIndex, gatewaySession);
+    }
+
+    /**
+     * Log on a session whose authentication has completed.
+     *
+     * @param authentication the completed authentication.
+     * @param logon the logon message that was authenticated.
+     * @param sentSequenceNumberIndex the index of sent sequence numbers.
+     * @param receivedSequenceNumberIndex the index of received sequence numbers.
+     * @param gatewaySession the session to log on.
+     * @return the result of the authentication.
+     */
+    AuthenticationResult onAuthenticated(
+        final PendingAuthentication authentication,
+        final LogonDecoder logon,
+        final SequenceNumberIndexReader sentSequenceNumberIndex,
+        final SequenceNumberIndexReader receivedSequenceNumberIndex,
+        final GatewaySession gatewaySession)
+    {
+        if (!authentication.isAccepted())
+        {
+            // Release the session id so that the counterparty can try to logon again
+            sessionContexts.onDisconnect(authentication.sessionContext.sessionId());
             return AuthenticationResult.FAILED_AUTHENTICATION;
         }
 
+        final CompositeKey compositeKey = authentication.compositeKey;
+        final SessionContext sessionContext = authentication.sessionContext;
+        final long connectionId = authentication.connectionId;
+        final long sessionId = sessionContext.sessionId();
+
         PersistenceLevel persistenceLevel;
         try
         {
@@ -289,6 +347,10 @@ class GatewaySessions
         sessionContext.onLogon(resetSeqNum);
 
         gatewaySession.onLogon(sessionId, sessionContext, compositeKey, username, password, logon.heartBtInt());
+        if (sessionsByConnectionId.get(connectionId) == gatewaySession)
+        {
+            sessionsBySessionId.put(sessionId, gatewaySession);
+        }
         gatewaySession.acceptorSequenceNumbers(sentSequenceNumber, receivedSequenceNumber);
         gatewaySession.persistenceLevel(persistenceLevel);
 
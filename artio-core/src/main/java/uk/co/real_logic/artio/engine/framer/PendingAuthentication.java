@@ -0,0 +1,66 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import uk.co.real_logic.artio.session.CompositeKey;
+import uk.co.real_logic.artio.validation.AuthenticationProxy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The authentication of an acceptor's logon, which can be completed from any thread, along with the state that is
+ * needed to log the session on once it has been accepted.
+ */
+final class PendingAuthentication implements AuthenticationProxy
+{
+    private static final int PENDING = 0;
+    private static final int ACCEPTED = 1;
+    private static final int REJECTED = 2;
+
+    private final AtomicInteger state = new AtomicInteger(PENDING);
+
+    final CompositeKey compositeKey;
+    final SessionContext sessionContext;
+    final long connectionId;
+
+    PendingAuthentication(
+        final CompositeKey compositeKey, final SessionContext sessionContext, final long connectionId)
+    {
+        this.compositeKey = compositeKey;
+        this.sessionContext = sessionContext;
+        this.connectionId = connectionId;
+    }
+
+    public void accept()
+    {
+        state.compareAndSet(PENDING, ACCEPTED);
+    }
+
+    public void reject()
+    {
+        state.compareAndSet(PENDING, REJECTED);
+    }
+
+    boolean isPending()
+    {
+        return state.get() == PENDING;
+    }
+
+    boolean isAccepted()
+    {
+        return state.get() == ACCEPTED;
+    }
+}
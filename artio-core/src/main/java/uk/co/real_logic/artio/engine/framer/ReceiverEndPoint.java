@@ -73,6 +73,10 @@ class ReceiverEndPoint
     private static final int SOCKET_DISCONNECTED = -1;
     private static final int UNKNOWN_MESSAGE_TYPE = -1;
 
+    // When deferring compaction, partial messages are only moved to the start of the buffer once
+    // less than this fraction of the buffer remains free to read into.
+    private static final int COMPACTION_THRESHOLD_DIVISOR = 4;
+
     private final LogonDecoder logon = new LogonDecoder();
 
     private final TcpChannel channel;
@@ -87,6 +91,8 @@ class ReceiverEndPoint
     private final ErrorHandler errorHandler;
     private final MutableAsciiBuffer buffer;
     private final ByteBuffer byteBuffer;
+    private final boolean deferBufferCompaction;
+    private final int compactionThreshold;
     private final LongHashSet replicatedConnectionIds;
     private final GatewaySessions gatewaySessions;
 
@@ -95,10 +101,12 @@ class ReceiverEndPoint
     private GatewaySession gatewaySession;
     private long sessionId;
     private int sequenceIndex;
+    private int startOfData = 0;
     private int usedBufferData = 0;
     private boolean hasDisconnected = false;
     private SelectionKey selectionKey;
     private boolean isPaused = false;
+    private PendingAuthentication pendingAuthentication;
 
     ReceiverEndPoint(
         final TcpChannel channel,
@@ -118,7 +126,8 @@ class ReceiverEndPoint
         final SequenceNumberType sequenceNumberType,
         final ConnectionType connectionType,
         final LongHashSet replicatedConnectionIds,
-        final GatewaySessions gatewaySessions)
+        final GatewaySessions gatewaySessions,
+        final boolean deferBufferCompaction)
     {
         Objects.requireNonNull(clusterablePublication, "clusterablePublication");
         Objects.requireNonNull(libraryPublication, "libraryPublication");
@@ -140,9 +149,11 @@ class ReceiverEndPoint
         this.libraryId = libraryId;
         this.replicatedConnectionIds = replicatedConnectionIds;
         this.gatewaySessions = gatewaySessions;
+        this.deferBufferCompaction = deferBufferCompaction;
 
         byteBuffer = ByteBuffer.allocateDirect(bufferSize);
         buffer = new MutableAsciiBuffer(byteBuffer);
+        compactionThreshold = bufferSize / COMPACTION_THRESHOLD_DIVISOR;
 
         // Initiator sessions are persistent if the sequence numbers are expected to be persistent.
         if (connectionType == INITIATOR)
@@ -187,12 +198,18 @@ class ReceiverEndPoint
 
     private int readData() throws IOException
     {
+        if (deferBufferCompaction && startOfData > 0 && byteBuffer.remaining() < compactionThreshold)
+        {
+            moveRemainingDataToBufferStart(startOfData);
+        }
+
+        final int startOfRead = usedBufferData;
         final int dataRead = channel.read(byteBuffer);
         if (dataRead != SOCKET_DISCONNECTED)
         {
             if (dataRead > 0)
             {
-                DebugLogger.log(FIX_MESSAGE, "Read     %s%n", buffer, 0, dataRead);
+                DebugLogger.log(FIX_MESSAGE, "Read     %s%n", buffer, startOfRead, dataRead);
             }
             usedBufferData += dataRead;
         }
@@ -206,7 +223,8 @@ class ReceiverEndPoint
 
     private int frameMessages()
     {
-        int offset = 0;
+        final int startOfFrame = startOfData;
+        int offset = startOfFrame;
         while (true)
         {
             final int startOfBodyLength = offset + START_OF_BODY_LENGTH;
@@ -221,7 +239,7 @@ class ReceiverEndPoint
                 if (invalidBodyLengthTag(offset))
                 {
                     invalidateMessage(offset);
-                    return offset;
+                    return offset - startOfFrame;
                 }
 
                 final int endOfBodyLength = scanEndOfBodyLength(startOfBodyLength);
@@ -243,7 +261,7 @@ class ReceiverEndPoint
                 {
                     if (saveInvalidMessage(offset, startOfChecksumTag))
                     {
-                        return offset;
+                        return offset - startOfFrame;
                     }
                     close(INVALID_BODY_LENGTH);
                     removeEndpointFromFramer();
@@ -265,20 +283,20 @@ class ReceiverEndPoint
                 {
                     if (saveInvalidChecksumMessage(offset, messageType, length))
                     {
-                        return offset;
+                        return offset - startOfFrame;
                     }
                 }
                 else
                 {
                     if (UNKNOWN == sessionId && checkSessionId(offset, length))
                     {
-                        return offset;
+                        return offset - startOfFrame;
                     }
 
                     messagesRead.incrementOrdered();
                     if (saveMessage(offset, messageType, length))
                     {
-                        return offset;
+                        return offset - startOfFrame;
                     }
                 }
 
@@ -287,7 +305,7 @@ class ReceiverEndPoint
             catch (final IllegalArgumentException ex)
             {
                 saveInvalidMessage(offset);
-                return offset;
+                return offset - startOfFrame;
             }
             catch (final Exception ex)
             {
@@ -296,8 +314,8 @@ class ReceiverEndPoint
             }
         }
 
-        moveRemainingDataToBufferStart(offset);
-        return offset;
+        retainRemainingData(offset);
+        return offset - startOfFrame;
     }
 
     private boolean validateChecksum(
@@ -337,6 +355,59 @@ class ReceiverEndPoint
             receivedSequenceNumberIndex,
             gatewaySession);
 
+        if (authResult.isPending())
+        {
+            // Keep the logon in the buffer, it's framed again once its authentication has completed.
+            pendingAuthentication = authResult.pendingAuthentication;
+            retainRemainingData(offset);
+            pause();
+            framer.onAuthenticating(this);
+
+            return true;
+        }
+
+        return onAuthenticationResult(authResult);
+    }
+
+    /**
+     * Completes the logon once its authentication has completed on another thread.
+     *
+     * @return true if the end point is no longer authenticating, false otherwise.
+     */
+    boolean pollAuthentication()
+    {
+        final PendingAuthentication pendingAuthentication = this.pendingAuthentication;
+        if (hasDisconnected())
+        {
+            this.pendingAuthentication = null;
+            return true;
+        }
+
+        if (pendingAuthentication.isPending())
+        {
+            return false;
+        }
+
+        this.pendingAuthentication = null;
+        final AuthenticationResult authResult = gatewaySessions.onAuthenticated(
+            pendingAuthentication,
+            logon,
+            sentSequenceNumberIndex,
+            receivedSequenceNumberIndex,
+            gatewaySession);
+
+        if (!onAuthenticationResult(authResult))
+        {
+            play();
+            // The logon has already been read from the socket, so there may not be any more data to trigger a read.
+            frameMessages();
+        }
+
+        return true;
+    }
+
+    private boolean onAuthenticationResult(final AuthenticationResult authResult)
+    {
         if (authResult.isDuplicateSession())
         {
             close(DisconnectReason.DUPLICATE_SESSION);
@@ -364,7 +435,7 @@ class ReceiverEndPoint
         final boolean backPressured = Pressure.isBackPressured(position);
         if (backPressured)
         {
-            moveRemainingDataToBufferStart(offset);
+            retainRemainingData(offset);
         }
 
         return backPressured;
@@ -384,7 +455,7 @@ class ReceiverEndPoint
 
         if (Pressure.isBackPressured(position))
         {
-            moveRemainingDataToBufferStart(offset);
+            retainRemainingData(offset);
             return true;
         }
         else
@@ -430,10 +501,24 @@ class ReceiverEndPoint
         }
     }
 
+    private void retainRemainingData(final int offset)
+    {
+        if (deferBufferCompaction && offset < usedBufferData)
+        {
+            // Leave the partial or back pressured data in place, it gets compacted lazily before a read.
+            startOfData = offset;
+        }
+        else
+        {
+            moveRemainingDataToBufferStart(offset);
+        }
+    }
+
     private void moveRemainingDataToBufferStart(final int offset)
     {
         usedBufferData -= offset;
         buffer.putBytes(0, buffer, offset, usedBufferData);
+        startOfData = 0;
         // position set to ensure that back pressure is applied to TCP when read(byteBuffer) called.
         ByteBufferUtil.position(byteBuffer, usedBufferData);
     }
@@ -463,7 +548,7 @@ class ReceiverEndPoint
     {
         final long position = libraryPublication.saveMessage(buffer,
             offset,
-            usedBufferData,
+            usedBufferData - offset,
             libraryId,
             INVALID_MESSAGE_TYPE,
             sessionId,
@@ -552,6 +637,10 @@ class ReceiverEndPoint
         framer.schedule(() -> libraryPublication.saveDisconnect(libraryId, connectionId, reason));
 
         sessionContexts.onDisconnect(sessionId);
+        if (pendingAuthentication != null)
+        {
+            sessionContexts.onDisconnect(pendingAuthentication.sessionContext.sessionId());
+        }
         if (selectionKey != null)
         {
             selectionKey.cancel();
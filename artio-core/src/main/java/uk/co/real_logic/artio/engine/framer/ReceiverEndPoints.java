@@ -30,6 +30,7 @@ import static uk.co.real_logic.artio.messages.DisconnectReason.ENGINE_SHUTDOWN;
 class ReceiverEndPoints extends TransportPoller
 {
     private ReceiverEndPoint[] endPoints = new ReceiverEndPoint[0];
+    private ReceiverEndPoint[] authenticatingEndPoints = new ReceiverEndPoint[0];
 
     void add(final ReceiverEndPoint endPoint)
     {
@@ -44,6 +45,11 @@ class ReceiverEndPoints extends TransportPoller
         }
     }
 
+    void onAuthenticating(final ReceiverEndPoint endPoint)
+    {
+        authenticatingEndPoints = ArrayUtil.add(authenticatingEndPoints, endPoint);
+    }
+
     void removeConnection(final long connectionId, final DisconnectReason reason)
     {
         final ReceiverEndPoint[] endPoints = this.endPoints;
@@ -79,7 +85,7 @@ class ReceiverEndPoints extends TransportPoller
 
     int pollEndPoints()
     {
-        int bytesReceived = 0;
+        int bytesReceived = pollAuthenticatingEndPoints();
         try
         {
             final ReceiverEndPoint[] endPoints = this.endPoints;
@@ -112,6 +118,23 @@ class ReceiverEndPoints extends TransportPoller
         return bytesReceived;
     }
 
+    private int pollAuthenticatingEndPoints()
+    {
+        final ReceiverEndPoint[] authenticatingEndPoints = this.authenticatingEndPoints;
+        int completed = 0;
+        for (int i = authenticatingEndPoints.length - 1; i >= 0; i--)
+        {
+            final ReceiverEndPoint endPoint = authenticatingEndPoints[i];
+            if (endPoint.pollAuthentication())
+            {
+                this.authenticatingEndPoints = ArrayUtil.remove(this.authenticatingEndPoints, endPoint);
+                completed++;
+            }
+        }
+
+        return completed;
+    }
+
     public void close()
     {
         Stream.of(endPoints).forEach(receiverEndPoint -> receiverEndPoint.close(ENGINE_SHUTDOWN));
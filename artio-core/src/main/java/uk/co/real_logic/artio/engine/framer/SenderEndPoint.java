@@ -49,6 +49,7 @@ class SenderEndPoint implements AutoCloseable
     private final StreamTracker outboundTracker;
     private final StreamTracker replayTracker;
 
+    private SenderEndPoints senderEndPoints;
     private int libraryId;
     private long sessionId;
     private long sendingTimeoutTimeInMs;
@@ -393,9 +394,19 @@ class SenderEndPoint implements AutoCloseable
         return bytesInBuffer.getWeak();
     }
 
+    void senderEndPoints(final SenderEndPoints senderEndPoints)
+    {
+        this.senderEndPoints = senderEndPoints;
+    }
+
     void sessionId(final long sessionId)
     {
+        final long oldSessionId = this.sessionId;
         this.sessionId = sessionId;
+        if (senderEndPoints != null)
+        {
+            senderEndPoints.onSessionIdChanged(this, oldSessionId);
+        }
     }
 
     long sessionId()
@@ -37,20 +37,20 @@ class SenderEndPoints implements AutoCloseable, ControlledFragmentHandler, Clust
     private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
     private final FixMessageDecoder fixMessage = new FixMessageDecoder();
     private final Long2ObjectHashMap<SenderEndPoint> connectionIdToSenderEndpoint = new Long2ObjectHashMap<>();
+    private final Long2ObjectHashMap<SenderEndPoint> sessionIdToSenderEndpoint = new Long2ObjectHashMap<>();
     private final ErrorHandler errorHandler;
     private final LongToIntFunction libraryLookup = this::libraryLookup;
 
+    // The library id is read from the end point, so library handovers don't need to update the index.
     private int libraryLookup(final long sessionId)
     {
-        for (final SenderEndPoint senderEndPoint : connectionIdToSenderEndpoint.values())
+        final SenderEndPoint senderEndPoint = sessionIdToSenderEndpoint.get(sessionId);
+        if (senderEndPoint == null)
         {
-            if (senderEndPoint.sessionId() == sessionId)
-            {
-                return senderEndPoint.libraryId();
-            }
+            return FixEngine.ENGINE_LIBRARY_ID;
         }
 
-        return FixEngine.ENGINE_LIBRARY_ID;
+        return senderEndPoint.libraryId();
     }
 
     private long timeInMs;
@@ -63,6 +63,7 @@ class SenderEndPoints implements AutoCloseable, ControlledFragmentHandler, Clust
     public void add(final SenderEndPoint senderEndPoint)
     {
         connectionIdToSenderEndpoint.put(senderEndPoint.connectionId(), senderEndPoint);
+        senderEndPoint.senderEndPoints(this);
     }
 
     void removeConnection(final long connectionId)
@@ -70,10 +71,26 @@ class SenderEndPoints implements AutoCloseable, ControlledFragmentHandler, Clust
         final SenderEndPoint senderEndPoint = connectionIdToSenderEndpoint.remove(connectionId);
         if (senderEndPoint != null)
         {
+            removeSessionId(senderEndPoint.sessionId(), senderEndPoint);
             senderEndPoint.close();
         }
     }
 
+    void onSessionIdChanged(final SenderEndPoint senderEndPoint, final long oldSessionId)
+    {
+        removeSessionId(oldSessionId, senderEndPoint);
+        sessionIdToSenderEndpoint.put(senderEndPoint.sessionId(), senderEndPoint);
+    }
+
+    private void removeSessionId(final long sessionId, final SenderEndPoint senderEndPoint)
+    {
+        // A reconnected session may already have been indexed against its new end point
+        if (sessionIdToSenderEndpoint.get(sessionId) == senderEndPoint)
+        {
+            sessionIdToSenderEndpoint.remove(sessionId);
+        }
+    }
+
     void onMessage(
         final int libraryId,
         final long connectionId,
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+/**
+ * Determines when the {@link Archiver} forces the data that it writes into its log files to disk.
+ */
+public enum ArchiveDurability
+{
+    /** Every block is written synchronously to the storage device before its position is reported */
+    SYNCHRONOUS,
+
+    /**
+     * Blocks are written without syncing and forced in groups, either once enough bytes have been written or
+     * after a timeout. Positions are only reported once they have been forced, which delays cluster
+     * acknowledgements but not indexing, as the indexers don't wait for the archiver.
+     */
+    GROUP_COMMIT,
+
+    /** Blocks are left in the operating system's page cache, positions are reported as soon as they are written */
+    OS_BUFFERED
+}
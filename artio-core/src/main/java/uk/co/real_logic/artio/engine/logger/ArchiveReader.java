@@ -21,6 +21,7 @@ import io.aeron.logbuffer.ControlledFragmentHandler.Action;
 import io.aeron.logbuffer.Header;
 import io.aeron.logbuffer.LogBufferDescriptor;
 import org.agrona.IoUtil;
+import org.agrona.LangUtil;
 import org.agrona.collections.Int2ObjectCache;
 import org.agrona.collections.Int2ObjectHashMap;
 import org.agrona.concurrent.UnsafeBuffer;
@@ -413,7 +414,20 @@ public class ArchiveReader implements AutoCloseable
                 return null;
             }
 
-            return archiveBufferFactory.map(logFile);
+            try
+            {
+                return archiveBufferFactory.map(logFile);
+            }
+            catch (final Exception ex)
+            {
+                // Archive retention can delete the file after the check above, treat it as an unknown term.
+                if (logFile.exists())
+                {
+                    LangUtil.rethrowUnchecked(ex);
+                }
+
+                return null;
+            }
         }
 
         private int scan(final long position)
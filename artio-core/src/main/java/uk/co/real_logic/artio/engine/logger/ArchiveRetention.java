@@ -0,0 +1,261 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.DirectBuffer;
+import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.concurrent.EpochClock;
+import uk.co.real_logic.artio.replication.StreamIdentifier;
+import uk.co.real_logic.artio.storage.messages.ArchiveMetaDataDecoder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import static io.aeron.logbuffer.LogBufferDescriptor.computeTermIdFromPosition;
+import static java.lang.Integer.numberOfTrailingZeros;
+import static uk.co.real_logic.artio.engine.logger.LogDirectoryDescriptor.computeSessionId;
+import static uk.co.real_logic.artio.engine.logger.LogDirectoryDescriptor.computeTermId;
+
+/**
+ * Periodically deletes the archived term files of a stream that are older than a maximum age, or the oldest term
+ * files when the stream's archive is bigger than a maximum size.
+ *
+ * A term file is only deleted once every one of the given indices has indexed past the end of it, so that they
+ * can still catch up from the archive on startup. The latest term of a publication that is still being archived
+ * is kept until the archiver has moved onto a later term, since it is still being written to. The terms of
+ * publications that have gone away, including ones from earlier runs of the engine, can all be deleted once the
+ * indices have caught up with them.
+ *
+ * Deletion isn't bounded by the replay index records that refer to a term. The outbound replay index keeps records
+ * for every session that has ever connected, so bounding by them would stop the archive of a long running engine
+ * from ever being trimmed. Replays skip the messages of deleted terms, which the replayer answers with gap fills.
+ *
+ * This is run as an index on the indexer's thread so that it reads the other indices' positions on the thread
+ * that writes them.
+ */
+public class ArchiveRetention implements Index
+{
+    public static final long NO_LIMIT = 0;
+
+    private static final Comparator<File> OLDEST_FIRST = Comparator.comparingLong(File::lastModified);
+
+    private final Int2ObjectHashMap<SessionTerms> sessions = new Int2ObjectHashMap<>();
+    private final List<File> removableFiles = new ArrayList<>();
+    private final List<Index> indices;
+    private final ArchiveMetaData metaData;
+    private final StreamIdentifier streamId;
+    private final IntPredicate isActivePublication;
+    private final LogDirectoryDescriptor directoryDescriptor;
+    private final EpochClock clock;
+    private final long maxAgeInMs;
+    private final long maxSizeInBytes;
+    private final long checkIntervalInMs;
+
+    private long nextCheckTimeInMs;
+
+    /**
+     * Create a new ArchiveRetention.
+     *
+     * @param indices the indices whose positions bound the terms that can be deleted.
+     * @param metaData the meta data of the archive.
+     * @param streamId the stream whose term files are deleted.
+     * @param isActivePublication tests whether the publication with a given aeron session id is still being
+     *                            archived.
+     * @param clock the clock that term file modification times are compared against.
+     * @param maxAgeInMs the age after which a term file is deleted, or {@link #NO_LIMIT}.
+     * @param maxSizeInBytes the total size of the stream's term files that the oldest are deleted above,
+     *                       or {@link #NO_LIMIT}.
+     * @param checkIntervalInMs the time between checks of the archive.
+     */
+    public ArchiveRetention(
+        final List<Index> indices,
+        final ArchiveMetaData metaData,
+        final StreamIdentifier streamId,
+        final IntPredicate isActivePublication,
+        final EpochClock clock,
+        final long maxAgeInMs,
+        final long maxSizeInBytes,
+        final long checkIntervalInMs)
+    {
+        this.indices = indices;
+        this.metaData = metaData;
+        this.streamId = streamId;
+        this.isActivePublication = isActivePublication;
+        this.clock = clock;
+        this.maxAgeInMs = maxAgeInMs;
+        this.maxSizeInBytes = maxSizeInBytes;
+        this.checkIntervalInMs = checkIntervalInMs;
+        directoryDescriptor = metaData.directoryDescriptor();
+    }
+
+    public void indexRecord(
+        final DirectBuffer buffer,
+        final int offset,
+        final int length,
+        final int streamId,
+        final int aeronSessionId,
+        final long endPosition)
+    {
+        // Deliberately blank: retention only looks at the archive and the positions of other indices.
+    }
+
+    public int doWork()
+    {
+        final long timeInMs = clock.time();
+        if (timeInMs < nextCheckTimeInMs)
+        {
+            return 0;
+        }
+
+        nextCheckTimeInMs = timeInMs + checkIntervalInMs;
+        return removeTerms(timeInMs);
+    }
+
+    /**
+     * Delete the term files that are beyond the retention limits.
+     *
+     * @param timeInMs the current time in milliseconds.
+     * @return the number of term files deleted.
+     */
+    int removeTerms(final long timeInMs)
+    {
+        final Int2ObjectHashMap<SessionTerms> sessions = this.sessions;
+        sessions.clear();
+        for (final Index index : indices)
+        {
+            index.readLastPosition((aeronSessionId, position) ->
+                sessions.computeIfAbsent(aeronSessionId, SessionTerms::new).onIndexedPosition(position));
+        }
+
+        final List<File> logFiles = directoryDescriptor.listLogFiles(streamId);
+        long totalSizeInBytes = 0;
+        for (final File logFile : logFiles)
+        {
+            totalSizeInBytes += logFile.length();
+            final SessionTerms session = sessions.get(computeSessionId(logFile));
+            if (session != null)
+            {
+                session.onTerm(computeTermId(logFile));
+            }
+        }
+
+        final List<File> removableFiles = this.removableFiles;
+        removableFiles.clear();
+        for (final File logFile : logFiles)
+        {
+            final SessionTerms session = sessions.get(computeSessionId(logFile));
+            if (session != null && session.isRemovable(computeTermId(logFile)))
+            {
+                removableFiles.add(logFile);
+            }
+        }
+        removableFiles.sort(OLDEST_FIRST);
+
+        int removed = 0;
+        for (final File logFile : removableFiles)
+        {
+            final boolean tooOld = maxAgeInMs != NO_LIMIT && timeInMs - logFile.lastModified() > maxAgeInMs;
+            final boolean tooBig = maxSizeInBytes != NO_LIMIT && totalSizeInBytes > maxSizeInBytes;
+            if (!tooOld && !tooBig)
+            {
+                break;
+            }
+
+            final long length = logFile.length();
+            // A failed delete, for example of a file that is mapped on Windows, is retried on the next check.
+            if (logFile.delete())
+            {
+                totalSizeInBytes -= length;
+                removed++;
+            }
+        }
+
+        return removed;
+    }
+
+    public void readLastPosition(final IndexedPositionConsumer consumer)
+    {
+        // Deliberately blank: there's nothing to catch up on.
+    }
+
+    public void close()
+    {
+        metaData.close();
+    }
+
+    private final class SessionTerms
+    {
+        private final int aeronSessionId;
+        private final boolean isActive;
+
+        private int indexCount;
+        private long indexedPosition = Long.MAX_VALUE;
+        private boolean hasTerm;
+        private int latestTermId;
+        private boolean hasIndexedTermId;
+        private int indexedTermId;
+
+        private SessionTerms(final int aeronSessionId)
+        {
+            this.aeronSessionId = aeronSessionId;
+            isActive = isActivePublication.test(aeronSessionId);
+        }
+
+        void onIndexedPosition(final long position)
+        {
+            indexCount++;
+            indexedPosition = Math.min(indexedPosition, position);
+        }
+
+        void onTerm(final int termId)
+        {
+            if (!hasTerm || termId - latestTermId > 0)
+            {
+                latestTermId = termId;
+                hasTerm = true;
+            }
+        }
+
+        boolean isRemovable(final int termId)
+        {
+            if (indexCount < indices.size() || (isActive && termId - latestTermId >= 0))
+            {
+                return false;
+            }
+
+            if (!hasIndexedTermId)
+            {
+                final ArchiveMetaDataDecoder sessionMetaData = metaData.read(streamId, aeronSessionId);
+                if (sessionMetaData == null)
+                {
+                    return false;
+                }
+
+                indexedTermId = computeTermIdFromPosition(
+                    indexedPosition,
+                    numberOfTrailingZeros(sessionMetaData.termBufferLength()),
+                    sessionMetaData.initialTermId());
+                hasIndexedTermId = true;
+            }
+
+            // A publication that has gone away won't add anything more to the term its indices stopped in.
+            return isActive ? termId - indexedTermId < 0 : termId - indexedTermId <= 0;
+        }
+    }
+}
@@ -25,6 +25,8 @@ import org.agrona.LangUtil;
 import org.agrona.collections.Int2ObjectCache;
 import org.agrona.collections.Long2LongHashMap;
 import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.NanoClock;
+import org.agrona.concurrent.SystemNanoClock;
 import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.engine.ByteBufferUtil;
 import uk.co.real_logic.artio.engine.CompletionPosition;
@@ -36,15 +38,23 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.IntFunction;
 import java.util.zip.CRC32;
 
 import static io.aeron.driver.Configuration.TERM_BUFFER_LENGTH_DEFAULT;
 import static io.aeron.logbuffer.LogBufferDescriptor.computePosition;
 import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static uk.co.real_logic.artio.engine.logger.ArchiveDurability.GROUP_COMMIT;
+import static uk.co.real_logic.artio.engine.logger.ArchiveDurability.SYNCHRONOUS;
 
 public class Archiver implements Agent, RawBlockHandler
 {
+    /**
+     * Notified of positions once they are archived with the configured {@link ArchiveDurability}, used for cluster
+     * acknowledgements. Indexers don't use it, they consume their streams independently of the archiver.
+     */
     public interface ArchivedPositionHandler
     {
         void onArchivedPosition(int aeronSessionId, long endPosition, int length);
@@ -63,6 +73,11 @@ public class Archiver implements Agent, RawBlockHandler
     private final LogDirectoryDescriptor directoryDescriptor;
     private final CRC32 checksum = new CRC32();
     private final DataHeaderFlyweight header = new DataHeaderFlyweight();
+    private final List<SessionArchiver> uncommittedSessions = new ArrayList<>();
+    private final ArchiveDurability durability;
+    private final int groupCommitBytes;
+    private final long groupCommitTimeoutInNs;
+    private final NanoClock nanoClock;
 
     private ArchivedPositionHandler positionHandler = (aeronSessionId, endPosition, length) -> {};
 
@@ -76,12 +91,41 @@ public class Archiver implements Agent, RawBlockHandler
         final StreamIdentifier streamId,
         final String agentNamePrefix,
         final CompletionPosition completionPosition)
+    {
+        this(
+            metaData,
+            cacheNumSets,
+            cacheSetSize,
+            streamId,
+            agentNamePrefix,
+            completionPosition,
+            SYNCHRONOUS,
+            0,
+            0,
+            new SystemNanoClock());
+    }
+
+    public Archiver(
+        final ArchiveMetaData metaData,
+        final int cacheNumSets,
+        final int cacheSetSize,
+        final StreamIdentifier streamId,
+        final String agentNamePrefix,
+        final CompletionPosition completionPosition,
+        final ArchiveDurability durability,
+        final int groupCommitBytes,
+        final long groupCommitTimeoutInNs,
+        final NanoClock nanoClock)
     {
         this.metaData = metaData;
         this.directoryDescriptor = metaData.directoryDescriptor();
         this.streamId = streamId;
         this.agentNamePrefix = agentNamePrefix;
         this.completionPosition = completionPosition;
+        this.durability = durability;
+        this.groupCommitBytes = groupCommitBytes;
+        this.groupCommitTimeoutInNs = groupCommitTimeoutInNs;
+        this.nanoClock = nanoClock;
         sessionIdToArchive = new Int2ObjectCache<>(cacheNumSets, cacheSetSize, SessionArchiver::close);
     }
 
@@ -106,7 +150,30 @@ public class Archiver implements Agent, RawBlockHandler
             return 0;
         }
 
-        return (int)subscription.rawPoll(this, POLL_LENGTH);
+        return (int)subscription.rawPoll(this, POLL_LENGTH) + commitTimedOutSessions();
+    }
+
+    private int commitTimedOutSessions()
+    {
+        final List<SessionArchiver> uncommittedSessions = this.uncommittedSessions;
+        if (uncommittedSessions.isEmpty())
+        {
+            return 0;
+        }
+
+        final long timeInNs = nanoClock.nanoTime();
+        int commits = 0;
+        for (int i = uncommittedSessions.size() - 1; i >= 0; i--)
+        {
+            final SessionArchiver archiver = uncommittedSessions.get(i);
+            if (timeInNs - archiver.firstUncommittedTimeInNs >= groupCommitTimeoutInNs)
+            {
+                archiver.commit();
+                commits++;
+            }
+        }
+
+        return commits;
     }
 
     private SessionArchiver newSessionArchiver(final int sessionId)
@@ -153,6 +220,18 @@ public class Archiver implements Agent, RawBlockHandler
         return archive.archivedPosition();
     }
 
+    /**
+     * Checks whether a publication is still being archived.
+     *
+     * @param aeronSessionId the aeron session id of the publication.
+     * @return true if the publication's image is still connected to this archiver's subscription.
+     */
+    public boolean isArchiving(final int aeronSessionId)
+    {
+        final Subscription subscription = this.subscription;
+        return subscription != null && subscription.imageBySessionId(aeronSessionId) != null;
+    }
+
     public boolean patch(
         final int aeronSessionId,
         final DirectBuffer bodyBuffer,
@@ -226,6 +305,10 @@ public class Archiver implements Agent, RawBlockHandler
         private RandomAccessFile currentLogFile;
         private FileChannel currentLogChannel;
 
+        private int uncommittedLength = 0;
+        private long uncommittedEndPosition;
+        private long firstUncommittedTimeInNs;
+
         protected SessionArchiver(final int sessionId, final Image image)
         {
             this.sessionId = sessionId;
@@ -265,7 +348,6 @@ public class Archiver implements Agent, RawBlockHandler
                 final long transferred = fileChannel.transferTo(fileOffset, length, currentLogChannel);
                 final long endPosition = computePosition(
                     termId, termOffset + length, positionBitsToShift, initialTermId);
-                positionHandler.onArchivedPosition(sessionId, endPosition, length);
 
                 if (transferred != length)
                 {
@@ -276,11 +358,62 @@ public class Archiver implements Agent, RawBlockHandler
                         location,
                         transferred));
                 }
+
+                if (durability == GROUP_COMMIT)
+                {
+                    onUncommittedBlock(endPosition, length);
+                }
+                else
+                {
+                    positionHandler.onArchivedPosition(sessionId, endPosition, length);
+                }
+            }
+            catch (final IOException ex)
+            {
+                LangUtil.rethrowUnchecked(ex);
+            }
+        }
+
+        private void onUncommittedBlock(final long endPosition, final int length)
+        {
+            if (uncommittedLength == 0)
+            {
+                firstUncommittedTimeInNs = nanoClock.nanoTime();
+                uncommittedSessions.add(this);
+            }
+
+            uncommittedLength += length;
+            uncommittedEndPosition = endPosition;
+
+            if (uncommittedLength >= groupCommitBytes)
+            {
+                commit();
+            }
+        }
+
+        /**
+         * Force any written, but not yet durable, data to disk and report its position.
+         */
+        void commit()
+        {
+            if (uncommittedLength == 0)
+            {
+                return;
+            }
+
+            try
+            {
+                currentLogChannel.force(false);
             }
             catch (final IOException ex)
             {
                 LangUtil.rethrowUnchecked(ex);
             }
+
+            final int length = uncommittedLength;
+            uncommittedLength = 0;
+            uncommittedSessions.remove(this);
+            positionHandler.onArchivedPosition(sessionId, uncommittedEndPosition, length);
         }
 
         private void writeChecksumForBlock(final UnsafeBuffer termBuffer, final int termOffset, final int length)
@@ -328,7 +461,9 @@ public class Archiver implements Agent, RawBlockHandler
 
         public long archivedPosition()
         {
-            return image.position();
+            // Data that hasn't been group committed yet isn't durable so doesn't count as archived. Only cluster
+            // acknowledgements wait for this position, the indexers may already have indexed the data.
+            return image.position() - uncommittedLength;
         }
 
         public boolean patch(
@@ -374,6 +509,12 @@ public class Archiver implements Agent, RawBlockHandler
                 writeToFile(
                     bodyBuffer, readOffset, bodyLength, termWriteOffset, patchTermLogChannel, patchTermLogFile);
 
+                if (durability == GROUP_COMMIT)
+                {
+                    // Patches are to already reported positions so must be durable immediately.
+                    patchTermLogChannel.force(false);
+                }
+
                 close(patchTermLogChannel);
 
                 return true;
@@ -387,12 +528,13 @@ public class Archiver implements Agent, RawBlockHandler
 
         public void close()
         {
+            commit();
             CloseHelper.close(currentLogChannel);
         }
 
         private RandomAccessFile openFile(final File location) throws IOException
         {
-            final RandomAccessFile file = new RandomAccessFile(location, "rwd");
+            final RandomAccessFile file = new RandomAccessFile(location, durability == SYNCHRONOUS ? "rwd" : "rw");
             file.setLength(termBufferLength);
             return file;
         }
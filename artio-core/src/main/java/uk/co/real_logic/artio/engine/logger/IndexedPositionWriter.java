@@ -83,7 +83,14 @@ class IndexedPositionWriter
         }
     }
 
-    void indexedUpTo(final int aeronSessionId, final long position)
+    /**
+     * Record the position that a stream has been indexed up to.
+     *
+     * @param aeronSessionId the session id of the stream.
+     * @param position the position indexed up to.
+     * @return the offset of the updated record or OUT_OF_SPACE if there's no space to record it.
+     */
+    int indexedUpTo(final int aeronSessionId, final long position)
     {
         final Int2IntHashMap recordOffsets = this.recordOffsets;
 
@@ -99,12 +106,12 @@ class IndexedPositionWriter
             while (true)
             {
                 offset = checksumFramer.claim(offset, RECORD_LENGTH);
-                if (position == OUT_OF_SPACE)
+                if (offset == OUT_OF_SPACE)
                 {
                     errorHandler.onError(new IllegalStateException(String.format(
                         "Unable to record new session (%d), indexed position buffer full",
                         aeronSessionId)));
-                    return;
+                    return OUT_OF_SPACE;
                 }
 
                 decoder.wrap(buffer, offset, actingBlockLength, actingVersion);
@@ -115,7 +122,7 @@ class IndexedPositionWriter
 
                     recordOffsets.put(aeronSessionId, offset);
                     putPosition(position, buffer, offset);
-                    return;
+                    return offset;
                 }
 
                 offset += RECORD_LENGTH;
@@ -124,6 +131,7 @@ class IndexedPositionWriter
         else
         {
             putPosition(position, buffer, offset);
+            return offset;
         }
     }
 
@@ -137,6 +145,11 @@ class IndexedPositionWriter
         checksumFramer.updateChecksums();
     }
 
+    void updateChecksum(final int sectorStart)
+    {
+        checksumFramer.updateChecksum(sectorStart);
+    }
+
     AtomicBuffer buffer()
     {
         return buffer;
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import uk.co.real_logic.artio.util.AsciiBuffer;
+
+import static uk.co.real_logic.artio.decoder.Constants.MSG_SEQ_NUM;
+import static uk.co.real_logic.artio.util.AsciiBuffer.SEPARATOR;
+import static uk.co.real_logic.artio.util.AsciiBuffer.UNKNOWN_INDEX;
+
+/**
+ * Reads the MsgSeqNum (34) field out of a FIX message without decoding the rest of its header.
+ *
+ * The indexers and the replayer only need the sequence number of each archived message, so walking the
+ * tag numbers and skipping over the values is much cheaper than a full {@code HeaderDecoder.decode()}.
+ */
+final class MsgSeqNumExtractor
+{
+    static final int NO_MSG_SEQ_NUM = -1;
+
+    private MsgSeqNumExtractor()
+    {
+    }
+
+    /**
+     * Find the MsgSeqNum of a FIX message.
+     *
+     * @param buffer the buffer containing the message.
+     * @param offset the offset of the start of the message.
+     * @param length the length of the message.
+     * @return the sequence number or {@link #NO_MSG_SEQ_NUM} if the message doesn't contain one.
+     */
+    static int msgSeqNum(final AsciiBuffer buffer, final int offset, final int length)
+    {
+        final int lastIndex = offset + length - 1;
+        int tag = 0;
+        int index = offset;
+        while (index <= lastIndex)
+        {
+            final byte character = buffer.getByte(index);
+            if (character == '=')
+            {
+                final int valueStart = index + 1;
+                final int valueEnd = buffer.scan(valueStart, lastIndex, SEPARATOR);
+                if (valueEnd == UNKNOWN_INDEX)
+                {
+                    return NO_MSG_SEQ_NUM;
+                }
+
+                if (tag == MSG_SEQ_NUM)
+                {
+                    return buffer.getNatural(valueStart, valueEnd);
+                }
+
+                tag = 0;
+                index = valueEnd + 1;
+            }
+            else
+            {
+                tag = tag * 10 + (character - '0');
+                index++;
+            }
+        }
+
+        return NO_MSG_SEQ_NUM;
+    }
+}
@@ -23,11 +23,11 @@ import org.agrona.IoUtil;
 import org.agrona.collections.Long2ObjectCache;
 import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
-import uk.co.real_logic.artio.decoder.HeaderDecoder;
 import uk.co.real_logic.artio.messages.FixMessageDecoder;
 import uk.co.real_logic.artio.messages.FixMessageEncoder;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.storage.messages.ReplayIndexRecordDecoder;
 import uk.co.real_logic.artio.storage.messages.ReplayIndexRecordEncoder;
 import uk.co.real_logic.artio.util.AsciiBuffer;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
@@ -45,22 +45,29 @@ import static uk.co.real_logic.artio.messages.MessageStatus.OK;
  *
  * Written Positions are stored in a separate file at {@link ReplayIndexDescriptor#replayPositionPath(String, int)}.
  *
+ * If segments are enabled then records are also appended to {@link ReplayIndexSegments}, which keep them queryable
+ * after this buffer has been lapped.
+ *
  * Buffer Consists of:
  *
  * MessageHeader
  * Head position counter
  * Tail position counter
+ * Unsorted flag, set once a record is indexed with a lower sequence key than its predecessor
  * Multiple ReplayIndexRecord entries
  */
 public class ReplayIndex implements Index
 {
+    private static final long NO_SEQUENCE_KEY = Long.MIN_VALUE;
+
     private final LongFunction<SessionIndex> newSessionIndex = SessionIndex::new;
     private final AsciiBuffer asciiBuffer = new MutableAsciiBuffer();
     private final MessageHeaderDecoder frameHeaderDecoder = new MessageHeaderDecoder();
     private final FixMessageDecoder messageFrame = new FixMessageDecoder();
-    private final HeaderDecoder fixHeader = new HeaderDecoder();
     private final ReplayIndexRecordEncoder replayIndexRecord = new ReplayIndexRecordEncoder();
     private final MessageHeaderEncoder indexHeaderEncoder = new MessageHeaderEncoder();
+    private final MessageHeaderDecoder indexHeaderDecoder = new MessageHeaderDecoder();
+    private final ReplayIndexRecordDecoder lastIndexRecord = new ReplayIndexRecordDecoder();
     private final IndexedPositionWriter positionWriter;
     private final IndexedPositionReader positionReader;
 
@@ -69,6 +76,7 @@ public class ReplayIndex implements Index
     private final String logFileDir;
     private final int requiredStreamId;
     private final int indexFileSize;
+    private final int segmentCount;
     private final BufferFactory bufferFactory;
     private final AtomicBuffer positionBuffer;
 
@@ -76,6 +84,7 @@ public class ReplayIndex implements Index
         final String logFileDir,
         final int requiredStreamId,
         final int indexFileSize,
+        final int segmentCount,
         final int cacheNumSets,
         final int cacheSetSize,
         final BufferFactory bufferFactory,
@@ -86,6 +95,7 @@ public class ReplayIndex implements Index
         this.requiredStreamId = requiredStreamId;
         this.indexFileSize = indexFileSize;
         checkIndexFileSize(indexFileSize);
+        this.segmentCount = segmentCount;
         this.bufferFactory = bufferFactory;
         this.positionBuffer = positionBuffer;
         fixSessionIdToIndex = new Long2ObjectCache<>(cacheNumSets, cacheSetSize, SessionIndex::close);
@@ -121,18 +131,25 @@ public class ReplayIndex implements Index
                 offset += actingBlockLength + 2;
 
                 asciiBuffer.wrap(srcBuffer);
-                fixHeader.decode(asciiBuffer, offset, messageFrame.bodyLength());
+                final int sequenceNumber = MsgSeqNumExtractor.msgSeqNum(
+                    asciiBuffer, offset, messageFrame.bodyLength());
 
                 final int alignedLength = BitUtil.align(srcLength, FrameDescriptor.FRAME_ALIGNMENT);
                 final long beginPosition = endPosition - alignedLength;
 
-                final int sequenceNumber = fixHeader.msgSeqNum();
                 final int sequenceIndex = messageFrame.sequenceIndex();
                 final long fixSessionId = messageFrame.session();
 
                 fixSessionIdToIndex
                     .computeIfAbsent(fixSessionId, newSessionIndex)
-                    .onRecord(streamId, aeronSessionId, beginPosition, endPosition, sequenceNumber, sequenceIndex);
+                    .onRecord(
+                        streamId,
+                        aeronSessionId,
+                        beginPosition,
+                        endPosition,
+                        sequenceNumber,
+                        sequenceIndex,
+                        messageFrame.timestamp());
             }
         }
     }
@@ -154,6 +171,9 @@ public class ReplayIndex implements Index
         private final ByteBuffer wrappedBuffer;
         private final AtomicBuffer buffer;
         private final int capacity;
+        private final ReplayIndexSegments segments;
+
+        private long lastSequenceKey = NO_SEQUENCE_KEY;
 
         private SessionIndex(final long fixSessionId)
         {
@@ -174,11 +194,35 @@ public class ReplayIndex implements Index
             }
             else
             {
-                // Reset the positions in order to avoid wraps at the start.
-                final int resetPosition = offset(beginChange(buffer), capacity);
+                // Reset the positions in order to avoid wraps at the start, keeping records aligned to their slots.
+                final int resetPosition = (int)beginChange(buffer) & (capacity - 1);
                 beginChangeOrdered(buffer, resetPosition);
                 endChangeOrdered(buffer, resetPosition);
+                lastSequenceKey = readLastSequenceKey(resetPosition);
             }
+
+            segments = segmentCount > 0 ?
+                new ReplayIndexSegments(
+                    logFileDir, fixSessionId, requiredStreamId, indexFileSize, segmentCount, bufferFactory) :
+                null;
+        }
+
+        private long readLastSequenceKey(final int changePosition)
+        {
+            indexHeaderDecoder.wrap(buffer, 0);
+            lastIndexRecord.wrap(
+                buffer,
+                offset(changePosition - RECORD_LENGTH, capacity),
+                indexHeaderDecoder.blockLength(),
+                indexHeaderDecoder.version());
+
+            // An unused slot has a zero position, as no message can be written at the start of a stream
+            if (lastIndexRecord.position() == 0)
+            {
+                return NO_SEQUENCE_KEY;
+            }
+
+            return sequenceKey(lastIndexRecord.sequenceIndex(), lastIndexRecord.sequenceNumber());
         }
 
         private void onRecord(
@@ -187,8 +231,22 @@ public class ReplayIndex implements Index
             final long beginPosition,
             final long endPosition,
             final int sequenceNumber,
-            final int sequenceIndex)
+            final int sequenceIndex,
+            final long timestamp)
         {
+            // Appended before the ring so that queries which find the ring lapped will find the record in a segment
+            if (segments != null)
+            {
+                segments.onRecord(streamId, aeronSessionId, beginPosition, sequenceNumber, sequenceIndex, timestamp);
+            }
+
+            final long sequenceKey = sequenceKey(sequenceIndex, sequenceNumber);
+            if (sequenceKey < lastSequenceKey && isSortedVolatile(buffer))
+            {
+                unsortedOrdered(buffer);
+            }
+            lastSequenceKey = sequenceKey;
+
             final long beginChangePosition = beginChange(buffer);
             final long changePosition = beginChangePosition + RECORD_LENGTH;
 
@@ -214,6 +272,10 @@ public class ReplayIndex implements Index
         public void close()
         {
             IoUtil.unmap(wrappedBuffer);
+            if (segments != null)
+            {
+                segments.close();
+            }
         }
     }
 }
@@ -28,16 +28,42 @@ public class ReplayIndexDescriptor
 
     private static final int BEGIN_CHANGE_OFFSET = MessageHeaderEncoder.ENCODED_LENGTH;
     private static final int END_CHANGE_OFFSET = BEGIN_CHANGE_OFFSET + BitUtil.SIZE_OF_LONG;
+    private static final int UNSORTED_OFFSET = END_CHANGE_OFFSET + BitUtil.SIZE_OF_LONG;
 
-    public static final int INITIAL_RECORD_OFFSET = END_CHANGE_OFFSET + BitUtil.SIZE_OF_LONG;
+    public static final int INITIAL_RECORD_OFFSET = UNSORTED_OFFSET + BitUtil.SIZE_OF_LONG;
 
     static final int RECORD_LENGTH = 32;
 
+    // Segment directory layout, the header is followed by an array of segment entries used as a ring.
+    private static final int FIRST_SEGMENT_OFFSET = 0;
+    private static final int NEXT_SEGMENT_OFFSET = FIRST_SEGMENT_OFFSET + BitUtil.SIZE_OF_LONG;
+    private static final int SEGMENT_COUNT_OFFSET = NEXT_SEGMENT_OFFSET + BitUtil.SIZE_OF_LONG;
+    private static final int SEGMENTS_UNSORTED_OFFSET = SEGMENT_COUNT_OFFSET + BitUtil.SIZE_OF_INT;
+    private static final int SEGMENT_DIRECTORY_HEADER_LENGTH = 32;
+
+    private static final int FIRST_KEY_OFFSET = 0;
+    private static final int LAST_KEY_OFFSET = FIRST_KEY_OFFSET + BitUtil.SIZE_OF_LONG;
+    private static final int FIRST_TIMESTAMP_OFFSET = LAST_KEY_OFFSET + BitUtil.SIZE_OF_LONG;
+    private static final int LAST_TIMESTAMP_OFFSET = FIRST_TIMESTAMP_OFFSET + BitUtil.SIZE_OF_LONG;
+    private static final int SEGMENT_ENTRY_LENGTH = 32;
+
     static File logFile(final String logFileDir, final long fixSessionId, final int streamId)
     {
         return new File(String.format(logFileDir + File.separator + "replay-index-%d-%d", fixSessionId, streamId));
     }
 
+    static File segmentFile(final String logFileDir, final long fixSessionId, final int streamId, final long segment)
+    {
+        return new File(String.format(
+            logFileDir + File.separator + "replay-index-%d-%d-segment-%d", fixSessionId, streamId, segment));
+    }
+
+    static File segmentDirectoryFile(final String logFileDir, final long fixSessionId, final int streamId)
+    {
+        return new File(String.format(
+            logFileDir + File.separator + "replay-index-%d-%d-segments", fixSessionId, streamId));
+    }
+
     public static UnsafeBuffer replayPositionBuffer(final String logFileDir, final int streamId)
     {
         final String pathname = replayPositionPath(logFileDir, streamId);
@@ -74,6 +100,118 @@ public class ReplayIndexDescriptor
         return buffer.getLong(BEGIN_CHANGE_OFFSET);
     }
 
+    // Records are appended in sequence key order until a lower key is indexed, for example when a resent message is
+    // received after later ones. From then on the records can't be searched and have to be scanned.
+    static void unsortedOrdered(final AtomicBuffer buffer)
+    {
+        buffer.putLongOrdered(UNSORTED_OFFSET, 1);
+    }
+
+    static boolean isSortedVolatile(final AtomicBuffer buffer)
+    {
+        return buffer.getLongVolatile(UNSORTED_OFFSET) == 0;
+    }
+
+    // Segments are only ever appended to, so their change position is the limit of the written records.
+    static void segmentLimitOrdered(final AtomicBuffer buffer, final int limit)
+    {
+        buffer.putLongOrdered(END_CHANGE_OFFSET, limit);
+    }
+
+    static int segmentLimitVolatile(final AtomicBuffer buffer)
+    {
+        return (int)buffer.getLongVolatile(END_CHANGE_OFFSET);
+    }
+
+    static int segmentDirectoryFileSize(final int segmentCount)
+    {
+        return SEGMENT_DIRECTORY_HEADER_LENGTH + segmentCount * SEGMENT_ENTRY_LENGTH;
+    }
+
+    static void segmentCount(final AtomicBuffer directory, final int segmentCount)
+    {
+        directory.putInt(SEGMENT_COUNT_OFFSET, segmentCount);
+    }
+
+    static int segmentCount(final AtomicBuffer directory)
+    {
+        return directory.getInt(SEGMENT_COUNT_OFFSET);
+    }
+
+    static void segmentsUnsortedOrdered(final AtomicBuffer directory)
+    {
+        directory.putIntOrdered(SEGMENTS_UNSORTED_OFFSET, 1);
+    }
+
+    static boolean areSegmentsSortedVolatile(final AtomicBuffer directory)
+    {
+        return directory.getIntVolatile(SEGMENTS_UNSORTED_OFFSET) == 0;
+    }
+
+    static void firstSegmentOrdered(final AtomicBuffer directory, final long segment)
+    {
+        directory.putLongOrdered(FIRST_SEGMENT_OFFSET, segment);
+    }
+
+    static long firstSegmentVolatile(final AtomicBuffer directory)
+    {
+        return directory.getLongVolatile(FIRST_SEGMENT_OFFSET);
+    }
+
+    static void nextSegmentOrdered(final AtomicBuffer directory, final long segment)
+    {
+        directory.putLongOrdered(NEXT_SEGMENT_OFFSET, segment);
+    }
+
+    static long nextSegmentVolatile(final AtomicBuffer directory)
+    {
+        return directory.getLongVolatile(NEXT_SEGMENT_OFFSET);
+    }
+
+    static void segmentEntry(
+        final AtomicBuffer directory, final long segment, final long firstKey, final long firstTimestamp)
+    {
+        final int offset = segmentEntryOffset(directory, segment);
+        directory.putLong(offset + FIRST_KEY_OFFSET, firstKey);
+        directory.putLong(offset + FIRST_TIMESTAMP_OFFSET, firstTimestamp);
+        updateSegmentEntry(directory, segment, firstKey, firstTimestamp);
+    }
+
+    static void updateSegmentEntry(
+        final AtomicBuffer directory, final long segment, final long lastKey, final long lastTimestamp)
+    {
+        final int offset = segmentEntryOffset(directory, segment);
+        directory.putLongOrdered(offset + LAST_KEY_OFFSET, lastKey);
+        directory.putLongOrdered(offset + LAST_TIMESTAMP_OFFSET, lastTimestamp);
+    }
+
+    static long segmentFirstKey(final AtomicBuffer directory, final long segment)
+    {
+        return directory.getLongVolatile(segmentEntryOffset(directory, segment) + FIRST_KEY_OFFSET);
+    }
+
+    static long segmentLastKey(final AtomicBuffer directory, final long segment)
+    {
+        return directory.getLongVolatile(segmentEntryOffset(directory, segment) + LAST_KEY_OFFSET);
+    }
+
+    private static int segmentEntryOffset(final AtomicBuffer directory, final long segment)
+    {
+        return SEGMENT_DIRECTORY_HEADER_LENGTH + (int)(segment % segmentCount(directory)) * SEGMENT_ENTRY_LENGTH;
+    }
+
+    /**
+     * Orders records by sequence index and then sequence number.
+     *
+     * @param sequenceIndex the sequence index of the record.
+     * @param sequenceNumber the sequence number of the record.
+     * @return a key that orders records in the same way as their sequence index and number.
+     */
+    static long sequenceKey(final int sequenceIndex, final int sequenceNumber)
+    {
+        return ((long)sequenceIndex << 32) | (sequenceNumber & 0xFFFF_FFFFL);
+    }
+
     static int recordCapacity(final int indexFileSize)
     {
         return indexFileSize - INITIAL_RECORD_OFFSET;
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.IoUtil;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.storage.messages.ReplayIndexRecordEncoder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.*;
+
+/**
+ * Appends the replay index records of a session to a series of segment files, so that they can still be queried
+ * after the session's replay index file has been lapped.
+ *
+ * Each segment file has the same layout as a replay index file, but is only ever appended to. A directory file
+ * records the range of sequence keys and message timestamps held in each segment, and is used as a ring of the most
+ * recent segments: once it is full the oldest segment is deleted when a new one is started.
+ *
+ * The ring's layout depends on its segment count, so an existing directory keeps the count that it was created
+ * with, and a changed segment count only applies to sessions whose directory doesn't exist yet.
+ *
+ * The directory also has a sticky unsorted flag, which is set the first time that a record is appended with a lower
+ * sequence key than its predecessor. Queries only search the segments while it's clear.
+ */
+final class ReplayIndexSegments implements AutoCloseable
+{
+    private final ReplayIndexRecordEncoder replayIndexRecord = new ReplayIndexRecordEncoder();
+    private final MessageHeaderEncoder indexHeaderEncoder = new MessageHeaderEncoder();
+    private final UnsafeBuffer segmentBuffer = new UnsafeBuffer(0, 0);
+
+    private final String logFileDir;
+    private final long fixSessionId;
+    private final int streamId;
+    private final int segmentFileSize;
+    private final int recordCapacity;
+    private final BufferFactory bufferFactory;
+    private final ByteBuffer wrappedDirectory;
+    private final AtomicBuffer directory;
+
+    private ByteBuffer wrappedSegment;
+    private long segment;
+    private int limit;
+    private long lastSequenceKey = Long.MIN_VALUE;
+
+    ReplayIndexSegments(
+        final String logFileDir,
+        final long fixSessionId,
+        final int streamId,
+        final int segmentFileSize,
+        final int segmentCount,
+        final BufferFactory bufferFactory)
+    {
+        this.logFileDir = logFileDir;
+        this.fixSessionId = fixSessionId;
+        this.streamId = streamId;
+        this.segmentFileSize = segmentFileSize;
+        this.bufferFactory = bufferFactory;
+        recordCapacity = recordCapacity(segmentFileSize);
+
+        final File directoryFile = segmentDirectoryFile(logFileDir, fixSessionId, streamId);
+        final boolean exists = directoryFile.exists();
+        final int directoryFileSize = exists ? (int)directoryFile.length() : segmentDirectoryFileSize(segmentCount);
+        wrappedDirectory = bufferFactory.map(directoryFile, directoryFileSize);
+        directory = new UnsafeBuffer(wrappedDirectory);
+
+        if (!exists)
+        {
+            segmentCount(directory, segmentCount);
+        }
+        else
+        {
+            final int storedSegmentCount = segmentCount(directory);
+            if (storedSegmentCount <= 0 || segmentDirectoryFileSize(storedSegmentCount) != directory.capacity())
+            {
+                IoUtil.unmap(wrappedDirectory);
+                throw new IllegalStateException(String.format(
+                    "Segment count of %d doesn't match the size of the replay index segment directory %s: %d",
+                    storedSegmentCount,
+                    directoryFile,
+                    directory.capacity()));
+            }
+
+            final long nextSegment = nextSegmentVolatile(directory);
+            if (nextSegment > firstSegmentVolatile(directory))
+            {
+                segment = nextSegment - 1;
+                wrapSegment(bufferFactory.map(segmentFile(segment), segmentFileSize));
+                limit = segmentLimitVolatile(segmentBuffer);
+                lastSequenceKey = segmentLastKey(directory, segment);
+            }
+        }
+    }
+
+    void onRecord(
+        final int streamId,
+        final int aeronSessionId,
+        final long beginPosition,
+        final int sequenceNumber,
+        final int sequenceIndex,
+        final long timestamp)
+    {
+        final long sequenceKey = sequenceKey(sequenceIndex, sequenceNumber);
+        if (sequenceKey < lastSequenceKey && areSegmentsSortedVolatile(directory))
+        {
+            segmentsUnsortedOrdered(directory);
+        }
+        lastSequenceKey = sequenceKey;
+
+        if (wrappedSegment == null || limit + RECORD_LENGTH > recordCapacity)
+        {
+            startSegment(sequenceKey, timestamp);
+        }
+
+        replayIndexRecord
+            .wrap(segmentBuffer, INITIAL_RECORD_OFFSET + limit)
+            .streamId(streamId)
+            .aeronSessionId(aeronSessionId)
+            .position(beginPosition)
+            .sequenceNumber(sequenceNumber)
+            .sequenceIndex(sequenceIndex);
+
+        limit += RECORD_LENGTH;
+        segmentLimitOrdered(segmentBuffer, limit);
+        updateSegmentEntry(directory, segment, sequenceKey, timestamp);
+    }
+
+    private void startSegment(final long sequenceKey, final long timestamp)
+    {
+        unmapSegment();
+
+        final long firstSegment = firstSegmentVolatile(directory);
+        final long nextSegment = nextSegmentVolatile(directory);
+        if (nextSegment - firstSegment >= segmentCount(directory))
+        {
+            // Queries check that a segment file exists before reading it, so it's safe to delete once unlisted
+            firstSegmentOrdered(directory, firstSegment + 1);
+            IoUtil.deleteIfExists(segmentFile(firstSegment));
+        }
+
+        segment = nextSegment;
+        wrapSegment(bufferFactory.map(segmentFile(segment), segmentFileSize));
+        indexHeaderEncoder
+            .wrap(segmentBuffer, 0)
+            .blockLength(replayIndexRecord.sbeBlockLength())
+            .templateId(replayIndexRecord.sbeTemplateId())
+            .schemaId(replayIndexRecord.sbeSchemaId())
+            .version(replayIndexRecord.sbeSchemaVersion());
+        limit = 0;
+        segmentLimitOrdered(segmentBuffer, limit);
+
+        segmentEntry(directory, segment, sequenceKey, timestamp);
+        nextSegmentOrdered(directory, segment + 1);
+    }
+
+    private File segmentFile(final long segment)
+    {
+        return ReplayIndexDescriptor.segmentFile(logFileDir, fixSessionId, streamId, segment);
+    }
+
+    private void wrapSegment(final ByteBuffer wrappedSegment)
+    {
+        this.wrappedSegment = wrappedSegment;
+        segmentBuffer.wrap(wrappedSegment);
+    }
+
+    private void unmapSegment()
+    {
+        if (wrappedSegment != null)
+        {
+            IoUtil.unmap(wrappedSegment);
+            wrappedSegment = null;
+        }
+    }
+
+    public void close()
+    {
+        unmapSegment();
+        IoUtil.unmap(wrappedDirectory);
+    }
+}
@@ -23,21 +23,29 @@ import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 import uk.co.real_logic.artio.storage.messages.ReplayIndexRecordDecoder;
 
+import java.io.File;
 import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.util.function.LongFunction;
 
 import static org.agrona.UnsafeAccess.UNSAFE;
+import static uk.co.real_logic.artio.engine.logger.ArchiveReader.UNKNOWN_TERM;
 import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.*;
 import static uk.co.real_logic.artio.engine.logger.Replayer.MOST_RECENT_MESSAGE;
 
 /**
  * Queries an index of a composite key of session id and sequence number.
  *
+ * Queries that begin before the oldest record in a session's replay index file are answered from its
+ * {@link ReplayIndexSegments} if it has any. So are queries of an index whose records are out of sequence order,
+ * as its oldest record doesn't tell whether the queried records have been overwritten.
+ *
  * This object isn't thread-safe, but the underlying replay index is a single-writer, multiple-reader threadsafe index.
  */
 public class ReplayQuery implements AutoCloseable
 {
+    private static final long NOT_SEARCHABLE = Long.MIN_VALUE;
+
     private final MessageHeaderDecoder messageFrameHeader = new MessageHeaderDecoder();
     private final ReplayIndexRecordDecoder indexRecord = new ReplayIndexRecordDecoder();
 
@@ -95,12 +103,18 @@ public class ReplayQuery implements AutoCloseable
 
     private final class SessionQuery implements AutoCloseable
     {
+        private final UnsafeBuffer segmentBuffer = new UnsafeBuffer(0, 0);
+        private final long sessionId;
         private final ByteBuffer wrappedBuffer;
         private final UnsafeBuffer buffer;
         private final int capacity;
 
+        private ByteBuffer wrappedDirectory;
+        private UnsafeBuffer directory;
+
         private SessionQuery(final long sessionId)
         {
+            this.sessionId = sessionId;
             wrappedBuffer = indexBufferFactory.map(logFile(logFileDir, sessionId, requiredStreamId));
             buffer = new UnsafeBuffer(wrappedBuffer);
             capacity = recordCapacity(buffer.capacity());
@@ -120,16 +134,32 @@ public class ReplayQuery implements AutoCloseable
             final int requiredStreamId = ReplayQuery.this.requiredStreamId;
             final boolean upToMostRecentMessage = endSequenceNumber == MOST_RECENT_MESSAGE;
 
+            // Only a sorted index can be searched, otherwise every record is scanned.
+            final boolean sorted = isSortedVolatile(buffer);
+            final long beginSequenceKey = sequenceKey(beginSequenceIndex, beginSequenceNumber);
+            if ((!sorted || isLappedBefore(beginSequenceKey, actingBlockLength, actingVersion)) &&
+                mapSegmentDirectory())
+            {
+                return querySegments(handler, beginSequenceKey, endSequenceNumber, endSequenceIndex);
+            }
+
             int count = 0;
             int lastAeronSessionId = 0;
             ArchiveReader.SessionReader sessionReader = null;
 
             // positions on a monotonically increasing scale
-            long iteratorPosition = beginChangeVolatile(buffer);
-            // First iteration around you need to start at 0
-            if (iteratorPosition < capacity)
+            long iteratorPosition = sorted ?
+                searchBeginPosition(actingBlockLength, actingVersion, beginSequenceNumber, beginSequenceIndex) :
+                NOT_SEARCHABLE;
+            final boolean searched = iteratorPosition != NOT_SEARCHABLE;
+            if (!searched)
             {
-                iteratorPosition = 0;
+                iteratorPosition = beginChangeVolatile(buffer);
+                // First iteration around you need to start at 0
+                if (iteratorPosition < capacity)
+                {
+                    iteratorPosition = 0;
+                }
             }
             long stopIteratingPosition = iteratorPosition + capacity;
 
@@ -182,15 +212,27 @@ public class ReplayQuery implements AutoCloseable
                         (sequenceIndex == endSequenceIndex && sequenceNumber <= endSequenceNumber);
                     final boolean startOk = sequenceIndex > beginSequenceIndex ||
                         (sequenceIndex == beginSequenceIndex && sequenceNumber >= beginSequenceNumber);
+                    // Records are in sequence order after the searched position, so anything out of range
+                    // means that either the end of the range or the oldest records have been reached, unless an
+                    // out of order record has been appended since the search.
+                    if (searched && !(startOk && endOk) && isSortedVolatile(buffer))
+                    {
+                        break;
+                    }
+
                     if (startOk && endOk && streamId == requiredStreamId)
                     {
                         final long readTo = sessionReader.read(position, handler);
-                        if (readTo < 0 || readTo == position)
+                        // The term holding the message can have been deleted by archive retention
+                        if (readTo != UNKNOWN_TERM)
                         {
-                            break;
-                        }
+                            if (readTo < 0 || readTo == position)
+                            {
+                                break;
+                            }
 
-                        count++;
+                            count++;
+                        }
                     }
                     iteratorPosition += RECORD_LENGTH;
                 }
@@ -203,12 +245,270 @@ public class ReplayQuery implements AutoCloseable
             return count;
         }
 
-        public void close()
+        /**
+         * Binary searches the index for the first record at or after the begin sequence index and number.
+         *
+         * Only called when the writer hasn't flagged the index as unsorted, so the records are in sequence order
+         * and the search runs between the oldest record that hasn't been
+         * overwritten and the most recently written record.
+         *
+         * @return the position to begin iterating from or {@link #NOT_SEARCHABLE} if a record was overwritten by
+         * the writer while it was being read.
+         */
+        private long searchBeginPosition(
+            final int actingBlockLength,
+            final int actingVersion,
+            final int beginSequenceNumber,
+            final int beginSequenceIndex)
+        {
+            final long writtenPosition = beginChangeVolatile(buffer);
+            long low;
+            if (writtenPosition >= capacity || isUsedRecord(writtenPosition, actingBlockLength, actingVersion))
+            {
+                // The writer has wrapped, so the oldest record is the next one to be overwritten.
+                low = writtenPosition - capacity;
+            }
+            else
+            {
+                low = 0;
+            }
+
+            long high = writtenPosition;
+            while (low < high)
+            {
+                final long middle = low + (((high - low) / RECORD_LENGTH) >> 1) * RECORD_LENGTH;
+
+                final long key = readSequenceKey(middle, actingBlockLength, actingVersion);
+                if (key == NOT_SEARCHABLE)
+                {
+                    return NOT_SEARCHABLE;
+                }
+
+                if (key < sequenceKey(beginSequenceIndex, beginSequenceNumber))
+                {
+                    low = middle + RECORD_LENGTH;
+                }
+                else
+                {
+                    high = middle;
+                }
+            }
+
+            return low;
+        }
+
+        private boolean isUsedRecord(final long recordPosition, final int actingBlockLength, final int actingVersion)
+        {
+            indexRecord.wrap(buffer, offset(recordPosition, capacity), actingBlockLength, actingVersion);
+            return indexRecord.position() != 0;
+        }
+
+        private long readSequenceKey(final long recordPosition, final int actingBlockLength, final int actingVersion)
+        {
+            while (true)
+            {
+                final long changePosition = endChangeVolatile(buffer);
+
+                indexRecord.wrap(buffer, offset(recordPosition, capacity), actingBlockLength, actingVersion);
+                final int sequenceIndex = indexRecord.sequenceIndex();
+                final int sequenceNumber = indexRecord.sequenceNumber();
+
+                UNSAFE.loadFence(); // LoadLoad required so previous loads don't move past version check below.
+
+                // The record's slot is only reused once the writer begins the record a capacity after it.
+                final long beginChangePosition = beginChangeVolatile(buffer);
+                if (recordPosition + capacity < beginChangePosition)
+                {
+                    return NOT_SEARCHABLE;
+                }
+
+                if (changePosition == beginChangePosition)
+                {
+                    idleStrategy.reset();
+                    return sequenceKey(sequenceIndex, sequenceNumber);
+                }
+
+                idleStrategy.idle();
+            }
+        }
+
+        private boolean isLappedBefore(final long sequenceKey, final int actingBlockLength, final int actingVersion)
+        {
+            final long writtenPosition = beginChangeVolatile(buffer);
+            if (writtenPosition < capacity && !isUsedRecord(writtenPosition, actingBlockLength, actingVersion))
+            {
+                return false;
+            }
+
+            // The oldest record is the next one to be overwritten.
+            final long oldestKey = readSequenceKey(writtenPosition - capacity, actingBlockLength, actingVersion);
+
+            return oldestKey == NOT_SEARCHABLE || sequenceKey < oldestKey;
+        }
+
+        private boolean mapSegmentDirectory()
+        {
+            if (directory == null)
+            {
+                final File directoryFile = segmentDirectoryFile(logFileDir, sessionId, requiredStreamId);
+                if (!directoryFile.exists())
+                {
+                    return false;
+                }
+
+                wrappedDirectory = indexBufferFactory.map(directoryFile);
+                directory = new UnsafeBuffer(wrappedDirectory);
+            }
+
+            return true;
+        }
+
+        private int querySegments(
+            final ControlledFragmentHandler handler,
+            final long beginSequenceKey,
+            final int endSequenceNumber,
+            final int endSequenceIndex)
+        {
+            final int requiredStreamId = ReplayQuery.this.requiredStreamId;
+            final boolean upToMostRecentMessage = endSequenceNumber == MOST_RECENT_MESSAGE;
+            final long endSequenceKey = sequenceKey(endSequenceIndex, endSequenceNumber);
+            // Only sorted segments can be searched, otherwise every record of every segment is scanned.
+            final boolean sorted = areSegmentsSortedVolatile(directory);
+
+            int count = 0;
+            int lastAeronSessionId = 0;
+            ArchiveReader.SessionReader sessionReader = null;
+
+            final long beginSegment = sorted ? searchBeginSegment(beginSequenceKey) : firstSegmentVolatile(directory);
+            for (long segment = beginSegment; segment < nextSegmentVolatile(directory); segment++)
+            {
+                // Segments are deleted once they have been retired from the directory
+                final File segmentFile = segmentFile(logFileDir, sessionId, requiredStreamId, segment);
+                if (!segmentFile.exists())
+                {
+                    continue;
+                }
+
+                final ByteBuffer wrappedSegment = indexBufferFactory.map(segmentFile);
+                try
+                {
+                    segmentBuffer.wrap(wrappedSegment);
+                    messageFrameHeader.wrap(segmentBuffer, 0);
+                    final int actingBlockLength = messageFrameHeader.blockLength();
+                    final int actingVersion = messageFrameHeader.version();
+
+                    int recordOffset = sorted && segment == beginSegment ?
+                        searchSegment(beginSequenceKey, actingBlockLength, actingVersion) : 0;
+                    while (recordOffset < segmentLimitVolatile(segmentBuffer))
+                    {
+                        indexRecord.wrap(
+                            segmentBuffer, INITIAL_RECORD_OFFSET + recordOffset, actingBlockLength, actingVersion);
+                        final long sequenceKey = sequenceKey(indexRecord.sequenceIndex(), indexRecord.sequenceNumber());
+                        final boolean endOk = upToMostRecentMessage || sequenceKey <= endSequenceKey;
+                        if (sorted && !endOk && areSegmentsSortedVolatile(directory))
+                        {
+                            return count;
+                        }
+
+                        if (endOk && sequenceKey >= beginSequenceKey && indexRecord.streamId() == requiredStreamId)
+                        {
+                            final int aeronSessionId = indexRecord.aeronSessionId();
+                            if (sessionReader == null || aeronSessionId != lastAeronSessionId)
+                            {
+                                lastAeronSessionId = aeronSessionId;
+                                sessionReader = archiveReader.session(aeronSessionId);
+                            }
+
+                            if (sessionReader == null)
+                            {
+                                return count;
+                            }
+
+                            final long position = indexRecord.position();
+                            final long readTo = sessionReader.read(position, handler);
+                            if (readTo != UNKNOWN_TERM)
+                            {
+                                if (readTo < 0 || readTo == position)
+                                {
+                                    return count;
+                                }
+
+                                count++;
+                            }
+                        }
+
+                        recordOffset += RECORD_LENGTH;
+                    }
+                }
+                finally
+                {
+                    unmap(wrappedSegment);
+                }
+            }
+
+            return count;
+        }
+
+        /**
+         * Binary searches the directory for the last segment that begins at or before the sequence key.
+         */
+        private long searchBeginSegment(final long sequenceKey)
+        {
+            long low = firstSegmentVolatile(directory);
+            long high = nextSegmentVolatile(directory) - 1;
+            while (low < high)
+            {
+                final long middle = (low + high + 1) >>> 1;
+                if (segmentFirstKey(directory, middle) <= sequenceKey)
+                {
+                    low = middle;
+                }
+                else
+                {
+                    high = middle - 1;
+                }
+            }
+
+            return low;
+        }
+
+        /**
+         * Binary searches the segment in the segment buffer for the first record at or after the sequence key.
+         */
+        private int searchSegment(final long sequenceKey, final int actingBlockLength, final int actingVersion)
         {
-            if (wrappedBuffer instanceof MappedByteBuffer)
+            int low = 0;
+            int high = segmentLimitVolatile(segmentBuffer) / RECORD_LENGTH;
+            while (low < high)
             {
-                IoUtil.unmap((MappedByteBuffer)wrappedBuffer);
+                final int middle = (low + high) >>> 1;
+                indexRecord.wrap(
+                    segmentBuffer, INITIAL_RECORD_OFFSET + middle * RECORD_LENGTH, actingBlockLength, actingVersion);
+                if (sequenceKey(indexRecord.sequenceIndex(), indexRecord.sequenceNumber()) < sequenceKey)
+                {
+                    low = middle + 1;
+                }
+                else
+                {
+                    high = middle;
+                }
             }
+
+            return low * RECORD_LENGTH;
+        }
+
+        public void close()
+        {
+            unmap(wrappedBuffer);
+            unmap(wrappedDirectory);
+        }
+    }
+
+    private static void unmap(final ByteBuffer wrappedBuffer)
+    {
+        if (wrappedBuffer instanceof MappedByteBuffer)
+        {
+            IoUtil.unmap((MappedByteBuffer)wrappedBuffer);
         }
     }
 }
@@ -24,9 +24,12 @@ import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
 import org.agrona.MutableDirectBuffer;
 import org.agrona.collections.IntHashSet;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.collections.LongHashSet;
 import org.agrona.concurrent.Agent;
 import org.agrona.concurrent.EpochClock;
 import org.agrona.concurrent.IdleStrategy;
+import uk.co.real_logic.artio.EpochFractionClock;
 import uk.co.real_logic.artio.Pressure;
 import uk.co.real_logic.artio.builder.Encoder;
 import uk.co.real_logic.artio.decoder.*;
@@ -38,8 +41,13 @@ import uk.co.real_logic.artio.replication.ClusterableSubscription;
 import uk.co.real_logic.artio.util.AsciiBuffer;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_REPLAY_BATCH_SIZE;
 import static uk.co.real_logic.artio.engine.FixEngine.ENGINE_LIBRARY_ID;
 import static uk.co.real_logic.artio.messages.MessageStatus.OK;
 
@@ -49,6 +57,12 @@ import static uk.co.real_logic.artio.messages.MessageStatus.OK;
  * This agent subscribes to the stream of incoming fix data messages. It parses
  * Resend Request messages and searches the log, using the replay index to find
  * relevant messages to resend.
+ *
+ * Each resend request is replayed a batch of messages at a time, a request that doesn't fit in one batch is
+ * carried on in later duty cycles, round robin with the other outstanding requests.
+ *
+ * The engine can run several replayers, each on its own publication, they partition the resend requests
+ * between them by connection id so that a session's resends are always replayed in order by the same replayer.
  */
 public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Agent
 {
@@ -74,13 +88,12 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
     private final ResendRequestDecoder resendRequest = new ResendRequestDecoder();
     private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
     private final FixMessageDecoder fixMessage = new FixMessageDecoder();
-    private final HeaderDecoder fixHeader = new HeaderDecoder();
     private final GapFillEncoder gapFillEncoder = new GapFillEncoder();
 
     private final MessageHeaderEncoder messageHeaderEncoder = new MessageHeaderEncoder();
     private final FixMessageEncoder fixMessageEncoder = new FixMessageEncoder();
 
-    // Used in onMessage and onFragment
+    // Used in onFragment
     private final AsciiBuffer asciiBuffer = new MutableAsciiBuffer();
 
     private final ExclusiveBufferClaim bufferClaim;
@@ -88,23 +101,54 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
     private final ProtocolSubscription protocolSubscription = ProtocolSubscription.of(this);
     private final ControlledFragmentAssembler assembler = new ControlledFragmentAssembler(this);
 
+    // Resend requests are replayed in place on the subscription and only queued up when they exceed the batch size
+    private final ReplayTask inlineTask = new ReplayTask();
+    private final List<ReplayTask> pendingTasks = new ArrayList<>();
+    private final ArrayDeque<ReplayTask> freeTasks = new ArrayDeque<>();
+    private final Long2LongHashMap sessionIdToPendingTaskCount = new Long2LongHashMap(0);
+    // Sessions whose oldest pending task hasn't completed during the current pass over the pending tasks
+    private final LongHashSet blockedSessionIds = new LongHashSet();
+
     private final ReplayQuery replayQuery;
     private final ExclusivePublication publication;
     private final IdleStrategy idleStrategy;
     private final ErrorHandler errorHandler;
     private final int maxClaimAttempts;
+    private final int replayBatchSize;
+    private final int partition;
+    private final int partitionCount;
     private final ClusterableSubscription subscription;
     private final String agentNamePrefix;
 
-    private int currentMessageOffset;
-    private int currentMessageLength;
+    private ReplayTask currentTask = inlineTask;
+    private int remainingBatch;
+    private boolean batchExhausted;
 
-    private int beginGapFillSeqNum = NONE;
-    private int lastSeqNo = NONE;
-    private long connectionId;
-    private long sessionId;
-    private int sequenceIndex;
-    private boolean backpressured;
+    public Replayer(
+        final ReplayQuery replayQuery,
+        final ExclusivePublication publication,
+        final ExclusiveBufferClaim bufferClaim,
+        final IdleStrategy idleStrategy,
+        final ErrorHandler errorHandler,
+        final int maxClaimAttempts,
+        final ClusterableSubscription subscription,
+        final String agentNamePrefix,
+        final EpochClock clock)
+    {
+        this(
+            replayQuery,
+            publication,
+            bufferClaim,
+            idleStrategy,
+            errorHandler,
+            maxClaimAttempts,
+            DEFAULT_REPLAY_BATCH_SIZE,
+            0,
+            1,
+            subscription,
+            agentNamePrefix,
+            clock);
+    }
 
     public Replayer(
         final ReplayQuery replayQuery,
@@ -113,9 +157,41 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
         final IdleStrategy idleStrategy,
         final ErrorHandler errorHandler,
         final int maxClaimAttempts,
+        final int replayBatchSize,
+        final int partition,
+        final int partitionCount,
         final ClusterableSubscription subscription,
         final String agentNamePrefix,
         final EpochClock clock)
+    {
+        this(
+            replayQuery,
+            publication,
+            bufferClaim,
+            idleStrategy,
+            errorHandler,
+            maxClaimAttempts,
+            replayBatchSize,
+            partition,
+            partitionCount,
+            subscription,
+            agentNamePrefix,
+            EpochFractionClock.milliseconds(clock));
+    }
+
+    public Replayer(
+        final ReplayQuery replayQuery,
+        final ExclusivePublication publication,
+        final ExclusiveBufferClaim bufferClaim,
+        final IdleStrategy idleStrategy,
+        final ErrorHandler errorHandler,
+        final int maxClaimAttempts,
+        final int replayBatchSize,
+        final int partition,
+        final int partitionCount,
+        final ClusterableSubscription subscription,
+        final String agentNamePrefix,
+        final EpochFractionClock clock)
     {
         this.replayQuery = replayQuery;
         this.publication = publication;
@@ -123,6 +199,9 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
         this.idleStrategy = idleStrategy;
         this.errorHandler = errorHandler;
         this.maxClaimAttempts = maxClaimAttempts;
+        this.replayBatchSize = replayBatchSize;
+        this.partition = partition;
+        this.partitionCount = partitionCount;
         this.subscription = subscription;
         this.agentNamePrefix = agentNamePrefix;
 
@@ -136,12 +215,24 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
             publication.maxPayloadLength());
     }
 
+    /**
+     * Find the replayer that is responsible for replaying messages to a connection.
+     *
+     * @param connectionId the id of the connection that is requesting a resend.
+     * @param partitionCount the number of replayers that the engine runs.
+     * @return the partition of the replayer that replays messages to the connection.
+     */
+    public static int partition(final long connectionId, final int partitionCount)
+    {
+        return (int)((connectionId & Long.MAX_VALUE) % partitionCount);
+    }
+
     private void onPreCommit(final MutableDirectBuffer buffer, final int offset)
     {
         final int frameOffset = offset + MessageHeaderEncoder.ENCODED_LENGTH;
         fixMessageEncoder
             .wrap(buffer, frameOffset)
-            .connection(connectionId);
+            .connection(currentTask.connectionId);
     }
 
     public Action onMessage(
@@ -157,97 +248,131 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
         final MessageStatus status,
         final long position)
     {
-        if (messageType == ResendRequestDecoder.MESSAGE_TYPE && status == OK)
+        if (messageType == ResendRequestDecoder.MESSAGE_TYPE && status == OK &&
+            partition(connectionId, partitionCount) == partition)
         {
             final int limit = Math.min(length, srcBuffer.capacity() - srcOffset);
 
-            asciiBuffer.wrap(srcBuffer);
-            currentMessageOffset = srcOffset;
-            currentMessageLength = limit;
-            resendRequest.decode(asciiBuffer, srcOffset, limit);
+            final ReplayTask task = inlineTask;
+            task.copyRequest(srcBuffer, srcOffset, limit);
+            resendRequest.decode(task.requestBuffer, 0, limit);
 
-            final int beginSeqNo;
-            if (backpressured)
+            // A back pressured resend request is redelivered and carries on from where it left off
+            if (!task.backpressured)
             {
-                if (beginGapFillSeqNum != NONE)
+                final int beginSeqNo = resendRequest.beginSeqNo();
+                final int endSeqNo = resendRequest.endSeqNo();
+                if (endSeqNo != MOST_RECENT_MESSAGE && endSeqNo < beginSeqNo)
                 {
-                    beginSeqNo = beginGapFillSeqNum;
+                    onIllegalState(
+                        "[%s] Error in resend request, endSeqNo (%d) < beginSeqNo (%d)",
+                        task.message(), endSeqNo, beginSeqNo);
+                    return CONTINUE;
                 }
-                else
+
+                task.reset(connectionId, sessionId, sequenceIndex, beginSeqNo, endSeqNo);
+
+                // Messages for a session must be resent in order, so queue up behind its in progress replay
+                if (hasPendingTask(sessionId))
                 {
-                    beginSeqNo = lastSeqNo + 1;
+                    enqueue(task);
+                    return CONTINUE;
                 }
             }
-            else
-            {
-                beginSeqNo = resendRequest.beginSeqNo();
-            }
 
-            final int endSeqNo = resendRequest.endSeqNo();
-            if (endSeqNo != MOST_RECENT_MESSAGE && endSeqNo < beginSeqNo)
+            if (replay(task))
             {
-                onIllegalState(
-                    "[%s] Error in resend request, endSeqNo (%d) < beginSeqNo (%d)",
-                    message(), endSeqNo, beginSeqNo);
                 return CONTINUE;
             }
 
-            this.connectionId = connectionId;
-            this.sessionId = sessionId;
-            this.sequenceIndex = sequenceIndex;
-            this.lastSeqNo = beginSeqNo - 1;
-
-            backpressured = false;
-            final int count = replayQuery.query(
-                assembler,
-                sessionId,
-                beginSeqNo,
-                sequenceIndex,
-                endSeqNo,
-                sequenceIndex);
-
-            if (backpressured)
+            if (task.backpressured)
             {
                 return ABORT;
             }
 
-            if (beginGapFillSeqNum != NONE)
+            enqueue(task);
+        }
+
+        return CONTINUE;
+    }
+
+    /**
+     * Replay up to a batch of messages for the task.
+     *
+     * @param task the resend request to replay.
+     * @return true if the resend request has been completely replayed, false if it needs to be resumed later.
+     */
+    private boolean replay(final ReplayTask task)
+    {
+        currentTask = task;
+        if (task.backpressured)
+        {
+            task.resumeAfterBackPressure();
+        }
+
+        remainingBatch = replayBatchSize;
+        batchExhausted = false;
+
+        final int endSeqNo = task.endSeqNo;
+        final int sequenceIndex = task.sequenceIndex;
+        task.count += replayQuery.query(
+            assembler,
+            task.sessionId,
+            task.lastSeqNo + 1,
+            sequenceIndex,
+            endSeqNo,
+            sequenceIndex);
+
+        if (task.backpressured || batchExhausted)
+        {
+            return false;
+        }
+
+        if (task.beginGapFillSeqNum != NONE)
+        {
+            final Action action = sendGapFill(task.beginGapFillSeqNum, endSeqNo);
+            if (action == ABORT)
             {
-                final Action action = sendGapFill(beginGapFillSeqNum, endSeqNo);
-                if (action == ABORT)
-                {
-                    backpressured = true;
-                    return action;
-                }
+                task.backpressured = true;
+                return false;
             }
+        }
 
-            if (endSeqNo != MOST_RECENT_MESSAGE)
+        if (endSeqNo != MOST_RECENT_MESSAGE)
+        {
+            final int beginSeqNo = task.replayBeginSeqNo;
+            final int count = task.count;
+            final int expectedCount = endSeqNo - beginSeqNo + 1;
+            if (count != expectedCount)
             {
-                final int expectedCount = endSeqNo - beginSeqNo + 1;
-                if (count != expectedCount)
+                if (count == 0)
                 {
-                    if (count == 0)
+                    final Action action = sendGapFill(beginSeqNo, endSeqNo + 1);
+                    if (action == ABORT)
                     {
-                        final Action action = sendGapFill(beginSeqNo, endSeqNo + 1);
-                        if (action == ABORT)
-                        {
-                            return action;
-                        }
+                        task.backpressured = true;
+                        return false;
                     }
-
-                    onIllegalState(
-                        "[%s] Error in resend request, count(%d) < expectedCount (%d)",
-                        message(), count, expectedCount);
                 }
+
+                onIllegalState(
+                    "[%s] Error in resend request, count(%d) < expectedCount (%d)",
+                    task.message(), count, expectedCount);
             }
         }
 
-        return CONTINUE;
+        return true;
     }
 
     public Action onFragment(
         final DirectBuffer srcBuffer, final int srcOffset, final int srcLength, final Header header)
     {
+        if (remainingBatch == 0)
+        {
+            batchExhausted = true;
+            return ABORT;
+        }
+
         messageHeader.wrap(srcBuffer, srcOffset);
         final int actingBlockLength = messageHeader.blockLength();
         final int offset = srcOffset + MessageHeaderDecoder.ENCODED_LENGTH;
@@ -262,39 +387,41 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
         final int messageLength = srcLength - MESSAGE_FRAME_BLOCK_LENGTH;
 
         asciiBuffer.wrap(srcBuffer);
-        fixHeader.decode(asciiBuffer, messageOffset, messageLength);
-        final int msgSeqNum = fixHeader.msgSeqNum();
+        final int msgSeqNum = MsgSeqNumExtractor.msgSeqNum(asciiBuffer, messageOffset, messageLength);
 
+        final ReplayTask task = currentTask;
         if (ADMIN_MESSAGE_TYPES.contains(fixMessage.messageType()))
         {
-            if (beginGapFillSeqNum == NONE)
+            if (task.beginGapFillSeqNum == NONE)
             {
-                beginGapFillSeqNum = lastSeqNo + 1;
+                task.beginGapFillSeqNum = task.lastSeqNo + 1;
             }
 
-            lastSeqNo = msgSeqNum;
+            task.lastSeqNo = msgSeqNum;
+            remainingBatch--;
             return CONTINUE;
         }
         else
         {
-            if (beginGapFillSeqNum != NONE)
+            if (task.beginGapFillSeqNum != NONE)
             {
-                sendGapFill(beginGapFillSeqNum, msgSeqNum);
+                sendGapFill(task.beginGapFillSeqNum, msgSeqNum);
             }
-            else if (msgSeqNum > lastSeqNo + 1)
+            else if (msgSeqNum > task.lastSeqNo + 1)
             {
-                sendGapFill(lastSeqNo, msgSeqNum);
+                sendGapFill(task.lastSeqNo, msgSeqNum);
             }
 
             final Action action = possDupEnabler.enablePossDupFlag(
                 srcBuffer, messageOffset, messageLength, srcOffset, srcLength);
             if (action == ABORT)
             {
-                backpressured = true;
+                task.backpressured = true;
             }
             else
             {
-                lastSeqNo = msgSeqNum;
+                task.lastSeqNo = msgSeqNum;
+                remainingBatch--;
             }
 
             return action;
@@ -311,21 +438,22 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
         {
             final int destOffset = bufferClaim.offset();
             final MutableDirectBuffer destBuffer = bufferClaim.buffer();
+            final ReplayTask task = currentTask;
 
             fixMessageEncoder
                 .wrapAndApplyHeader(destBuffer, destOffset, messageHeaderEncoder)
                 .libraryId(ENGINE_LIBRARY_ID)
                 .messageType(SequenceResetDecoder.MESSAGE_TYPE)
-                .session(this.sessionId)
-                .sequenceIndex(this.sequenceIndex)
-                .connection(this.connectionId)
+                .session(task.sessionId)
+                .sequenceIndex(task.sequenceIndex)
+                .connection(task.connectionId)
                 .timestamp(0)
                 .status(MessageStatus.OK)
                 .putBody(gapFillEncoder.buffer(), gapFillOffset, gapFillLength);
 
             bufferClaim.commit();
 
-            this.beginGapFillSeqNum = NONE;
+            task.beginGapFillSeqNum = NONE;
 
             return CONTINUE;
         }
@@ -335,14 +463,87 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
         }
     }
 
+    private void enqueue(final ReplayTask task)
+    {
+        final ReplayTask pendingTask = freeTasks.isEmpty() ? new ReplayTask() : freeTasks.pollLast();
+        pendingTask.copyFrom(task);
+        pendingTasks.add(pendingTask);
+
+        final long sessionId = task.sessionId;
+        sessionIdToPendingTaskCount.put(sessionId, sessionIdToPendingTaskCount.get(sessionId) + 1);
+    }
+
+    private void removePendingTask(final int index)
+    {
+        final ReplayTask task = pendingTasks.remove(index);
+        freeTasks.add(task);
+
+        final long sessionId = task.sessionId;
+        final long count = sessionIdToPendingTaskCount.get(sessionId) - 1;
+        if (count == 0)
+        {
+            sessionIdToPendingTaskCount.remove(sessionId);
+        }
+        else
+        {
+            sessionIdToPendingTaskCount.put(sessionId, count);
+        }
+    }
+
+    private boolean hasPendingTask(final long sessionId)
+    {
+        return sessionIdToPendingTaskCount.containsKey(sessionId);
+    }
+
+    private int replayPendingTasks()
+    {
+        final List<ReplayTask> pendingTasks = this.pendingTasks;
+        final LongHashSet blockedSessionIds = this.blockedSessionIds;
+        int work = 0;
+        int i = 0;
+        while (i < pendingTasks.size())
+        {
+            final ReplayTask task = pendingTasks.get(i);
+            // Only the oldest resend request of each session is replayed, later ones wait their turn
+            if (!blockedSessionIds.contains(task.sessionId))
+            {
+                work++;
+                resendRequest.decode(task.requestBuffer, 0, task.requestLength);
+                if (replay(task))
+                {
+                    removePendingTask(i);
+                    continue;
+                }
+
+                blockedSessionIds.add(task.sessionId);
+            }
+
+            i++;
+        }
+        blockedSessionIds.clear();
+
+        return work;
+    }
+
     public Action onDisconnect(final int libraryId, final long connectionId, final DisconnectReason reason)
     {
+        // Resends to a disconnected connection can't be delivered and would hold up the session's resends
+        // once it reconnects.
+        final List<ReplayTask> pendingTasks = this.pendingTasks;
+        for (int i = pendingTasks.size() - 1; i >= 0; i--)
+        {
+            if (pendingTasks.get(i).connectionId == connectionId)
+            {
+                removePendingTask(i);
+            }
+        }
+
         return CONTINUE;
     }
 
     private void onException(final Throwable e)
     {
-        final String message = String.format("[%s] Error replying to message", message());
+        final String message = String.format("[%s] Error replying to message", currentTask.message());
         errorHandler.onError(new IllegalArgumentException(message, e));
     }
 
@@ -351,11 +552,6 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
         errorHandler.onError(new IllegalStateException(String.format(message, arguments)));
     }
 
-    private String message()
-    {
-        return asciiBuffer.getAscii(currentMessageOffset, currentMessageLength);
-    }
-
     private boolean claimBuffer(final int newLength)
     {
         for (int i = 0; i < maxClaimAttempts; i++)
@@ -381,7 +577,7 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
 
     public int doWork() throws Exception
     {
-        return subscription.poll(protocolSubscription, POLL_LIMIT);
+        return subscription.poll(protocolSubscription, POLL_LIMIT) + replayPendingTasks();
     }
 
     public void onClose()
@@ -392,6 +588,86 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
 
     public String roleName()
     {
-        return agentNamePrefix + "Replayer";
+        return partitionCount == 1 ? agentNamePrefix + "Replayer" : agentNamePrefix + "Replayer-" + partition;
+    }
+
+    /**
+     * The progress through replaying a single resend request.
+     */
+    private static final class ReplayTask
+    {
+        private final MutableAsciiBuffer requestBuffer = new MutableAsciiBuffer();
+        private byte[] requestBytes = new byte[0];
+        private int requestLength;
+
+        private long connectionId;
+        private long sessionId;
+        private int sequenceIndex;
+        private int endSeqNo;
+
+        private int replayBeginSeqNo;
+        private int lastSeqNo = NONE;
+        private int beginGapFillSeqNum = NONE;
+        private int count;
+        private boolean backpressured;
+
+        private void copyRequest(final DirectBuffer srcBuffer, final int srcOffset, final int length)
+        {
+            if (requestBytes.length < length)
+            {
+                requestBytes = new byte[length];
+                requestBuffer.wrap(requestBytes);
+            }
+
+            srcBuffer.getBytes(srcOffset, requestBytes, 0, length);
+            requestLength = length;
+        }
+
+        private void reset(
+            final long connectionId,
+            final long sessionId,
+            final int sequenceIndex,
+            final int beginSeqNo,
+            final int endSeqNo)
+        {
+            this.connectionId = connectionId;
+            this.sessionId = sessionId;
+            this.sequenceIndex = sequenceIndex;
+            this.endSeqNo = endSeqNo;
+            this.replayBeginSeqNo = beginSeqNo;
+            this.lastSeqNo = beginSeqNo - 1;
+            this.beginGapFillSeqNum = NONE;
+            this.count = 0;
+            this.backpressured = false;
+        }
+
+        private void copyFrom(final ReplayTask task)
+        {
+            copyRequest(task.requestBuffer, 0, task.requestLength);
+            connectionId = task.connectionId;
+            sessionId = task.sessionId;
+            sequenceIndex = task.sequenceIndex;
+            endSeqNo = task.endSeqNo;
+            replayBeginSeqNo = task.replayBeginSeqNo;
+            lastSeqNo = task.lastSeqNo;
+            beginGapFillSeqNum = task.beginGapFillSeqNum;
+            count = task.count;
+            backpressured = task.backpressured;
+        }
+
+        // Back pressure may have interrupted a run of admin messages, so re-read them in order to gap fill
+        private void resumeAfterBackPressure()
+        {
+            replayBeginSeqNo = beginGapFillSeqNum != NONE ? beginGapFillSeqNum : lastSeqNo + 1;
+            lastSeqNo = replayBeginSeqNo - 1;
+            beginGapFillSeqNum = NONE;
+            count = 0;
+            backpressured = false;
+        }
+
+        private String message()
+        {
+            return requestBuffer.getAscii(0, requestLength);
+        }
     }
 }
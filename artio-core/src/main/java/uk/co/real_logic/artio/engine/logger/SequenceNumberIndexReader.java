@@ -16,6 +16,7 @@
 package uk.co.real_logic.artio.engine.logger;
 
 import org.agrona.ErrorHandler;
+import org.agrona.collections.Long2LongHashMap;
 import org.agrona.concurrent.AtomicBuffer;
 import uk.co.real_logic.artio.engine.SectorFramer;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
@@ -28,14 +29,26 @@ import static uk.co.real_logic.artio.engine.logger.SequenceNumberIndexDescriptor
 import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder.BLOCK_LENGTH;
 import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder.SCHEMA_VERSION;
 
+/**
+ * Reads the last known sequence number for a session from the sequence number index.
+ *
+ * Records are never moved by the writer until the index is reset, so their offsets are cached after they have
+ * been scanned once. A reset is detected by the generation of the first record changing.
+ */
 public class SequenceNumberIndexReader
 {
+    private static final long MISSING_RECORD = -1L;
+
     private final MessageHeaderDecoder fileHeaderDecoder = new MessageHeaderDecoder();
     private final LastKnownSequenceNumberDecoder lastKnownDecoder = new LastKnownSequenceNumberDecoder();
     private final AtomicBuffer inMemoryBuffer;
     private final SectorFramer sectorFramer;
     private final IndexedPositionReader positions;
     private final ErrorHandler errorHandler;
+    private final Long2LongHashMap recordOffsets = new Long2LongHashMap(MISSING_RECORD);
+
+    private int nextScanPosition = HEADER_SIZE;
+    private int generation;
 
     public SequenceNumberIndexReader(final AtomicBuffer inMemoryBuffer, final ErrorHandler errorHandler)
     {
@@ -49,7 +62,28 @@ public class SequenceNumberIndexReader
 
     public int lastKnownSequenceNumber(final long sessionId)
     {
-        int position = SequenceNumberIndexDescriptor.HEADER_SIZE;
+        final int position = (int)recordOffsets.get(sessionId);
+        if (position != MISSING_RECORD)
+        {
+            lastKnownDecoder.wrap(inMemoryBuffer, position, BLOCK_LENGTH, SCHEMA_VERSION);
+            if (lastKnownDecoder.sessionId() == sessionId && lastKnownDecoder.generation() == generation)
+            {
+                return lastKnownDecoder.sequenceNumber();
+            }
+
+            clearRecordOffsets();
+        }
+        else if (hasBeenReset())
+        {
+            clearRecordOffsets();
+        }
+
+        return scanForRecord(sessionId);
+    }
+
+    private int scanForRecord(final long sessionId)
+    {
+        int position = nextScanPosition;
         while (true)
         {
             position = sectorFramer.claim(position, RECORD_SIZE);
@@ -60,7 +94,22 @@ public class SequenceNumberIndexReader
 
             lastKnownDecoder.wrap(inMemoryBuffer, position, BLOCK_LENGTH, SCHEMA_VERSION);
 
-            if (lastKnownDecoder.sessionId() == sessionId)
+            final long recordSessionId = lastKnownDecoder.sessionId();
+            // Slots are filled in order, so the first empty slot is the end of the written records.
+            if (recordSessionId == 0)
+            {
+                return UNK_SESSION;
+            }
+
+            if (position == HEADER_SIZE)
+            {
+                generation = lastKnownDecoder.generation();
+            }
+
+            recordOffsets.put(recordSessionId, position);
+            nextScanPosition = position + RECORD_SIZE;
+
+            if (recordSessionId == sessionId)
             {
                 return lastKnownDecoder.sequenceNumber();
             }
@@ -69,6 +118,23 @@ public class SequenceNumberIndexReader
         }
     }
 
+    private boolean hasBeenReset()
+    {
+        if (nextScanPosition == HEADER_SIZE)
+        {
+            return false;
+        }
+
+        lastKnownDecoder.wrap(inMemoryBuffer, HEADER_SIZE, BLOCK_LENGTH, SCHEMA_VERSION);
+        return lastKnownDecoder.sessionId() == 0 || lastKnownDecoder.generation() != generation;
+    }
+
+    private void clearRecordOffsets()
+    {
+        recordOffsets.clear();
+        nextScanPosition = HEADER_SIZE;
+    }
+
     public long indexedPosition(final int aeronSessionId)
     {
         return positions.indexedPosition(aeronSessionId);
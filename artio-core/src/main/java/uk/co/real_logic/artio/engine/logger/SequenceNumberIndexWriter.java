@@ -20,7 +20,6 @@ import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
 import org.agrona.collections.Long2LongHashMap;
 import org.agrona.concurrent.AtomicBuffer;
-import uk.co.real_logic.artio.decoder.HeaderDecoder;
 import uk.co.real_logic.artio.engine.ChecksumFramer;
 import uk.co.real_logic.artio.engine.MappedFile;
 import uk.co.real_logic.artio.messages.*;
@@ -30,14 +29,20 @@ import uk.co.real_logic.artio.util.AsciiBuffer;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
 import java.io.File;
+import java.util.BitSet;
 
 import static uk.co.real_logic.artio.engine.SectorFramer.*;
+import static uk.co.real_logic.artio.engine.logger.MsgSeqNumExtractor.NO_MSG_SEQ_NUM;
 import static uk.co.real_logic.artio.engine.logger.SequenceNumberIndexDescriptor.*;
 import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder.SCHEMA_VERSION;
 
 /**
  * Writes updates into an in-memory buffer. This buffer is then flushed down to disk. A passing place
  * file is used to ensure that there's a recoverable option if it fails.
+ *
+ * Only the sectors that have changed since each file was last written are checksummed and copied when
+ * the buffer is flushed. The two files alternate, so the sectors to copy into the writable file are those
+ * dirtied since the last flush plus those dirtied in the flush before it.
  */
 public class SequenceNumberIndexWriter implements Index
 {
@@ -50,7 +55,6 @@ public class SequenceNumberIndexWriter implements Index
     private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
     private final FixMessageDecoder messageFrame = new FixMessageDecoder();
     private final ResetSequenceNumberDecoder resetSequenceNumber = new ResetSequenceNumberDecoder();
-    private final HeaderDecoder fixHeader = new HeaderDecoder();
 
     private final AsciiBuffer asciiBuffer = new MutableAsciiBuffer();
     private final MessageHeaderDecoder fileHeaderDecoder = new MessageHeaderDecoder();
@@ -69,10 +73,15 @@ public class SequenceNumberIndexWriter implements Index
     private final int streamId;
     private final int indexedPositionsOffset;
     private final IndexedPositionWriter positions;
+    private final int sectorCount;
 
+    private BitSet dirtySectors;
+    private BitSet previousDirtySectors;
     private MappedFile writableFile;
     private MappedFile indexFile;
     private long nextRollPosition = UNINITIALISED;
+    private int nextRecordPosition = HEADER_SIZE;
+    private int generation;
 
     public SequenceNumberIndexWriter(
         final AtomicBuffer inMemoryBuffer,
@@ -94,6 +103,10 @@ public class SequenceNumberIndexWriter implements Index
 
         // TODO: Fsync parent directory
         indexedPositionsOffset = positionTableOffset(fileCapacity);
+        sectorCount = (fileCapacity + SECTOR_SIZE - 1) / SECTOR_SIZE;
+        // Neither file is known to match the in memory buffer until it has been written once.
+        dirtySectors = allSectors();
+        previousDirtySectors = allSectors();
         checksumFramer = new ChecksumFramer(
             inMemoryBuffer, indexedPositionsOffset, errorHandler, 0, "SequenceNumberIndex");
         try
@@ -142,12 +155,12 @@ public class SequenceNumberIndexWriter implements Index
                 offset += actingBlockLength + 2;
 
                 asciiBuffer.wrap(buffer);
-                fixHeader.decode(asciiBuffer, offset, messageFrame.bodyLength());
-
-                final int msgSeqNum = fixHeader.msgSeqNum();
-                final long sessionId = messageFrame.session();
-
-                saveRecord(msgSeqNum, sessionId);
+                final int msgSeqNum = MsgSeqNumExtractor.msgSeqNum(asciiBuffer, offset, messageFrame.bodyLength());
+                // A message without a MsgSeqNum says nothing about the session's sequence number
+                if (msgSeqNum != NO_MSG_SEQ_NUM)
+                {
+                    saveRecord(msgSeqNum, messageFrame.session());
+                }
                 break;
             }
 
@@ -165,13 +178,22 @@ public class SequenceNumberIndexWriter implements Index
         }
 
         checkTermRoll(buffer, srcOffset, endPosition, length);
-        positions.indexedUpTo(aeronSessionId, endPosition);
+        final int positionOffset = positions.indexedUpTo(aeronSessionId, endPosition);
+        if (positionOffset != OUT_OF_SPACE)
+        {
+            markDirty(indexedPositionsOffset + positionOffset);
+        }
     }
 
     void resetSequenceNumbers()
     {
         inMemoryBuffer.setMemory(0, indexedPositionsOffset, (byte)0);
         initialiseBlankBuffer();
+        dirtySectors.set(0, indexedPositionsOffset / SECTOR_SIZE);
+        recordOffsets.clear();
+        nextRecordPosition = HEADER_SIZE;
+        // Readers cache record offsets, the generation lets them spot that the slots have been reused.
+        generation++;
     }
 
     private void checkTermRoll(final DirectBuffer buffer, final int offset, final long endPosition, final int length)
@@ -191,18 +213,61 @@ public class SequenceNumberIndexWriter implements Index
 
     private void updateFile()
     {
-        checksumFramer.updateChecksums();
-        positions.updateChecksums();
+        updateChecksums();
         saveFile();
         flipFiles();
+
+        final BitSet writtenSectors = previousDirtySectors;
+        previousDirtySectors = dirtySectors;
+        writtenSectors.clear();
+        dirtySectors = writtenSectors;
+    }
+
+    private void updateChecksums()
+    {
+        final BitSet dirtySectors = this.dirtySectors;
+        final int indexedPositionsOffset = this.indexedPositionsOffset;
+        for (int sector = dirtySectors.nextSetBit(0); sector >= 0; sector = dirtySectors.nextSetBit(sector + 1))
+        {
+            final int sectorStart = sector * SECTOR_SIZE;
+            if (sectorStart < indexedPositionsOffset)
+            {
+                checksumFramer.updateChecksum(sectorStart);
+            }
+            else
+            {
+                positions.updateChecksum(sectorStart - indexedPositionsOffset);
+            }
+        }
     }
 
     private void saveFile()
     {
-        writableFile.buffer().putBytes(0, inMemoryBuffer, 0, fileCapacity);
+        final AtomicBuffer writableBuffer = writableFile.buffer();
+        final BitSet sectorsToWrite = previousDirtySectors;
+        sectorsToWrite.or(dirtySectors);
+        for (int sector = sectorsToWrite.nextSetBit(0); sector >= 0; sector = sectorsToWrite.nextSetBit(sector + 1))
+        {
+            final int sectorStart = sector * SECTOR_SIZE;
+            final int length = Math.min(SECTOR_SIZE, fileCapacity - sectorStart);
+            writableBuffer.putBytes(sectorStart, inMemoryBuffer, sectorStart, length);
+        }
+        // Only the pages dirtied by the copy above get written back.
         writableFile.force();
     }
 
+    private BitSet allSectors()
+    {
+        final BitSet sectors = new BitSet(sectorCount);
+        sectors.set(0, sectorCount);
+        return sectors;
+    }
+
+    private void markDirty(final int offset)
+    {
+        dirtySectors.set(offset / SECTOR_SIZE);
+    }
+
     private void flipFiles()
     {
         if (RUNNING_ON_WINDOWS)
@@ -274,34 +339,20 @@ public class SequenceNumberIndexWriter implements Index
 
     private void saveRecord(final int newSequenceNumber, final long sessionId)
     {
-        int position = (int)recordOffsets.get(sessionId);
+        final int position = (int)recordOffsets.get(sessionId);
         if (position == MISSING_RECORD)
         {
-            position = SequenceNumberIndexDescriptor.HEADER_SIZE;
-            while (true)
+            // Every existing record is in recordOffsets, so a miss always means a new session.
+            final int newPosition = checksumFramer.claim(nextRecordPosition, RECORD_SIZE);
+            if (newPosition == OUT_OF_SPACE)
             {
-                position = checksumFramer.claim(position, RECORD_SIZE);
-                if (position == OUT_OF_SPACE)
-                {
-                    errorHandler.onError(new IllegalStateException(
-                        "Sequence Number Index out of space, can't claim slot for " + sessionId));
-                    return;
-                }
-
-                lastKnownDecoder.wrap(inMemoryBuffer, position, RECORD_SIZE, SCHEMA_VERSION);
-                if (lastKnownDecoder.sequenceNumber() == 0)
-                {
-                    createNewRecord(newSequenceNumber, sessionId, position);
-                    return;
-                }
-                else if (lastKnownDecoder.sessionId() == sessionId)
-                {
-                    updateSequenceNumber(position, newSequenceNumber);
-                    return;
-                }
-
-                position += RECORD_SIZE;
+                errorHandler.onError(new IllegalStateException(
+                    "Sequence Number Index out of space, can't claim slot for " + sessionId));
+                return;
             }
+
+            createNewRecord(newSequenceNumber, sessionId, newPosition);
+            nextRecordPosition = newPosition + RECORD_SIZE;
         }
         else
         {
@@ -315,8 +366,10 @@ public class SequenceNumberIndexWriter implements Index
         final int position)
     {
         recordOffsets.put(sessionId, position);
+        markDirty(position);
         lastKnownEncoder
             .wrap(inMemoryBuffer, position)
+            .generation(generation)
             .sessionId(sessionId);
         updateSequenceNumber(position, sequenceNumber);
     }
@@ -394,6 +447,37 @@ public class SequenceNumberIndexWriter implements Index
     {
         loadBuffer(fileBuffer);
         checksumFramer.validateCheckSums();
+        indexExistingRecords();
+    }
+
+    private void indexExistingRecords()
+    {
+        int position = HEADER_SIZE;
+        while (true)
+        {
+            final int recordPosition = checksumFramer.claim(position, RECORD_SIZE);
+            if (recordPosition == OUT_OF_SPACE)
+            {
+                break;
+            }
+
+            lastKnownDecoder.wrap(inMemoryBuffer, recordPosition, RECORD_SIZE, SCHEMA_VERSION);
+            if (lastKnownDecoder.sequenceNumber() == 0)
+            {
+                position = recordPosition;
+                break;
+            }
+
+            if (recordPosition == HEADER_SIZE)
+            {
+                generation = lastKnownDecoder.generation();
+            }
+
+            recordOffsets.put(lastKnownDecoder.sessionId(), recordPosition);
+            position = recordPosition + RECORD_SIZE;
+        }
+
+        nextRecordPosition = position;
     }
 
     private void loadBuffer(final AtomicBuffer fileBuffer)
@@ -405,6 +489,7 @@ public class SequenceNumberIndexWriter implements Index
         final int recordOffset,
         final int value)
     {
+        markDirty(recordOffset);
         inMemoryBuffer.putIntOrdered(recordOffset + SEQUENCE_NUMBER_OFFSET, value);
     }
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
+import org.agrona.collections.IntHashSet;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static io.aeron.logbuffer.FrameDescriptor.BEGIN_FRAG_FLAG;
+import static io.aeron.logbuffer.FrameDescriptor.END_FRAG_FLAG;
+
+/**
+ * Drops FIX messages addressed to other libraries before they are reassembled or dispatched.
+ *
+ * Every library reads the whole inbound stream. FIX messages make up most of it, and most of them belong to
+ * other libraries' sessions. This filter looks at the library id in the first fragment of each FIX message and
+ * skips the rest of the message without copying it into the fragment assembler. Other messages are passed on
+ * as before, since they are rare and some of them aren't addressed to a single library.
+ */
+class ForeignMessageFilter implements ControlledFragmentHandler
+{
+    private static final int HEADER_LENGTH = MessageHeaderDecoder.ENCODED_LENGTH;
+
+    private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
+    private final FixMessageDecoder fixMessage = new FixMessageDecoder();
+    private final IntHashSet skippedSessionIds = new IntHashSet();
+
+    private final int libraryId;
+    private final ControlledFragmentHandler delegate;
+
+    ForeignMessageFilter(final int libraryId, final ControlledFragmentHandler delegate)
+    {
+        this.libraryId = libraryId;
+        this.delegate = delegate;
+    }
+
+    public Action onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+    {
+        final byte flags = header.flags();
+        if ((flags & BEGIN_FRAG_FLAG) == BEGIN_FRAG_FLAG)
+        {
+            if (isForeignFixMessage(buffer, offset, length))
+            {
+                if ((flags & END_FRAG_FLAG) != END_FRAG_FLAG)
+                {
+                    skippedSessionIds.add(header.sessionId());
+                }
+
+                return CONTINUE;
+            }
+        }
+        else if (skippedSessionIds.contains(header.sessionId()))
+        {
+            if ((flags & END_FRAG_FLAG) == END_FRAG_FLAG)
+            {
+                skippedSessionIds.remove(header.sessionId());
+            }
+
+            return CONTINUE;
+        }
+
+        return delegate.onFragment(buffer, offset, length, header);
+    }
+
+    private boolean isForeignFixMessage(final DirectBuffer buffer, final int offset, final int length)
+    {
+        if (length < HEADER_LENGTH + FixMessageDecoder.BLOCK_LENGTH)
+        {
+            return false;
+        }
+
+        messageHeader.wrap(buffer, offset);
+        if (messageHeader.templateId() != FixMessageDecoder.TEMPLATE_ID)
+        {
+            return false;
+        }
+
+        fixMessage.wrap(buffer, offset + HEADER_LENGTH, messageHeader.blockLength(), messageHeader.version());
+        return fixMessage.libraryId() != libraryId;
+    }
+}
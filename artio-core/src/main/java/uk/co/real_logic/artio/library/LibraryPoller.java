@@ -78,6 +78,9 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
 
     private static final long NO_CORRELATION_ID = 0;
 
+    // Covers about 4 seconds, so sessions with typical heartbeat intervals only wrap around a few times
+    private static final int SESSION_TIMER_WHEEL_SIZE = 4096;
+
     private final Long2ObjectHashMap<SessionSubscriber> connectionIdToSession = new Long2ObjectHashMap<>();
     private Session[] sessions = new Session[0];
     private final List<Session> unmodifiableSessions = new AbstractList<Session>()
@@ -97,10 +100,12 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     private final LongHashSet sessionIds = new LongHashSet();
 
     private final SessionAccessor accessor = new SessionAccessor(LibraryPoller.class);
+    private final SessionTimerWheel sessionTimerWheel;
 
     // Uniquely identifies library session
     private final int libraryId;
     private final EpochClock clock;
+    private final EpochFractionClock sendingTimeClock;
     private final LibraryConfiguration configuration;
     private final SessionIdStrategy sessionIdStrategy;
     private final Timer sessionTimer;
@@ -157,7 +162,14 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         this.sessionExistsHandler = configuration.sessionExistsHandler();
         this.sentPositionHandler = configuration.sentPositionHandler();
         this.clock = clock;
+        this.sendingTimeClock = new EpochFractionClock(
+            clock, configuration.epochNanoClock(), configuration.sendingTimeFormat());
+        this.sessionTimerWheel = new SessionTimerWheel(SESSION_TIMER_WHEEL_SIZE, clock.time());
         this.enginesAreClustered = configuration.libraryAeronChannels().size() > 1;
+
+        outboundSubscription = new ForeignMessageFilter(
+            libraryId,
+            new ControlledFragmentAssembler(ProtocolSubscription.of(this, new LibraryProtocolSubscription(this))));
     }
 
     boolean isConnected()
@@ -212,6 +224,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     void disableSession(final Session session)
     {
         sessions = ArrayUtil.remove(sessions, session);
+        sessionTimerWheel.remove(session);
         accessor.disable(session);
     }
 
@@ -507,16 +520,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
 
     private int pollSessions(final long timeInMs)
     {
-        final Session[] sessions = this.sessions;
-        int total = 0;
-
-        for (int i = 0, size = sessions.length; i < size; i++)
-        {
-            final Session session = sessions[i];
-            total += session.poll(timeInMs);
-        }
-
-        return total;
+        return sessionTimerWheel.poll(timeInMs);
     }
 
     private long timeInMs()
@@ -557,8 +561,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     //                     BEGIN EVENT HANDLERS
     // -----------------------------------------------------------------------
 
-    private final ControlledFragmentHandler outboundSubscription = new ControlledFragmentAssembler(
-        ProtocolSubscription.of(this, new LibraryProtocolSubscription(this)));
+    private final ControlledFragmentHandler outboundSubscription;
 
     public Action onManageSession(
         final int libraryId,
@@ -733,6 +736,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
                     final Session session = subscriber.session();
                     session.close();
                     sessions = ArrayUtil.remove(sessions, session);
+                    sessionTimerWheel.remove(session);
                 }
 
                 return action;
@@ -889,6 +893,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
                     session.close();
                     // TODO(Nick): Maybe we shouldn't be creating a lot of arrays and batch this up?
                     sessions = ArrayUtil.remove(sessions, i);
+                    sessionTimerWheel.remove(session);
                     size--;
                 }
                 else
@@ -960,6 +965,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         final SessionSubscriber subscriber = new SessionSubscriber(parser, session, receiveTimer, sessionTimer);
         connectionIdToSession.put(connectionId, subscriber);
         sessions = ArrayUtil.add(sessions, session);
+        sessionTimerWheel.add(session);
     }
 
     private Session initiateSession(
@@ -993,7 +999,8 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
             sessionConfiguration != null && sessionConfiguration.resetSeqNum(),
             configuration.reasonableTransmissionTimeInMs(),
             asciiBuffer)
-            .lastReceivedMsgSeqNum(initiatorNewSequenceNumber(sessionConfiguration, lastReceivedSequenceNumber) - 1);
+            .lastReceivedMsgSeqNum(initiatorNewSequenceNumber(sessionConfiguration, lastReceivedSequenceNumber) - 1)
+            .sendingTimeClock(sendingTimeClock);
 
         if (sessionConfiguration != null)
         {
@@ -1069,7 +1076,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
             sequenceIndex,
             state,
             configuration.reasonableTransmissionTimeInMs(),
-            asciiBuffer).address(host, port).logonTime(logonTime);
+            asciiBuffer).address(host, port).logonTime(logonTime).sendingTimeClock(sendingTimeClock);
     }
 
     private SessionProxy sessionProxy(final long connectionId, final MutableAsciiBuffer asciiBuffer)
@@ -1079,7 +1086,8 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
             transport.outboundPublication(),
             sessionIdStrategy,
             configuration.sessionCustomisationStrategy(),
-            new SystemEpochClock(),
+            new EpochFractionClock(
+                new SystemEpochClock(), configuration.epochNanoClock(), configuration.sendingTimeFormat()),
             connectionId,
             libraryId);
     }
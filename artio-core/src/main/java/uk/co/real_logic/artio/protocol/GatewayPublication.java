@@ -193,6 +193,88 @@ public class GatewayPublication extends ClaimablePublication
         return position;
     }
 
+    /**
+     * Claim space in the log buffer for a FIX message of a known length and write its frame, so that the
+     * message itself can be encoded straight into the log buffer rather than copied in by
+     * {@link #saveMessage(DirectBuffer, int, int, int, int, long, int, long, MessageStatus)}.
+     *
+     * The message should be written into the claim's buffer at {@link #claimedBodyOffset(ExclusiveBufferClaim)} and
+     * then either committed with {@link #commitMessage(ExclusiveBufferClaim)} or aborted with
+     * {@link #abortMessage(ExclusiveBufferClaim)}. The claim isn't shared with other messages sent through this
+     * publication, they can be sent in the meantime and are delivered after it. Messages longer than
+     * {@link #maxClaimableBodyLength()} would need fragmenting and can't be claimed.
+     *
+     * @param bufferClaim the claim to use, owned by the caller.
+     * @return the position of the end of the message or a negative error status.
+     */
+    public long claimMessage(
+        final ExclusiveBufferClaim bufferClaim,
+        final int bodyLength,
+        final int libraryId,
+        final int messageType,
+        final long sessionId,
+        final int sequenceIndex,
+        final long connectionId,
+        final MessageStatus status)
+    {
+        final long position = claim(FRAMED_MESSAGE_SIZE + bodyLength, bufferClaim);
+        if (position < 0)
+        {
+            return position;
+        }
+
+        int offset = bufferClaim.offset();
+        final MutableDirectBuffer destBuffer = bufferClaim.buffer();
+
+        header.wrap(destBuffer, offset)
+            .blockLength(fixMessage.sbeBlockLength())
+            .templateId(fixMessage.sbeTemplateId())
+            .schemaId(fixMessage.sbeSchemaId())
+            .version(fixMessage.sbeSchemaVersion());
+
+        offset += header.encodedLength();
+
+        fixMessage.wrap(destBuffer, offset)
+            .libraryId(libraryId)
+            .messageType(messageType)
+            .session(sessionId)
+            .sequenceIndex(sequenceIndex)
+            .connection(connectionId)
+            .timestamp(nanoClock.nanoTime())
+            .status(status);
+
+        putBodyLength(bodyLength, offset, destBuffer);
+
+        return position;
+    }
+
+    public int claimedBodyOffset(final ExclusiveBufferClaim bufferClaim)
+    {
+        return bufferClaim.offset() + FRAMED_MESSAGE_SIZE;
+    }
+
+    public int maxClaimableBodyLength()
+    {
+        return maxInitialBodyLength;
+    }
+
+    public void commitMessage(final ExclusiveBufferClaim bufferClaim)
+    {
+        DebugLogger.log(
+            FIX_MESSAGE,
+            "Enqueued %s%n",
+            bufferClaim.buffer(),
+            claimedBodyOffset(bufferClaim),
+            bufferClaim.length() - FRAMED_MESSAGE_SIZE);
+
+        bufferClaim.commit();
+    }
+
+    public void abortMessage(final ExclusiveBufferClaim bufferClaim)
+    {
+        bufferClaim.abort();
+    }
+
     private void putBodyLength(final int srcLength, final int offset, final MutableDirectBuffer destBuffer)
     {
         destBuffer.putShort(offset + FixMessageEncoder.BLOCK_LENGTH, (short)srcLength, LITTLE_ENDIAN);
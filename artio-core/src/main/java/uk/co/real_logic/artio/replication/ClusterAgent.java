@@ -119,7 +119,9 @@ public class ClusterAgent implements Agent
             termState,
             raftArchiver,
             nodeState,
-            nodeStateHandler);
+            nodeStateHandler)
+            .acknowledgementBatching(
+                configuration.acknowledgementBatchSizeInBytes(), configuration.acknowledgementBatchIntervalInMs());
 
         transport.initialiseRoles(leader, candidate, follower);
 
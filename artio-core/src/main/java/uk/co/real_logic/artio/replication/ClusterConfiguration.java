@@ -34,6 +34,8 @@ public class ClusterConfiguration
     public static final int DEFAULT_CONTROL_STREAM_ID = 1;
     public static final int DEFAULT_DATA_STREAM_ID = 2;
     public static final int DEFAULT_ACKNOWLEDGEMENT_STREAM_ID = 3;
+    public static final int DEFAULT_ACKNOWLEDGEMENT_BATCH_SIZE_IN_BYTES = 64 * 1024;
+    public static final long DEFAULT_ACKNOWLEDGEMENT_BATCH_INTERVAL_IN_MS = 1;
     public static final RoleHandler DEFAULT_NODE_HANDLER = new RoleHandler()
     {
         public void onTransitionToLeader(final int leadershipTerm)
@@ -52,6 +54,8 @@ public class ClusterConfiguration
     private short nodeId;
     private IntHashSet otherNodes;
     private long timeoutIntervalInMs;
+    private int acknowledgementBatchSizeInBytes = DEFAULT_ACKNOWLEDGEMENT_BATCH_SIZE_IN_BYTES;
+    private long acknowledgementBatchIntervalInMs = DEFAULT_ACKNOWLEDGEMENT_BATCH_INTERVAL_IN_MS;
 
     private Aeron aeron;
     private StreamIdentifier controlStream;
@@ -122,6 +126,32 @@ public class ClusterConfiguration
         return this;
     }
 
+    /**
+     * Sets the number of bytes a follower reads from the leader before acknowledging them. Whilst a follower keeps
+     * reading its acknowledgements are coalesced, once it has caught up it acknowledges straight away.
+     *
+     * @param acknowledgementBatchSizeInBytes the number of bytes read before acknowledging them,
+     *                                        0 acknowledges every read.
+     * @return this
+     */
+    public ClusterConfiguration acknowledgementBatchSizeInBytes(final int acknowledgementBatchSizeInBytes)
+    {
+        this.acknowledgementBatchSizeInBytes = acknowledgementBatchSizeInBytes;
+        return this;
+    }
+
+    /**
+     * Sets the longest time a follower holds back an acknowledgement for whilst it keeps reading from the leader.
+     *
+     * @param acknowledgementBatchIntervalInMs the longest time an acknowledgement is held back for.
+     * @return this
+     */
+    public ClusterConfiguration acknowledgementBatchIntervalInMs(final long acknowledgementBatchIntervalInMs)
+    {
+        this.acknowledgementBatchIntervalInMs = acknowledgementBatchIntervalInMs;
+        return this;
+    }
+
     public ClusterConfiguration acknowledgementStrategy(final AcknowledgementStrategy acknowledgementStrategy)
     {
         this.acknowledgementStrategy = acknowledgementStrategy;
@@ -236,6 +266,16 @@ public class ClusterConfiguration
         return timeoutIntervalInMs;
     }
 
+    public int acknowledgementBatchSizeInBytes()
+    {
+        return acknowledgementBatchSizeInBytes;
+    }
+
+    public long acknowledgementBatchIntervalInMs()
+    {
+        return acknowledgementBatchIntervalInMs;
+    }
+
     public AcknowledgementStrategy acknowledgementStrategy()
     {
         return acknowledgementStrategy;
@@ -54,6 +54,11 @@ class Follower implements Role, RaftHandler
     private long missingAckedPosition;
     private boolean requiresAcknowledgementResend = false;
 
+    private int acknowledgementBatchSizeInBytes;
+    private long acknowledgementBatchIntervalInMs;
+    private int unacknowledgedBytes;
+    private long acknowledgementDeadlineInMs;
+
     private short votedFor = NO_ONE;
     private long timeInMs;
 
@@ -124,15 +129,33 @@ class Follower implements Role, RaftHandler
         }
 
         final int bytesRead = raftArchiver.poll();
-        if (bytesRead > 0 || requiresAcknowledgementResend)
+        if (bytesRead > 0)
         {
             termState.moveReceivedPosition(bytesRead);
+            if (unacknowledgedBytes == 0)
+            {
+                acknowledgementDeadlineInMs = timeInMs + acknowledgementBatchIntervalInMs;
+            }
+            unacknowledgedBytes += bytesRead;
+        }
+
+        if (requiresAcknowledgementResend || (unacknowledgedBytes > 0 && isAcknowledgementDue(bytesRead)))
+        {
             saveOkAcknowledgement();
         }
 
         return bytesRead;
     }
 
+    // Acknowledgements are coalesced whilst data keeps arriving, but sent as soon as we've caught up so that a
+    // quiet stream doesn't wait on the batch interval.
+    private boolean isAcknowledgementDue(final int bytesRead)
+    {
+        return bytesRead == 0 ||
+            unacknowledgedBytes >= acknowledgementBatchSizeInBytes ||
+            timeInMs >= acknowledgementDeadlineInMs;
+    }
+
     private long saveMessageAcknowledgement(final AcknowledgementStatus status)
     {
         return acknowledgementPublication.saveMessageAcknowledgement(termState.receivedPosition(), nodeId, status);
@@ -271,6 +294,7 @@ class Follower implements Role, RaftHandler
         requiresAcknowledgementResend = saveMessageAcknowledgement(OK) < 0;
         if (!requiresAcknowledgementResend)
         {
+            unacknowledgedBytes = 0;
             onReplyKeepAlive(timeInMs);
         }
     }
@@ -310,6 +334,22 @@ class Follower implements Role, RaftHandler
         }
     }
 
+    /**
+     * Coalesce the acknowledgements of data read from the leader.
+     *
+     * @param acknowledgementBatchSizeInBytes the number of bytes read after which an acknowledgement is sent,
+     *                                        0 acknowledges every read.
+     * @param acknowledgementBatchIntervalInMs the longest time an acknowledgement is held back for.
+     * @return this
+     */
+    Follower acknowledgementBatching(
+        final int acknowledgementBatchSizeInBytes, final long acknowledgementBatchIntervalInMs)
+    {
+        this.acknowledgementBatchSizeInBytes = acknowledgementBatchSizeInBytes;
+        this.acknowledgementBatchIntervalInMs = acknowledgementBatchIntervalInMs;
+        return this;
+    }
+
     Follower acknowledgementPublication(final RaftPublication acknowledgementPublication)
     {
         this.acknowledgementPublication = acknowledgementPublication;
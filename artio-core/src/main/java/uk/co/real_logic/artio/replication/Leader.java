@@ -55,6 +55,8 @@ class Leader implements Role, RaftHandler
     // Counts of how many acknowledgements
     private final Long2LongHashMap nodeToPosition = new Long2LongHashMap(NO_SESSION_ID);
     private final List<ResendHandler> resendHandlers = new ArrayList<>();
+    // Only positions beyond the consensus position can move it, so there's no need to look for a new one otherwise
+    private boolean positionsUpdated;
 
     private ArchiveReader.SessionReader ourArchiveReader;
     private RaftPublication controlPublication;
@@ -130,7 +132,7 @@ class Leader implements Role, RaftHandler
         {
             final long transportPosition = raftArchiver.archivedTransportPosition();
             final long replicatedPosition = transportPosition + transportPositionDelta;
-            nodeToPosition.put(nodeId, replicatedPosition);
+            onNodePosition(nodeId, replicatedPosition);
         }
 
         return bytesRead;
@@ -139,16 +141,20 @@ class Leader implements Role, RaftHandler
     public int checkConditions(final long timeInMs)
     {
         final int resends = CollectionUtil.removeIf(resendHandlers, ResendHandler::reAttemptResend);
-        final long newPosition = acknowledgementStrategy.findAckedTerm(nodeToPosition);
-        final int delta = (int)(newPosition - consensusPosition.get());
-        if (delta > 0)
+        if (positionsUpdated)
         {
-            consensusPosition.set(newPosition);
+            positionsUpdated = false;
+            final long newPosition = acknowledgementStrategy.findAckedTerm(nodeToPosition);
+            final int delta = (int)(newPosition - consensusPosition.get());
+            if (delta > 0)
+            {
+                consensusPosition.set(newPosition);
 
-            heartbeat();
+                heartbeat();
 
-            // Deliberately Suppress below heartbeat because there's no need to send two
-            return resends + delta;
+                // Deliberately Suppress below heartbeat because there's no need to send two
+                return resends + delta;
+            }
         }
 
         if (timeInMs > nextHeartbeatTimeInMs)
@@ -205,6 +211,15 @@ class Leader implements Role, RaftHandler
         }
     }
 
+    private void onNodePosition(final short nodeId, final long position)
+    {
+        nodeToPosition.put(nodeId, position);
+        if (position > consensusPosition.get())
+        {
+            positionsUpdated = true;
+        }
+    }
+
     void updateNextHeartbeatTime(final long timeInMs)
     {
         this.nextHeartbeatTimeInMs = timeInMs + heartbeatIntervalInMs;
@@ -214,7 +229,7 @@ class Leader implements Role, RaftHandler
     {
         if (status == OK)
         {
-            nodeToPosition.put(nodeId, position);
+            onNodePosition(nodeId, position);
         }
 
         if (status == MISSING_LOG_ENTRIES)
@@ -362,6 +377,7 @@ class Leader implements Role, RaftHandler
         final long currentPosition = consensusPosition.get();
         transportPositionDelta = currentPosition - transportPosition;
         nodeToPosition.put(nodeId, currentPosition);
+        positionsUpdated = true;
 
         termState
             .transportPositionDelta(transportPositionDelta)
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.session;
+
+import uk.co.real_logic.artio.builder.Encoder;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static uk.co.real_logic.artio.decoder.Constants.*;
+import static uk.co.real_logic.artio.util.MutableAsciiBuffer.lengthInAscii;
+
+/**
+ * A session message that has been encoded once by its generated encoder, split up so that it can be re-encoded
+ * by copying its unchanging fields and only writing the MsgSeqNum, SendingTime and optionally one more natural
+ * number field, such as the NewSeqNo of a SequenceReset. The CheckSum is then computed by adding the byte sums
+ * of the written fields to that of the unchanging fields, which is calculated up front.
+ *
+ * Unlike with an {@link Encoder} the length of a message is known before it's encoded, so it can be encoded
+ * straight into a claimed log buffer.
+ */
+final class AdminMessageTemplate
+{
+    static final int NO_FIELD = -1;
+
+    private static final byte SEPARATOR = '\001';
+    private static final byte[] CHECKSUM_PREFIX = "10=".getBytes(US_ASCII);
+    private static final int CHECKSUM_LENGTH = CHECKSUM_PREFIX.length + 3 + 1;
+
+    // Of the form: "8=FIX.4.4^9="
+    private final byte[] headerPrefix;
+    // Everything from the start of the body up to and including "34="
+    private final byte[] beforeMsgSeqNum;
+    // Everything after the MsgSeqNum up to and including "52="
+    private final byte[] beforeSendingTime;
+    // Everything after the SendingTime up to the end of the body, or up to and including the field's tag
+    private final byte[] afterSendingTime;
+    // Everything after the natural field up to the end of the body, null if there's no natural field
+    private final byte[] afterField;
+    private final int unchangingChecksum;
+
+    private AdminMessageTemplate(
+        final byte[] headerPrefix,
+        final byte[] beforeMsgSeqNum,
+        final byte[] beforeSendingTime,
+        final byte[] afterSendingTime,
+        final byte[] afterField)
+    {
+        this.headerPrefix = headerPrefix;
+        this.beforeMsgSeqNum = beforeMsgSeqNum;
+        this.beforeSendingTime = beforeSendingTime;
+        this.afterSendingTime = afterSendingTime;
+        this.afterField = afterField;
+
+        unchangingChecksum = sum(headerPrefix) + SEPARATOR + sum(beforeMsgSeqNum) + sum(beforeSendingTime) +
+            sum(afterSendingTime) + (afterField == null ? 0 : sum(afterField));
+    }
+
+    /**
+     * Split up a message that has just been encoded.
+     *
+     * @param buffer the buffer that the message was encoded onto.
+     * @param result the result of encoding the message.
+     * @param fieldTag the tag of a natural number field in the body that changes between messages, or
+     *                 {@link #NO_FIELD}.
+     * @return the template or null if the message doesn't have its MsgSeqNum, SendingTime and field in that order.
+     */
+    static AdminMessageTemplate of(final MutableAsciiBuffer buffer, final long result, final int fieldTag)
+    {
+        final int start = Encoder.offset(result);
+        final int end = start + Encoder.length(result);
+
+        final int bodyLengthTagStart = buffer.scan(start, end - 1, SEPARATOR) + 1;
+        final int headerPrefixEnd = buffer.scan(bodyLengthTagStart, end - 1, '=') + 1;
+        final int bodyStart = buffer.scan(headerPrefixEnd, end - 1, SEPARATOR) + 1;
+        final int bodyEnd = end - CHECKSUM_LENGTH;
+
+        int msgSeqNumStart = NO_FIELD;
+        int msgSeqNumEnd = NO_FIELD;
+        int sendingTimeStart = NO_FIELD;
+        int sendingTimeEnd = NO_FIELD;
+        int fieldStart = NO_FIELD;
+        int fieldEnd = NO_FIELD;
+
+        int tagStart = bodyStart;
+        while (tagStart < bodyEnd)
+        {
+            final int equals = buffer.scan(tagStart, bodyEnd - 1, '=');
+            final int valueEnd = buffer.scan(equals, bodyEnd - 1, SEPARATOR);
+            final int tag = buffer.getNatural(tagStart, equals);
+            final int valueStart = equals + 1;
+
+            if (tag == MSG_SEQ_NUM)
+            {
+                msgSeqNumStart = valueStart;
+                msgSeqNumEnd = valueEnd;
+            }
+            else if (tag == SENDING_TIME)
+            {
+                sendingTimeStart = valueStart;
+                sendingTimeEnd = valueEnd;
+            }
+            else if (tag == fieldTag)
+            {
+                fieldStart = valueStart;
+                fieldEnd = valueEnd;
+            }
+
+            tagStart = valueEnd + 1;
+        }
+
+        final boolean hasField = fieldTag != NO_FIELD;
+        if (msgSeqNumStart == NO_FIELD || sendingTimeStart < msgSeqNumEnd ||
+            (hasField && fieldStart < sendingTimeEnd))
+        {
+            return null;
+        }
+
+        final int afterSendingTimeEnd = hasField ? fieldStart : bodyEnd;
+        return new AdminMessageTemplate(
+            bytes(buffer, start, headerPrefixEnd),
+            bytes(buffer, bodyStart, msgSeqNumStart),
+            bytes(buffer, msgSeqNumEnd, sendingTimeStart),
+            bytes(buffer, sendingTimeEnd, afterSendingTimeEnd),
+            hasField ? bytes(buffer, fieldEnd, bodyEnd) : null);
+    }
+
+    /**
+     * The length of a message that {@link #encode(MutableAsciiBuffer, int, int, byte[], int, int)} would encode.
+     *
+     * @param msgSeqNum the value of the MsgSeqNum field.
+     * @param sendingTimeLength the length of the encoded value of the SendingTime field.
+     * @param fieldValue the value of the natural number field, ignored if there is no such field.
+     * @return the length of the encoded message.
+     */
+    int length(final int msgSeqNum, final int sendingTimeLength, final int fieldValue)
+    {
+        final int bodyLength = bodyLength(msgSeqNum, sendingTimeLength, fieldValue);
+        return headerPrefix.length + lengthInAscii(bodyLength) + 1 + bodyLength + CHECKSUM_LENGTH;
+    }
+
+    private int bodyLength(final int msgSeqNum, final int sendingTimeLength, final int fieldValue)
+    {
+        int bodyLength = beforeMsgSeqNum.length + lengthInAscii(msgSeqNum) + beforeSendingTime.length +
+            sendingTimeLength + afterSendingTime.length;
+        if (afterField != null)
+        {
+            bodyLength += lengthInAscii(fieldValue) + afterField.length;
+        }
+
+        return bodyLength;
+    }
+
+    /**
+     * Encode a message from the template, the buffer must have {@link #length(int, int, int)} bytes of space
+     * after the offset for the message.
+     *
+     * @param buffer the buffer to encode the message to.
+     * @param offset the offset within the buffer to start encoding the message at.
+     * @param msgSeqNum the value of the MsgSeqNum field.
+     * @param sendingTime the buffer holding the encoded value of the SendingTime field.
+     * @param sendingTimeLength the length of the encoded value of the SendingTime field.
+     * @param fieldValue the value of the natural number field, ignored if there is no such field.
+     * @return the offset and length of the encoded message on the buffer packed into a long.
+     */
+    long encode(
+        final MutableAsciiBuffer buffer,
+        final int offset,
+        final int msgSeqNum,
+        final byte[] sendingTime,
+        final int sendingTimeLength,
+        final int fieldValue)
+    {
+        int position = offset;
+
+        buffer.putBytes(position, headerPrefix);
+        position += headerPrefix.length;
+        final int bodyLengthStart = position;
+        position += buffer.putAsciiInt(position, bodyLength(msgSeqNum, sendingTimeLength, fieldValue));
+        int checksum = unchangingChecksum + buffer.computeChecksum(bodyLengthStart, position);
+        buffer.putSeparator(position);
+        position++;
+
+        buffer.putBytes(position, beforeMsgSeqNum);
+        position += beforeMsgSeqNum.length;
+        final int msgSeqNumStart = position;
+        position += buffer.putAsciiInt(position, msgSeqNum);
+        checksum += buffer.computeChecksum(msgSeqNumStart, position);
+
+        buffer.putBytes(position, beforeSendingTime);
+        position += beforeSendingTime.length;
+        buffer.putBytes(position, sendingTime, 0, sendingTimeLength);
+        checksum += buffer.computeChecksum(position, position + sendingTimeLength);
+        position += sendingTimeLength;
+
+        buffer.putBytes(position, afterSendingTime);
+        position += afterSendingTime.length;
+
+        if (afterField != null)
+        {
+            final int fieldStart = position;
+            position += buffer.putAsciiInt(position, fieldValue);
+            checksum += buffer.computeChecksum(fieldStart, position);
+
+            buffer.putBytes(position, afterField);
+            position += afterField.length;
+        }
+
+        buffer.putBytes(position, CHECKSUM_PREFIX);
+        position += CHECKSUM_PREFIX.length;
+        buffer.putNatural(position, 3, checksum % 256);
+        position += 3;
+        buffer.putSeparator(position);
+        position++;
+
+        return Encoder.result(position - offset, offset);
+    }
+
+    private static byte[] bytes(final MutableAsciiBuffer buffer, final int start, final int end)
+    {
+        final byte[] bytes = new byte[end - start];
+        buffer.getBytes(start, bytes);
+        return bytes;
+    }
+
+    private static int sum(final byte[] bytes)
+    {
+        int sum = 0;
+        for (final byte b : bytes)
+        {
+            sum += b;
+        }
+
+        return sum;
+    }
+}
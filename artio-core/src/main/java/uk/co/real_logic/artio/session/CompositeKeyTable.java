@@ -0,0 +1,255 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.session;
+
+/**
+ * Open addressed table of the composite keys that a {@link SessionIdStrategy} has already created, so that a
+ * logon from a known counterparty can be matched against its key without allocating a new one.
+ *
+ * Subclasses hold the identifiers being looked up, and compare them straight from the logon's
+ * <code>char[]</code>s or Strings, so the hashes here follow {@link java.util.Arrays#hashCode(byte[])} over the
+ * ASCII bytes of each identifier.
+ *
+ * Tables aren't thread safe, strategies keep one per thread. Logons that never complete, for example ones that
+ * fail authentication, would otherwise grow a table forever, so once it holds {@link #EVICTION_SIZE} keys the ones
+ * that were never saved to, or loaded from, the session id file are evicted. Saved keys are bounded by the size of
+ * that file, and the table grows to hold them. Keys that have already been handed out stay valid, since they compare
+ * by value.
+ *
+ * @param <K> the type of composite key.
+ */
+abstract class CompositeKeyTable<K extends CompositeKey>
+{
+    static final int INITIAL_HASH = 1;
+    static final int EVICTION_SIZE = 4 * 1024;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private CompositeKey[] keys = new CompositeKey[INITIAL_CAPACITY];
+    private int mask = INITIAL_CAPACITY - 1;
+    private int size;
+    private int evictionSize = EVICTION_SIZE;
+
+    /**
+     * Find the key that matches the identifiers being looked up, creating and adding it if it isn't in the table.
+     *
+     * @param hash the hash of the identifiers being looked up.
+     * @return the matching key.
+     */
+    @SuppressWarnings("unchecked")
+    final K lookup(final int hash)
+    {
+        final int[] hashes = this.hashes;
+        final CompositeKey[] keys = this.keys;
+        for (int i = firstIndex(hash); ; i = nextIndex(i))
+        {
+            final K key = (K)keys[i];
+            if (key == null)
+            {
+                return add(hash, newKey());
+            }
+
+            if (hashes[i] == hash && matches(key))
+            {
+                return key;
+            }
+        }
+    }
+
+    /**
+     * Compare a key in the table against the identifiers being looked up.
+     *
+     * @param key the key in the table.
+     * @return true if the key matches.
+     */
+    abstract boolean matches(K key);
+
+    /**
+     * Create a key for the identifiers being looked up.
+     *
+     * @return the new key.
+     */
+    abstract K newKey();
+
+    /**
+     * Check whether a key has been saved to, or loaded from, the session id file.
+     *
+     * @param key the key in the table.
+     * @return true if the key has been saved, and so mustn't be evicted.
+     */
+    abstract boolean isSaved(K key);
+
+    static int hash(final int result, final byte[] value)
+    {
+        int hash = result;
+        for (final byte b : value)
+        {
+            hash = 31 * hash + b;
+        }
+
+        return hash;
+    }
+
+    static int hash(final int result, final CharSequence value)
+    {
+        int hash = result;
+        for (int i = 0, length = value.length(); i < length; i++)
+        {
+            hash = 31 * hash + (byte)value.charAt(i);
+        }
+
+        return hash;
+    }
+
+    static byte[] toBytes(final CharSequence value)
+    {
+        final int length = value.length();
+        final byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++)
+        {
+            bytes[i] = (byte)value.charAt(i);
+        }
+
+        return bytes;
+    }
+
+    static boolean equals(final byte[] key, final CharSequence value)
+    {
+        final int length = value.length();
+        if (key.length != length)
+        {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++)
+        {
+            if (key[i] != (byte)value.charAt(i))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private int firstIndex(final int hash)
+    {
+        return mix(hash) & mask;
+    }
+
+    private int nextIndex(final int index)
+    {
+        return (index + 1) & mask;
+    }
+
+    private K add(final int hash, final K key)
+    {
+        if (size >= evictionSize)
+        {
+            rehash(keys.length, false);
+            // Only evict again once the table has doubled, so that a table of mostly saved keys isn't rehashed
+            // on every add.
+            evictionSize = Math.max(EVICTION_SIZE, size << 1);
+        }
+
+        if (size >= (keys.length >> 1))
+        {
+            rehash(keys.length << 1, true);
+        }
+
+        insert(hash, key);
+        size++;
+
+        return key;
+    }
+
+    private void insert(final int hash, final CompositeKey key)
+    {
+        int index = firstIndex(hash);
+        while (keys[index] != null)
+        {
+            index = nextIndex(index);
+        }
+
+        hashes[index] = hash;
+        keys[index] = key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rehash(final int newCapacity, final boolean keepUnsavedKeys)
+    {
+        final int[] oldHashes = hashes;
+        final CompositeKey[] oldKeys = keys;
+
+        hashes = new int[newCapacity];
+        keys = new CompositeKey[newCapacity];
+        mask = newCapacity - 1;
+        size = 0;
+
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            final CompositeKey key = oldKeys[i];
+            if (key != null && (keepUnsavedKeys || isSaved((K)key)))
+            {
+                insert(oldHashes[i], key);
+                size++;
+            }
+        }
+    }
+
+    // Spread the low bits, since similar comp ids only differ in their last few characters
+    private static int mix(final int hash)
+    {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Reusable view of the start of a <code>char[]</code>, such as a field of a decoded logon header.
+     */
+    static final class CharArrayView implements CharSequence
+    {
+        private char[] chars;
+        private int length;
+
+        CharArrayView wrap(final char[] chars, final int length)
+        {
+            this.chars = chars;
+            this.length = length;
+            return this;
+        }
+
+        public int length()
+        {
+            return length;
+        }
+
+        public char charAt(final int index)
+        {
+            return chars[index];
+        }
+
+        public CharSequence subSequence(final int start, final int end)
+        {
+            return new String(chars, start, end - start);
+        }
+
+        public String toString()
+        {
+            return new String(chars, 0, length);
+        }
+    }
+}
@@ -159,4 +159,15 @@ public class InitiatorSession extends Session
 
         return actions + super.poll(time);
     }
+
+    long nextPollTimeInMs()
+    {
+        // The logon is sent from poll() once the engine has given us a session id
+        if (state() == SessionState.CONNECTED && id() != UNKNOWN)
+        {
+            return POLL_IMMEDIATELY;
+        }
+
+        return super.nextPollTimeInMs();
+    }
 }
@@ -19,7 +19,6 @@ import org.agrona.DirectBuffer;
 import org.agrona.MutableDirectBuffer;
 import uk.co.real_logic.artio.builder.HeaderEncoder;
 import uk.co.real_logic.artio.decoder.HeaderDecoder;
-import uk.co.real_logic.artio.dictionary.generation.CodecUtil;
 import uk.co.real_logic.artio.storage.messages.SenderAndTargetCompositeKeyDecoder;
 import uk.co.real_logic.artio.storage.messages.SenderAndTargetCompositeKeyEncoder;
 
@@ -27,6 +26,7 @@ import java.util.Arrays;
 
 import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.util.Objects.requireNonNull;
+import static uk.co.real_logic.artio.session.CompositeKeyTable.INITIAL_HASH;
 
 /**
  * A simple, and dumb session id Strategy based upon hashing SenderCompID and TargetCompID. Makes no assumptions
@@ -36,6 +36,7 @@ class SenderAndTargetSessionIdStrategy implements SessionIdStrategy
 {
     private static final int BLOCK_AND_LENGTH_FIELDS_LENGTH = SenderAndTargetCompositeKeyEncoder.BLOCK_LENGTH + 4;
 
+    private final ThreadLocal<Keys> keys = ThreadLocal.withInitial(Keys::new);
     private final SenderAndTargetCompositeKeyEncoder keyEncoder = new SenderAndTargetCompositeKeyEncoder();
     private final SenderAndTargetCompositeKeyDecoder keyDecoder = new SenderAndTargetCompositeKeyDecoder();
     private final int actingBlockLength = keyDecoder.sbeBlockLength();
@@ -49,9 +50,7 @@ class SenderAndTargetSessionIdStrategy implements SessionIdStrategy
     {
         requireNonNull(header, "header");
 
-        return new CompositeKeyImpl(
-            header.targetCompID(), header.targetCompIDLength(),
-            header.senderCompID(), header.senderCompIDLength());
+        return keys.get().lookup(header);
     }
 
     public CompositeKey onInitiateLogon(
@@ -65,10 +64,7 @@ class SenderAndTargetSessionIdStrategy implements SessionIdStrategy
         requireNonNull(localCompId, "senderCompId");
         requireNonNull(remoteCompId, "targetCompId");
 
-        final char[] senderCompID = localCompId.toCharArray();
-        final char[] targetCompID = remoteCompId.toCharArray();
-        return new CompositeKeyImpl(
-            senderCompID, senderCompID.length, targetCompID, targetCompID.length);
+        return keys.get().lookup(localCompId, remoteCompId);
     }
 
     public void setupSession(final CompositeKey compositeKey, final HeaderEncoder headerEncoder)
@@ -100,6 +96,8 @@ class SenderAndTargetSessionIdStrategy implements SessionIdStrategy
         keyEncoder.putLocalCompId(senderCompID, 0, senderCompID.length);
         keyEncoder.putRemoteCompId(targetCompID, 0, targetCompID.length);
 
+        key.saved = true;
+
         return length;
     }
 
@@ -117,7 +115,52 @@ class SenderAndTargetSessionIdStrategy implements SessionIdStrategy
         final byte[] remoteCompId = new byte[remoteCompIdLength];
         keyDecoder.getRemoteCompId(remoteCompId, 0, remoteCompIdLength);
 
-        return new CompositeKeyImpl(localCompId, remoteCompId);
+        final CompositeKeyImpl key = keys.get().lookup(new String(localCompId, US_ASCII), new String(remoteCompId, US_ASCII));
+        key.saved = true;
+
+        return key;
+    }
+
+    private static final class Keys extends CompositeKeyTable<CompositeKeyImpl>
+    {
+        private final CharArrayView localCompIdView = new CharArrayView();
+        private final CharArrayView remoteCompIdView = new CharArrayView();
+
+        private CharSequence localCompId;
+        private CharSequence remoteCompId;
+
+        CompositeKeyImpl lookup(final HeaderDecoder header)
+        {
+            return lookup(
+                localCompIdView.wrap(header.targetCompID(), header.targetCompIDLength()),
+                remoteCompIdView.wrap(header.senderCompID(), header.senderCompIDLength()));
+        }
+
+        CompositeKeyImpl lookup(final CharSequence localCompId, final CharSequence remoteCompId)
+        {
+            this.localCompId = localCompId;
+            this.remoteCompId = remoteCompId;
+
+            int hash = hash(INITIAL_HASH, localCompId);
+            hash = 31 * hash + hash(INITIAL_HASH, remoteCompId);
+
+            return lookup(hash);
+        }
+
+        boolean isSaved(final CompositeKeyImpl key)
+        {
+            return key.saved;
+        }
+
+        boolean matches(final CompositeKeyImpl key)
+        {
+            return equals(key.localCompID, localCompId) && equals(key.remoteCompID, remoteCompId);
+        }
+
+        CompositeKeyImpl newKey()
+        {
+            return new CompositeKeyImpl(toBytes(localCompId), toBytes(remoteCompId));
+        }
     }
 
     private static final class CompositeKeyImpl implements CompositeKey
@@ -126,16 +169,8 @@ class SenderAndTargetSessionIdStrategy implements SessionIdStrategy
         private final byte[] remoteCompID;
         private final int hashCode;
 
-        private CompositeKeyImpl(
-            final char[] localCompID,
-            final int localCompIDLength,
-            final char[] remoteCompID,
-            final int remoteCompIDLength)
-        {
-            this(
-                CodecUtil.toBytes(localCompID, localCompIDLength),
-                CodecUtil.toBytes(remoteCompID, remoteCompIDLength));
-        }
+        // Volatile since a key can be saved on a different thread to the one whose table holds it
+        private volatile boolean saved;
 
         private CompositeKeyImpl(final byte[] localCompID, final byte[] remoteCompID)
         {
@@ -146,8 +181,8 @@ class SenderAndTargetSessionIdStrategy implements SessionIdStrategy
 
         private int hash(final byte[] senderCompID, final byte[] targetCompID)
         {
-            int result = Arrays.hashCode(senderCompID);
-            result = 31 * result + Arrays.hashCode(targetCompID);
+            int result = CompositeKeyTable.hash(INITIAL_HASH, senderCompID);
+            result = 31 * result + CompositeKeyTable.hash(INITIAL_HASH, targetCompID);
             return result;
         }
 
@@ -158,6 +193,11 @@ class SenderAndTargetSessionIdStrategy implements SessionIdStrategy
 
         public boolean equals(final Object obj)
         {
+            if (obj == this)
+            {
+                return true;
+            }
+
             if (obj instanceof CompositeKeyImpl)
             {
                 final CompositeKeyImpl compositeKey = (CompositeKeyImpl)obj;
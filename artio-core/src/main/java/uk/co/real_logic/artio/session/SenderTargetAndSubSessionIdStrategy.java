@@ -19,13 +19,13 @@ import org.agrona.DirectBuffer;
 import org.agrona.MutableDirectBuffer;
 import uk.co.real_logic.artio.builder.HeaderEncoder;
 import uk.co.real_logic.artio.decoder.HeaderDecoder;
-import uk.co.real_logic.artio.dictionary.generation.CodecUtil;
 import uk.co.real_logic.artio.storage.messages.SenderTargetAndSubCompositeKeyDecoder;
 import uk.co.real_logic.artio.storage.messages.SenderTargetAndSubCompositeKeyEncoder;
 
 import java.util.Arrays;
 
 import static java.nio.charset.StandardCharsets.US_ASCII;
+import static uk.co.real_logic.artio.session.CompositeKeyTable.INITIAL_HASH;
 
 /**
  * A simple, and dumb session id Strategy based upon hashing SenderCompID and TargetCompID. Makes no assumptions
@@ -35,6 +35,7 @@ class SenderTargetAndSubSessionIdStrategy implements SessionIdStrategy
 {
     private static final int BLOCK_AND_LENGTH_FIELDS_LENGTH = SenderTargetAndSubCompositeKeyEncoder.BLOCK_LENGTH + 6;
 
+    private final ThreadLocal<Keys> keys = ThreadLocal.withInitial(Keys::new);
     private final SenderTargetAndSubCompositeKeyEncoder keyEncoder = new SenderTargetAndSubCompositeKeyEncoder();
     private final SenderTargetAndSubCompositeKeyDecoder keyDecoder = new SenderTargetAndSubCompositeKeyDecoder();
     private final int actingBlockLength = keyDecoder.sbeBlockLength();
@@ -46,10 +47,7 @@ class SenderTargetAndSubSessionIdStrategy implements SessionIdStrategy
 
     public CompositeKey onAcceptLogon(final HeaderDecoder header)
     {
-        return new CompositeKeyImpl(
-            header.targetCompID(), header.targetCompIDLength(),
-            header.targetSubID(), header.targetSubIDLength(),
-            header.senderCompID(), header.senderCompIDLength());
+        return keys.get().lookup(header);
     }
 
     public CompositeKey onInitiateLogon(
@@ -60,16 +58,7 @@ class SenderTargetAndSubSessionIdStrategy implements SessionIdStrategy
         final String remoteSubId,
         final String remoteLocationId)
     {
-        final char[] senderCompIdChars = localCompId.toCharArray();
-        final char[] senderSubIdChars = localSubId.toCharArray();
-        final char[] targetCompIdChars = remoteCompId.toCharArray();
-        return new CompositeKeyImpl(
-            senderCompIdChars,
-            senderCompIdChars.length,
-            senderSubIdChars,
-            senderSubIdChars.length,
-            targetCompIdChars,
-            targetCompIdChars.length);
+        return keys.get().lookup(localCompId, localSubId, remoteCompId);
     }
 
     public void setupSession(final CompositeKey compositeKey, final HeaderEncoder headerEncoder)
@@ -100,6 +89,8 @@ class SenderTargetAndSubSessionIdStrategy implements SessionIdStrategy
         keyEncoder.putLocalSubId(localSubID, 0, localSubID.length);
         keyEncoder.putRemoteCompId(remoteCompID, 0, remoteCompID.length);
 
+        key.saved = true;
+
         return length;
     }
 
@@ -119,7 +110,61 @@ class SenderTargetAndSubSessionIdStrategy implements SessionIdStrategy
         final byte[] remoteCompId = new byte[remoteCompIdLength];
         keyDecoder.getRemoteCompId(remoteCompId, 0, remoteCompIdLength);
 
-        return new CompositeKeyImpl(localCompId, localSubId, remoteCompId);
+        final CompositeKeyImpl key = keys.get().lookup(
+            new String(localCompId, US_ASCII), new String(localSubId, US_ASCII), new String(remoteCompId, US_ASCII));
+        key.saved = true;
+
+        return key;
+    }
+
+    private static final class Keys extends CompositeKeyTable<CompositeKeyImpl>
+    {
+        private final CharArrayView localCompIdView = new CharArrayView();
+        private final CharArrayView localSubIdView = new CharArrayView();
+        private final CharArrayView remoteCompIdView = new CharArrayView();
+
+        private CharSequence localCompId;
+        private CharSequence localSubId;
+        private CharSequence remoteCompId;
+
+        CompositeKeyImpl lookup(final HeaderDecoder header)
+        {
+            return lookup(
+                localCompIdView.wrap(header.targetCompID(), header.targetCompIDLength()),
+                localSubIdView.wrap(header.targetSubID(), header.targetSubIDLength()),
+                remoteCompIdView.wrap(header.senderCompID(), header.senderCompIDLength()));
+        }
+
+        CompositeKeyImpl lookup(
+            final CharSequence localCompId, final CharSequence localSubId, final CharSequence remoteCompId)
+        {
+            this.localCompId = localCompId;
+            this.localSubId = localSubId;
+            this.remoteCompId = remoteCompId;
+
+            int hash = hash(INITIAL_HASH, localCompId);
+            hash = 31 * hash + hash(INITIAL_HASH, localSubId);
+            hash = 31 * hash + hash(INITIAL_HASH, remoteCompId);
+
+            return lookup(hash);
+        }
+
+        boolean isSaved(final CompositeKeyImpl key)
+        {
+            return key.saved;
+        }
+
+        boolean matches(final CompositeKeyImpl key)
+        {
+            return equals(key.localCompId, localCompId) &&
+                equals(key.localSubID, localSubId) &&
+                equals(key.remoteCompID, remoteCompId);
+        }
+
+        CompositeKeyImpl newKey()
+        {
+            return new CompositeKeyImpl(toBytes(localCompId), toBytes(localSubId), toBytes(remoteCompId));
+        }
     }
 
     private static final class CompositeKeyImpl implements CompositeKey
@@ -129,19 +174,8 @@ class SenderTargetAndSubSessionIdStrategy implements SessionIdStrategy
         private final byte[] remoteCompID;
         private final int hashCode;
 
-        private CompositeKeyImpl(
-            final char[] localCompId,
-            final int localCompIDLength,
-            final char[] localSubID,
-            final int localSubIDLength,
-            final char[] remoteCompID,
-            final int remoteCompIDLength)
-        {
-            this(
-                CodecUtil.toBytes(localCompId, localCompIDLength),
-                CodecUtil.toBytes(localSubID, localSubIDLength),
-                CodecUtil.toBytes(remoteCompID, remoteCompIDLength));
-        }
+        // Volatile since a key can be saved on a different thread to the one whose table holds it
+        private volatile boolean saved;
 
         private CompositeKeyImpl(
             final byte[] localCompId,
@@ -156,9 +190,9 @@ class SenderTargetAndSubSessionIdStrategy implements SessionIdStrategy
 
         private int hash(final byte[] localCompID, final byte[] localSubID, final byte[] remoteCompID)
         {
-            int result = Arrays.hashCode(localCompID);
-            result = 31 * result + Arrays.hashCode(localSubID);
-            result = 31 * result + Arrays.hashCode(remoteCompID);
+            int result = CompositeKeyTable.hash(INITIAL_HASH, localCompID);
+            result = 31 * result + CompositeKeyTable.hash(INITIAL_HASH, localSubID);
+            result = 31 * result + CompositeKeyTable.hash(INITIAL_HASH, remoteCompID);
             return result;
         }
 
@@ -169,6 +203,11 @@ class SenderTargetAndSubSessionIdStrategy implements SessionIdStrategy
 
         public boolean equals(final Object obj)
         {
+            if (obj == this)
+            {
+                return true;
+            }
+
             if (obj instanceof CompositeKeyImpl)
             {
                 final CompositeKeyImpl compositeKey = (CompositeKeyImpl)obj;
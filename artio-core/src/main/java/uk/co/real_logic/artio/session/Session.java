@@ -16,11 +16,13 @@
 package uk.co.real_logic.artio.session;
 
 import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import io.aeron.logbuffer.ExclusiveBufferClaim;
 import org.agrona.DirectBuffer;
 import org.agrona.Verify;
 import org.agrona.concurrent.EpochClock;
 import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.CommonConfiguration;
+import uk.co.real_logic.artio.EpochFractionClock;
 import uk.co.real_logic.artio.Pressure;
 import uk.co.real_logic.artio.builder.Encoder;
 import uk.co.real_logic.artio.builder.HeaderEncoder;
@@ -93,6 +95,9 @@ public class Session implements AutoCloseable
     static final short AWAITING_LOGOUT_VALUE = 7;
     static final short DISCONNECTING_VALUE = 8;
 
+    static final long NO_DEADLINE = Long.MAX_VALUE;
+    static final long POLL_IMMEDIATELY = 0;
+
     /**
      * The proportion of the maximum heartbeat interval before you send your heartbeat
      */
@@ -102,7 +107,10 @@ public class Session implements AutoCloseable
     private static final char[] TEST_REQ_ID_CHARS = TEST_REQ_ID.toCharArray();
     public static final int NO_LOGOUT_REJECT_REASON = -1;
 
-    private final UtcTimestampEncoder timestampEncoder = new UtcTimestampEncoder();
+    private UtcTimestampEncoder timestampEncoder = new UtcTimestampEncoder();
+    private EpochFractionClock sendingTimeClock;
+    private final ExclusiveBufferClaim bufferClaim = new ExclusiveBufferClaim();
+    private final MutableAsciiBuffer claimBuffer = new MutableAsciiBuffer();
 
     protected final long connectionId;
     protected final SessionIdStrategy sessionIdStrategy;
@@ -143,6 +151,16 @@ public class Session implements AutoCloseable
 
     private int logoutRejectReason = NO_LOGOUT_REJECT_REASON;
 
+    SessionTimerWheel timerWheel;
+    int timerSlot = SessionTimerWheel.NOT_SCHEDULED;
+    int timerIndex;
+    long timerDeadlineInMs;
+
+    private long claimPosition;
+    private int claimSeqNum;
+    private int claimOffset;
+    private boolean claimOutstanding;
+
     public Session(
         final int heartbeatIntervalInS,
         final long connectionId,
@@ -168,6 +186,7 @@ public class Session implements AutoCloseable
         Verify.notNull(sentMsgSeqNo, "sent MsgSeqNo counter");
 
         this.clock = clock;
+        this.sendingTimeClock = EpochFractionClock.milliseconds(clock);
         this.proxy = proxy;
         this.connectionId = connectionId;
         this.publication = publication;
@@ -401,7 +420,7 @@ public class Session implements AutoCloseable
         final HeaderEncoder header = (HeaderEncoder)encoder.header();
         header
             .msgSeqNum(sentSeqNum)
-            .sendingTime(timestampEncoder.buffer(), timestampEncoder.encode(time()));
+            .sendingTime(timestampEncoder.buffer(), timestampEncoder.encode(sendingTimeClock.time()));
 
         if (!header.hasSenderCompID())
         {
@@ -442,6 +461,136 @@ public class Session implements AutoCloseable
         return position;
     }
 
+    /**
+     * Claim space for a message of a known length so that it can be written directly into the outbound stream,
+     * rather than encoded into a buffer and copied like {@link #send(Encoder)} does.
+     *
+     * If the claim succeeds the complete FIX message, including its header and checksum, should be written into
+     * {@link #claimBuffer()} starting at {@link #claimOffset()}, using {@link #claimSeqNum()} as its MsgSeqNum.
+     * Then either {@link #commit()} or {@link #abort()} it promptly, as no messages can be delivered from this
+     * library in the meantime. Other messages can still be sent on this session, they use later sequence numbers
+     * and are delivered after the claimed message.
+     *
+     * @param messageLength the exact length of the message that will be written.
+     * @param messageType the int encoded message type.
+     * @return the position in the stream that corresponds to the end of the claimed message or a negative
+     * number indicating an error status.
+     * @throws IllegalStateException if a previous claim hasn't been committed or aborted.
+     * @throws IllegalArgumentException if the message is too large to fit into a single fragment, such messages
+     *                                  should be sent with {@link #send(Encoder)}.
+     */
+    public long tryClaim(final int messageLength, final int messageType)
+    {
+        validateCanSendMessage();
+
+        if (claimOutstanding)
+        {
+            throw new IllegalStateException("The previous claim must be committed or aborted before claiming again");
+        }
+
+        final int maxClaimableBodyLength = publication.maxClaimableBodyLength();
+        if (messageLength > maxClaimableBodyLength)
+        {
+            throw new IllegalArgumentException(String.format(
+                "Message of length %d is longer than the maximum claimable length of %d",
+                messageLength,
+                maxClaimableBodyLength));
+        }
+
+        final int sentSeqNum = newSentSeqNum();
+        final ExclusiveBufferClaim bufferClaim = this.bufferClaim;
+        final long position = publication.claimMessage(
+            bufferClaim, messageLength, libraryId, messageType, id(), sequenceIndex(), connectionId, OK);
+        if (position > 0)
+        {
+            // Reserve the sequence number, messages sent before the commit are delivered after the claimed message
+            lastSentMsgSeqNum(sentSeqNum);
+
+            claimPosition = position;
+            claimSeqNum = sentSeqNum;
+            claimOutstanding = true;
+            claimBuffer.wrap(bufferClaim.buffer());
+            claimOffset = publication.claimedBodyOffset(bufferClaim);
+        }
+
+        return position;
+    }
+
+    /**
+     * The buffer to write a claimed message into, see {@link #tryClaim(int, int)}.
+     *
+     * @return the buffer to write a claimed message into.
+     */
+    public MutableAsciiBuffer claimBuffer()
+    {
+        return claimBuffer;
+    }
+
+    /**
+     * The offset within {@link #claimBuffer()} at which the claimed message starts.
+     *
+     * @return the offset within {@link #claimBuffer()} at which the claimed message starts.
+     */
+    public int claimOffset()
+    {
+        return claimOffset;
+    }
+
+    /**
+     * The sequence number that the claimed message must be sent with.
+     *
+     * @return the sequence number that the claimed message must be sent with.
+     */
+    public int claimSeqNum()
+    {
+        return claimSeqNum;
+    }
+
+    /**
+     * Send the message written into a successful claim, see {@link #tryClaim(int, int)}.
+     *
+     * @return the position in the stream that corresponds to the end of this message.
+     * @throws IllegalStateException if there's no claim to commit.
+     */
+    public long commit()
+    {
+        validateClaimOutstanding();
+
+        claimOutstanding = false;
+        publication.commitMessage(bufferClaim);
+
+        return claimPosition;
+    }
+
+    /**
+     * Abandon a successful claim without sending its message, see {@link #tryClaim(int, int)}.
+     *
+     * If other messages have been sent on this session since the claim then its sequence number has been used up,
+     * and the counterparty is sent a gap fill for it when it requests a resend.
+     *
+     * @throws IllegalStateException if there's no claim to abort.
+     */
+    public void abort()
+    {
+        validateClaimOutstanding();
+
+        claimOutstanding = false;
+        publication.abortMessage(bufferClaim);
+
+        if (lastSentMsgSeqNum == claimSeqNum)
+        {
+            lastSentMsgSeqNum(claimSeqNum - 1);
+        }
+    }
+
+    private void validateClaimOutstanding()
+    {
+        if (!claimOutstanding)
+        {
+            throw new IllegalStateException("There's no claimed message, see tryClaim()");
+        }
+    }
+
     /**
      * Check if the session is in a state where it can send a message.
      *
@@ -586,6 +735,33 @@ public class Session implements AutoCloseable
         }
     }
 
+    /**
+     * Get the time at which {@link #poll(long)} next needs to be called.
+     *
+     * @return the time in milliseconds, {@link #POLL_IMMEDIATELY} or {@link #NO_DEADLINE} if the session
+     * only needs to be polled after a change of state.
+     */
+    long nextPollTimeInMs()
+    {
+        switch (state.value())
+        {
+            case DISCONNECTING_VALUE:
+            case LOGGING_OUT_VALUE:
+            case LOGGING_OUT_AND_DISCONNECTING_VALUE:
+                return POLL_IMMEDIATELY;
+
+            case ACTIVE_VALUE:
+            case AWAITING_RESEND_VALUE:
+                return Math.min(nextRequiredHeartbeatTimeInMs, nextRequiredInboundMessageTimeInMs);
+
+            case AWAITING_LOGOUT_VALUE:
+                return nextRequiredInboundMessageTimeInMs;
+
+            default:
+                return NO_DEADLINE;
+        }
+    }
+
     public boolean isActive()
     {
         final SessionState state = this.state;
@@ -1157,6 +1333,7 @@ public class Session implements AutoCloseable
         incNextReceivedInboundMessageTime(time);
         sendingHeartbeatIntervalInMs = (long)(heartbeatIntervalInMs * HEARTBEAT_PAUSE_FACTOR);
         nextRequiredHeartbeatTimeInMs = time + sendingHeartbeatIntervalInMs;
+        rescheduleTimers();
 
         return this;
     }
@@ -1164,12 +1341,23 @@ public class Session implements AutoCloseable
     protected Session state(final SessionState state)
     {
         this.state = state;
+        rescheduleTimers();
         return this;
     }
 
+    private void rescheduleTimers()
+    {
+        final SessionTimerWheel timerWheel = this.timerWheel;
+        if (timerWheel != null)
+        {
+            timerWheel.reschedule(this);
+        }
+    }
+
     public Session id(final long id)
     {
         this.id = id;
+        rescheduleTimers();
         return this;
     }
 
@@ -1249,6 +1437,23 @@ public class Session implements AutoCloseable
         return this;
     }
 
+    /**
+     * Sets the clock that the SendingTime of messages sent by {@link #send(Encoder)} is read from, and so its
+     * precision. Defaults to the milliseconds of the session's clock.
+     *
+     * @param sendingTimeClock the clock to read the SendingTime from.
+     * @return this
+     */
+    public Session sendingTimeClock(final EpochFractionClock sendingTimeClock)
+    {
+        this.sendingTimeClock = sendingTimeClock;
+        if (timestampEncoder.format() != sendingTimeClock.format())
+        {
+            timestampEncoder = new UtcTimestampEncoder(sendingTimeClock.format());
+        }
+        return this;
+    }
+
     public long logonTime()
     {
         return this.logonTime;
@@ -32,7 +32,9 @@ import uk.co.real_logic.artio.decoder.HeaderDecoder;
  *
  * <p>
  * Implementations should define their own composite session key type, which must provide correct value based
- * equals/hashcode implementation. Strategy should be stateless.
+ * equals/hashcode implementation. Strategy should be stateless, it may be called from several threads. Strategies
+ * may cache the keys that they create, per thread, so that repeated logons from the same counterparty return the
+ * same key without allocating.
  *
  * In all cases sender and target are defined from your own perspective of the connection.
  */
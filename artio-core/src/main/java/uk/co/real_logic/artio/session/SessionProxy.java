@@ -15,7 +15,9 @@
  */
 package uk.co.real_logic.artio.session;
 
+import io.aeron.logbuffer.ExclusiveBufferClaim;
 import org.agrona.concurrent.EpochClock;
+import uk.co.real_logic.artio.EpochFractionClock;
 import uk.co.real_logic.artio.builder.*;
 import uk.co.real_logic.artio.decoder.*;
 import uk.co.real_logic.artio.fields.RejectReason;
@@ -30,6 +32,7 @@ import java.util.List;
 import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.util.Arrays.asList;
 import static java.util.Objects.requireNonNull;
+import static uk.co.real_logic.artio.decoder.Constants.NEW_SEQ_NO;
 import static uk.co.real_logic.artio.fields.RejectReason.VALUE_IS_INCORRECT;
 import static uk.co.real_logic.artio.messages.MessageStatus.OK;
 import static uk.co.real_logic.artio.session.Session.LIBRARY_DISCONNECTED;
@@ -76,7 +79,9 @@ public class SessionProxy
         }
     }
 
-    private final UtcTimestampEncoder timestampEncoder = new UtcTimestampEncoder();
+    private final UtcTimestampEncoder timestampEncoder;
+    private final ExclusiveBufferClaim bufferClaim = new ExclusiveBufferClaim();
+    private final MutableAsciiBuffer claimBuffer = new MutableAsciiBuffer();
     private final LogonEncoder logon = new LogonEncoder();
     private final ResendRequestEncoder resendRequest = new ResendRequestEncoder();
     private final LogoutEncoder logout = new LogoutEncoder();
@@ -88,12 +93,18 @@ public class SessionProxy
         logon.header(), resendRequest.header(), logout.header(), heartbeat.header(), reject.header(),
         testRequest.header(), sequenceReset.header());
 
+    // Templates are captured from the first encoding of a message after the session is setup
+    private AdminMessageTemplate heartbeatTemplate;
+    private AdminMessageTemplate testRequestTemplate;
+    private CharSequence testRequestTemplateTestReqID;
+    private AdminMessageTemplate sequenceResetTemplate;
+
     private final AsciiFormatter lowSequenceNumber;
     private final MutableAsciiBuffer buffer;
     private final GatewayPublication gatewayPublication;
     private final SessionIdStrategy sessionIdStrategy;
     private final SessionCustomisationStrategy customisationStrategy;
-    private final EpochClock clock;
+    private final EpochFractionClock clock;
     private final long connectionId;
     private final int libraryId;
     private long sessionId;
@@ -107,6 +118,25 @@ public class SessionProxy
         final EpochClock clock,
         final long connectionId,
         final int libraryId)
+    {
+        this(
+            buffer,
+            gatewayPublication,
+            sessionIdStrategy,
+            customisationStrategy,
+            EpochFractionClock.milliseconds(clock),
+            connectionId,
+            libraryId);
+    }
+
+    public SessionProxy(
+        final MutableAsciiBuffer buffer,
+        final GatewayPublication gatewayPublication,
+        final SessionIdStrategy sessionIdStrategy,
+        final SessionCustomisationStrategy customisationStrategy,
+        final EpochFractionClock clock,
+        final long connectionId,
+        final int libraryId)
     {
         this.gatewayPublication = gatewayPublication;
         this.sessionIdStrategy = sessionIdStrategy;
@@ -116,6 +146,7 @@ public class SessionProxy
         this.libraryId = libraryId;
         this.buffer = buffer;
         lowSequenceNumber = new AsciiFormatter("MsgSeqNum too low, expecting %s but received %s");
+        timestampEncoder = new UtcTimestampEncoder(clock.format());
         timestampEncoder.initialise(clock.time());
     }
 
@@ -128,6 +159,10 @@ public class SessionProxy
         {
             sessionIdStrategy.setupSession(sessionKey, header);
         }
+        heartbeatTemplate = null;
+        testRequestTemplate = null;
+        testRequestTemplateTestReqID = null;
+        sequenceResetTemplate = null;
 
         return this;
     }
@@ -259,6 +294,11 @@ public class SessionProxy
         final int msgSeqNo,
         final int sequenceIndex)
     {
+        if (testReqId == null && heartbeatTemplate != null)
+        {
+            return send(heartbeatTemplate, msgSeqNo, 0, HeartbeatDecoder.MESSAGE_TYPE, sequenceIndex);
+        }
+
         final HeaderEncoder header = heartbeat.header();
         setupHeader(header, msgSeqNo);
 
@@ -271,7 +311,13 @@ public class SessionProxy
             heartbeat.resetTestReqID();
         }
 
-        return send(heartbeat.encode(buffer, 0), HeartbeatDecoder.MESSAGE_TYPE, sequenceIndex, heartbeat);
+        final long result = heartbeat.encode(buffer, 0);
+        if (testReqId == null)
+        {
+            heartbeatTemplate = AdminMessageTemplate.of(buffer, result, AdminMessageTemplate.NO_FIELD);
+        }
+
+        return send(result, HeartbeatDecoder.MESSAGE_TYPE, sequenceIndex, heartbeat);
     }
 
     public long reject(
@@ -343,22 +389,43 @@ public class SessionProxy
 
     public long testRequest(final int msgSeqNo, final CharSequence testReqID, final int sequenceIndex)
     {
+        // Sessions send the same TestReqID String each time, so the template is only checked by identity
+        if (testReqID == testRequestTemplateTestReqID && testRequestTemplate != null)
+        {
+            return send(testRequestTemplate, msgSeqNo, 0, TestRequestDecoder.MESSAGE_TYPE, sequenceIndex);
+        }
+
         final HeaderEncoder header = testRequest.header();
         setupHeader(header, msgSeqNo);
 
         testRequest.testReqID(testReqID);
 
-        return send(testRequest.encode(buffer, 0), TestRequestDecoder.MESSAGE_TYPE, sequenceIndex, testRequest);
+        final long result = testRequest.encode(buffer, 0);
+        if (testReqID instanceof String)
+        {
+            testRequestTemplate = AdminMessageTemplate.of(buffer, result, AdminMessageTemplate.NO_FIELD);
+            testRequestTemplateTestReqID = testReqID;
+        }
+
+        return send(result, TestRequestDecoder.MESSAGE_TYPE, sequenceIndex, testRequest);
     }
 
     public long sequenceReset(final int msgSeqNo, final int newSeqNo, final int sequenceIndex)
     {
+        if (sequenceResetTemplate != null)
+        {
+            return send(sequenceResetTemplate, msgSeqNo, newSeqNo, SequenceResetDecoder.MESSAGE_TYPE, sequenceIndex);
+        }
+
         final HeaderEncoder header = sequenceReset.header();
         setupHeader(header, msgSeqNo);
 
         sequenceReset.newSeqNo(newSeqNo);
 
-        return send(sequenceReset.encode(buffer, 0), SequenceResetDecoder.MESSAGE_TYPE, sequenceIndex, sequenceReset);
+        final long result = sequenceReset.encode(buffer, 0);
+        sequenceResetTemplate = AdminMessageTemplate.of(buffer, result, NEW_SEQ_NO);
+
+        return send(result, SequenceResetDecoder.MESSAGE_TYPE, sequenceIndex, sequenceReset);
     }
 
     private void setupHeader(final HeaderEncoder header, final int msgSeqNo)
@@ -368,6 +435,52 @@ public class SessionProxy
         header.msgSeqNum(msgSeqNo);
     }
 
+    private long send(
+        final AdminMessageTemplate template,
+        final int msgSeqNo,
+        final int fieldValue,
+        final int messageType,
+        final int sequenceIndex)
+    {
+        if (!libraryConnected)
+        {
+            return LIBRARY_DISCONNECTED;
+        }
+
+        final UtcTimestampEncoder timestampEncoder = this.timestampEncoder;
+        final int sendingTimeLength = timestampEncoder.update(clock.time());
+        final byte[] sendingTime = timestampEncoder.buffer();
+        final int length = template.length(msgSeqNo, sendingTimeLength, fieldValue);
+        final GatewayPublication gatewayPublication = this.gatewayPublication;
+        if (length > gatewayPublication.maxClaimableBodyLength())
+        {
+            return send(
+                template.encode(buffer, 0, msgSeqNo, sendingTime, sendingTimeLength, fieldValue),
+                messageType,
+                sequenceIndex);
+        }
+
+        // The length is known up front, so the message is encoded straight into the log buffer
+        final ExclusiveBufferClaim bufferClaim = this.bufferClaim;
+        final long position = gatewayPublication.claimMessage(
+            bufferClaim, length, libraryId, messageType, sessionId, sequenceIndex, connectionId, OK);
+        if (position > 0)
+        {
+            final MutableAsciiBuffer claimBuffer = this.claimBuffer;
+            claimBuffer.wrap(bufferClaim.buffer());
+            template.encode(
+                claimBuffer,
+                gatewayPublication.claimedBodyOffset(bufferClaim),
+                msgSeqNo,
+                sendingTime,
+                sendingTimeLength,
+                fieldValue);
+            gatewayPublication.commitMessage(bufferClaim);
+        }
+
+        return position;
+    }
+
     private long send(final long result, final int messageType, final int sequenceIndex, final Encoder encoder)
     {
         if (!libraryConnected)
@@ -375,12 +488,22 @@ public class SessionProxy
             return LIBRARY_DISCONNECTED;
         }
 
+        final long position = send(result, messageType, sequenceIndex);
+        encoder.resetMessage();
+        return position;
+    }
+
+    private long send(final long result, final int messageType, final int sequenceIndex)
+    {
+        if (!libraryConnected)
+        {
+            return LIBRARY_DISCONNECTED;
+        }
+
         final int length = Encoder.length(result);
         final int offset = Encoder.offset(result);
-        final long position = gatewayPublication.saveMessage(
+        return gatewayPublication.saveMessage(
             buffer, offset, length, libraryId, messageType, sessionId, sequenceIndex, connectionId, OK);
-        encoder.resetMessage();
-        return position;
     }
 
     void libraryConnected(final boolean libraryConnected)
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.session;
+
+import org.agrona.BitUtil;
+
+import java.util.Arrays;
+
+/**
+ * Polls sessions only when they have something to do, rather than on every duty cycle.
+ *
+ * Each session is kept in a hashed timing wheel with millisecond ticks, in the slot of the time at which it next
+ * needs to be polled: its next heartbeat or inbound message timeout. Sessions that need to be polled straight away,
+ * for example because they're logging out or were back pressured, are kept in a separate due list.
+ *
+ * Deadlines are only rescheduled eagerly when a session's state or heartbeat interval changes, since those can
+ * bring them forward. Sending or receiving a message only pushes deadlines back, so a session is polled at its old
+ * deadline, does nothing and is then rescheduled at its new one.
+ *
+ * API users don't need to use this class.
+ */
+public class SessionTimerWheel
+{
+    static final int NOT_SCHEDULED = -1;
+
+    private static final int INITIAL_SLOT_CAPACITY = 4;
+
+    private final Session[][] slots;
+    private final int[] slotSizes;
+    private final int dueSlot;
+    private final int mask;
+
+    private long currentTimeInMs;
+
+    /**
+     * Create the timer wheel.
+     *
+     * @param wheelSize the number of millisecond slots in the wheel, must be a power of 2.
+     * @param timeInMs the current time in milliseconds.
+     */
+    public SessionTimerWheel(final int wheelSize, final long timeInMs)
+    {
+        if (!BitUtil.isPowerOfTwo(wheelSize))
+        {
+            throw new IllegalArgumentException("wheelSize must be a power of 2: " + wheelSize);
+        }
+
+        mask = wheelSize - 1;
+        dueSlot = wheelSize;
+        slots = new Session[wheelSize + 1][];
+        slotSizes = new int[wheelSize + 1];
+        currentTimeInMs = timeInMs;
+    }
+
+    /**
+     * Start scheduling polls for a session.
+     *
+     * @param session the session to add.
+     */
+    public void add(final Session session)
+    {
+        session.timerWheel = this;
+        schedule(session, session.nextPollTimeInMs());
+    }
+
+    /**
+     * Stop scheduling polls for a session.
+     *
+     * @param session the session to remove.
+     */
+    public void remove(final Session session)
+    {
+        if (session.timerWheel == this)
+        {
+            unschedule(session);
+            session.timerWheel = null;
+        }
+    }
+
+    /**
+     * Poll all the sessions that are due.
+     *
+     * @param timeInMs the current time in milliseconds.
+     * @return the number of actions performed by the sessions.
+     */
+    public int poll(final long timeInMs)
+    {
+        int actions = pollSlot(dueSlot, timeInMs);
+
+        if (timeInMs > currentTimeInMs)
+        {
+            final long firstTimeInMs = currentTimeInMs + 1;
+            final long lastTimeInMs = Math.min(timeInMs, currentTimeInMs + mask + 1);
+
+            // Advance before scanning so that sessions rescheduled at or before the current time, for example
+            // after being back pressured, go into the due slot rather than a slot that has already been scanned.
+            currentTimeInMs = timeInMs;
+
+            for (long slotTimeInMs = firstTimeInMs; slotTimeInMs <= lastTimeInMs; slotTimeInMs++)
+            {
+                actions += pollSlot((int)(slotTimeInMs & mask), timeInMs);
+            }
+        }
+
+        return actions;
+    }
+
+    void reschedule(final Session session)
+    {
+        schedule(session, session.nextPollTimeInMs());
+    }
+
+    private int pollSlot(final int slot, final long timeInMs)
+    {
+        final Session[] sessions = slots[slot];
+        int actions = 0;
+
+        // Iterate backwards: removal moves the last session into the removed index and sessions scheduled while
+        // polling are appended to the end, so neither gets polled twice.
+        for (int i = slotSizes[slot] - 1; i >= 0; i--)
+        {
+            final Session session = sessions[i];
+            if (session.timerDeadlineInMs <= timeInMs)
+            {
+                unschedule(session);
+                actions += session.poll(timeInMs);
+                schedule(session, session.nextPollTimeInMs());
+            }
+        }
+
+        return actions;
+    }
+
+    private void schedule(final Session session, final long deadlineInMs)
+    {
+        unschedule(session);
+
+        if (deadlineInMs == Session.NO_DEADLINE)
+        {
+            return;
+        }
+
+        final int slot = deadlineInMs <= currentTimeInMs ? dueSlot : (int)(deadlineInMs & mask);
+        Session[] sessions = slots[slot];
+        final int size = slotSizes[slot];
+        if (sessions == null)
+        {
+            sessions = new Session[INITIAL_SLOT_CAPACITY];
+            slots[slot] = sessions;
+        }
+        else if (size == sessions.length)
+        {
+            sessions = Arrays.copyOf(sessions, size * 2);
+            slots[slot] = sessions;
+        }
+
+        sessions[size] = session;
+        slotSizes[slot] = size + 1;
+        session.timerSlot = slot;
+        session.timerIndex = size;
+        session.timerDeadlineInMs = deadlineInMs;
+    }
+
+    private void unschedule(final Session session)
+    {
+        final int slot = session.timerSlot;
+        if (slot == NOT_SCHEDULED)
+        {
+            return;
+        }
+
+        final Session[] sessions = slots[slot];
+        final int index = session.timerIndex;
+        final int lastIndex = slotSizes[slot] - 1;
+        if (index != lastIndex)
+        {
+            final Session lastSession = sessions[lastIndex];
+            sessions[index] = lastSession;
+            lastSession.timerIndex = index;
+        }
+        sessions[lastIndex] = null;
+        slotSizes[slot] = lastIndex;
+        session.timerSlot = NOT_SCHEDULED;
+    }
+}
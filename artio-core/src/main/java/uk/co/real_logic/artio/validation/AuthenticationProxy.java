@@ -0,0 +1,35 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.validation;
+
+/**
+ * Completes the authentication of a logon message, see
+ * {@link AuthenticationStrategy#authenticateAsync(uk.co.real_logic.artio.decoder.LogonDecoder, AuthenticationProxy)}.
+ * <p>
+ * Can be called from any thread, only the first call to either method has any effect.
+ */
+public interface AuthenticationProxy
+{
+    /**
+     * Accept the logon, the session then logs on as normal.
+     */
+    void accept();
+
+    /**
+     * Reject the logon, the connection is then disconnected.
+     */
+    void reject();
+}
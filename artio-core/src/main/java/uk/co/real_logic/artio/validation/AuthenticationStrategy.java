@@ -34,4 +34,30 @@ public interface AuthenticationStrategy
     }
 
     boolean authenticate(LogonDecoder logon);
+
+    /**
+     * Authenticate a logon message, completing the authentication through the proxy.
+     * <p>
+     * This is the method that the engine calls, by default it completes the authentication with the result of
+     * {@link #authenticate(LogonDecoder)}. Override it in order to authenticate a logon without blocking the
+     * framer thread, for example when checking the logon with a slow external service. The connection that sent
+     * the logon is paused until the proxy is accepted or rejected, which can be done from any thread. If neither
+     * happens within the engine's no logon disconnect timeout then the connection is disconnected.
+     * <p>
+     * The logon decoder is only valid until this method returns, so copy out any fields that are needed later.
+     *
+     * @param logon the logon message to authenticate.
+     * @param authProxy the proxy to accept or reject the logon through.
+     */
+    default void authenticateAsync(final LogonDecoder logon, final AuthenticationProxy authProxy)
+    {
+        if (authenticate(logon))
+        {
+            authProxy.accept();
+        }
+        else
+        {
+            authProxy.reject();
+        }
+    }
 }
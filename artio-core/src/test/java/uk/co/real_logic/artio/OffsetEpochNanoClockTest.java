@@ -0,0 +1,42 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.junit.Test;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+public class OffsetEpochNanoClockTest
+{
+    @Test
+    public void shouldStayWithinTheWallClocksMillisecond()
+    {
+        final OffsetEpochNanoClock clock = new OffsetEpochNanoClock(0);
+
+        for (int i = 0; i < 1_000; i++)
+        {
+            final long beforeInNs = MILLISECONDS.toNanos(System.currentTimeMillis());
+            final long timeInNs = clock.nanoTime();
+            final long afterInNs = MILLISECONDS.toNanos(System.currentTimeMillis() + 1);
+
+            assertThat(timeInNs, greaterThanOrEqualTo(beforeInNs));
+            assertThat(timeInNs, lessThanOrEqualTo(afterInNs));
+        }
+    }
+}
@@ -179,8 +179,8 @@ public class FramerTest
             null,
             outboundLibrarySubscription,
             outboundSlowSubscription,
-            replayImage,
-            replaySlowImage,
+            new Image[]{ replayImage },
+            new Image[]{ replaySlowImage },
             replayQuery,
             mock(GatewayPublication.class),
             inboundPublication,
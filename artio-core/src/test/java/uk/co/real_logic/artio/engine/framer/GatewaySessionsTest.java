@@ -0,0 +1,174 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.EpochFractionClock;
+import uk.co.real_logic.artio.FixCounters;
+import uk.co.real_logic.artio.messages.SessionState;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.session.CompositeKey;
+import uk.co.real_logic.artio.session.Session;
+import uk.co.real_logic.artio.session.SessionCustomisationStrategy;
+import uk.co.real_logic.artio.session.SessionIdStrategy;
+import uk.co.real_logic.artio.validation.AuthenticationStrategy;
+import uk.co.real_logic.artio.validation.MessageValidationStrategy;
+import uk.co.real_logic.artio.validation.SessionPersistenceStrategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.messages.ConnectionType.ACCEPTOR;
+import static uk.co.real_logic.artio.messages.SessionState.ACTIVE;
+import static uk.co.real_logic.artio.messages.SessionState.CONNECTED;
+import static uk.co.real_logic.artio.session.Session.UNKNOWN;
+
+public class GatewaySessionsTest
+{
+    private static final long SESSION_ID = 2;
+    private static final long CONNECTION_ID = 3;
+    private static final int HEARTBEAT_INTERVAL_IN_S = 10;
+
+    private final FakeEpochClock clock = new FakeEpochClock();
+    private final FixCounters fixCounters = mock(FixCounters.class);
+    private final SessionContexts sessionContexts = mock(SessionContexts.class);
+    private final ReceiverEndPoint receiverEndPoint = mock(ReceiverEndPoint.class);
+    private final SenderEndPoint senderEndPoint = mock(SenderEndPoint.class);
+    private final BlockablePosition blockablePosition = mock(BlockablePosition.class);
+
+    private GatewaySessions gatewaySessions;
+
+    @Before
+    public void setUp()
+    {
+        when(fixCounters.receivedMsgSeqNo(anyLong())).thenReturn(mock(AtomicCounter.class));
+        when(fixCounters.sentMsgSeqNo(anyLong())).thenReturn(mock(AtomicCounter.class));
+
+        gatewaySessions = new GatewaySessions(
+            clock,
+            EpochFractionClock.milliseconds(clock),
+            mock(GatewayPublication.class),
+            mock(SessionIdStrategy.class),
+            mock(SessionCustomisationStrategy.class),
+            fixCounters,
+            mock(AuthenticationStrategy.class),
+            mock(MessageValidationStrategy.class),
+            1024,
+            1000,
+            1000,
+            mock(ErrorHandler.class),
+            sessionContexts,
+            mock(SessionPersistenceStrategy.class));
+    }
+
+    @Test
+    public void shouldLookupAcquiredSessionsBySessionId()
+    {
+        final GatewaySession gatewaySession = acquireLoggedOnSession();
+
+        assertSame(gatewaySession, gatewaySessions.sessionById(SESSION_ID));
+        assertNull(gatewaySessions.sessionById(SESSION_ID + 1));
+    }
+
+    @Test
+    public void shouldReleaseSessionsBySessionId()
+    {
+        final GatewaySession gatewaySession = acquireLoggedOnSession();
+
+        assertSame(gatewaySession, gatewaySessions.releaseBySessionId(SESSION_ID));
+
+        assertNull(gatewaySessions.sessionById(SESSION_ID));
+        assertTrue(gatewaySessions.sessions().isEmpty());
+    }
+
+    @Test
+    public void shouldReleaseSessionsByConnectionId()
+    {
+        final GatewaySession gatewaySession = acquireLoggedOnSession();
+
+        assertSame(gatewaySession, gatewaySessions.releaseByConnectionId(CONNECTION_ID));
+
+        assertNull(gatewaySessions.releaseByConnectionId(CONNECTION_ID));
+        assertNull(gatewaySessions.sessionById(SESSION_ID));
+        assertTrue(gatewaySessions.sessions().isEmpty());
+    }
+
+    @Test
+    public void shouldNotPollIdleSessionsBeforeTheirDeadline()
+    {
+        final GatewaySession gatewaySession = acquireLoggedOnSession();
+        final Session session = gatewaySession.session();
+
+        assertEquals(0, gatewaySessions.pollSessions(clock.time() + 1));
+        assertEquals(ACTIVE, session.state());
+    }
+
+    @Test
+    public void shouldDisconnectSessionsThatDoNotLogonInTime()
+    {
+        final GatewaySession gatewaySession = newGatewaySession(null, UNKNOWN);
+        gatewaySession.disconnectAt(clock.time() + 100);
+        acquire(gatewaySession, CONNECTED);
+
+        assertEquals(0, gatewaySessions.pollSessions(clock.time() + 99));
+        verify(receiverEndPoint, never()).onNoLogonDisconnect();
+
+        assertEquals(1, gatewaySessions.pollSessions(clock.time() + 100));
+        verify(receiverEndPoint).onNoLogonDisconnect();
+    }
+
+    private GatewaySession acquireLoggedOnSession()
+    {
+        final GatewaySession gatewaySession = newGatewaySession(mock(CompositeKey.class), SESSION_ID);
+        acquire(gatewaySession, ACTIVE);
+        return gatewaySession;
+    }
+
+    private GatewaySession newGatewaySession(final CompositeKey sessionKey, final long sessionId)
+    {
+        final SessionContext context = new SessionContext(
+            sessionId, SessionContext.UNKNOWN_SEQUENCE_INDEX, Session.NO_LOGON_TIME, sessionContexts, 0);
+
+        return new GatewaySession(
+            CONNECTION_ID,
+            context,
+            "127.0.0.1",
+            ACCEPTOR,
+            sessionKey,
+            receiverEndPoint,
+            senderEndPoint,
+            (session) -> { });
+    }
+
+    private void acquire(final GatewaySession gatewaySession, final SessionState state)
+    {
+        gatewaySessions.acquire(
+            gatewaySession,
+            state,
+            HEARTBEAT_INTERVAL_IN_S,
+            0,
+            0,
+            null,
+            null,
+            blockablePosition);
+    }
+}
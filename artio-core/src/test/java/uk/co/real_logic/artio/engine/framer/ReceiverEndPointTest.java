@@ -79,11 +79,7 @@ public class ReceiverEndPointTest
         .senderAndTarget()
         .onInitiateLogon("ACCEPTOR", "", "", "INIATOR", "", "");
 
-    private ReceiverEndPoint endPoint = new ReceiverEndPoint(
-        mockChannel, BUFFER_SIZE, libraryPublication, clusterablePublication,
-        CONNECTION_ID, UNKNOWN, SEQUENCE_INDEX, mockSessionContexts,
-        sentSequenceNumbers, receivedSequenceNumbers, messagesRead, framer, errorHandler, LIBRARY_ID,
-        DETERMINE_AT_LOGON, ConnectionType.ACCEPTOR, replicatedConnectionIds, mockGatewaySessions);
+    private ReceiverEndPoint endPoint = newReceiverEndPoint(false);
 
     @Before
     public void setUp()
@@ -126,6 +122,42 @@ public class ReceiverEndPointTest
         verifyDuplicateSession(times(1));
     }
 
+    @Test
+    public void shouldFrameMessagesOnceAuthenticationIsAccepted()
+    {
+        final PendingAuthentication authentication = givenAPendingAuthentication(authenticationResult);
+
+        theEndpointReceivesACompleteMessage();
+        pollsData(MSG_LEN);
+
+        verify(framer).onAuthenticating(endPoint);
+        nothingMoreSaved();
+        assertFalse(endPoint.pollAuthentication());
+
+        authentication.accept();
+        assertTrue(endPoint.pollAuthentication());
+
+        savesAFramedMessage();
+        sessionReceivesOneMessage();
+    }
+
+    @Test
+    public void shouldDisconnectOnceAuthenticationIsRejected()
+    {
+        final PendingAuthentication authentication =
+            givenAPendingAuthentication(AuthenticationResult.FAILED_AUTHENTICATION);
+
+        theEndpointReceivesACompleteMessage();
+        pollsData(MSG_LEN);
+
+        authentication.reject();
+        assertTrue(endPoint.pollAuthentication());
+
+        verify(libraryPublication).saveDisconnect(
+            LIBRARY_ID, CONNECTION_ID, DisconnectReason.FAILED_AUTHENTICATION);
+        assertTrue(endPoint.hasDisconnected());
+    }
+
     @Test
     public void shouldFrameValidFixMessage()
     {
@@ -365,6 +397,71 @@ public class ReceiverEndPointTest
         sessionReceivesTwoMessages();
     }
 
+    @Test
+    public void shouldFrameSecondSplitMessageInPlaceWhenDeferringCompaction()
+    {
+        givenDeferredBufferCompaction();
+
+        theEndpointReceivesACompleteAndAnIncompleteMessage();
+        endPoint.pollForData();
+
+        theEndpointReceivesTheRestOfTheMessage();
+        pollsData(8 + MSG_LEN);
+
+        savesTwoFramedMessages(1);
+
+        sessionReceivesTwoMessages();
+    }
+
+    @Test
+    public void shouldFrameTwoCompleteFixMessagesInOnePacketWhenDeferringCompactionAndBackpressured()
+    {
+        givenDeferredBufferCompaction();
+        firstSaveAttemptIsBackPressured();
+
+        theEndpointReceivesTwoCompleteMessages();
+        endPoint.pollForData();
+
+        pollWithNoData();
+
+        savesTwoFramedMessages(2);
+
+        sessionReceivesTwoMessages();
+    }
+
+    @Test
+    public void shouldFrameSecondSplitMessageWhenDeferringCompactionAndBackpressured()
+    {
+        givenDeferredBufferCompaction();
+        firstSaveAttemptIsBackPressured();
+
+        theEndpointReceivesACompleteAndAnIncompleteMessage();
+        endPoint.pollForData();
+
+        theEndpointReceivesTheRestOfTheMessage();
+        endPoint.pollForData();
+
+        savesTwoFramedMessages(2);
+
+        sessionReceivesTwoMessages();
+    }
+
+    private void givenDeferredBufferCompaction()
+    {
+        endPoint = newReceiverEndPoint(true);
+        endPoint.gatewaySession(gatewaySession);
+    }
+
+    private ReceiverEndPoint newReceiverEndPoint(final boolean deferBufferCompaction)
+    {
+        return new ReceiverEndPoint(
+            mockChannel, BUFFER_SIZE, libraryPublication, clusterablePublication,
+            CONNECTION_ID, UNKNOWN, SEQUENCE_INDEX, mockSessionContexts,
+            sentSequenceNumbers, receivedSequenceNumbers, messagesRead, framer, errorHandler, LIBRARY_ID,
+            DETERMINE_AT_LOGON, ConnectionType.ACCEPTOR, replicatedConnectionIds, mockGatewaySessions,
+            deferBufferCompaction);
+    }
+
     private void firstSaveAttemptIsBackPressured()
     {
         when(libraryPublication
@@ -598,6 +695,18 @@ public class ReceiverEndPointTest
         verify(libraryPublication, times).saveDisconnect(anyInt(), anyLong(), eq(DisconnectReason.DUPLICATE_SESSION));
     }
 
+    private PendingAuthentication givenAPendingAuthentication(final AuthenticationResult completedResult)
+    {
+        final PendingAuthentication authentication =
+            new PendingAuthentication(sessionKey, mock(SessionContext.class), CONNECTION_ID);
+        when(mockGatewaySessions.authenticateAndInitiate(any(), anyLong(), any(), any(), any())).thenReturn(
+            AuthenticationResult.pendingAuthentication(authentication));
+        when(mockGatewaySessions.onAuthenticated(eq(authentication), any(), any(), any(), any())).thenReturn(
+            completedResult);
+
+        return authentication;
+    }
+
     private void givenADuplicateSession()
     {
         when(mockGatewaySessions.authenticateAndInitiate(any(), anyLong(), any(), any(), any())).thenReturn(
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.Test;
+
+import java.util.function.LongToIntFunction;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS;
+import static uk.co.real_logic.artio.engine.FixEngine.ENGINE_LIBRARY_ID;
+
+public class SenderEndPointsTest
+{
+    private static final long SESSION_ID = 3;
+    private static final int LIBRARY_ID = 2;
+    private static final int OTHER_LIBRARY_ID = 5;
+
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final SenderEndPoints senderEndPoints = new SenderEndPoints(errorHandler);
+    private final LongToIntFunction libraryLookup = senderEndPoints.libraryLookup();
+
+    @Test
+    public void shouldLookupLibraryOfLoggedOnSession()
+    {
+        final SenderEndPoint senderEndPoint = newSenderEndPoint(1);
+        senderEndPoint.sessionId(SESSION_ID);
+
+        assertEquals(LIBRARY_ID, libraryLookup.applyAsInt(SESSION_ID));
+    }
+
+    @Test
+    public void shouldLookupEngineForUnknownSession()
+    {
+        newSenderEndPoint(1).sessionId(SESSION_ID);
+
+        assertEquals(ENGINE_LIBRARY_ID, libraryLookup.applyAsInt(SESSION_ID + 1));
+    }
+
+    @Test
+    public void shouldLookupNewLibraryAfterHandover()
+    {
+        final SenderEndPoint senderEndPoint = newSenderEndPoint(1);
+        senderEndPoint.sessionId(SESSION_ID);
+
+        senderEndPoint.libraryId(OTHER_LIBRARY_ID, mock(BlockablePosition.class));
+
+        assertEquals(OTHER_LIBRARY_ID, libraryLookup.applyAsInt(SESSION_ID));
+    }
+
+    @Test
+    public void shouldNotLookupDisconnectedSessions()
+    {
+        newSenderEndPoint(1).sessionId(SESSION_ID);
+
+        senderEndPoints.removeConnection(1);
+
+        assertEquals(ENGINE_LIBRARY_ID, libraryLookup.applyAsInt(SESSION_ID));
+    }
+
+    @Test
+    public void shouldNotLookupPreviousSessionIdOfConnection()
+    {
+        final SenderEndPoint senderEndPoint = newSenderEndPoint(1);
+        senderEndPoint.sessionId(SESSION_ID);
+        senderEndPoint.sessionId(SESSION_ID + 1);
+
+        assertEquals(ENGINE_LIBRARY_ID, libraryLookup.applyAsInt(SESSION_ID));
+        assertEquals(LIBRARY_ID, libraryLookup.applyAsInt(SESSION_ID + 1));
+    }
+
+    @Test
+    public void shouldKeepReconnectedSessionWhenOldConnectionIsRemoved()
+    {
+        newSenderEndPoint(1).sessionId(SESSION_ID);
+        final SenderEndPoint reconnectedEndPoint = newSenderEndPoint(2);
+        reconnectedEndPoint.libraryId(OTHER_LIBRARY_ID, mock(BlockablePosition.class));
+        reconnectedEndPoint.sessionId(SESSION_ID);
+
+        senderEndPoints.removeConnection(1);
+
+        assertEquals(OTHER_LIBRARY_ID, libraryLookup.applyAsInt(SESSION_ID));
+    }
+
+    private SenderEndPoint newSenderEndPoint(final long connectionId)
+    {
+        final SenderEndPoint senderEndPoint = new SenderEndPoint(
+            connectionId,
+            LIBRARY_ID,
+            mock(BlockablePosition.class),
+            mock(BlockablePosition.class),
+            mock(TcpChannel.class),
+            mock(AtomicCounter.class),
+            mock(AtomicCounter.class),
+            errorHandler,
+            mock(Framer.class),
+            0,
+            DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS,
+            0);
+        senderEndPoints.add(senderEndPoint);
+        return senderEndPoint;
+    }
+}
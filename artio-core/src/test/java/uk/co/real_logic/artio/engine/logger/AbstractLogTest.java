@@ -24,7 +24,6 @@ import org.mockito.verification.VerificationMode;
 import uk.co.real_logic.artio.builder.*;
 import uk.co.real_logic.artio.decoder.ExampleMessageDecoder;
 import uk.co.real_logic.artio.decoder.TestRequestDecoder;
-import uk.co.real_logic.artio.fields.UtcTimestampDecoder;
 import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
 import uk.co.real_logic.artio.messages.FixMessageEncoder;
 import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
@@ -39,8 +38,6 @@ import static uk.co.real_logic.artio.engine.logger.Replayer.SIZE_OF_LENGTH_FIELD
 public class AbstractLogTest
 {
     protected static final String ORIGINAL_SENDING_TIME = "19700101-00:00:00";
-    protected static final long ORIGINAL_SENDING_EPOCH_MS =
-        new UtcTimestampDecoder().decode(ORIGINAL_SENDING_TIME.getBytes(US_ASCII));
 
     protected static final long SESSION_ID = 1;
     protected static final long SESSION_ID_2 = 2;
@@ -69,6 +66,7 @@ public class AbstractLogTest
 
     protected UnsafeBuffer buffer = new UnsafeBuffer(new byte[512]);
 
+    protected String sendingTime = ORIGINAL_SENDING_TIME;
     protected int logEntryLength;
     protected int offset;
 
@@ -114,12 +112,11 @@ public class AbstractLogTest
         final HeaderEncoder header,
         final int messageType)
     {
-        final UtcTimestampEncoder timestampEncoder = new UtcTimestampEncoder();
-        final int timestampLength = timestampEncoder.encode(ORIGINAL_SENDING_EPOCH_MS);
+        final byte[] sendingTimeBytes = sendingTime.getBytes(US_ASCII);
         MutableAsciiBuffer asciiBuffer = new MutableAsciiBuffer(new byte[450]);
 
         header
-            .sendingTime(timestampEncoder.buffer(), timestampLength)
+            .sendingTime(sendingTimeBytes, sendingTimeBytes.length)
             .senderCompID(BUFFER_SENDER)
             .targetCompID(BUFFER_TARGET)
             .msgSeqNum(sequenceNumber);
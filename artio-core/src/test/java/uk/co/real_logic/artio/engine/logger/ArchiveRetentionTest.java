@@ -0,0 +1,212 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.IoUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.replication.StreamIdentifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+import static io.aeron.logbuffer.LogBufferDescriptor.computePosition;
+import static java.lang.Integer.numberOfTrailingZeros;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static uk.co.real_logic.artio.engine.logger.ArchiveRetention.NO_LIMIT;
+
+public class ArchiveRetentionTest
+{
+    private static final String LOG_FILE_DIR = IoUtil.tmpDirName() + "archive-retention-test";
+    private static final StreamIdentifier STREAM_ID = new StreamIdentifier("aeron:ipc", 1);
+    private static final int AERON_SESSION_ID = -42;
+    private static final int INITIAL_TERM_ID = 10;
+    private static final int TERM_LENGTH = 64 * 1024;
+    private static final long TIME_IN_MS = 1_000_000;
+    private static final long MAX_AGE_IN_MS = 1_000;
+
+    private final Index firstIndex = mock(Index.class);
+    private final Index secondIndex = mock(Index.class);
+    private final LogDirectoryDescriptor directoryDescriptor = new LogDirectoryDescriptor(LOG_FILE_DIR);
+
+    private ArchiveMetaData metaData;
+    private boolean isActivePublication = true;
+
+    @Before
+    public void setUp()
+    {
+        IoUtil.delete(new File(LOG_FILE_DIR), true);
+        IoUtil.ensureDirectoryExists(new File(LOG_FILE_DIR), LOG_FILE_DIR);
+
+        metaData = LoggerUtil.newArchiveMetaData(LOG_FILE_DIR);
+        metaData.write(STREAM_ID, AERON_SESSION_ID, INITIAL_TERM_ID, TERM_LENGTH);
+
+        for (int termId = INITIAL_TERM_ID; termId < INITIAL_TERM_ID + 5; termId++)
+        {
+            // Older terms have been written to earlier
+            writeTerm(termId, TIME_IN_MS - MAX_AGE_IN_MS * (INITIAL_TERM_ID + 5 - termId));
+        }
+    }
+
+    @After
+    public void tearDown()
+    {
+        metaData.close();
+        IoUtil.delete(new File(LOG_FILE_DIR), true);
+    }
+
+    @Test
+    public void shouldRemoveTermsOlderThanTheMaximumAge()
+    {
+        indexedUpTo(firstIndex, INITIAL_TERM_ID + 4);
+        indexedUpTo(secondIndex, INITIAL_TERM_ID + 4);
+
+        assertEquals(3, newRetention(MAX_AGE_IN_MS * 2, NO_LIMIT).removeTerms(TIME_IN_MS));
+
+        assertTermsRemovedBefore(INITIAL_TERM_ID + 3);
+    }
+
+    @Test
+    public void shouldRemoveTheOldestTermsWhenBiggerThanTheMaximumSize()
+    {
+        indexedUpTo(firstIndex, INITIAL_TERM_ID + 4);
+        indexedUpTo(secondIndex, INITIAL_TERM_ID + 4);
+
+        assertEquals(2, newRetention(NO_LIMIT, TERM_LENGTH * 3).removeTerms(TIME_IN_MS));
+
+        assertTermsRemovedBefore(INITIAL_TERM_ID + 2);
+    }
+
+    @Test
+    public void shouldNotRemoveTermsThatHaveNotBeenIndexedByEveryIndex()
+    {
+        indexedUpTo(firstIndex, INITIAL_TERM_ID + 4);
+        indexedUpTo(secondIndex, INITIAL_TERM_ID + 1);
+
+        assertEquals(1, newRetention(1, NO_LIMIT).removeTerms(TIME_IN_MS));
+
+        assertTermsRemovedBefore(INITIAL_TERM_ID + 1);
+    }
+
+    @Test
+    public void shouldNotRemoveTermsOfSessionsThatHaveNotBeenIndexed()
+    {
+        indexedUpTo(firstIndex, INITIAL_TERM_ID + 4);
+
+        assertEquals(0, newRetention(1, NO_LIMIT).removeTerms(TIME_IN_MS));
+
+        assertTermsRemovedBefore(INITIAL_TERM_ID);
+    }
+
+    @Test
+    public void shouldNotRemoveTheLatestTermOfASession()
+    {
+        indexedUpTo(firstIndex, INITIAL_TERM_ID + 5);
+        indexedUpTo(secondIndex, INITIAL_TERM_ID + 5);
+
+        assertEquals(4, newRetention(1, NO_LIMIT).removeTerms(TIME_IN_MS));
+
+        assertTermsRemovedBefore(INITIAL_TERM_ID + 4);
+    }
+
+    @Test
+    public void shouldRemoveTheLatestTermOfAPublicationThatHasGoneAway()
+    {
+        isActivePublication = false;
+        indexedUpTo(firstIndex, INITIAL_TERM_ID + 4);
+        indexedUpTo(secondIndex, INITIAL_TERM_ID + 4);
+
+        assertEquals(5, newRetention(1, NO_LIMIT).removeTerms(TIME_IN_MS));
+
+        assertTermsRemovedBefore(INITIAL_TERM_ID + 5);
+    }
+
+    @Test
+    public void shouldNotRemoveTermsOfAPublicationThatHasGoneAwayBeforeTheyAreIndexed()
+    {
+        isActivePublication = false;
+        indexedUpTo(firstIndex, INITIAL_TERM_ID + 4);
+        indexedUpTo(secondIndex, INITIAL_TERM_ID + 2);
+
+        assertEquals(3, newRetention(1, NO_LIMIT).removeTerms(TIME_IN_MS));
+
+        assertTermsRemovedBefore(INITIAL_TERM_ID + 3);
+    }
+
+    private ArchiveRetention newRetention(final long maxAgeInMs, final long maxSizeInBytes)
+    {
+        return new ArchiveRetention(
+            Arrays.asList(firstIndex, secondIndex),
+            metaData,
+            STREAM_ID,
+            (aeronSessionId) -> isActivePublication,
+            () -> TIME_IN_MS,
+            maxAgeInMs,
+            maxSizeInBytes,
+            MAX_AGE_IN_MS);
+    }
+
+    private void indexedUpTo(final Index index, final int termId)
+    {
+        final long position = computePosition(
+            termId, 128, numberOfTrailingZeros(TERM_LENGTH), INITIAL_TERM_ID);
+        doAnswer((inv) ->
+        {
+            final IndexedPositionConsumer consumer = inv.getArgument(0);
+            consumer.accept(AERON_SESSION_ID, position);
+            return null;
+        }).when(index).readLastPosition(any());
+    }
+
+    private void writeTerm(final int termId, final long lastModified)
+    {
+        final File logFile = directoryDescriptor.logFile(STREAM_ID, AERON_SESSION_ID, termId);
+        try (RandomAccessFile file = new RandomAccessFile(logFile, "rw"))
+        {
+            file.setLength(TERM_LENGTH);
+        }
+        catch (final IOException ex)
+        {
+            throw new RuntimeException(ex);
+        }
+
+        assertTrue(logFile.setLastModified(lastModified));
+    }
+
+    private void assertTermsRemovedBefore(final int firstRetainedTermId)
+    {
+        for (int termId = INITIAL_TERM_ID; termId < INITIAL_TERM_ID + 5; termId++)
+        {
+            final File logFile = directoryDescriptor.logFile(STREAM_ID, AERON_SESSION_ID, termId);
+            if (termId < firstRetainedTermId)
+            {
+                assertFalse(logFile + " should be removed", logFile.exists());
+            }
+            else
+            {
+                assertTrue(logFile + " should be retained", logFile.exists());
+            }
+        }
+    }
+}
@@ -82,6 +82,7 @@ public class ArchiverTest
     private static final int RESERVED_VALUE = 1;
     private static final String CHANNEL = "aeron:udp?endpoint=localhost:9999";
     private static final String LOG_FILE_DIR = tmpLogsDirName() + "ArchiverTest-logs";
+    private static final long GROUP_COMMIT_TIMEOUT_IN_NS = 1_000;
 
     @Parameters(name = "{0}")
     public static Collection<Object[]> data()
@@ -119,6 +120,7 @@ public class ArchiverTest
 
     private int lastArchivedValue;
     private int work = 0;
+    private long timeInNs = 0;
 
     public ArchiverTest(final int size, final UnsafeBuffer buffer)
     {
@@ -168,6 +170,26 @@ public class ArchiverTest
         deleteLogFileDir();
     }
 
+    private void givenAGroupCommitArchiver(final Archiver.ArchivedPositionHandler positionHandler)
+    {
+        archiver.onClose();
+
+        final StreamIdentifier dataStream = new StreamIdentifier(CHANNEL, STREAM_ID);
+        archiver = new Archiver(
+            new ArchiveMetaData(logDirectoryDescriptor),
+            DEFAULT_LOGGER_CACHE_NUM_SETS,
+            DEFAULT_LOGGER_CACHE_SET_SIZE,
+            dataStream,
+            DEFAULT_NAME_PREFIX,
+            completionPosition,
+            ArchiveDurability.GROUP_COMMIT,
+            Integer.MAX_VALUE,
+            GROUP_COMMIT_TIMEOUT_IN_NS,
+            () -> timeInNs);
+        archiver.positionHandler(positionHandler);
+        archiver.subscription(aeron.addSubscription(CHANNEL, STREAM_ID));
+    }
+
     private void deleteLogFileDir()
     {
         final File logFileDir = new File(LOG_FILE_DIR);
@@ -202,6 +224,25 @@ public class ArchiverTest
         assertReadsInitialValue(HEADER_LENGTH, endPosition);
     }
 
+    @Test
+    public void shouldOnlyReportPositionsOnceGroupCommitted()
+    {
+        final Archiver.ArchivedPositionHandler positionHandler = mock(Archiver.ArchivedPositionHandler.class);
+        givenAGroupCommitArchiver(positionHandler);
+
+        final long endPosition = writeAndArchiveBuffer(INITIAL_VALUE);
+
+        verify(positionHandler, never()).onArchivedPosition(anyInt(), anyLong(), anyInt());
+        assertPosition(0);
+
+        timeInNs += GROUP_COMMIT_TIMEOUT_IN_NS;
+        archiver.doWork();
+
+        verify(positionHandler).onArchivedPosition(eq(sessionId()), eq(endPosition), anyInt());
+        assertPosition(endPosition);
+        assertReadsInitialValue(HEADER_LENGTH, endPosition);
+    }
+
     @Test
     public void shouldReadFilteredDataThatWasWritten()
     {
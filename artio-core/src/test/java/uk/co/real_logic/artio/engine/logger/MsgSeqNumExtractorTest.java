@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.junit.Test;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+import static uk.co.real_logic.artio.engine.logger.MsgSeqNumExtractor.NO_MSG_SEQ_NUM;
+
+public class MsgSeqNumExtractorTest
+{
+    private static final int OFFSET = 3;
+
+    @Test
+    public void shouldExtractSequenceNumber()
+    {
+        assertMsgSeqNum(
+            "8=FIX.4.4\0019=49\00135=A\00134=123\00149=initiator\00156=acceptor\00110=123\001", 123);
+    }
+
+    @Test
+    public void shouldExtractSequenceNumberAfterOtherHeaderFields()
+    {
+        assertMsgSeqNum(
+            "8=FIX.4.4\0019=49\00135=0\00149=initiator\00156=acceptor\00134=7\00110=123\001", 7);
+    }
+
+    @Test
+    public void shouldNotConfuseTagsEndingInSequenceNumberTag()
+    {
+        assertMsgSeqNum(
+            "8=FIX.4.4\0019=49\00135=0\001134=5\001340=6\00134=8\00110=123\001", 8);
+    }
+
+    @Test
+    public void shouldNotReadSequenceNumberFromValues()
+    {
+        assertMsgSeqNum("8=FIX.4.4\0019=49\00135=0\00158=34=5\00110=123\001", NO_MSG_SEQ_NUM);
+    }
+
+    @Test
+    public void shouldReportMissingSequenceNumber()
+    {
+        assertMsgSeqNum("8=FIX.4.4\0019=49\00135=0\00149=initiator\00110=123\001", NO_MSG_SEQ_NUM);
+    }
+
+    @Test
+    public void shouldReportTruncatedSequenceNumber()
+    {
+        assertMsgSeqNum("8=FIX.4.4\0019=49\00135=0\00134=12", NO_MSG_SEQ_NUM);
+    }
+
+    private void assertMsgSeqNum(final String message, final int expectedMsgSeqNum)
+    {
+        final byte[] messageBytes = message.getBytes(US_ASCII);
+        final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[OFFSET + messageBytes.length + OFFSET]);
+        buffer.putBytes(OFFSET, messageBytes);
+
+        assertEquals(expectedMsgSeqNum, MsgSeqNumExtractor.msgSeqNum(buffer, OFFSET, messageBytes.length));
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.NoOpIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_LOGGER_CACHE_NUM_SETS;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_LOGGER_CACHE_SET_SIZE;
+import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.*;
+
+public class ReplayIndexSegmentsTest extends AbstractLogTest
+{
+    private static final int INDEX_FILE_SIZE = 16 * 1024 + INITIAL_RECORD_OFFSET;
+    private static final int RECORDS_PER_FILE = recordCapacity(INDEX_FILE_SIZE) / RECORD_LENGTH;
+    private static final String LOG_FILE_DIR = IoUtil.tmpDirName() + "replay-index-segments-test";
+
+    private final ControlledFragmentHandler mockHandler = mock(ControlledFragmentHandler.class);
+    private final ArchiveReader mockReader = mock(ArchiveReader.class);
+    private final ArchiveReader.SessionReader mockSessionReader = mock(ArchiveReader.SessionReader.class);
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final UnsafeBuffer replayPositionBuffer = new UnsafeBuffer(new byte[REPLAY_POSITION_BUFFER_SIZE]);
+
+    private ReplayIndex replayIndex;
+    private ReplayQuery query;
+
+    @Before
+    public void setUp()
+    {
+        IoUtil.delete(new File(LOG_FILE_DIR), true);
+
+        when(mockReader.session(anyInt())).thenReturn(mockSessionReader);
+        when(mockSessionReader.read(anyLong(), any(ControlledFragmentHandler.class))).thenReturn(100L);
+    }
+
+    @After
+    public void tearDown()
+    {
+        if (query != null)
+        {
+            query.close();
+        }
+        replayIndex.close();
+        IoUtil.delete(new File(LOG_FILE_DIR), true);
+    }
+
+    @Test
+    public void shouldQueryRecordsThatHaveBeenLappedInTheIndexFile()
+    {
+        newReplayIndex(3);
+        indexMessages(1, 1_000);
+
+        assertEquals(10, query(1, 10));
+        verifyMessagesRead(10);
+    }
+
+    @Test
+    public void shouldQueryRecordsAcrossSegments()
+    {
+        newReplayIndex(3);
+        indexMessages(1, 1_000);
+
+        assertEquals(1_000, query(1, 1_000));
+        verifyMessagesRead(1_000);
+    }
+
+    @Test
+    public void shouldQueryRecordsThatAreStillInTheIndexFile()
+    {
+        newReplayIndex(3);
+        indexMessages(1, 1_000);
+
+        assertEquals(11, query(990, 1_000));
+        verifyMessagesRead(11);
+    }
+
+    @Test
+    public void shouldQueryRecordsIndexedOutOfOrder()
+    {
+        newReplayIndex(3);
+        indexMessages(1, 10);
+        indexMessages(16, 20);
+        indexMessages(11, 15);
+        indexMessages(21, 1_000);
+
+        assertEquals(3, query(12, 14));
+        verifyMessagesRead(3);
+    }
+
+    @Test
+    public void shouldQueryRecordsIndexedOutOfOrderAfterARestart()
+    {
+        newReplayIndex(3);
+        indexMessages(1, 10);
+        indexMessages(16, 600);
+        replayIndex.close();
+
+        newReplayIndex(3);
+        indexMessages(11, 15);
+        indexMessages(601, 1_000);
+
+        assertEquals(3, query(12, 14));
+        verifyMessagesRead(3);
+    }
+
+    @Test
+    public void shouldDeleteTheOldestSegmentsBeyondTheSegmentCount()
+    {
+        newReplayIndex(2);
+        indexMessages(1, RECORDS_PER_FILE * 3);
+
+        assertFalse(segmentFile(0).exists());
+        assertTrue(segmentFile(1).exists());
+        assertTrue(segmentFile(2).exists());
+
+        assertEquals(0, query(1, 10));
+        verifyNoMoreInteractions(mockSessionReader);
+
+        final int firstRetained = RECORDS_PER_FILE + 1;
+        assertEquals(10, query(firstRetained, firstRetained + 9));
+        verifyMessagesRead(10);
+    }
+
+    @Test
+    public void shouldAppendToSegmentsAfterARestart()
+    {
+        newReplayIndex(3);
+        indexMessages(1, 600);
+        replayIndex.close();
+
+        newReplayIndex(3);
+        indexMessages(601, 1_200);
+
+        assertEquals(1_200, query(1, 1_200));
+        verifyMessagesRead(1_200);
+    }
+
+    @Test
+    public void shouldKeepTheSegmentCountOfAnExistingDirectory()
+    {
+        newReplayIndex(2);
+        indexMessages(1, RECORDS_PER_FILE * 2);
+        replayIndex.close();
+
+        newReplayIndex(3);
+        indexMessages(RECORDS_PER_FILE * 2 + 1, RECORDS_PER_FILE * 2 + 10);
+
+        assertFalse(segmentFile(0).exists());
+        assertTrue(segmentFile(1).exists());
+        assertTrue(segmentFile(2).exists());
+
+        final int firstRetained = RECORDS_PER_FILE + 1;
+        assertEquals(10, query(firstRetained, firstRetained + 9));
+        verifyMessagesRead(10);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldValidateTheSegmentCountOfAnExistingDirectory()
+    {
+        newReplayIndex(2);
+        indexMessages(1, 10);
+        replayIndex.close();
+
+        final File directoryFile = segmentDirectoryFile(LOG_FILE_DIR, SESSION_ID, STREAM_ID);
+        final MappedByteBuffer wrappedDirectory = LoggerUtil.mapExistingFile(directoryFile);
+        segmentCount(new UnsafeBuffer(wrappedDirectory), 5);
+        IoUtil.unmap(wrappedDirectory);
+
+        newReplayIndex(2);
+        indexMessages(11, 20);
+    }
+
+    private void newReplayIndex(final int segmentCount)
+    {
+        replayIndex = new ReplayIndex(
+            LOG_FILE_DIR,
+            STREAM_ID,
+            INDEX_FILE_SIZE,
+            segmentCount,
+            DEFAULT_LOGGER_CACHE_NUM_SETS,
+            DEFAULT_LOGGER_CACHE_SET_SIZE,
+            LoggerUtil::map,
+            replayPositionBuffer,
+            errorHandler);
+    }
+
+    private void indexMessages(final int beginSequenceNumber, final int endSequenceNumber)
+    {
+        IntStream.rangeClosed(beginSequenceNumber, endSequenceNumber).forEach((sequenceNumber) ->
+        {
+            bufferContainsExampleMessage(true, SESSION_ID, sequenceNumber, SEQUENCE_INDEX);
+            replayIndex.indexRecord(
+                buffer, START, fragmentLength(), STREAM_ID, AERON_SESSION_ID, alignedEndPosition());
+        });
+    }
+
+    private int query(final int beginSequenceNumber, final int endSequenceNumber)
+    {
+        if (query == null)
+        {
+            query = new ReplayQuery(
+                LOG_FILE_DIR,
+                DEFAULT_LOGGER_CACHE_NUM_SETS,
+                DEFAULT_LOGGER_CACHE_SET_SIZE,
+                LoggerUtil::mapExistingFile,
+                mockReader,
+                STREAM_ID,
+                new NoOpIdleStrategy());
+        }
+
+        return query.query(
+            mockHandler, SESSION_ID, beginSequenceNumber, SEQUENCE_INDEX, endSequenceNumber, SEQUENCE_INDEX);
+    }
+
+    private File segmentFile(final long segment)
+    {
+        return ReplayIndexDescriptor.segmentFile(LOG_FILE_DIR, SESSION_ID, STREAM_ID, segment);
+    }
+
+    private void verifyMessagesRead(final int number)
+    {
+        verify(mockSessionReader, times(number)).read(START, mockHandler);
+    }
+}
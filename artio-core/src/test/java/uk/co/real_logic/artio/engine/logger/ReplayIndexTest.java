@@ -63,6 +63,7 @@ public class ReplayIndexTest extends AbstractLogTest
             DEFAULT_LOG_FILE_DIR,
             STREAM_ID,
             DEFAULT_REPLAY_INDEX_FILE_SIZE,
+            DEFAULT_REPLAY_INDEX_SEGMENT_COUNT,
             DEFAULT_LOGGER_CACHE_NUM_SETS,
             DEFAULT_LOGGER_CACHE_SET_SIZE,
             newBufferFactory,
@@ -254,6 +255,54 @@ public class ReplayIndexTest extends AbstractLogTest
         verifyMessagesRead(totalMessages);
     }
 
+    @Test
+    public void shouldQueryMostRecentRecordsOfAFullBuffer()
+    {
+        IntStream.rangeClosed(1, 1_000).forEach(this::indexExampleMessage);
+
+        final int msgCount = query(990, SEQUENCE_INDEX, 1_000, SEQUENCE_INDEX);
+
+        assertEquals(11, msgCount);
+        verifyMessagesRead(11);
+    }
+
+    @Test
+    public void shouldQueryFromTheOldestRecordOfAFullBuffer()
+    {
+        IntStream.rangeClosed(1, 1_000).forEach(this::indexExampleMessage);
+
+        final int oldestSequenceNumber = 1_000 - totalMessages + 1;
+        final int msgCount = query(oldestSequenceNumber, SEQUENCE_INDEX, 1_000, SEQUENCE_INDEX);
+
+        assertEquals(totalMessages, msgCount);
+        verifyMessagesRead(totalMessages);
+    }
+
+    @Test
+    public void shouldQueryRecordsIndexedOutOfOrder()
+    {
+        // Resent messages are received after later ones
+        IntStream.rangeClosed(1, 10).forEach(this::indexExampleMessage);
+        IntStream.rangeClosed(16, 20).forEach(this::indexExampleMessage);
+        IntStream.rangeClosed(11, 15).forEach(this::indexExampleMessage);
+
+        final int msgCount = query(12, SEQUENCE_INDEX, 14, SEQUENCE_INDEX);
+
+        assertEquals(3, msgCount);
+        verifyMessagesRead(3);
+    }
+
+    @Test
+    public void shouldNotReturnRecordsThatHaveBeenOverwritten()
+    {
+        IntStream.rangeClosed(1, 1_000).forEach(this::indexExampleMessage);
+
+        final int msgCount = query(1, SEQUENCE_INDEX, 10, SEQUENCE_INDEX);
+
+        assertEquals(0, msgCount);
+        verifyNoMessageRead();
+    }
+
     @Test
     public void shouldReadSecondInterleavedMessage()
     {
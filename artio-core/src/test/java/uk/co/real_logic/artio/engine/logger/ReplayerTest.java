@@ -31,6 +31,7 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.mockito.stubbing.OngoingStubbing;
 import org.mockito.verification.VerificationMode;
+import uk.co.real_logic.artio.EpochFractionClock;
 import uk.co.real_logic.artio.builder.Encoder;
 import uk.co.real_logic.artio.decoder.*;
 import uk.co.real_logic.artio.fields.RejectReason;
@@ -48,9 +49,11 @@ import static org.hamcrest.Matchers.containsString;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_NAME_PREFIX;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_REPLAY_BATCH_SIZE;
 import static uk.co.real_logic.artio.engine.PossDupEnabler.ORIG_SENDING_TIME_PREFIX_AS_STR;
 import static uk.co.real_logic.artio.engine.logger.Replayer.MESSAGE_FRAME_BLOCK_LENGTH;
 import static uk.co.real_logic.artio.engine.logger.Replayer.MOST_RECENT_MESSAGE;
+import static uk.co.real_logic.artio.messages.DisconnectReason.REMOTE_DISCONNECT;
 import static uk.co.real_logic.artio.messages.MessageStatus.OK;
 import static uk.co.real_logic.artio.util.CustomMatchers.sequenceEqualsAscii;
 
@@ -86,18 +89,31 @@ public class ReplayerTest extends AbstractLogTest
         when(publication.maxPayloadLength()).thenReturn(Configuration.MTU_LENGTH);
         whenReplayQueried().thenReturn(1);
 
-        replayer = new Replayer(
+        replayer = newReplayer(DEFAULT_REPLAY_BATCH_SIZE);
+
+        verify(publication).maxPayloadLength();
+    }
+
+    private Replayer newReplayer(final int replayBatchSize)
+    {
+        return newReplayer(replayBatchSize, 0, 1);
+    }
+
+    private Replayer newReplayer(final int replayBatchSize, final int partition, final int partitionCount)
+    {
+        return new Replayer(
             replayQuery,
             publication,
             claim,
             idleStrategy,
             errorHandler,
             MAX_CLAIM_ATTEMPTS,
+            replayBatchSize,
+            partition,
+            partitionCount,
             subscription,
             DEFAULT_NAME_PREFIX,
-            clock);
-
-        verify(publication).maxPayloadLength();
+            EpochFractionClock.milliseconds(clock));
     }
 
     private OngoingStubbing<Integer> whenReplayQueried()
@@ -143,6 +159,29 @@ public class ReplayerTest extends AbstractLogTest
         });
     }
 
+    @Test
+    public void shouldResendWithThePrecisionOfTheOriginalSendingTime()
+    {
+        sendingTime = "19700101-00:00:00.000001";
+
+        onReplay(END_SEQ_NO, inv ->
+        {
+            bufferContainsExampleMessage(true);
+
+            final int srcLength = fragmentLength();
+            setupMessage(srcLength);
+
+            onFragment(srcLength);
+
+            verify(publication).tryClaim(srcLength, claim);
+            final String resultAsAscii = resultAsciiBuffer.getAscii(0, resultAsciiBuffer.capacity());
+            assertThat(resultAsAscii, containsString("52=" + DATE_TIME_STR + ".000000\001"));
+            verifyCommit(times(1));
+
+            return 1;
+        });
+    }
+
     @Test
     public void shouldGapFillAdminMessages()
     {
@@ -315,6 +354,73 @@ public class ReplayerTest extends AbstractLogTest
         assertEquals(endSeqNo, beginSeqNo);
     }
 
+    @Test
+    public void shouldResumeLargeResendInLaterDutyCycle() throws Exception
+    {
+        replayer = newReplayer(1);
+        final int endSeqNo = replayTwoMessages();
+
+        onReplay(endSeqNo, inv ->
+        {
+            setupCapturingClaim();
+
+            final int srcLength = onExampleMessage(BEGIN_SEQ_NO);
+
+            assertHasResentWithPossDupFlag(srcLength, times(1));
+
+            onExampleMessage(endSeqNo, ABORT);
+
+            return 1;
+        });
+
+        reset(publication, claim, replayQuery);
+
+        whenReplayQueried().then(inv ->
+        {
+            assertBeginSeqNo(endSeqNo, inv);
+
+            setupCapturingClaim();
+
+            final int srcLength = onExampleMessage(endSeqNo);
+
+            assertHasResentWithPossDupFlag(srcLength, times(1));
+
+            return 1;
+        });
+
+        replayer.doWork();
+        replayer.doWork();
+
+        verify(replayQuery, times(1)).query(
+            any(), eq(SESSION_ID), eq(endSeqNo), eq(SEQUENCE_INDEX), eq(endSeqNo), eq(SEQUENCE_INDEX));
+    }
+
+    @Test
+    public void shouldDropPendingResendsOfDisconnectedConnections() throws Exception
+    {
+        replayer = newReplayer(1);
+        final int endSeqNo = replayTwoMessages();
+
+        onReplay(endSeqNo, inv ->
+        {
+            setupCapturingClaim();
+
+            onExampleMessage(BEGIN_SEQ_NO);
+
+            onExampleMessage(endSeqNo, ABORT);
+
+            return 1;
+        });
+
+        reset(publication, claim, replayQuery);
+
+        assertEquals(CONTINUE, replayer.onDisconnect(LIBRARY_ID, CONNECTION_ID, REMOTE_DISCONNECT));
+
+        replayer.doWork();
+
+        verifyNoMoreInteractions(replayQuery, publication);
+    }
+
     @Test
     public void shouldGapFillMissingMesages()
     {
@@ -446,6 +552,19 @@ public class ReplayerTest extends AbstractLogTest
         verifyNoMoreInteractions(replayQuery, publication);
     }
 
+    @Test
+    public void shouldIgnoreResendRequestsForOtherPartitions()
+    {
+        final int partitionCount = 2;
+        final int otherPartition = (Replayer.partition(CONNECTION_ID, partitionCount) + 1) % partitionCount;
+        replayer = newReplayer(DEFAULT_REPLAY_BATCH_SIZE, otherPartition, partitionCount);
+
+        final long result = bufferHasResendRequest(END_SEQ_NO);
+        onContinuedRequestResendMessage(result);
+
+        verifyNoMoreInteractions(replayQuery);
+    }
+
     @Test
     public void shouldValidateResendRequestMessageSequenceNumbers()
     {
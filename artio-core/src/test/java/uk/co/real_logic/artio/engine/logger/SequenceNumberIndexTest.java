@@ -27,11 +27,14 @@ import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import uk.co.real_logic.artio.FileSystemCorruptionException;
+import uk.co.real_logic.artio.decoder.ExampleMessageDecoder;
 import uk.co.real_logic.artio.engine.MappedFile;
 import uk.co.real_logic.artio.engine.SessionInfo;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
 import java.io.File;
 
+import static java.nio.charset.StandardCharsets.US_ASCII;
 import static org.agrona.IoUtil.deleteIfExists;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
@@ -104,6 +107,24 @@ public class SequenceNumberIndexTest extends AbstractLogTest
         assertLastKnownSequenceNumberIs(SESSION_ID, updatedSequenceNumber);
     }
 
+    @Test
+    public void shouldNotUpdateSequenceNumberFromAMessageWithoutOne()
+    {
+        indexFixMessage();
+
+        final String message = "8=FIX.4.4\0019=29\00135=B\00149=sender\00156=target\00110=123\001";
+        logEntryLength = message.length();
+        bufferContainsMessage(
+            SESSION_ID,
+            SEQUENCE_INDEX,
+            new MutableAsciiBuffer(message.getBytes(US_ASCII)),
+            ExampleMessageDecoder.MESSAGE_TYPE);
+
+        indexRecord(alignedEndPosition() + fragmentLength());
+
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER);
+    }
+
     @Test
     public void shouldValidateBufferItReadsFrom()
     {
@@ -215,6 +236,49 @@ public class SequenceNumberIndexTest extends AbstractLogTest
         }
     }
 
+    @Test
+    public void shouldKeepBothIndexFilesUpToDateAcrossRotations()
+    {
+        final int sessionCount = SECTOR_SIZE / RECORD_SIZE + 1;
+        for (int sessionId = 1; sessionId <= sessionCount; sessionId++)
+        {
+            indexSequenceNumber(sessionId, 0, SEQUENCE_NUMBER);
+        }
+
+        final long sessionInSecondSector = sessionCount;
+        final int updatedSequenceNumber = SEQUENCE_NUMBER + 1;
+        final int messagesToRollSeveralTimes = 10;
+        int messageIndex = 1;
+        for (; messageIndex <= messagesToRollSeveralTimes; messageIndex++)
+        {
+            indexSequenceNumber(SESSION_ID, messageIndex, SEQUENCE_NUMBER + messageIndex);
+        }
+
+        indexSequenceNumber(sessionInSecondSector, messageIndex, updatedSequenceNumber);
+
+        // Only the first sector changes from here, the second sector must still reach both files
+        for (messageIndex++; messageIndex <= 2 * messagesToRollSeveralTimes + 1; messageIndex++)
+        {
+            indexSequenceNumber(SESSION_ID, messageIndex, SEQUENCE_NUMBER + messageIndex);
+        }
+
+        assertFileContainsSequenceNumber(new File(INDEX_FILE_PATH), sessionInSecondSector, updatedSequenceNumber);
+        assertFileContainsSequenceNumber(
+            writablePath(INDEX_FILE_PATH), sessionInSecondSector, updatedSequenceNumber);
+    }
+
+    private void assertFileContainsSequenceNumber(
+        final File file, final long sessionId, final int expectedSequenceNumber)
+    {
+        try (MappedFile mappedFile = MappedFile.map(file, BUFFER_SIZE))
+        {
+            final SequenceNumberIndexReader fileReader = new SequenceNumberIndexReader(
+                mappedFile.buffer(), errorHandler);
+
+            assertLastKnownSequenceNumberIs(sessionId, expectedSequenceNumber, fileReader);
+        }
+    }
+
     @Test
     public void shouldAlignMessagesAndNotOverlapCheckSums()
     {
@@ -246,6 +310,38 @@ public class SequenceNumberIndexTest extends AbstractLogTest
         assertUnknownSession();
     }
 
+    @Test
+    public void shouldNotReadStaleRecordsAfterReset()
+    {
+        indexSequenceNumber(SESSION_ID, 0, SEQUENCE_NUMBER);
+        indexSequenceNumber(SESSION_ID_2, 1, SEQUENCE_NUMBER + 1);
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER);
+        assertLastKnownSequenceNumberIs(SESSION_ID_2, SEQUENCE_NUMBER + 1);
+
+        writer.resetSequenceNumbers();
+
+        final long newSessionId = SESSION_ID_2 + 1;
+        indexSequenceNumber(SESSION_ID_2, 2, 5);
+        indexSequenceNumber(newSessionId, 3, 7);
+
+        assertLastKnownSequenceNumberIs(newSessionId, 7);
+        assertLastKnownSequenceNumberIs(SESSION_ID_2, 5);
+        assertUnknownSession();
+    }
+
+    @Test
+    public void shouldFindRecordsIndexedAfterEarlierLookups()
+    {
+        indexSequenceNumber(SESSION_ID, 0, SEQUENCE_NUMBER);
+        assertLastKnownSequenceNumberIs(SESSION_ID_2, SessionInfo.UNK_SESSION);
+
+        indexSequenceNumber(SESSION_ID_2, 1, SEQUENCE_NUMBER + 1);
+        indexSequenceNumber(SESSION_ID, 2, SEQUENCE_NUMBER + 2);
+
+        assertLastKnownSequenceNumberIs(SESSION_ID_2, SEQUENCE_NUMBER + 1);
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER + 2);
+    }
+
     @After
     public void verifyNoErrors()
     {
@@ -287,6 +383,12 @@ public class SequenceNumberIndexTest extends AbstractLogTest
         indexRecord(alignedEndPosition());
     }
 
+    private void indexSequenceNumber(final long sessionId, final int messageIndex, final int sequenceNumber)
+    {
+        bufferContainsExampleMessage(true, sessionId, sequenceNumber, SEQUENCE_INDEX);
+        indexRecord(alignedEndPosition() + (messageIndex * fragmentLength()));
+    }
+
     private void indexRecord(final int position)
     {
         writer.indexRecord(buffer, START, fragmentLength(), STREAM_ID, AERON_SESSION_ID, position);
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.verification.VerificationMode;
+import uk.co.real_logic.artio.messages.ApplicationHeartbeatEncoder;
+import uk.co.real_logic.artio.messages.FixMessageEncoder;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static io.aeron.protocol.DataHeaderFlyweight.BEGIN_AND_END_FLAGS;
+import static io.aeron.protocol.DataHeaderFlyweight.BEGIN_FLAG;
+import static io.aeron.protocol.DataHeaderFlyweight.END_FLAG;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class ForeignMessageFilterTest
+{
+    private static final int LIBRARY_ID = 2;
+    private static final int OTHER_LIBRARY_ID = 3;
+    private static final int AERON_SESSION_ID = 5;
+    private static final byte MIDDLE_FLAG = 0;
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[1024]);
+    private final Header header = mock(Header.class);
+    private final ControlledFragmentHandler delegate = mock(ControlledFragmentHandler.class);
+    private final ForeignMessageFilter filter = new ForeignMessageFilter(LIBRARY_ID, delegate);
+
+    private int length;
+
+    @Before
+    public void setUp()
+    {
+        when(header.sessionId()).thenReturn(AERON_SESSION_ID);
+        when(delegate.onFragment(any(), anyInt(), anyInt(), any())).thenReturn(CONTINUE);
+    }
+
+    @Test
+    public void shouldPassOnFixMessagesForThisLibrary()
+    {
+        fixMessage(LIBRARY_ID);
+
+        onFragment(BEGIN_AND_END_FLAGS);
+
+        verifyPassedOn(times(1));
+    }
+
+    @Test
+    public void shouldDropFixMessagesForOtherLibraries()
+    {
+        fixMessage(OTHER_LIBRARY_ID);
+
+        onFragment(BEGIN_AND_END_FLAGS);
+
+        verifyPassedOn(never());
+    }
+
+    @Test
+    public void shouldPassOnOtherMessages()
+    {
+        new ApplicationHeartbeatEncoder()
+            .wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder())
+            .libraryId(OTHER_LIBRARY_ID);
+        length = MessageHeaderEncoder.ENCODED_LENGTH + ApplicationHeartbeatEncoder.BLOCK_LENGTH;
+
+        onFragment(BEGIN_AND_END_FLAGS);
+
+        verifyPassedOn(times(1));
+    }
+
+    @Test
+    public void shouldDropAllFragmentsOfFixMessagesForOtherLibraries()
+    {
+        fixMessage(OTHER_LIBRARY_ID);
+
+        onFragment(BEGIN_FLAG);
+        onFragment(MIDDLE_FLAG);
+        onFragment(END_FLAG);
+
+        verifyPassedOn(never());
+    }
+
+    @Test
+    public void shouldPassOnFragmentsAfterDroppedMessage()
+    {
+        fixMessage(OTHER_LIBRARY_ID);
+        onFragment(BEGIN_FLAG);
+        onFragment(END_FLAG);
+
+        fixMessage(LIBRARY_ID);
+        onFragment(BEGIN_FLAG);
+        onFragment(END_FLAG);
+
+        verifyPassedOn(times(2));
+    }
+
+    private void fixMessage(final int libraryId)
+    {
+        new FixMessageEncoder()
+            .wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder())
+            .libraryId(libraryId);
+        length = MessageHeaderEncoder.ENCODED_LENGTH + FixMessageEncoder.BLOCK_LENGTH;
+    }
+
+    private void onFragment(final int flags)
+    {
+        when(header.flags()).thenReturn((byte)flags);
+        assertEquals(CONTINUE, filter.onFragment(buffer, 0, length, header));
+    }
+
+    private void verifyPassedOn(final VerificationMode times)
+    {
+        verify(delegate, times).onFragment(buffer, 0, length, header);
+    }
+}
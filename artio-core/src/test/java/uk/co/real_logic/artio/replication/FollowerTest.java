@@ -147,6 +147,46 @@ public class FollowerTest
         acknowledgeLogEntries(times(2));
     }
 
+    @Test
+    public void shouldCoalesceAcknowledgementsUntilCaughtUp()
+    {
+        follower.acknowledgementBatching(LENGTH * 10, VOTE_TIMEOUT);
+        when(leaderArchiver.poll()).thenReturn(LENGTH, LENGTH, 0);
+
+        poll();
+        poll();
+        verify(acknowledgementPublication, never()).saveMessageAcknowledgement(anyLong(), anyShort(), any());
+
+        poll();
+        verify(acknowledgementPublication).saveMessageAcknowledgement(anyLong(), eq(ID), eq(OK));
+    }
+
+    @Test
+    public void shouldAcknowledgeOnceBatchSizeIsRead()
+    {
+        follower.acknowledgementBatching(LENGTH * 2, VOTE_TIMEOUT);
+        when(leaderArchiver.poll()).thenReturn(LENGTH);
+
+        poll();
+        verify(acknowledgementPublication, never()).saveMessageAcknowledgement(anyLong(), anyShort(), any());
+
+        poll();
+        verify(acknowledgementPublication).saveMessageAcknowledgement(anyLong(), eq(ID), eq(OK));
+    }
+
+    @Test
+    public void shouldAcknowledgeOnceBatchIntervalHasPassed()
+    {
+        follower.acknowledgementBatching(LENGTH * 10, VOTE_TIMEOUT / 2);
+        when(leaderArchiver.poll()).thenReturn(LENGTH);
+
+        poll();
+        verify(acknowledgementPublication, never()).saveMessageAcknowledgement(anyLong(), anyShort(), any());
+
+        follower.poll(10, VOTE_TIMEOUT / 2);
+        verify(acknowledgementPublication).saveMessageAcknowledgement(anyLong(), eq(ID), eq(OK));
+    }
+
     private void backPressureFirstAcknowledgement()
     {
         when(acknowledgementPublication.saveMessageAcknowledgement(anyLong(), anyShort(), any()))
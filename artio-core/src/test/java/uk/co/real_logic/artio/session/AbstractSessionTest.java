@@ -16,7 +16,9 @@
 package uk.co.real_logic.artio.session;
 
 import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import io.aeron.logbuffer.ExclusiveBufferClaim;
 import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.concurrent.status.AtomicCounter;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -25,6 +27,7 @@ import org.mockito.verification.VerificationMode;
 import uk.co.real_logic.artio.builder.HeaderEncoder;
 import uk.co.real_logic.artio.builder.TestRequestEncoder;
 import uk.co.real_logic.artio.decoder.SequenceResetDecoder;
+import uk.co.real_logic.artio.decoder.TestRequestDecoder;
 import uk.co.real_logic.artio.engine.framer.FakeEpochClock;
 import uk.co.real_logic.artio.messages.SessionState;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
@@ -63,6 +66,11 @@ public abstract class AbstractSessionTest
     static final int SEQUENCE_INDEX = 0;
 
     private static final byte[] MSG_TYPE_BYTES = "D".getBytes(US_ASCII);
+    private static final String CLAIMED_MESSAGE_STRING =
+        "8=FIX.4.4\0019=5\00135=1\00110=000\001";
+    private static final byte[] CLAIMED_MESSAGE = CLAIMED_MESSAGE_STRING.getBytes(US_ASCII);
+    private static final int TEST_REQUEST_TYPE = TestRequestDecoder.MESSAGE_TYPE;
+    private static final int CLAIMED_BODY_OFFSET = 32;
 
     static final long POSITION = 1024;
 
@@ -77,6 +85,8 @@ public abstract class AbstractSessionTest
     ArgumentCaptor<Integer> lengthCaptor = ArgumentCaptor.forClass(Integer.class);
     TestRequestEncoder testRequest = new TestRequestEncoder();
     SessionLogonListener mockLogonListener = mock(SessionLogonListener.class);
+    UnsafeBuffer logBuffer = new UnsafeBuffer(new byte[1024]);
+    ExclusiveBufferClaim claim;
 
 
     AbstractSessionTest()
@@ -659,6 +669,132 @@ public abstract class AbstractSessionTest
         assertThat(secondMessage, containsString(":01\001"));
     }
 
+    @Test
+    public void shouldCommitMessageWrittenIntoClaim()
+    {
+        givenActive();
+        givenClaimsSucceed();
+
+        final int expectedSeqNum = nextMsgSeqNum();
+        assertEquals(POSITION, session().tryClaim(CLAIMED_MESSAGE.length, TEST_REQUEST_TYPE));
+        assertEquals(expectedSeqNum, session().claimSeqNum());
+        assertEquals(CLAIMED_BODY_OFFSET, session().claimOffset());
+
+        session().claimBuffer().putBytes(session().claimOffset(), CLAIMED_MESSAGE);
+        assertEquals(POSITION, session().commit());
+
+        assertEquals(CLAIMED_MESSAGE_STRING, claimedMessage());
+        assertEquals(expectedSeqNum, session().lastSentMsgSeqNum());
+        verify(mockPublication).claimMessage(
+            eq(claim), eq(CLAIMED_MESSAGE.length), eq(LIBRARY_ID), eq(TEST_REQUEST_TYPE), anyLong(), anyInt(),
+            eq(CONNECTION_ID), any());
+        verify(mockPublication).commitMessage(claim);
+        verify(mockPublication, never()).saveMessage(
+            any(), anyInt(), anyInt(), anyInt(), anyInt(), anyLong(), anyInt(), anyLong(), any());
+    }
+
+    @Test
+    public void shouldSendMessagesAfterClaimedMessageWhilstClaimIsOutstanding()
+    {
+        givenActive();
+        givenClaimsSucceed();
+
+        final int claimSeqNum = nextMsgSeqNum();
+        session().tryClaim(CLAIMED_MESSAGE.length, TEST_REQUEST_TYPE);
+
+        testRequest.testReqID("interleaved");
+        assertEquals(POSITION, session().send(testRequest));
+
+        session().claimBuffer().putBytes(session().claimOffset(), CLAIMED_MESSAGE);
+        session().commit();
+
+        assertEquals(claimSeqNum, session().claimSeqNum());
+        assertThat(getSentMessage(), containsString("\00134=" + (claimSeqNum + 1) + "\001"));
+        assertEquals(CLAIMED_MESSAGE_STRING, claimedMessage());
+        assertEquals(claimSeqNum + 1, session().lastSentMsgSeqNum());
+        verify(mockPublication).commitMessage(claim);
+    }
+
+    @Test
+    public void shouldNotClaimWhilstClaimIsOutstanding()
+    {
+        givenActive();
+        givenClaimsSucceed();
+
+        session().tryClaim(CLAIMED_MESSAGE.length, TEST_REQUEST_TYPE);
+
+        try
+        {
+            session().tryClaim(CLAIMED_MESSAGE.length, TEST_REQUEST_TYPE);
+            fail("Claimed whilst a claim was outstanding");
+        }
+        catch (final IllegalStateException e)
+        {
+            verify(mockPublication, times(1)).claimMessage(
+                any(), anyInt(), anyInt(), anyInt(), anyLong(), anyInt(), anyLong(), any());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotClaimMessageTooLargeForOneFragment()
+    {
+        givenActive();
+        when(mockPublication.maxClaimableBodyLength()).thenReturn(CLAIMED_MESSAGE.length - 1);
+
+        session().tryClaim(CLAIMED_MESSAGE.length, TEST_REQUEST_TYPE);
+    }
+
+    @Test
+    public void shouldNotUpdateSentSequenceNumberWhenClaimAborted()
+    {
+        givenActive();
+        givenClaimsSucceed();
+        final int lastSentMsgSeqNum = session().lastSentMsgSeqNum();
+
+        session().tryClaim(CLAIMED_MESSAGE.length, TEST_REQUEST_TYPE);
+        session().abort();
+
+        verify(mockPublication).abortMessage(claim);
+        verify(mockPublication, never()).commitMessage(any());
+        assertEquals(lastSentMsgSeqNum, session().lastSentMsgSeqNum());
+    }
+
+    @Test
+    public void shouldKeepSequenceNumbersSentWhilstAbortedClaimWasOutstanding()
+    {
+        givenActive();
+        givenClaimsSucceed();
+
+        final int claimSeqNum = nextMsgSeqNum();
+        session().tryClaim(CLAIMED_MESSAGE.length, TEST_REQUEST_TYPE);
+        testRequest.testReqID("interleaved");
+        session().send(testRequest);
+        session().abort();
+
+        verify(mockPublication).abortMessage(claim);
+        assertEquals(claimSeqNum + 1, session().lastSentMsgSeqNum());
+    }
+
+    private void givenClaimsSucceed()
+    {
+        when(mockPublication.maxClaimableBodyLength()).thenReturn(512);
+        when(mockPublication.claimMessage(
+            any(), anyInt(), anyInt(), anyInt(), anyLong(), anyInt(), anyLong(), any())).then(
+            (inv) ->
+            {
+                claim = inv.getArgument(0);
+                final int bodyLength = inv.getArgument(1);
+                claim.wrap(logBuffer, 0, CLAIMED_BODY_OFFSET + bodyLength);
+                return POSITION;
+            });
+        when(mockPublication.claimedBodyOffset(any())).thenReturn(CLAIMED_BODY_OFFSET);
+    }
+
+    private String claimedMessage()
+    {
+        return logBuffer.getStringWithoutLengthUtf8(CLAIMED_BODY_OFFSET, CLAIMED_MESSAGE.length);
+    }
+
     private String sendTestRequest(final long nonSecondDurationInMs)
     {
         testRequest.reset();
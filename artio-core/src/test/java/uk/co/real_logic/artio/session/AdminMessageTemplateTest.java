@@ -0,0 +1,143 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.session;
+
+import org.junit.Test;
+import uk.co.real_logic.artio.builder.Encoder;
+import uk.co.real_logic.artio.builder.HeaderEncoder;
+import uk.co.real_logic.artio.builder.HeartbeatEncoder;
+import uk.co.real_logic.artio.builder.SequenceResetEncoder;
+import uk.co.real_logic.artio.builder.TestRequestEncoder;
+import uk.co.real_logic.artio.fields.EpochFractionFormat;
+import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static uk.co.real_logic.artio.decoder.Constants.NEW_SEQ_NO;
+import static uk.co.real_logic.artio.session.AdminMessageTemplate.NO_FIELD;
+
+public class AdminMessageTemplateTest
+{
+    private static final long FIRST_TIME = 1_500_000_000_123L;
+    private static final long SECOND_TIME = 1_500_000_042_000L;
+
+    private final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[8 * 1024]);
+    private final UtcTimestampEncoder timestampEncoder = new UtcTimestampEncoder();
+
+    @Test
+    public void encodesHeartbeatsLikeTheEncoder()
+    {
+        final HeartbeatEncoder heartbeat = new HeartbeatEncoder();
+        setupHeader(heartbeat.header());
+
+        final AdminMessageTemplate template = templateOf(heartbeat, 1, NO_FIELD);
+
+        assertEncodesLikeTheEncoder(heartbeat, template, 2, SECOND_TIME, 0);
+        assertEncodesLikeTheEncoder(heartbeat, template, 12345, FIRST_TIME, 0);
+    }
+
+    @Test
+    public void encodesTestRequestsLikeTheEncoder()
+    {
+        final TestRequestEncoder testRequest = new TestRequestEncoder();
+        setupHeader(testRequest.header());
+        testRequest.testReqID("TEST");
+
+        final AdminMessageTemplate template = templateOf(testRequest, 9, NO_FIELD);
+
+        assertEncodesLikeTheEncoder(testRequest, template, 10, SECOND_TIME, 0);
+    }
+
+    @Test
+    public void encodesSequenceResetsLikeTheEncoder()
+    {
+        final SequenceResetEncoder sequenceReset = new SequenceResetEncoder();
+        setupHeader(sequenceReset.header());
+        sequenceReset.newSeqNo(5);
+
+        final AdminMessageTemplate template = templateOf(sequenceReset, 1, NEW_SEQ_NO);
+
+        sequenceReset.newSeqNo(100_000);
+        assertEncodesLikeTheEncoder(sequenceReset, template, 99_999, SECOND_TIME, 100_000);
+    }
+
+    @Test
+    public void encodesFinerSendingTimesLikeTheEncoder()
+    {
+        final UtcTimestampEncoder nanosEncoder = new UtcTimestampEncoder(EpochFractionFormat.NANOSECONDS);
+        final HeartbeatEncoder heartbeat = new HeartbeatEncoder();
+        setupHeader(heartbeat.header());
+
+        final HeaderEncoder header = heartbeat.header();
+        header.msgSeqNum(1);
+        header.sendingTime(nanosEncoder.buffer(), nanosEncoder.encode(FIRST_TIME * 1_000_000L + 456_789L));
+        final AdminMessageTemplate template = AdminMessageTemplate.of(buffer, heartbeat.encode(buffer, 0), NO_FIELD);
+        assertNotNull(template);
+
+        final int sendingTimeLength = nanosEncoder.encode(SECOND_TIME * 1_000_000L + 1L);
+        header.msgSeqNum(2);
+        header.sendingTime(nanosEncoder.buffer(), sendingTimeLength);
+        final String expected = encoded(heartbeat.encode(buffer, 0));
+
+        final long result = template.encode(buffer, 0, 2, nanosEncoder.buffer(), sendingTimeLength, 0);
+        assertEquals(expected, encoded(result));
+        assertEquals(template.length(2, sendingTimeLength, 0), Encoder.length(result));
+    }
+
+    private void setupHeader(final HeaderEncoder header)
+    {
+        header.senderCompID("sender").targetCompID("target").senderSubID("sub");
+    }
+
+    private AdminMessageTemplate templateOf(final Encoder encoder, final int msgSeqNum, final int fieldTag)
+    {
+        final HeaderEncoder header = (HeaderEncoder)encoder.header();
+        header.msgSeqNum(msgSeqNum);
+        header.sendingTime(timestampEncoder.buffer(), timestampEncoder.encode(FIRST_TIME));
+
+        final AdminMessageTemplate template = AdminMessageTemplate.of(buffer, encoder.encode(buffer, 0), fieldTag);
+        assertNotNull(template);
+        return template;
+    }
+
+    private void assertEncodesLikeTheEncoder(
+        final Encoder encoder,
+        final AdminMessageTemplate template,
+        final int msgSeqNum,
+        final long sendingTime,
+        final int fieldValue)
+    {
+        final int sendingTimeLength = timestampEncoder.encode(sendingTime);
+        final HeaderEncoder header = (HeaderEncoder)encoder.header();
+        header.msgSeqNum(msgSeqNum);
+        header.sendingTime(timestampEncoder.buffer(), sendingTimeLength);
+        final String expected = encoded(encoder.encode(buffer, 0));
+
+        final int offset = 3;
+        final long result = template.encode(
+            buffer, offset, msgSeqNum, timestampEncoder.buffer(), sendingTimeLength, fieldValue);
+
+        assertEquals(expected, encoded(result));
+        assertEquals(offset, Encoder.offset(result));
+        assertEquals(template.length(msgSeqNum, sendingTimeLength, fieldValue), Encoder.length(result));
+    }
+
+    private String encoded(final long result)
+    {
+        return buffer.getAscii(Encoder.offset(result), Encoder.length(result));
+    }
+}
@@ -79,6 +79,33 @@ public class InitiatorSessionTest extends AbstractSessionTest
         assertEquals(1, session.lastSentMsgSeqNum());
     }
 
+    @Test
+    public void shouldAttemptLogonWhenPolledByTimerWheel()
+    {
+        final SessionTimerWheel timerWheel = new SessionTimerWheel(16, fakeClock.time());
+        session.id(SESSION_ID);
+        timerWheel.add(session);
+
+        timerWheel.poll(fakeClock.time());
+
+        verifyLogon();
+    }
+
+    @Test
+    public void shouldAttemptLogonWhenGivenAnIdWhilstOnTimerWheel()
+    {
+        final SessionTimerWheel timerWheel = new SessionTimerWheel(16, fakeClock.time());
+        timerWheel.add(session);
+
+        timerWheel.poll(fakeClock.time());
+        verify(mockProxy, never()).logon(anyInt(), anyInt(), any(), any(), anyBoolean(), anyInt());
+
+        session.id(SESSION_ID);
+        timerWheel.poll(fakeClock.time());
+
+        verifyLogon();
+    }
+
     @Test
     public void shouldAttemptLogonOnlyOnce()
     {
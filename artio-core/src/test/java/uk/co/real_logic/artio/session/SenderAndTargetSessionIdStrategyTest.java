@@ -18,6 +18,7 @@ package uk.co.real_logic.artio.session;
 import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.junit.Test;
+import uk.co.real_logic.artio.decoder.HeaderDecoder;
 
 import java.util.Arrays;
 import java.util.List;
@@ -27,7 +28,11 @@ import static java.util.stream.Collectors.toSet;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 import static uk.co.real_logic.artio.session.SessionIdStrategy.INSUFFICIENT_SPACE;
 
 @SuppressWarnings("Indentation")
@@ -62,6 +67,74 @@ public class SenderAndTargetSessionIdStrategyTest
             }));
     }
 
+    @Test
+    public void acceptingAKnownLogonReusesTheKey()
+    {
+        final CompositeKey initiatedKey = strategy.onInitiateLogon("SIGMAX", null, null, "ABC_DEFG04", null, null);
+
+        final HeaderDecoder headerDecoder = mock(HeaderDecoder.class);
+        when(headerDecoder.senderCompID()).thenReturn("ABC_DEFG04".toCharArray());
+        when(headerDecoder.senderCompIDLength()).thenReturn("ABC_DEFG04".length());
+        when(headerDecoder.targetCompID()).thenReturn("SIGMAX".toCharArray());
+        when(headerDecoder.targetCompIDLength()).thenReturn("SIGMAX".length());
+
+        assertSame(initiatedKey, strategy.onAcceptLogon(headerDecoder));
+    }
+
+    @Test
+    public void keepsKeysDistinctAsTheCacheGrows()
+    {
+        final int keyCount = 1000;
+        final CompositeKey[] keys = new CompositeKey[keyCount];
+        for (int i = 0; i < keyCount; i++)
+        {
+            keys[i] = strategy.onInitiateLogon("SENDER" + i, null, null, "TARGET", null, null);
+        }
+
+        for (int i = 0; i < keyCount; i++)
+        {
+            final CompositeKey key = strategy.onInitiateLogon("SENDER" + i, null, null, "TARGET", null, null);
+            assertSame(keys[i], key);
+            assertEquals("SENDER" + i, key.localCompId());
+        }
+        assertNotSame(keys[0], keys[1]);
+    }
+
+    @Test
+    public void evictsUnsavedKeysOnceTheTableIsFull()
+    {
+        final CompositeKey firstKey = strategy.onInitiateLogon("SENDER", null, null, "TARGET", null, null);
+        fillKeyTable();
+
+        final CompositeKey key = strategy.onInitiateLogon("SENDER", null, null, "TARGET", null, null);
+        assertEquals(firstKey, key);
+        assertNotSame(firstKey, key);
+    }
+
+    @Test
+    public void keepsSavedKeysOnceTheTableIsFull()
+    {
+        final CompositeKey savedKey = strategy.onInitiateLogon("SENDER", null, null, "TARGET", null, null);
+        strategy.save(savedKey, new UnsafeBuffer(new byte[1024]), 0);
+        fillKeyTable();
+
+        assertSame(savedKey, strategy.onInitiateLogon("SENDER", null, null, "TARGET", null, null));
+    }
+
+    @Test
+    public void keysCreatedOnDifferentThreadsAreEqual() throws InterruptedException
+    {
+        final CompositeKey key = strategy.onInitiateLogon("SIGMAX", null, null, "ABC_DEFG04", null, null);
+        final CompositeKey[] otherThreadKey = new CompositeKey[1];
+        final Thread thread = new Thread(() ->
+            otherThreadKey[0] = strategy.onInitiateLogon("SIGMAX", null, null, "ABC_DEFG04", null, null));
+        thread.start();
+        thread.join();
+
+        assertEquals(key, otherThreadKey[0]);
+        assertEquals(key.hashCode(), otherThreadKey[0].hashCode());
+    }
+
     @Test
     public void savesAndLoadsACompositeKey()
     {
@@ -74,7 +147,7 @@ public class SenderAndTargetSessionIdStrategyTest
 
         final Object loadedKey = strategy.load(buffer, 1, length);
 
-        assertEquals(key, loadedKey);
+        assertSame(key, loadedKey);
     }
 
     @Test
@@ -87,4 +160,12 @@ public class SenderAndTargetSessionIdStrategyTest
 
         assertEquals(INSUFFICIENT_SPACE, length);
     }
+
+    private void fillKeyTable()
+    {
+        for (int i = 0; i < CompositeKeyTable.EVICTION_SIZE; i++)
+        {
+            strategy.onInitiateLogon("SENDER" + i, null, null, "TARGET", null, null);
+        }
+    }
 }
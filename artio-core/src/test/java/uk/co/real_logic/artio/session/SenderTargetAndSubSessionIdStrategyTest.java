@@ -26,6 +26,7 @@ import static java.util.stream.Collectors.toSet;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -90,6 +91,7 @@ public class SenderTargetAndSubSessionIdStrategyTest
                     final Object second = strategy.onAcceptLogon(headerDecoder);
                     assertEquals(first, second);
                     assertEquals(first.hashCode(), second.hashCode());
+                    assertSame(first, second);
                 })));
     }
 
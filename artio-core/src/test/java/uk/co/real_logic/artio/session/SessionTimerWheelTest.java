@@ -0,0 +1,172 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.session;
+
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.Test;
+import uk.co.real_logic.artio.engine.framer.FakeEpochClock;
+import uk.co.real_logic.artio.messages.SessionState;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import static io.aeron.Publication.BACK_PRESSURED;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_REASONABLE_TRANSMISSION_TIME_IN_MS;
+import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_SESSION_BUFFER_SIZE;
+import static uk.co.real_logic.artio.messages.SessionState.ACTIVE;
+import static uk.co.real_logic.artio.messages.SessionState.AWAITING_LOGOUT;
+import static uk.co.real_logic.artio.messages.SessionState.LOGGING_OUT;
+
+public class SessionTimerWheelTest
+{
+    private static final int HEARTBEAT_INTERVAL_IN_S = 2;
+    private static final long HEARTBEAT_DUE_IN_MS =
+        (long)(HEARTBEAT_INTERVAL_IN_S * 1000 * Session.HEARTBEAT_PAUSE_FACTOR);
+    private static final int WHEEL_SIZE = 16;
+    private static final long POSITION = 1024;
+
+    private final FakeEpochClock clock = new FakeEpochClock();
+    private final SessionProxy proxy = mock(SessionProxy.class);
+    private final SessionTimerWheel timerWheel = new SessionTimerWheel(WHEEL_SIZE, clock.time());
+    private final Session session = newSession(ACTIVE);
+
+    @Test
+    public void shouldNotPollSessionsBeforeTheyAreDue()
+    {
+        timerWheel.add(session);
+
+        advanceAndPoll(HEARTBEAT_DUE_IN_MS - 1);
+
+        verify(proxy, never()).heartbeat(anyInt(), anyInt());
+    }
+
+    @Test
+    public void shouldPollSessionsWhenTheirHeartbeatIsDue()
+    {
+        timerWheel.add(session);
+
+        advanceAndPoll(HEARTBEAT_DUE_IN_MS);
+        advanceAndPoll(0);
+
+        verify(proxy, times(1)).heartbeat(anyInt(), anyInt());
+    }
+
+    @Test
+    public void shouldPollSessionsWhosePollsWrapAroundTheWheel()
+    {
+        timerWheel.add(session);
+
+        for (long time = 1; time < HEARTBEAT_DUE_IN_MS; time++)
+        {
+            advanceAndPoll(1);
+        }
+        verify(proxy, never()).heartbeat(anyInt(), anyInt());
+
+        advanceAndPoll(1);
+        verify(proxy, times(1)).heartbeat(anyInt(), anyInt());
+    }
+
+    @Test
+    public void shouldRescheduleSessionsWhoseHeartbeatWasPushedBack()
+    {
+        timerWheel.add(session);
+
+        final long sentTime = HEARTBEAT_DUE_IN_MS / 2;
+        advanceAndPoll(sentTime);
+        session.lastSentMsgSeqNum(1);
+
+        advanceAndPoll(HEARTBEAT_DUE_IN_MS - sentTime);
+        verify(proxy, never()).heartbeat(anyInt(), anyInt());
+
+        advanceAndPoll(sentTime);
+        verify(proxy, times(1)).heartbeat(anyInt(), anyInt());
+    }
+
+    @Test
+    public void shouldRetryBackPressuredLogoutsOnNextPoll()
+    {
+        when(proxy.logout(anyInt(), anyInt())).thenReturn(BACK_PRESSURED, POSITION);
+        timerWheel.add(session);
+
+        session.startLogout();
+        assertEquals(LOGGING_OUT, session.state());
+
+        advanceAndPoll(0);
+
+        verify(proxy, times(2)).logout(anyInt(), anyInt());
+        assertEquals(AWAITING_LOGOUT, session.state());
+    }
+
+    @Test
+    public void shouldRetryBackPressuredHeartbeatsWhenPollsAreMoreThanAMillisecondApart()
+    {
+        when(proxy.heartbeat(anyInt(), anyInt())).thenReturn(BACK_PRESSURED, POSITION);
+        timerWheel.add(session);
+
+        advanceAndPoll(HEARTBEAT_DUE_IN_MS + 5);
+        verify(proxy, times(1)).heartbeat(anyInt(), anyInt());
+
+        advanceAndPoll(3);
+        verify(proxy, times(2)).heartbeat(anyInt(), anyInt());
+    }
+
+    @Test
+    public void shouldNotPollSessionsWithoutDeadlines()
+    {
+        final Session disconnectedSession = newSession(SessionState.DISCONNECTED);
+        timerWheel.add(disconnectedSession);
+
+        assertEquals(0, advanceAndPoll(HEARTBEAT_DUE_IN_MS * 10));
+    }
+
+    @Test
+    public void shouldNotPollRemovedSessions()
+    {
+        timerWheel.add(session);
+        timerWheel.remove(session);
+
+        advanceAndPoll(HEARTBEAT_DUE_IN_MS);
+
+        verify(proxy, never()).heartbeat(anyInt(), anyInt());
+    }
+
+    private int advanceAndPoll(final long durationInMs)
+    {
+        clock.advanceMilliSeconds(durationInMs);
+        return timerWheel.poll(clock.time());
+    }
+
+    private Session newSession(final SessionState state)
+    {
+        return new AcceptorSession(
+            HEARTBEAT_INTERVAL_IN_S,
+            1L,
+            clock,
+            proxy,
+            mock(GatewayPublication.class),
+            mock(SessionIdStrategy.class),
+            2000,
+            mock(AtomicCounter.class),
+            mock(AtomicCounter.class),
+            2,
+            1,
+            0,
+            state,
+            DEFAULT_REASONABLE_TRANSMISSION_TIME_IN_MS,
+            new MutableAsciiBuffer(new byte[DEFAULT_SESSION_BUFFER_SIZE]));
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.util.concurrent.TimeUnit;
+
+import static uk.co.real_logic.artio.dictionary.StandardFixConstants.START_OF_HEADER;
+
+/**
+ * Compares the word at a time checksum and delimiter scanning in {@link MutableAsciiBuffer} with the equivalent
+ * byte at a time loops over the same messages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class AsciiBufferScanBenchmark
+{
+    @Param({"200", "4096"})
+    private int messageLength;
+
+    @Param({"0", "3"})
+    private int offset;
+
+    private MutableAsciiBuffer buffer;
+    private int end;
+
+    @Setup
+    public void setup()
+    {
+        final int length = messageLength + offset + 1;
+        final byte[] bytes = new byte[length];
+        final byte[] message = TestData.NEW_ORDER_SINGLE.byteArray();
+        for (int i = 0; i < messageLength; i++)
+        {
+            final byte value = message[i % message.length];
+            // Only the final byte of the message is a delimiter to give the scan a full message to walk
+            bytes[offset + i] = value == START_OF_HEADER ? (byte)'|' : value;
+        }
+
+        end = offset + messageLength - 1;
+        bytes[end] = START_OF_HEADER;
+        buffer = new MutableAsciiBuffer(bytes);
+    }
+
+    @Benchmark
+    public void computeChecksum(final Blackhole bh)
+    {
+        bh.consume(buffer.computeChecksum(offset, end));
+    }
+
+    @Benchmark
+    public void computeChecksumByteAtATime(final Blackhole bh)
+    {
+        final MutableAsciiBuffer buffer = this.buffer;
+        final int end = this.end;
+
+        int total = 0;
+        for (int index = offset; index < end; index++)
+        {
+            total += (int)buffer.getByte(index);
+        }
+
+        bh.consume(total % 256);
+    }
+
+    @Benchmark
+    public void scan(final Blackhole bh)
+    {
+        bh.consume(buffer.scan(offset, end, START_OF_HEADER));
+    }
+
+    @Benchmark
+    public void scanByteAtATime(final Blackhole bh)
+    {
+        final MutableAsciiBuffer buffer = this.buffer;
+        final int end = this.end;
+
+        int indexValue = -1;
+        for (int index = offset; index <= end; index++)
+        {
+            if (buffer.getByte(index) == START_OF_HEADER)
+            {
+                indexValue = index;
+                break;
+            }
+        }
+
+        bh.consume(indexValue);
+    }
+}
@@ -17,6 +17,12 @@ package uk.co.real_logic.artio;
 
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
+import uk.co.real_logic.artio.perf_codecs.decoder.MarketDataSnapshotFullRefreshDecoder;
+import uk.co.real_logic.artio.perf_codecs.decoder.MarketDataSnapshotFullRefreshDecoder.MDEntriesGroupDecoder;
+import uk.co.real_logic.artio.perf_codecs.decoder.MarketDataSnapshotFullRefreshFlyweightDecoder;
+import uk.co.real_logic.artio.perf_codecs.decoder.MarketDataSnapshotFullRefreshFlyweightDecoder.MDEntriesGroupFlyweight;
+import uk.co.real_logic.artio.perf_codecs.decoder.NewOrderSingleDecoder;
+import uk.co.real_logic.artio.perf_codecs.decoder.NewOrderSingleFlyweightDecoder;
 import uk.co.real_logic.artio.builder.Validation;
 import uk.co.real_logic.artio.decoder.HeaderDecoder;
 import uk.co.real_logic.artio.decoder.LogonDecoder;
@@ -36,6 +42,16 @@ public class StubDecoderBenchmark
     private LogonDecoder logonDecoder = new LogonDecoder();
     private AsciiBuffer buffer = new MutableAsciiBuffer(TestData.LOGON);
 
+    private NewOrderSingleDecoder newOrderSingleDecoder = new NewOrderSingleDecoder();
+    private NewOrderSingleFlyweightDecoder newOrderSingleFlyweightDecoder = new NewOrderSingleFlyweightDecoder();
+    private AsciiBuffer newOrderSingleBuffer = new MutableAsciiBuffer(TestData.NEW_ORDER_SINGLE);
+    private char[] clOrdID = new char[64];
+
+    private MarketDataSnapshotFullRefreshDecoder marketDataDecoder = new MarketDataSnapshotFullRefreshDecoder();
+    private MarketDataSnapshotFullRefreshFlyweightDecoder marketDataFlyweightDecoder =
+        new MarketDataSnapshotFullRefreshFlyweightDecoder();
+    private AsciiBuffer marketDataBuffer = new MutableAsciiBuffer(TestData.MARKET_DATA_SNAPSHOT);
+
     @Setup
     public void setup()
     {
@@ -78,4 +94,56 @@ public class StubDecoderBenchmark
         bh.consume(logonDecoder.username());
     }
 
+    @Benchmark
+    public void resetAndDecodeNewOrderSingle(final Blackhole bh)
+    {
+        newOrderSingleDecoder.reset();
+
+        bh.consume(newOrderSingleDecoder.decode(newOrderSingleBuffer, 0, newOrderSingleBuffer.capacity()));
+
+        bh.consume(newOrderSingleDecoder.clOrdID());
+        bh.consume(newOrderSingleDecoder.side());
+        bh.consume(newOrderSingleDecoder.orderQty());
+    }
+
+    @Benchmark
+    public void flyweightDecodeNewOrderSingle(final Blackhole bh)
+    {
+        bh.consume(newOrderSingleFlyweightDecoder.decode(newOrderSingleBuffer, 0, newOrderSingleBuffer.capacity()));
+
+        bh.consume(newOrderSingleFlyweightDecoder.clOrdID(clOrdID));
+        bh.consume(newOrderSingleFlyweightDecoder.side());
+        bh.consume(newOrderSingleFlyweightDecoder.orderQty());
+    }
+
+    @Benchmark
+    public void resetAndDecodeMarketDataSnapshot(final Blackhole bh)
+    {
+        marketDataDecoder.reset();
+
+        bh.consume(marketDataDecoder.decode(marketDataBuffer, 0, marketDataBuffer.capacity()));
+
+        final int entries = marketDataDecoder.noMDEntriesGroupCounter();
+        MDEntriesGroupDecoder entry = marketDataDecoder.mDEntriesGroup();
+        for (int i = 0; i < entries; i++)
+        {
+            bh.consume(entry.mDEntryPx());
+            bh.consume(entry.mDEntrySize());
+            entry = entry.next();
+        }
+    }
+
+    @Benchmark
+    public void flyweightDecodeMarketDataSnapshot(final Blackhole bh)
+    {
+        bh.consume(marketDataFlyweightDecoder.decode(marketDataBuffer, 0, marketDataBuffer.capacity()));
+
+        final MDEntriesGroupFlyweight entry = marketDataFlyweightDecoder.mDEntriesGroup();
+        while (entry.hasNext())
+        {
+            entry.next();
+            bh.consume(entry.mDEntryPx());
+            bh.consume(entry.mDEntrySize());
+        }
+    }
 }
@@ -31,4 +31,29 @@ public final class TestData
         ("8=FIX.4.4\0019=0103\00135=A\00149=ABC_DEFG01\00156=CCG\00134=10\001" +
         "52=20150514-15:57:31.336\00198=0\001108=10\001383=512\001553=username" +
         "\001554=password\00110=243\001").getBytes(StandardCharsets.US_ASCII));
+
+    public static final int MARKET_DATA_ENTRIES = 40;
+
+    public static final UnsafeBuffer MARKET_DATA_SNAPSHOT = new UnsafeBuffer(
+        marketDataSnapshot(MARKET_DATA_ENTRIES).getBytes(StandardCharsets.US_ASCII));
+
+    private static String marketDataSnapshot(final int entries)
+    {
+        final StringBuilder message = new StringBuilder(
+            "8=FIX.4.4\0019=0000\00135=W\00149=ABC_DEFG01\00156=CCG\00134=10\001" +
+            "52=20150514-15:57:31.336\001262=MDREQ-1\00155=CVS\001268=" + entries + "\001");
+
+        for (int i = 0; i < entries; i++)
+        {
+            message
+                .append("269=").append(i % 2 == 0 ? '0' : '1')
+                .append("\001270=").append(100 + i / 2).append('.').append(25)
+                .append("\001271=").append(1000 + i * 10)
+                .append("\001290=").append(i / 2 + 1)
+                .append("\001346=").append(i % 7 + 1)
+                .append('\001');
+        }
+
+        return message.append("10=000\001").toString();
+    }
 }
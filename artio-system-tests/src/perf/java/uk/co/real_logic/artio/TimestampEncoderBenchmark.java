@@ -15,8 +15,10 @@
  */
 package uk.co.real_logic.artio;
 
+import org.agrona.concurrent.SystemEpochClock;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
+import uk.co.real_logic.artio.fields.EpochFractionFormat;
 import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
 
 import java.util.concurrent.TimeUnit;
@@ -29,12 +31,18 @@ import java.util.concurrent.TimeUnit;
 @Fork(1)
 public class TimestampEncoderBenchmark
 {
-    private UtcTimestampEncoder timestampEncoder = new UtcTimestampEncoder();
+    @Param({"MILLISECONDS", "MICROSECONDS", "NANOSECONDS"})
+    private EpochFractionFormat format;
+
+    private EpochFractionClock clock;
+    private UtcTimestampEncoder timestampEncoder;
 
     @Setup
     public void initialiseTimestamp()
     {
-        timestampEncoder.initialise(System.currentTimeMillis());
+        clock = new EpochFractionClock(new SystemEpochClock(), new OffsetEpochNanoClock(), format);
+        timestampEncoder = new UtcTimestampEncoder(format);
+        timestampEncoder.initialise(clock.time());
     }
 
     @Benchmark
@@ -42,7 +50,7 @@ public class TimestampEncoderBenchmark
     {
         final UtcTimestampEncoder timestampEncoder = this.timestampEncoder;
 
-        bh.consume(timestampEncoder.encode(System.currentTimeMillis()));
+        bh.consume(timestampEncoder.encode(clock.time()));
         bh.consume(timestampEncoder.buffer());
     }
 
@@ -51,7 +59,7 @@ public class TimestampEncoderBenchmark
     {
         final UtcTimestampEncoder timestampEncoder = this.timestampEncoder;
 
-        bh.consume(timestampEncoder.update(System.currentTimeMillis()));
+        bh.consume(timestampEncoder.update(clock.time()));
         bh.consume(timestampEncoder.buffer());
     }
 
@@ -60,7 +68,7 @@ public class TimestampEncoderBenchmark
     {
         bh.consume(this.timestampEncoder);
 
-        bh.consume(System.currentTimeMillis());
+        bh.consume(clock.time());
     }
 
 }
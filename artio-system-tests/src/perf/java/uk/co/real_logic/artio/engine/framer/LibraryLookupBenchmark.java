@@ -0,0 +1,87 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongToIntFunction;
+
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS;
+
+/**
+ * Looks up the library that owns a session, which should cost the same however many connections there are.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class LibraryLookupBenchmark
+{
+    private static final int LIBRARY_COUNT = 4;
+
+    @Param({"10", "1000", "10000", "50000"})
+    int connectionCount;
+
+    private LongToIntFunction libraryLookup;
+    private long sessionId;
+
+    @Setup
+    public void setup()
+    {
+        final SenderEndPoints senderEndPoints = new SenderEndPoints(Throwable::printStackTrace);
+        for (int i = 0; i < connectionCount; i++)
+        {
+            final SenderEndPoint senderEndPoint = new SenderEndPoint(
+                i,
+                i % LIBRARY_COUNT,
+                null,
+                null,
+                null,
+                null,
+                null,
+                Throwable::printStackTrace,
+                null,
+                0,
+                DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS,
+                0);
+            senderEndPoints.add(senderEndPoint);
+            senderEndPoint.sessionId(SessionContexts.LOWEST_VALID_SESSION_ID + i);
+        }
+
+        libraryLookup = senderEndPoints.libraryLookup();
+        sessionId = SessionContexts.LOWEST_VALID_SESSION_ID;
+    }
+
+    @Benchmark
+    public int libraryLookup()
+    {
+        // Cycle through the sessions so that we don't just measure the same cache line every time
+        final long sessionId = this.sessionId;
+        this.sessionId = sessionId + 1 < SessionContexts.LOWEST_VALID_SESSION_ID + connectionCount ?
+            sessionId + 1 : SessionContexts.LOWEST_VALID_SESSION_ID;
+
+        return libraryLookup.applyAsInt(sessionId);
+    }
+
+    @Benchmark
+    public int unknownSessionLookup()
+    {
+        return libraryLookup.applyAsInt(-1);
+    }
+}
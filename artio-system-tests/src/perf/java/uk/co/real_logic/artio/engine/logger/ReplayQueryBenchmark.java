@@ -0,0 +1,156 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import org.agrona.concurrent.NoOpIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.storage.messages.ReplayIndexRecordEncoder;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.*;
+import static uk.co.real_logic.artio.replication.ReservedValue.NO_FILTER;
+
+/**
+ * Measures the latency of answering a resend request for the most recent messages of a session against
+ * the number of records in its replay index. Archive reads are stubbed out so only the index lookup is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ReplayQueryBenchmark
+{
+    private static final long SESSION_ID = 1;
+    private static final int STREAM_ID = 1;
+    private static final int AERON_SESSION_ID = 2;
+    private static final int SEQUENCE_INDEX = 0;
+    private static final int RESEND_SIZE = 10;
+    private static final int TERM_BUFFER_LENGTH = 64 * 1024;
+
+    @Param({"1024", "65536", "1048576"})
+    private int records;
+
+    private final ControlledFragmentHandler handler = (buffer, offset, length, header) ->
+        ControlledFragmentHandler.Action.CONTINUE;
+
+    private ReplayQuery replayQuery;
+    private int lastSequenceNumber;
+
+    @Setup
+    public void setup()
+    {
+        final int capacity = records * RECORD_LENGTH;
+        final ByteBuffer indexBuffer = ByteBuffer.allocateDirect(capacity + INITIAL_RECORD_OFFSET);
+        final UnsafeBuffer buffer = new UnsafeBuffer(indexBuffer);
+        final ReplayIndexRecordEncoder recordEncoder = new ReplayIndexRecordEncoder();
+
+        new MessageHeaderEncoder()
+            .wrap(buffer, 0)
+            .blockLength(recordEncoder.sbeBlockLength())
+            .templateId(recordEncoder.sbeTemplateId())
+            .schemaId(recordEncoder.sbeSchemaId())
+            .version(recordEncoder.sbeSchemaVersion());
+
+        // Fill the index twice over so that the query operates on a ring that the writer has lapped.
+        final int recordsWritten = records * 2;
+        for (int i = 0; i < recordsWritten; i++)
+        {
+            final long changePosition = (long)i * RECORD_LENGTH;
+            recordEncoder
+                .wrap(buffer, offset(changePosition, capacity))
+                .streamId(STREAM_ID)
+                .aeronSessionId(AERON_SESSION_ID)
+                .position(changePosition + 1)
+                .sequenceNumber(i + 1)
+                .sequenceIndex(SEQUENCE_INDEX);
+        }
+
+        final long writtenPosition = (long)recordsWritten * RECORD_LENGTH;
+        beginChangeOrdered(buffer, writtenPosition);
+        endChangeOrdered(buffer, writtenPosition);
+        lastSequenceNumber = recordsWritten;
+
+        replayQuery = new ReplayQuery(
+            "",
+            1,
+            1,
+            (file) -> indexBuffer,
+            new StubArchiveReader(),
+            STREAM_ID,
+            new NoOpIdleStrategy());
+    }
+
+    @Benchmark
+    public void resendMostRecentMessages(final Blackhole bh)
+    {
+        bh.consume(replayQuery.query(
+            handler,
+            SESSION_ID,
+            lastSequenceNumber - RESEND_SIZE + 1,
+            SEQUENCE_INDEX,
+            lastSequenceNumber,
+            SEQUENCE_INDEX));
+    }
+
+    @Benchmark
+    public void resendFromMiddleOfIndex(final Blackhole bh)
+    {
+        final int beginSequenceNumber = lastSequenceNumber - records / 2;
+        bh.consume(replayQuery.query(
+            handler,
+            SESSION_ID,
+            beginSequenceNumber,
+            SEQUENCE_INDEX,
+            beginSequenceNumber + RESEND_SIZE - 1,
+            SEQUENCE_INDEX));
+    }
+
+    private static final class StubArchiveReader extends ArchiveReader
+    {
+        private final SessionReader sessionReader = new StubSessionReader();
+
+        private StubArchiveReader()
+        {
+            super(new ArchiveMetaData(new LogDirectoryDescriptor("")), 1, 1, null, NO_FILTER);
+        }
+
+        public SessionReader session(final int aeronSessionId)
+        {
+            return sessionReader;
+        }
+
+        private final class StubSessionReader extends SessionReader
+        {
+            private StubSessionReader()
+            {
+                super(AERON_SESSION_ID, 0, TERM_BUFFER_LENGTH);
+            }
+
+            public long read(final long initialPosition, final ControlledFragmentHandler handler)
+            {
+                return initialPosition + 1;
+            }
+        }
+    }
+}
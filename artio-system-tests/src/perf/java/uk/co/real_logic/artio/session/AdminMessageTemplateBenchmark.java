@@ -0,0 +1,71 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.session;
+
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.builder.HeaderEncoder;
+import uk.co.real_logic.artio.builder.HeartbeatEncoder;
+import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encoding heartbeats with the generated encoder against encoding them from a template.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class AdminMessageTemplateBenchmark
+{
+    private final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[8 * 1024]);
+    private final UtcTimestampEncoder timestampEncoder = new UtcTimestampEncoder();
+    private final HeartbeatEncoder heartbeat = new HeartbeatEncoder();
+
+    private AdminMessageTemplate template;
+    private int msgSeqNum;
+
+    @Setup
+    public void setup()
+    {
+        final HeaderEncoder header = heartbeat.header();
+        header.senderCompID("sender").targetCompID("target");
+        header.msgSeqNum(1);
+        header.sendingTime(timestampEncoder.buffer(), timestampEncoder.initialise(System.currentTimeMillis()));
+        template = AdminMessageTemplate.of(buffer, heartbeat.encode(buffer, 0), AdminMessageTemplate.NO_FIELD);
+    }
+
+    @Benchmark
+    public long encoder()
+    {
+        final UtcTimestampEncoder timestampEncoder = this.timestampEncoder;
+        final HeaderEncoder header = heartbeat.header();
+        header.sendingTime(timestampEncoder.buffer(), timestampEncoder.update(System.currentTimeMillis()));
+        header.msgSeqNum(++msgSeqNum);
+        return heartbeat.encode(buffer, 0);
+    }
+
+    @Benchmark
+    public long template()
+    {
+        final UtcTimestampEncoder timestampEncoder = this.timestampEncoder;
+        final int sendingTimeLength = timestampEncoder.update(System.currentTimeMillis());
+        return template.encode(buffer, 0, ++msgSeqNum, timestampEncoder.buffer(), sendingTimeLength, 0);
+    }
+}
@@ -21,6 +21,7 @@ import org.agrona.concurrent.YieldingIdleStrategy;
 
 import static io.aeron.CommonContext.IPC_CHANNEL;
 import static uk.co.real_logic.artio.CommonConfiguration.backoffIdleStrategy;
+import static uk.co.real_logic.artio.replication.ClusterConfiguration.DEFAULT_ACKNOWLEDGEMENT_BATCH_SIZE_IN_BYTES;
 
 public final class BenchmarkConfiguration
 {
@@ -37,6 +38,14 @@ public final class BenchmarkConfiguration
     public static final int MAX_MESSAGES_IN_FLIGHT = Integer.getInteger("fix.benchmark.max_messages_in_flight", 20);
     public static final int SEND_RATE_PER_SECOND = Integer.getInteger("fix.benchmark.send_rate_sec", 1_000);
     public static final int NUMBER_OF_SESSIONS = Integer.getInteger("fix.benchmark.num_sessions", 1);
+    public static final int AUTHENTICATION_DELAY_IN_MS =
+        Integer.getInteger("fix.benchmark.authentication_delay_ms", 0);
+    public static final boolean BLOCKING_AUTHENTICATION = Boolean.getBoolean("fix.benchmark.blocking_authentication");
+    public static final int LOGON_STORM_SIZE = Integer.getInteger("fix.benchmark.logon_storm_size", 1_000);
+    public static final int CLUSTER_PORT = Integer.getInteger("fix.benchmark.cluster_port", 40_400);
+    public static final int CLUSTER_MESSAGE_LENGTH = Integer.getInteger("fix.benchmark.cluster_message_length", 64);
+    public static final int CLUSTER_ACKNOWLEDGEMENT_BATCH_SIZE = Integer.getInteger(
+        "fix.benchmark.cluster_acknowledgement_batch_size", DEFAULT_ACKNOWLEDGEMENT_BATCH_SIZE_IN_BYTES);
 
     static IdleStrategy idleStrategy()
     {
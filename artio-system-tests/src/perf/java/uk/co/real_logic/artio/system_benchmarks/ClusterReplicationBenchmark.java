@@ -0,0 +1,326 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.system_benchmarks;
+
+import io.aeron.Aeron;
+import io.aeron.driver.MediaDriver;
+import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import io.aeron.logbuffer.ExclusiveBufferClaim;
+import org.HdrHistogram.Histogram;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.IntHashSet;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.CountersManager;
+import uk.co.real_logic.artio.engine.CompletionPosition;
+import uk.co.real_logic.artio.engine.logger.ArchiveMetaData;
+import uk.co.real_logic.artio.engine.logger.ArchiveReader;
+import uk.co.real_logic.artio.engine.logger.Archiver;
+import uk.co.real_logic.artio.engine.logger.LoggerUtil;
+import uk.co.real_logic.artio.replication.*;
+import uk.co.real_logic.artio.timing.HistogramLogReader;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import static io.aeron.driver.ThreadingMode.SHARED;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.agrona.BitUtil.SIZE_OF_SHORT;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_LOGGER_CACHE_NUM_SETS;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_LOGGER_CACHE_SET_SIZE;
+import static uk.co.real_logic.artio.replication.ClusterConfiguration.DEFAULT_DATA_STREAM_ID;
+import static uk.co.real_logic.artio.replication.ReservedValue.NO_FILTER;
+import static uk.co.real_logic.artio.system_benchmarks.BenchmarkConfiguration.*;
+
+/**
+ * Measures the latency and throughput of replicating messages through a local cluster, each node having its own
+ * media driver and running on its own thread.
+ *
+ * The latency of a message is the time between the leader publishing it and it being committed, ie: acknowledged
+ * by a quorum of the cluster and readable from the leader's cluster subscription. The cluster sizes to run are
+ * passed as arguments and default to 3 and 5 nodes.
+ */
+public final class ClusterReplicationBenchmark
+{
+    private static final int CLUSTER_STREAM_ID = 1;
+    private static final long TIMEOUT_INTERVAL_IN_MS = 1_000;
+    private static final String CHANNEL_PREFIX = "aeron:udp?endpoint=224.0.1.1:";
+
+    public static void main(final String[] args)
+    {
+        final int[] clusterSizes = args.length == 0 ? new int[]{ 3, 5 } : new int[args.length];
+        for (int i = 0; i < args.length; i++)
+        {
+            clusterSizes[i] = Integer.parseInt(args[i]);
+        }
+
+        for (final int clusterSize : clusterSizes)
+        {
+            runBenchmark(clusterSize);
+        }
+    }
+
+    private static void runBenchmark(final int clusterSize)
+    {
+        final String channel = CHANNEL_PREFIX + (CLUSTER_PORT + clusterSize);
+        final List<Node> nodes = new ArrayList<>();
+        final List<AgentRunner> runners = new ArrayList<>();
+        try
+        {
+            for (int nodeId = 1; nodeId <= clusterSize; nodeId++)
+            {
+                final Node node = new Node(nodeId, clusterSize, channel);
+                nodes.add(node);
+                final AgentRunner runner = new AgentRunner(idleStrategy(), Throwable::printStackTrace, null, node);
+                runners.add(runner);
+                AgentRunner.startOnThread(runner);
+            }
+
+            final Node leader = awaitLeader(nodes);
+            System.out.printf("%d node cluster elected node %d as leader%n", clusterSize, leader.nodeId);
+
+            leader.startPublishing();
+            while (!leader.hasCompleted())
+            {
+                LockSupport.parkNanos(MILLISECONDS.toNanos(10));
+            }
+
+            leader.printResults(clusterSize);
+        }
+        finally
+        {
+            runners.forEach(CloseHelper::close);
+        }
+    }
+
+    private static Node awaitLeader(final List<Node> nodes)
+    {
+        while (true)
+        {
+            for (final Node node : nodes)
+            {
+                if (node.isLeader())
+                {
+                    return node;
+                }
+            }
+
+            LockSupport.parkNanos(MILLISECONDS.toNanos(10));
+        }
+    }
+
+    private static final class Node implements Agent, ClusterFragmentHandler
+    {
+        private final ExclusiveBufferClaim bufferClaim = new ExclusiveBufferClaim();
+        private final Histogram histogram = new Histogram(3);
+        private final CompletionPosition completionPosition = new CompletionPosition();
+        private final int nodeId;
+        private final MediaDriver mediaDriver;
+        private final Aeron aeron;
+        private final ClusterAgent clusterAgent;
+        private final ClusterablePublication publication;
+        private final ClusterableSubscription subscription;
+
+        private volatile boolean isLeader;
+        private volatile boolean publishing;
+        private volatile boolean completed;
+
+        private int sent;
+        private int received;
+        private long startTimeInNs;
+        private long durationInNs;
+
+        Node(final int nodeId, final int clusterSize, final String channel)
+        {
+            this.nodeId = nodeId;
+
+            final String logFileDir = IoUtil.tmpDirName() + "cluster-replication-benchmark-" + nodeId;
+            IoUtil.delete(new File(logFileDir), true);
+
+            mediaDriver = MediaDriver.launch(new MediaDriver.Context()
+                .threadingMode(SHARED)
+                .dirDeleteOnStart(true)
+                .aeronDirectoryName(IoUtil.tmpDirName() + "cluster-replication-benchmark-aeron-" + nodeId));
+            aeron = Aeron.connect(new Aeron.Context().aeronDirectoryName(mediaDriver.aeronDirectoryName()));
+
+            final IntHashSet otherNodes = new IntHashSet();
+            for (int otherNodeId = 1; otherNodeId <= clusterSize; otherNodeId++)
+            {
+                if (otherNodeId != nodeId)
+                {
+                    otherNodes.add(otherNodeId);
+                }
+            }
+
+            final StreamIdentifier dataStream = new StreamIdentifier(channel, DEFAULT_DATA_STREAM_ID);
+            final ArchiveMetaData metaData = LoggerUtil.newArchiveMetaData(logFileDir);
+            final ArchiveReader archiveReader = new ArchiveReader(
+                metaData, DEFAULT_LOGGER_CACHE_NUM_SETS, DEFAULT_LOGGER_CACHE_SET_SIZE, dataStream, NO_FILTER);
+            final Archiver archiver = new Archiver(
+                metaData, DEFAULT_LOGGER_CACHE_NUM_SETS, DEFAULT_LOGGER_CACHE_SET_SIZE, dataStream, nodeId + "-",
+                completionPosition);
+            final CountersManager countersManager = new CountersManager(
+                new UnsafeBuffer(new byte[64 * 1024]), new UnsafeBuffer(new byte[16 * 1024]));
+            final UnsafeBuffer nodeState = new UnsafeBuffer(new byte[SIZE_OF_SHORT]);
+            nodeState.putShort(0, (short)nodeId);
+
+            final ClusterConfiguration configuration = new ClusterConfiguration()
+                .nodeId((short)nodeId)
+                .aeron(aeron)
+                .otherNodes(otherNodes)
+                .timeoutIntervalInMs(TIMEOUT_INTERVAL_IN_MS)
+                .acknowledgementBatchSizeInBytes(CLUSTER_ACKNOWLEDGEMENT_BATCH_SIZE)
+                .failCounter(countersManager.newCounter("Failed Raft Publications"))
+                .aeronChannel(channel)
+                .archiver(archiver)
+                .archiveReaderSupplier(() -> archiveReader)
+                .nodeState(nodeState)
+                .nodeStateHandler(new NoOpNodeStateHandler())
+                .idleStrategy(idleStrategy());
+
+            clusterAgent = new ClusterAgent(configuration, System.currentTimeMillis());
+            final ClusterableStreams clusterStreams = clusterAgent.clusterStreams();
+            publication = clusterStreams.publication(CLUSTER_STREAM_ID, "benchmark");
+            subscription = clusterStreams.subscription(CLUSTER_STREAM_ID, "benchmark");
+        }
+
+        public int doWork()
+        {
+            int work = clusterAgent.doWork();
+            isLeader = clusterAgent.isLeader();
+
+            if (publishing)
+            {
+                work += subscription.poll(this, MAX_MESSAGES_IN_FLIGHT);
+                work += publish();
+            }
+
+            return work;
+        }
+
+        private int publish()
+        {
+            final int totalMessages = WARMUP_MESSAGES + MESSAGES_EXCHANGED;
+            int published = 0;
+            while (sent < totalMessages && sent - received < MAX_MESSAGES_IN_FLIGHT)
+            {
+                if (publication.tryClaim(CLUSTER_MESSAGE_LENGTH, bufferClaim) < 0)
+                {
+                    break;
+                }
+
+                final MutableDirectBuffer buffer = bufferClaim.buffer();
+                buffer.putLong(bufferClaim.offset(), System.nanoTime());
+                bufferClaim.commit();
+                sent++;
+                published++;
+            }
+
+            return published;
+        }
+
+        public Action onFragment(
+            final DirectBuffer buffer, final int offset, final int length, final ClusterHeader header)
+        {
+            final long timeInNs = System.nanoTime();
+            if (received == WARMUP_MESSAGES)
+            {
+                histogram.reset();
+                startTimeInNs = timeInNs;
+            }
+
+            histogram.recordValue(timeInNs - buffer.getLong(offset));
+            received++;
+
+            if (received == WARMUP_MESSAGES + MESSAGES_EXCHANGED)
+            {
+                durationInNs = timeInNs - startTimeInNs;
+                publishing = false;
+                completed = true;
+            }
+
+            return Action.CONTINUE;
+        }
+
+        boolean isLeader()
+        {
+            return isLeader;
+        }
+
+        void startPublishing()
+        {
+            publishing = true;
+        }
+
+        boolean hasCompleted()
+        {
+            return completed;
+        }
+
+        void printResults(final int clusterSize)
+        {
+            final long messagesPerSecond = MESSAGES_EXCHANGED * SECONDS.toNanos(1) / Math.max(1, durationInNs);
+            System.out.printf(
+                "%d node cluster replicated %d messages of %d bytes in %d ms, %d messages/s%n",
+                clusterSize,
+                MESSAGES_EXCHANGED,
+                CLUSTER_MESSAGE_LENGTH,
+                NANOSECONDS.toMillis(durationInNs),
+                messagesPerSecond);
+            HistogramLogReader.prettyPrint(
+                System.currentTimeMillis(), histogram, clusterSize + " node commit latency in micros", 1000);
+        }
+
+        public void onClose()
+        {
+            completionPosition.complete(new Long2LongHashMap(CompletionPosition.MISSING_VALUE));
+            clusterAgent.onClose();
+            CloseHelper.close(aeron);
+            CloseHelper.close(mediaDriver);
+            IoUtil.delete(new File(mediaDriver.aeronDirectoryName()), true);
+        }
+
+        public String roleName()
+        {
+            return "ClusterReplicationBenchmark-" + nodeId;
+        }
+    }
+
+    private static final class NoOpNodeStateHandler implements NodeStateHandler
+    {
+        public void onNewNodeState(
+            final short nodeId, final int aeronSessionId, final DirectBuffer nodeStateBuffer, final int nodeStateLength)
+        {
+        }
+
+        public void onNewLeader(final int leaderSessionId)
+        {
+        }
+
+        public void noLeader()
+        {
+        }
+    }
+}
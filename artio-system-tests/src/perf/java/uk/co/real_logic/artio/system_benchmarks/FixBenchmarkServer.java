@@ -83,6 +83,14 @@ public final class FixBenchmarkServer
         final EngineConfiguration configuration = new EngineConfiguration();
         configuration.printAeronStreamIdentifiers(true);
         setupAuthentication(configuration);
+        if (AUTHENTICATION_DELAY_IN_MS > 0)
+        {
+            System.out.printf(
+                "Using %s authentication that takes %d ms%n",
+                BLOCKING_AUTHENTICATION ? "blocking" : "asynchronous",
+                AUTHENTICATION_DELAY_IN_MS);
+            configuration.authenticationStrategy(new SlowAuthenticationStrategy());
+        }
 
         return configuration
             .bindTo("localhost", BenchmarkConfiguration.PORT)
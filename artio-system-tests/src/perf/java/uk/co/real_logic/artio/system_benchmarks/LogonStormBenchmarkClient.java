@@ -0,0 +1,118 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.system_benchmarks;
+
+import uk.co.real_logic.artio.builder.LogonEncoder;
+import uk.co.real_logic.artio.builder.TestRequestEncoder;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static uk.co.real_logic.artio.system_benchmarks.BenchmarkConfiguration.INITIATOR_ID;
+import static uk.co.real_logic.artio.system_benchmarks.BenchmarkConfiguration.LOGON_STORM_SIZE;
+
+/**
+ * Sends a burst of logons while measuring the round trip time of test requests on a session that is already
+ * logged on. Run against a {@link FixBenchmarkServer} with a slow authentication strategy configured in order to
+ * see whether authenticating the burst stalls the other sessions.
+ */
+public final class LogonStormBenchmarkClient extends AbstractBenchmarkClient
+{
+    public static void main(final String[] args) throws IOException
+    {
+        new LogonStormBenchmarkClient().runBenchmark();
+    }
+
+    public void runBenchmark() throws IOException
+    {
+        try (SocketChannel loggedOnChannel = open())
+        {
+            logon(loggedOnChannel);
+            final TestRequestEncoder testRequest = setupTestRequest();
+
+            final SocketChannel[] stormChannels = new SocketChannel[LOGON_STORM_SIZE];
+            final boolean[] hasReplied = new boolean[LOGON_STORM_SIZE];
+            try
+            {
+                final long startTime = System.nanoTime();
+                for (int i = 0; i < LOGON_STORM_SIZE; i++)
+                {
+                    stormChannels[i] = open();
+                    sendLogon(stormChannels[i], INITIATOR_ID + i);
+                }
+
+                int seqNum = 2;
+                int replies = 0;
+                long roundTrips = 0;
+                long totalRoundTripInNs = 0;
+                long maxRoundTripInNs = 0;
+                while (replies < LOGON_STORM_SIZE)
+                {
+                    final long sendTime = System.nanoTime();
+                    write(loggedOnChannel, encode(testRequest, testRequest.header(), seqNum++));
+                    read(loggedOnChannel);
+                    final long roundTripInNs = System.nanoTime() - sendTime;
+                    roundTrips++;
+                    totalRoundTripInNs += roundTripInNs;
+                    maxRoundTripInNs = Math.max(maxRoundTripInNs, roundTripInNs);
+
+                    for (int i = 0; i < LOGON_STORM_SIZE; i++)
+                    {
+                        if (!hasReplied[i])
+                        {
+                            readBuffer.clear();
+                            if (stormChannels[i].read(readBuffer) != 0)
+                            {
+                                hasReplied[i] = true;
+                                replies++;
+                            }
+                        }
+                    }
+                }
+
+                final long durationInNs = System.nanoTime() - startTime;
+                System.out.printf(
+                    "%d logons replied to in %d ms%n", LOGON_STORM_SIZE, NANOSECONDS.toMillis(durationInNs));
+                System.out.printf(
+                    "%d test requests during the logons, mean round trip %d us, max round trip %d us%n",
+                    roundTrips,
+                    NANOSECONDS.toMicros(totalRoundTripInNs / roundTrips),
+                    NANOSECONDS.toMicros(maxRoundTripInNs));
+            }
+            finally
+            {
+                for (final SocketChannel stormChannel : stormChannels)
+                {
+                    if (stormChannel != null)
+                    {
+                        stormChannel.close();
+                    }
+                }
+            }
+        }
+    }
+
+    private void sendLogon(final SocketChannel socketChannel, final String initiatorId) throws IOException
+    {
+        final LogonEncoder logon = new LogonEncoder();
+        logon.heartBtInt(10);
+        setupHeader(initiatorId, logon.header()).msgSeqNum(1);
+        timestampEncoder.encode(System.currentTimeMillis());
+
+        write(socketChannel, logon.encode(writeFlyweight, 0));
+    }
+}
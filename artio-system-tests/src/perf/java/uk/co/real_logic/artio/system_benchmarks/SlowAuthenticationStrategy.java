@@ -0,0 +1,74 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.system_benchmarks;
+
+import uk.co.real_logic.artio.decoder.LogonDecoder;
+import uk.co.real_logic.artio.validation.AuthenticationProxy;
+import uk.co.real_logic.artio.validation.AuthenticationStrategy;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static uk.co.real_logic.artio.system_benchmarks.BenchmarkConfiguration.AUTHENTICATION_DELAY_IN_MS;
+import static uk.co.real_logic.artio.system_benchmarks.BenchmarkConfiguration.BLOCKING_AUTHENTICATION;
+import static uk.co.real_logic.artio.system_benchmarks.BenchmarkConfiguration.REJECT_LOGON;
+
+/**
+ * Simulates an authentication strategy that consults a slow external service, either blocking the framer thread
+ * or completing the authentication later from another thread.
+ */
+final class SlowAuthenticationStrategy implements AuthenticationStrategy
+{
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+        (runnable) ->
+        {
+            final Thread thread = new Thread(runnable, "SlowAuthenticationStrategy");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    public boolean authenticate(final LogonDecoder logon)
+    {
+        LockSupport.parkNanos(MILLISECONDS.toNanos(AUTHENTICATION_DELAY_IN_MS));
+        return !REJECT_LOGON;
+    }
+
+    public void authenticateAsync(final LogonDecoder logon, final AuthenticationProxy authProxy)
+    {
+        if (BLOCKING_AUTHENTICATION)
+        {
+            AuthenticationStrategy.super.authenticateAsync(logon, authProxy);
+            return;
+        }
+
+        executor.schedule(
+            () ->
+            {
+                if (REJECT_LOGON)
+                {
+                    authProxy.reject();
+                }
+                else
+                {
+                    authProxy.accept();
+                }
+            },
+            AUTHENTICATION_DELAY_IN_MS,
+            MILLISECONDS);
+    }
+}
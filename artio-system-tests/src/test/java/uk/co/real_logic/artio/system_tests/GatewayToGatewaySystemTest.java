@@ -78,6 +78,17 @@ public class GatewayToGatewaySystemTest extends AbstractGatewayToGatewaySystemTe
         assertInitiatingSequenceIndexIs(0);
     }
 
+    @Test
+    public void claimedMessagesCanBeSentFromInitiatorToAcceptor()
+    {
+        final String testReqID = testReqId();
+        claimTestRequest(initiatingSession, testReqID);
+
+        assertReceivedSingleHeartbeat(testSystem, initiatingOtfAcceptor, testReqID);
+
+        messagesCanBeExchanged();
+    }
+
     @Test
     public void messagesCanBeSentFromInitiatorToAcceptingLibrary()
     {
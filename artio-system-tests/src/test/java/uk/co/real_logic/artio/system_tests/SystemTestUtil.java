@@ -21,8 +21,10 @@ import org.agrona.concurrent.YieldingIdleStrategy;
 import org.hamcrest.Matcher;
 import uk.co.real_logic.artio.CommonConfiguration;
 import uk.co.real_logic.artio.Reply;
+import uk.co.real_logic.artio.builder.Encoder;
 import uk.co.real_logic.artio.builder.TestRequestEncoder;
 import uk.co.real_logic.artio.decoder.Constants;
+import uk.co.real_logic.artio.decoder.TestRequestDecoder;
 import uk.co.real_logic.artio.engine.EngineConfiguration;
 import uk.co.real_logic.artio.engine.FixEngine;
 import uk.co.real_logic.artio.engine.LowResourceEngineScheduler;
@@ -31,7 +33,10 @@ import uk.co.real_logic.artio.library.FixLibrary;
 import uk.co.real_logic.artio.library.LibraryConfiguration;
 import uk.co.real_logic.artio.library.SessionConfiguration;
 import uk.co.real_logic.artio.messages.SessionReplyStatus;
+import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
+import uk.co.real_logic.artio.session.CompositeKey;
 import uk.co.real_logic.artio.session.Session;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 import uk.co.real_logic.artio.validation.AuthenticationStrategy;
 import uk.co.real_logic.artio.validation.MessageValidationStrategy;
 
@@ -115,6 +120,32 @@ public final class SystemTestUtil
         return position;
     }
 
+    static long claimTestRequest(final Session session, final String testReqID)
+    {
+        assertEventuallyTrue("Session not connected", session::isConnected);
+
+        final CompositeKey compositeKey = session.compositeKey();
+        final UtcTimestampEncoder timestampEncoder = new UtcTimestampEncoder();
+        final TestRequestEncoder testRequest = new TestRequestEncoder();
+        testRequest.testReqID(testReqID);
+        testRequest.header()
+            .senderCompID(compositeKey.localCompId())
+            .targetCompID(compositeKey.remoteCompId())
+            .msgSeqNum(session.lastSentMsgSeqNum() + 1)
+            .sendingTime(timestampEncoder.buffer(), timestampEncoder.encode(System.currentTimeMillis()));
+
+        final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[1024]);
+        final long result = testRequest.encode(buffer, 0);
+        final int length = Encoder.length(result);
+
+        final long position = session.tryClaim(length, TestRequestDecoder.MESSAGE_TYPE);
+        assertThat(position, greaterThan(0L));
+        assertEquals(session.lastSentMsgSeqNum(), session.claimSeqNum());
+
+        session.claimBuffer().putBytes(session.claimOffset(), buffer, Encoder.offset(result), length);
+        return session.commit();
+    }
+
     private static void assertReceivedTestRequest(
         final TestSystem testSystem, final FakeOtfAcceptor acceptor, final String testReqId)
     {